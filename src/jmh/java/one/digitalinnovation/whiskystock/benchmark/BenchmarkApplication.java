@@ -0,0 +1,110 @@
+package one.digitalinnovation.whiskystock.benchmark;
+
+import one.digitalinnovation.whiskystock.WhiskystockApplication;
+import one.digitalinnovation.whiskystock.dto.WhiskyDTO;
+import one.digitalinnovation.whiskystock.enums.WhiskyType;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.LongSupplier;
+
+final class BenchmarkApplication {
+
+    private BenchmarkApplication () {
+    }
+
+    static ConfigurableApplicationContext start (WebApplicationType webApplicationType, String... properties) {
+        return builder (webApplicationType, properties).run ();
+    }
+
+    /**
+     * Starts the application with every JDBC connection held for {@code latencyMs} after it is
+     * borrowed from the pool, simulating a slow database.
+     */
+    static ConfigurableApplicationContext startWithJdbcLatency (long latencyMs, String... properties) {
+        return startWithJdbcLatency (() -> latencyMs, properties);
+    }
+
+    /**
+     * Like {@link #startWithJdbcLatency(long, String...)}, with the latency read on every borrow so
+     * a slowdown can be injected into a running application.
+     */
+    static ConfigurableApplicationContext startWithJdbcLatency (LongSupplier latencyMs, String... properties) {
+        return builder (WebApplicationType.SERVLET, properties)
+                .initializers (context -> context.getBeanFactory ().addBeanPostProcessor (new BeanPostProcessor () {
+
+                    @Override
+                    public Object postProcessAfterInitialization (Object bean, String beanName) {
+                        return bean instanceof DataSource ? new SlowDataSource ((DataSource) bean, latencyMs) : bean;
+                    }
+                }))
+                .run ();
+    }
+
+    private static SpringApplicationBuilder builder (WebApplicationType webApplicationType, String... properties) {
+        System.setProperty ("spring.devtools.restart.enabled", "false");
+        List<String> allProperties = new ArrayList<> (Arrays.asList (
+                "spring.datasource.url=jdbc:h2:mem:benchmark-" + UUID.randomUUID () + ";DB_CLOSE_DELAY=-1",
+                "spring.main.banner-mode=off",
+                "server.port=0",
+                "logging.level.root=WARN"));
+        allProperties.addAll (Arrays.asList (properties));
+        return new SpringApplicationBuilder (WhiskystockApplication.class)
+                .web (webApplicationType)
+                .properties (allProperties.toArray (new String[0]));
+    }
+
+    static WhiskyDTO whisky (long id, String name) {
+        return WhiskyDTO.builder ()
+                .id (id)
+                .name (name)
+                .brand ("Scotland")
+                .max (1_000_000)
+                .quantity (500_000)
+                .type (WhiskyType.values ()[(int) (id % WhiskyType.values ().length)])
+                .build ();
+    }
+
+    static List<WhiskyDTO> whiskies (int size) {
+        List<WhiskyDTO> whiskies = new ArrayList<> (size);
+        for (int i = 1; i <= size; i++) {
+            whiskies.add (whisky (i, "Whisky " + i));
+        }
+        return whiskies;
+    }
+
+    private static final class SlowDataSource extends DelegatingDataSource {
+
+        private final LongSupplier latencyMs;
+
+        private SlowDataSource (DataSource targetDataSource, LongSupplier latencyMs) {
+            super (targetDataSource);
+            this.latencyMs = latencyMs;
+        }
+
+        @Override
+        public Connection getConnection () throws SQLException {
+            Connection connection = super.getConnection ();
+            long delayMs = latencyMs.getAsLong ();
+            if (delayMs <= 0) {
+                return connection;
+            }
+            try {
+                Thread.sleep (delayMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread ().interrupt ();
+            }
+            return connection;
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package one.digitalinnovation.whiskystock.benchmark;
+
+import one.digitalinnovation.whiskystock.dto.CatalogSearchResultDTO;
+import one.digitalinnovation.whiskystock.dto.WhiskyDTO;
+import one.digitalinnovation.whiskystock.event.WhiskyChangedEvent;
+import one.digitalinnovation.whiskystock.service.CatalogSearchIndex;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Query latency of {@link CatalogSearchIndex} over a synthetic catalog of distillery,
+ * expression and age names, each with a serial number so that every name is distinct. The
+ * queries cover a short prefix, a selective prefix, a substring, a typo and a multi-word
+ * query; {@code bytesPerItem} is the heap the index retained per whisky after a full GC.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class CatalogSearchBenchmark {
+
+    private static final String[] DISTILLERIES = {
+            "Glenfiddich", "Glenlivet", "Glenmorangie", "Macallan", "Lagavulin", "Laphroaig", "Ardbeg",
+            "Talisker", "Dalmore", "Balvenie", "Bowmore", "Highland Park", "Oban", "Aberlour",
+            "Bruichladdich", "Springbank", "Auchentoshan", "Bunnahabhain", "Caol Ila", "Cragganmore",
+            "Jameson", "Redbreast", "Bushmills", "Tullamore", "Old Parr", "White Horse",
+            "Johnnie Walker", "Chivas Regal", "Royal Salute", "Ballantines", "Grants", "Dewars"
+    };
+
+    private static final String[] EXPRESSIONS = {
+            "Single Malt", "Double Wood", "Sherry Cask", "Port Wood", "Cask Strength", "Peated",
+            "Reserve", "Select", "Founders Reserve", "Black Barrel", "Distillers Edition",
+            "Quarter Cask", "Triple Wood", "Madeira Finish", "Bourbon Cask", "Signatory"
+    };
+
+    private static final String[] AGES = {"10", "12", "15", "16", "18", "21", "25", "30", "NAS"};
+
+    @Param({"100000", "1000000"})
+    private int size;
+
+    @Param({"gl", "glenmo", "morangie", "glenmorangi", "lagavulin 16"})
+    private String query;
+
+    private CatalogSearchIndex catalogSearchIndex;
+
+    private double bytesPerItem;
+
+    @Setup
+    public void setUp () {
+        long heapBefore = usedHeap ();
+        catalogSearchIndex = new CatalogSearchIndex (null, null);
+        Random random = new Random (42);
+        for (int i = 1; i <= size; i++) {
+            WhiskyDTO whisky = BenchmarkApplication.whisky (i, DISTILLERIES[random.nextInt (DISTILLERIES.length)]
+                    + " " + EXPRESSIONS[random.nextInt (EXPRESSIONS.length)]
+                    + " " + AGES[random.nextInt (AGES.length)]
+                    + " No " + i);
+            catalogSearchIndex.onWhiskyChanged (WhiskyChangedEvent.created (whisky));
+        }
+        bytesPerItem = (double) (usedHeap () - heapBefore) / size;
+    }
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Footprint {
+
+        public double bytesPerItem;
+
+        @Setup(Level.Iteration)
+        public void record (CatalogSearchBenchmark benchmark) {
+            bytesPerItem = benchmark.bytesPerItem;
+        }
+    }
+
+    @Benchmark
+    public CatalogSearchResultDTO search (Footprint footprint) {
+        return catalogSearchIndex.search (query, null, 10);
+    }
+
+    private static long usedHeap () {
+        Runtime runtime = Runtime.getRuntime ();
+        for (int i = 0; i < 3; i++) {
+            System.gc ();
+        }
+        return runtime.totalMemory () - runtime.freeMemory ();
+    }
+}
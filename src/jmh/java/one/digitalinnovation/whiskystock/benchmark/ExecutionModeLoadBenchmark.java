@@ -0,0 +1,116 @@
+package one.digitalinnovation.whiskystock.benchmark;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Load test for the request execution modes. Each invocation sends a burst of concurrent
+ * requests to a server with a small Tomcat pool and a slow database, and waits for all of them.
+ * In sync mode the burst queues on container threads blocked on JDBC; in async mode the
+ * requests over the connection pool size are parked without a thread. The adaptive read limit
+ * is turned off so the whole burst reaches the execution mode under test.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ExecutionModeLoadBenchmark {
+
+    private static final long JDBC_LATENCY_MS = 20;
+
+    @Param({"sync", "async"})
+    public String mode;
+
+    @Param({"1000"})
+    public int concurrentRequests;
+
+    private ConfigurableApplicationContext context;
+
+    private HttpClient httpClient;
+
+    private HttpRequest request;
+
+    @Setup(Level.Trial)
+    public void setUp () {
+        context = BenchmarkApplication.startWithJdbcLatency (JDBC_LATENCY_MS,
+                "whisky.web.execution-mode=" + mode,
+                "whisky.web.max-concurrency=10",
+                "whisky.web.read-limit.enabled=false",
+                "spring.datasource.hikari.maximum-pool-size=10",
+                "server.tomcat.threads.max=50",
+                "server.tomcat.accept-count=2000");
+        int port = ((WebServerApplicationContext) context).getWebServer ().getPort ();
+        httpClient = HttpClient.newBuilder ().connectTimeout (Duration.ofSeconds (30)).build ();
+        request = HttpRequest.newBuilder (URI.create ("http://localhost:" + port + "/api/v1/whiskies?afterId=0&limit=10"))
+                .timeout (Duration.ofSeconds (60))
+                .build ();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown () {
+        context.close ();
+    }
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Outcomes {
+
+        public long succeeded;
+
+        public long rejected;
+
+        public long failed;
+
+        @Setup(Level.Iteration)
+        public void reset () {
+            succeeded = 0;
+            rejected = 0;
+            failed = 0;
+        }
+    }
+
+    @Benchmark
+    public void burst (Outcomes outcomes) {
+        CompletableFuture<?>[] responses = new CompletableFuture<?>[concurrentRequests];
+        for (int i = 0; i < concurrentRequests; i++) {
+            responses[i] = httpClient.sendAsync (request, HttpResponse.BodyHandlers.discarding ())
+                    .handle ((response, error) -> {
+                        synchronized (outcomes) {
+                            if (error != null) {
+                                outcomes.failed++;
+                            } else if (response.statusCode () == 503) {
+                                outcomes.rejected++;
+                            } else {
+                                outcomes.succeeded++;
+                            }
+                        }
+                        return null;
+                    });
+        }
+        CompletableFuture.allOf (responses).join ();
+    }
+}
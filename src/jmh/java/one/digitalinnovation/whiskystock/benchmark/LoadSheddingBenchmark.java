@@ -0,0 +1,207 @@
+package one.digitalinnovation.whiskystock.benchmark;
+
+import one.digitalinnovation.whiskystock.dto.WhiskyDTO;
+import one.digitalinnovation.whiskystock.exception.WhiskyAlreadyRegisteredException;
+import one.digitalinnovation.whiskystock.service.WhiskyService;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Load test for the adaptive concurrency limits. {@code clients} virtual clients send requests
+ * back to back, one in {@code STOCK_CLIENT_EVERY} of them stock increments and the rest page
+ * reads, against a server with a small Tomcat pool. Each iteration runs them for
+ * {@code HEALTHY_PHASE} against a fast database and then for {@code SLOWDOWN_PHASE} with
+ * {@code SLOWDOWN_LATENCY_MS} injected on every JDBC connection. Shed clients wait as long as the
+ * {@code Retry-After} of the 503 asks before trying again.
+ * <p>
+ * The score is only the length of the iteration; the result is in the aux counters: p99 latency
+ * of the reads and stock mutations that succeeded during the slowdown, and how many requests
+ * succeeded, were shed or failed over the whole iteration. Without the limits the slowdown backs
+ * requests up on the Tomcat threads and the connection pool, and their p99 grows with the
+ * backlog; with them the excess is shed and p99 stays within a few database round trips.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(1)
+public class LoadSheddingBenchmark {
+
+    private static final Duration HEALTHY_PHASE = Duration.ofSeconds (3);
+    private static final Duration SLOWDOWN_PHASE = Duration.ofSeconds (5);
+    private static final long SLOWDOWN_LATENCY_MS = 50;
+    private static final int STOCK_CLIENT_EVERY = 5;
+
+    @Param({"false", "true"})
+    public boolean adaptiveLimit;
+
+    @Param({"200"})
+    public int clients;
+
+    private volatile long jdbcLatencyMs;
+
+    private ConfigurableApplicationContext context;
+
+    private HttpClient httpClient;
+
+    private HttpRequest readRequest;
+
+    private HttpRequest stockRequest;
+
+    @Setup(Level.Trial)
+    public void setUp () throws WhiskyAlreadyRegisteredException {
+        context = BenchmarkApplication.startWithJdbcLatency (() -> jdbcLatencyMs,
+                "whisky.web.read-limit.enabled=" + adaptiveLimit,
+                "whisky.web.stock-limit.enabled=" + adaptiveLimit,
+                "spring.datasource.hikari.maximum-pool-size=10",
+                "server.tomcat.threads.max=50",
+                "server.tomcat.accept-count=2000");
+        WhiskyDTO whisky = BenchmarkApplication.whisky (1L, "Old Parr");
+        whisky.setId (null);
+        Long id = context.getBean (WhiskyService.class).createWhisky (whisky).getId ();
+
+        String baseUrl = "http://localhost:" + ((WebServerApplicationContext) context).getWebServer ().getPort () + "/api/v1/whiskies";
+        httpClient = HttpClient.newBuilder ().connectTimeout (Duration.ofSeconds (30)).build ();
+        readRequest = HttpRequest.newBuilder (URI.create (baseUrl + "?afterId=0&limit=10"))
+                .timeout (Duration.ofSeconds (60))
+                .build ();
+        stockRequest = HttpRequest.newBuilder (URI.create (baseUrl + "/" + id + "/increment"))
+                .timeout (Duration.ofSeconds (60))
+                .header ("Content-Type", "application/json")
+                .method ("PATCH", HttpRequest.BodyPublishers.ofString ("{\"quantity\":0}"))
+                .build ();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown () {
+        context.close ();
+    }
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Outcomes {
+
+        public double readP99Ms;
+
+        public double stockP99Ms;
+
+        public long succeeded;
+
+        public long shed;
+
+        public long failed;
+
+        private final List<Long> readLatencies = new ArrayList<> ();
+
+        private final List<Long> stockLatencies = new ArrayList<> ();
+
+        private boolean slowingDown;
+
+        private long slowdownStart;
+
+        @Setup(Level.Iteration)
+        public void reset () {
+            readP99Ms = 0;
+            stockP99Ms = 0;
+            succeeded = 0;
+            shed = 0;
+            failed = 0;
+            readLatencies.clear ();
+            stockLatencies.clear ();
+            slowingDown = false;
+        }
+
+        /**
+         * Counts one response and returns how long its client waits before the next request.
+         */
+        private synchronized long record (boolean stock, long start, HttpResponse<?> response, Throwable error) {
+            if (error != null) {
+                failed++;
+                return 0;
+            }
+            if (response.statusCode () == 503) {
+                shed++;
+                return TimeUnit.SECONDS.toMillis (response.headers ().firstValueAsLong ("Retry-After").orElse (1));
+            }
+            succeeded++;
+            if (slowingDown && start - slowdownStart >= 0) {
+                (stock ? stockLatencies : readLatencies).add (System.nanoTime () - start);
+            }
+            return 0;
+        }
+
+        private synchronized void slowdownStarted () {
+            slowingDown = true;
+            slowdownStart = System.nanoTime ();
+        }
+
+        private synchronized void finish () {
+            readP99Ms = p99Ms (readLatencies);
+            stockP99Ms = p99Ms (stockLatencies);
+        }
+
+        private static double p99Ms (List<Long> latencies) {
+            if (latencies.isEmpty ()) {
+                return 0;
+            }
+            Collections.sort (latencies);
+            return latencies.get ((int) (latencies.size () * 0.99)) / 1e6;
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void slowdown (Outcomes outcomes) throws InterruptedException {
+        jdbcLatencyMs = 0;
+        long deadline = System.nanoTime () + HEALTHY_PHASE.plus (SLOWDOWN_PHASE).toNanos ();
+        CompletableFuture<?>[] running = new CompletableFuture<?>[clients];
+        for (int i = 0; i < clients; i++) {
+            running[i] = client (i % STOCK_CLIENT_EVERY == 0, deadline, outcomes);
+        }
+        Thread.sleep (HEALTHY_PHASE.toMillis ());
+        outcomes.slowdownStarted ();
+        jdbcLatencyMs = SLOWDOWN_LATENCY_MS;
+        CompletableFuture.allOf (running).join ();
+        jdbcLatencyMs = 0;
+        outcomes.finish ();
+    }
+
+    private CompletableFuture<Void> client (boolean stock, long deadline, Outcomes outcomes) {
+        if (System.nanoTime () - deadline >= 0) {
+            return CompletableFuture.completedFuture (null);
+        }
+        long start = System.nanoTime ();
+        return httpClient.sendAsync (stock ? stockRequest : readRequest, HttpResponse.BodyHandlers.discarding ())
+                .handle ((response, error) -> outcomes.record (stock, start, response, error))
+                .thenCompose (waitMs -> CompletableFuture.runAsync (() -> {
+                }, CompletableFuture.delayedExecutor (waitMs, TimeUnit.MILLISECONDS)))
+                .thenCompose (ignored -> client (stock, deadline, outcomes));
+    }
+}
@@ -0,0 +1,121 @@
+package one.digitalinnovation.whiskystock.benchmark;
+
+import one.digitalinnovation.whiskystock.dto.WhiskyDTO;
+import one.digitalinnovation.whiskystock.dto.WhiskyLocationStockDTO;
+import one.digitalinnovation.whiskystock.exception.WhiskyAlreadyRegisteredException;
+import one.digitalinnovation.whiskystock.exception.WhiskyNotFoundException;
+import one.digitalinnovation.whiskystock.exception.WhiskyStockExceededException;
+import one.digitalinnovation.whiskystock.service.LocationStockService;
+import one.digitalinnovation.whiskystock.service.WhiskyService;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Eight threads adjusting the stock of one whisky, spread round-robin over {@code locations}
+ * locations. With one location every thread contends on the same row; throughput should grow
+ * as the threads spread over more rows.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+public class LocationContentionBenchmark {
+
+    private static final int INITIAL_QUANTITY = 500_000;
+
+    @Param({"1", "2", "4", "8"})
+    private int locations;
+
+    private ConfigurableApplicationContext context;
+
+    private LocationStockService locationStockService;
+
+    private Long whiskyId;
+
+    private final AtomicInteger nextThread = new AtomicInteger ();
+
+    @Setup
+    public void setUp () throws WhiskyAlreadyRegisteredException, WhiskyNotFoundException, WhiskyStockExceededException {
+        context = BenchmarkApplication.start (WebApplicationType.NONE);
+        locationStockService = context.getBean (LocationStockService.class);
+        WhiskyDTO whisky = BenchmarkApplication.whisky (1L, "Old Parr");
+        whisky.setId (null);
+        whiskyId = context.getBean (WhiskyService.class).createWhisky (whisky).getId ();
+        for (int location = 0; location < locations; location++) {
+            locationStockService.adjust (whiskyId, location (location), INITIAL_QUANTITY);
+        }
+    }
+
+    @TearDown
+    public void tearDown () {
+        context.close ();
+    }
+
+    private static String location (int index) {
+        return "warehouse-" + index;
+    }
+
+    @State(Scope.Thread)
+    public static class Site {
+
+        private String location;
+
+        @Setup
+        public void setUp (LocationContentionBenchmark benchmark) {
+            location = location (benchmark.nextThread.getAndIncrement () % benchmark.locations);
+        }
+    }
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Outcomes {
+
+        public long rejected;
+
+        @Setup(Level.Iteration)
+        public void reset () {
+            rejected = 0;
+        }
+    }
+
+    @Benchmark
+    public WhiskyLocationStockDTO increment (Site site, Outcomes outcomes) throws WhiskyNotFoundException {
+        try {
+            return locationStockService.adjust (whiskyId, site.location, 1);
+        } catch (WhiskyStockExceededException e) {
+            outcomes.rejected++;
+            return null;
+        }
+    }
+
+    @Benchmark
+    public WhiskyLocationStockDTO decrement (Site site, Outcomes outcomes) throws WhiskyNotFoundException {
+        try {
+            return locationStockService.adjust (whiskyId, site.location, -1);
+        } catch (WhiskyStockExceededException e) {
+            outcomes.rejected++;
+            return null;
+        }
+    }
+}
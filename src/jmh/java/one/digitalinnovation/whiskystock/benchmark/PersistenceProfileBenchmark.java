@@ -0,0 +1,100 @@
+package one.digitalinnovation.whiskystock.benchmark;
+
+import one.digitalinnovation.whiskystock.dto.WhiskyDTO;
+import one.digitalinnovation.whiskystock.exception.WhiskyAlreadyRegisteredException;
+import one.digitalinnovation.whiskystock.exception.WhiskyNotFoundException;
+import one.digitalinnovation.whiskystock.exception.WhiskyStockExceededException;
+import one.digitalinnovation.whiskystock.service.WhiskyService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Throughput of the main {@link WhiskyService} operations against the default in-memory
+ * database and against the {@code durable} profile (file-backed H2 in a temporary directory).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class PersistenceProfileBenchmark {
+
+    private static final int CATALOG_SIZE = 1_000;
+
+    @Param({"memory", "durable"})
+    private String profile;
+
+    private ConfigurableApplicationContext context;
+
+    private WhiskyService whiskyService;
+
+    private Path dataDirectory;
+
+    private Long whiskyId;
+
+    private final AtomicLong createdWhiskies = new AtomicLong ();
+
+    @Setup
+    public void setUp () throws IOException, WhiskyAlreadyRegisteredException {
+        dataDirectory = Files.createTempDirectory ("whiskystock-benchmark");
+        context = BenchmarkApplication.start (WebApplicationType.NONE,
+                "spring.profiles.active=" + ("durable".equals (profile) ? "durable" : "default"),
+                "whisky.datasource.directory=" + dataDirectory.toAbsolutePath ());
+        whiskyService = context.getBean (WhiskyService.class);
+        List<WhiskyDTO> whiskies = BenchmarkApplication.whiskies (CATALOG_SIZE);
+        for (WhiskyDTO whisky : whiskies) {
+            whisky.setId (null);
+            Long id = whiskyService.createWhisky (whisky).getId ();
+            if (whiskyId == null) {
+                whiskyId = id;
+            }
+        }
+    }
+
+    @TearDown
+    public void tearDown () throws IOException {
+        context.close ();
+        FileSystemUtils.deleteRecursively (dataDirectory);
+    }
+
+    @Benchmark
+    public WhiskyDTO incrementThenDecrement () throws WhiskyNotFoundException, WhiskyStockExceededException {
+        whiskyService.increment (whiskyId, 1);
+        return whiskyService.decrement (whiskyId, 1);
+    }
+
+    @Benchmark
+    public List<WhiskyDTO> listPage () {
+        return whiskyService.listPage (whiskyId + CATALOG_SIZE / 2, 100);
+    }
+
+    @Benchmark
+    public WhiskyDTO create () throws WhiskyAlreadyRegisteredException {
+        WhiskyDTO whisky = BenchmarkApplication.whisky (0L, "Benchmark " + createdWhiskies.incrementAndGet ());
+        whisky.setId (null);
+        return whiskyService.createWhisky (whisky);
+    }
+}
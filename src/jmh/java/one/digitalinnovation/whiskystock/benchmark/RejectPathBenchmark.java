@@ -0,0 +1,101 @@
+package one.digitalinnovation.whiskystock.benchmark;
+
+import one.digitalinnovation.whiskystock.enums.StockAdjustmentStatus;
+import one.digitalinnovation.whiskystock.exception.WhiskyBusinessException;
+import one.digitalinnovation.whiskystock.exception.WhiskyNotFoundException;
+import one.digitalinnovation.whiskystock.service.StockAdjustment;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of rejecting an unknown whisky id from {@code depth} frames down, roughly where the
+ * service sits under the servlet and Spring MVC stack. Compares an exception that captures its
+ * stack trace and formats its message eagerly, the stackless lazily formatted domain exception,
+ * and the exception-free result type. Run with {@code -prof gc} to see the allocation rate.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RejectPathBenchmark {
+
+    @Param({"100"})
+    public int depth;
+
+    private long id = 42L;
+
+    @Setup
+    public void disableStackTraces () {
+        WhiskyBusinessException.setStackTraceEnabled (false);
+    }
+
+    @TearDown
+    public void restoreStackTraces () {
+        WhiskyBusinessException.setStackTraceEnabled (true);
+    }
+
+    @Benchmark
+    public String eagerExceptionWithStackTrace () {
+        try {
+            return rejectEagerly (depth);
+        } catch (EagerNotFoundException e) {
+            return StockAdjustmentStatus.NOT_FOUND.name ();
+        }
+    }
+
+    @Benchmark
+    public String stacklessException () {
+        try {
+            return rejectStackless (depth);
+        } catch (WhiskyNotFoundException e) {
+            return StockAdjustmentStatus.NOT_FOUND.name ();
+        }
+    }
+
+    @Benchmark
+    public String resultType () {
+        return rejectWithResult (depth).getStatus ().name ();
+    }
+
+    private String rejectEagerly (int remainingFrames) throws EagerNotFoundException {
+        if (remainingFrames == 0) {
+            throw new EagerNotFoundException (id);
+        }
+        return rejectEagerly (remainingFrames - 1);
+    }
+
+    private String rejectStackless (int remainingFrames) throws WhiskyNotFoundException {
+        if (remainingFrames == 0) {
+            throw new WhiskyNotFoundException (id);
+        }
+        return rejectStackless (remainingFrames - 1);
+    }
+
+    private StockAdjustment rejectWithResult (int remainingFrames) {
+        if (remainingFrames == 0) {
+            return StockAdjustment.notFound (id, 1);
+        }
+        return rejectWithResult (remainingFrames - 1);
+    }
+
+    private static final class EagerNotFoundException extends Exception {
+
+        private EagerNotFoundException (Long id) {
+            super (String.format ("Whisky with id %s not found in the system.", id));
+        }
+    }
+}
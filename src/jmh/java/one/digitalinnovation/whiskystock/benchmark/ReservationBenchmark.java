@@ -0,0 +1,133 @@
+package one.digitalinnovation.whiskystock.benchmark;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import one.digitalinnovation.whiskystock.dto.WhiskyDTO;
+import one.digitalinnovation.whiskystock.exception.ReservationNotFoundException;
+import one.digitalinnovation.whiskystock.exception.WhiskyAlreadyRegisteredException;
+import one.digitalinnovation.whiskystock.exception.WhiskyNotFoundException;
+import one.digitalinnovation.whiskystock.exception.WhiskyStockExceededException;
+import one.digitalinnovation.whiskystock.service.ReservationService;
+import one.digitalinnovation.whiskystock.service.WhiskyService;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hold throughput and expiry accuracy of {@link ReservationService}. {@code holdAndCommit} and
+ * {@code holdAndRelease} measure a full hold cycle from eight threads. {@code expire} places
+ * {@code holds} holds with a one second time to live and waits until the wheel has expired
+ * them all; its score is that wait, and the aux counters give how late the holds expired.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReservationBenchmark {
+
+    private static final Duration EXPIRY_TIME_TO_LIVE = Duration.ofSeconds (1);
+
+    @Param({"10ms", "100ms"})
+    private String tick;
+
+    @Param({"100000"})
+    private int holds;
+
+    private ConfigurableApplicationContext context;
+
+    private ReservationService reservationService;
+
+    private Timer expiryLateness;
+
+    private Long whiskyId;
+
+    @Setup
+    public void setUp () throws WhiskyAlreadyRegisteredException {
+        context = BenchmarkApplication.start (WebApplicationType.NONE, "whisky.reservation.tick=" + tick);
+        reservationService = context.getBean (ReservationService.class);
+        expiryLateness = context.getBean (MeterRegistry.class).get (ReservationService.EXPIRY_LATENESS_TIMER).timer ();
+        WhiskyDTO whisky = BenchmarkApplication.whisky (1L, "Old Parr");
+        whisky.setId (null);
+        whiskyId = context.getBean (WhiskyService.class).createWhisky (whisky).getId ();
+    }
+
+    @TearDown
+    public void tearDown () {
+        context.close ();
+    }
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Lateness {
+
+        public double meanMs;
+
+        public double maxMs;
+
+        private long countBefore;
+
+        private double totalMsBefore;
+
+        @Setup(Level.Iteration)
+        public void reset (ReservationBenchmark benchmark) {
+            countBefore = benchmark.expiryLateness.count ();
+            totalMsBefore = benchmark.expiryLateness.totalTime (TimeUnit.MILLISECONDS);
+            meanMs = 0;
+            maxMs = 0;
+        }
+
+        private void record (Timer expiryLateness) {
+            long expired = expiryLateness.count () - countBefore;
+            meanMs = expired == 0 ? 0 : (expiryLateness.totalTime (TimeUnit.MILLISECONDS) - totalMsBefore) / expired;
+            maxMs = expiryLateness.max (TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Benchmark
+    @Threads(8)
+    public WhiskyDTO holdAndCommit () throws WhiskyNotFoundException, WhiskyStockExceededException, ReservationNotFoundException {
+        return reservationService.commit (reservationService.reserve (whiskyId, 1, null).getId ());
+    }
+
+    @Benchmark
+    @Threads(8)
+    public void holdAndRelease () throws WhiskyNotFoundException, WhiskyStockExceededException, ReservationNotFoundException {
+        reservationService.release (reservationService.reserve (whiskyId, 1, null).getId ());
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 1)
+    @Measurement(iterations = 5)
+    @Threads(1)
+    public int expire (Lateness lateness) throws WhiskyNotFoundException, WhiskyStockExceededException, InterruptedException {
+        for (int i = 0; i < holds; i++) {
+            reservationService.reserve (whiskyId, 1, EXPIRY_TIME_TO_LIVE);
+        }
+        while (reservationService.holdCount () > 0) {
+            Thread.sleep (1);
+        }
+        lateness.record (expiryLateness);
+        return reservationService.holdCount ();
+    }
+}
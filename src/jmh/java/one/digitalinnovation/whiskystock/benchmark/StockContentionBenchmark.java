@@ -0,0 +1,104 @@
+package one.digitalinnovation.whiskystock.benchmark;
+
+import one.digitalinnovation.whiskystock.dto.WhiskyDTO;
+import one.digitalinnovation.whiskystock.exception.WhiskyAlreadyRegisteredException;
+import one.digitalinnovation.whiskystock.exception.WhiskyStockConflictException;
+import one.digitalinnovation.whiskystock.service.StockAdjustment;
+import one.digitalinnovation.whiskystock.service.WhiskyService;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Several threads hammering the same whisky id, comparing the optimistic read-modify-write
+ * path (with retries) against the single conditional UPDATE path. Each thread alternates
+ * increments and decrements, half of them starting with each, so the quantity stays within a
+ * few bottles of where it started however long an iteration runs; rejections are counted
+ * rather than thrown, should the bounds ever be reached.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+public class StockContentionBenchmark {
+
+    @Param({"optimistic", "atomic", "ledger"})
+    private String mode;
+
+    private ConfigurableApplicationContext context;
+
+    private WhiskyService whiskyService;
+
+    private Long whiskyId;
+
+    @Setup
+    public void setUp () throws WhiskyAlreadyRegisteredException {
+        context = BenchmarkApplication.start (WebApplicationType.NONE, "whisky.stock.mode=" + mode);
+        whiskyService = context.getBean (WhiskyService.class);
+        WhiskyDTO whisky = BenchmarkApplication.whisky (1L, "Old Parr");
+        whisky.setId (null);
+        whiskyId = whiskyService.createWhisky (whisky).getId ();
+    }
+
+    @TearDown
+    public void tearDown () {
+        context.close ();
+    }
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Outcomes {
+
+        private static final AtomicInteger THREADS = new AtomicInteger ();
+
+        public long conflicts;
+
+        public long exceeded;
+
+        private boolean incrementNext = THREADS.getAndIncrement () % 2 == 0;
+
+        @Setup(Level.Iteration)
+        public void reset () {
+            conflicts = 0;
+            exceeded = 0;
+        }
+    }
+
+    @Benchmark
+    public StockAdjustment adjust (Outcomes outcomes) {
+        boolean increment = outcomes.incrementNext;
+        outcomes.incrementNext = !increment;
+        try {
+            StockAdjustment adjustment = increment
+                    ? whiskyService.tryIncrement (whiskyId, 1)
+                    : whiskyService.tryDecrement (whiskyId, 1);
+            if (!adjustment.isApplied ()) {
+                outcomes.exceeded++;
+            }
+            return adjustment;
+        } catch (WhiskyStockConflictException e) {
+            outcomes.conflicts++;
+            return null;
+        }
+    }
+}
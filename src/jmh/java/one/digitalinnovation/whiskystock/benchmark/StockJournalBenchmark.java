@@ -0,0 +1,67 @@
+package one.digitalinnovation.whiskystock.benchmark;
+
+import one.digitalinnovation.whiskystock.enums.WhiskyChangeType;
+import one.digitalinnovation.whiskystock.journal.StockJournal;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Append throughput of the stock movement journal. The target is well above 100k events/sec
+ * with group commit every 10ms.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(4)
+@Fork(1)
+public class StockJournalBenchmark {
+
+    @Param({"10"})
+    public long flushIntervalMs;
+
+    private Path directory;
+
+    private StockJournal stockJournal;
+
+    @Setup(Level.Trial)
+    public void setUp () throws IOException {
+        directory = Files.createTempDirectory ("stock-journal-benchmark");
+        stockJournal = new StockJournal (directory, 64L * 1024 * 1024, flushIntervalMs, 1_000_000);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown () throws IOException {
+        stockJournal.close ();
+        try (Stream<Path> files = Files.walk (directory)) {
+            files.sorted (Comparator.reverseOrder ()).forEach (path -> path.toFile ().delete ());
+        }
+    }
+
+    @Benchmark
+    public long append () {
+        ThreadLocalRandom random = ThreadLocalRandom.current ();
+        return stockJournal.append (WhiskyChangeType.UPDATED, random.nextInt (10_000), 1, random.nextInt (1_000));
+    }
+}
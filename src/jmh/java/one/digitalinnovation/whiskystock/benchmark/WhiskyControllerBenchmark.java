@@ -0,0 +1,111 @@
+package one.digitalinnovation.whiskystock.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import one.digitalinnovation.whiskystock.dto.WhiskyDTO;
+import one.digitalinnovation.whiskystock.dto.WhiskyQuantityDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * Whisky API through the full MVC stack. The {@code NotModified} variants poll with the ETag
+ * of the previous response, which is answered with a 304 before any repository call.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WhiskyControllerBenchmark {
+
+    private static final String WHISKY_API_URL_PATH = "/api/v1/whiskies";
+
+    private ConfigurableApplicationContext context;
+
+    private MockMvc mockMvc;
+
+    private String incrementPath;
+
+    private byte[] quantityBody;
+
+    private String whiskyETag;
+
+    private String catalogETag;
+
+    @Setup
+    public void setUp () throws Exception {
+        context = BenchmarkApplication.start (WebApplicationType.SERVLET);
+        mockMvc = MockMvcBuilders.webAppContextSetup ((WebApplicationContext) context).build ();
+        ObjectMapper objectMapper = context.getBean (ObjectMapper.class);
+
+        WhiskyDTO whisky = BenchmarkApplication.whisky (1L, "Old Parr");
+        whisky.setId (null);
+        whisky.setMax (500);
+        whisky.setQuantity (0);
+        MvcResult created = mockMvc.perform (post (WHISKY_API_URL_PATH)
+                .contentType (MediaType.APPLICATION_JSON)
+                .content (objectMapper.writeValueAsBytes (whisky)))
+                .andReturn ();
+        Long id = objectMapper.readValue (created.getResponse ().getContentAsByteArray (), WhiskyDTO.class).getId ();
+        incrementPath = WHISKY_API_URL_PATH + "/" + id + "/increment";
+        quantityBody = objectMapper.writeValueAsBytes (new WhiskyQuantityDTO (0));
+        whiskyETag = findByName ().getResponse ().getHeader (HttpHeaders.ETAG);
+        catalogETag = listWhisky ().getResponse ().getHeader (HttpHeaders.ETAG);
+    }
+
+    @TearDown
+    public void tearDown () {
+        context.close ();
+    }
+
+    @Benchmark
+    public MvcResult findByName () throws Exception {
+        return mockMvc.perform (get (WHISKY_API_URL_PATH + "/Old Parr")).andReturn ();
+    }
+
+    @Benchmark
+    public MvcResult listWhisky () throws Exception {
+        return mockMvc.perform (get (WHISKY_API_URL_PATH)).andReturn ();
+    }
+
+    @Benchmark
+    public MvcResult findByNameNotModified () throws Exception {
+        return mockMvc.perform (get (WHISKY_API_URL_PATH + "/Old Parr").header (HttpHeaders.IF_NONE_MATCH, whiskyETag)).andReturn ();
+    }
+
+    @Benchmark
+    public MvcResult listWhiskyNotModified () throws Exception {
+        return mockMvc.perform (get (WHISKY_API_URL_PATH).header (HttpHeaders.IF_NONE_MATCH, catalogETag)).andReturn ();
+    }
+
+    @Benchmark
+    public MvcResult increment () throws Exception {
+        return mockMvc.perform (patch (incrementPath)
+                .contentType (MediaType.APPLICATION_JSON)
+                .content (quantityBody))
+                .andReturn ();
+    }
+}
@@ -0,0 +1,86 @@
+package one.digitalinnovation.whiskystock.benchmark;
+
+import one.digitalinnovation.whiskystock.dto.WhiskyImportResultDTO;
+import one.digitalinnovation.whiskystock.enums.ImportFormat;
+import one.digitalinnovation.whiskystock.enums.WhiskyType;
+import one.digitalinnovation.whiskystock.service.WhiskyImportService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Imports a generated catalog into an empty H2 database. Each measured import runs against a
+ * fresh application context so every row is a new insert.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class WhiskyImportBenchmark {
+
+    @Param({"1000000"})
+    public int rows;
+
+    @Param({"CSV", "NDJSON"})
+    public ImportFormat format;
+
+    private byte[] catalog;
+
+    private ConfigurableApplicationContext context;
+
+    private WhiskyImportService whiskyImportService;
+
+    @Setup(Level.Trial)
+    public void generateCatalog () {
+        StringBuilder content = new StringBuilder (rows * 80);
+        if (format == ImportFormat.CSV) {
+            content.append ("name,brand,max,quantity,type\n");
+        }
+        WhiskyType[] types = WhiskyType.values ();
+        for (int i = 1; i <= rows; i++) {
+            String type = types[i % types.length].name ();
+            if (format == ImportFormat.CSV) {
+                content.append ("Whisky ").append (i).append (",Scotland,500,").append (i % 100).append (',').append (type).append ('\n');
+            } else {
+                content.append ("{\"name\":\"Whisky ").append (i).append ("\",\"brand\":\"Scotland\",\"max\":500,\"quantity\":")
+                        .append (i % 100).append (",\"type\":\"").append (type).append ("\"}\n");
+            }
+        }
+        catalog = content.toString ().getBytes (StandardCharsets.UTF_8);
+    }
+
+    @Setup(Level.Iteration)
+    public void setUp () {
+        context = BenchmarkApplication.start (WebApplicationType.NONE);
+        whiskyImportService = context.getBean (WhiskyImportService.class);
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown () {
+        context.close ();
+    }
+
+    @Benchmark
+    public WhiskyImportResultDTO importCatalog () throws IOException {
+        return whiskyImportService.importWhiskies (new ByteArrayInputStream (catalog), format);
+    }
+}
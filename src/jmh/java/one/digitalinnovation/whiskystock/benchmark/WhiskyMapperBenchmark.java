@@ -0,0 +1,48 @@
+package one.digitalinnovation.whiskystock.benchmark;
+
+import one.digitalinnovation.whiskystock.dto.WhiskyDTO;
+import one.digitalinnovation.whiskystock.entity.Whisky;
+import one.digitalinnovation.whiskystock.mapper.WhiskyMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WhiskyMapperBenchmark {
+
+    private final WhiskyMapper whiskyMapper = WhiskyMapper.INSTANCE;
+
+    private WhiskyDTO whiskyDTO;
+
+    private Whisky whisky;
+
+    @Setup
+    public void setUp () {
+        whiskyDTO = BenchmarkApplication.whisky (1L, "Old Parr");
+        whisky = whiskyMapper.toModel (whiskyDTO);
+    }
+
+    @Benchmark
+    public WhiskyDTO toDTO () {
+        return whiskyMapper.toDTO (whisky);
+    }
+
+    @Benchmark
+    public Whisky toModel () {
+        return whiskyMapper.toModel (whiskyDTO);
+    }
+}
@@ -0,0 +1,48 @@
+package one.digitalinnovation.whiskystock.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import one.digitalinnovation.whiskystock.dto.WhiskyDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WhiskySerializationBenchmark {
+
+    @Param({"10", "1000", "10000"})
+    private int size;
+
+    private ObjectWriter listWriter;
+
+    private List<WhiskyDTO> whiskies;
+
+    @Setup
+    public void setUp () {
+        ObjectMapper objectMapper = new ObjectMapper ();
+        listWriter = objectMapper.writerFor (objectMapper.getTypeFactory ().constructCollectionType (List.class, WhiskyDTO.class));
+        whiskies = BenchmarkApplication.whiskies (size);
+    }
+
+    @Benchmark
+    public byte[] serializeList () throws JsonProcessingException {
+        return listWriter.writeValueAsBytes (whiskies);
+    }
+}
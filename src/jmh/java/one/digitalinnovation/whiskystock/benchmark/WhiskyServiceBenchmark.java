@@ -0,0 +1,57 @@
+package one.digitalinnovation.whiskystock.benchmark;
+
+import one.digitalinnovation.whiskystock.dto.WhiskyDTO;
+import one.digitalinnovation.whiskystock.exception.WhiskyAlreadyRegisteredException;
+import one.digitalinnovation.whiskystock.exception.WhiskyNotFoundException;
+import one.digitalinnovation.whiskystock.exception.WhiskyStockExceededException;
+import one.digitalinnovation.whiskystock.service.WhiskyService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WhiskyServiceBenchmark {
+
+    private ConfigurableApplicationContext context;
+
+    private WhiskyService whiskyService;
+
+    private Long whiskyId;
+
+    @Setup
+    public void setUp () throws WhiskyAlreadyRegisteredException {
+        context = BenchmarkApplication.start (WebApplicationType.NONE);
+        whiskyService = context.getBean (WhiskyService.class);
+        WhiskyDTO whisky = BenchmarkApplication.whisky (1L, "Old Parr");
+        whisky.setId (null);
+        whiskyId = whiskyService.createWhisky (whisky).getId ();
+    }
+
+    @TearDown
+    public void tearDown () {
+        context.close ();
+    }
+
+    @Benchmark
+    public WhiskyDTO incrementThenDecrement () throws WhiskyNotFoundException, WhiskyStockExceededException {
+        whiskyService.increment (whiskyId, 1);
+        return whiskyService.decrement (whiskyId, 1);
+    }
+}
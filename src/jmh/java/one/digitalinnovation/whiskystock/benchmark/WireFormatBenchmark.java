@@ -0,0 +1,116 @@
+package one.digitalinnovation.whiskystock.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import one.digitalinnovation.whiskystock.config.WhiskyWebConfig;
+import one.digitalinnovation.whiskystock.dto.WhiskyDTO;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Serialization time per list of whiskies for each wire format the API serves. The bytes each
+ * format puts on the wire are measured once per trial, since they do not vary between
+ * iterations, and reported as {@code jsonBytes}, {@code jsonGzipBytes} and {@code smileBytes}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WireFormatBenchmark {
+
+    @Param({"10000"})
+    private int size;
+
+    private ObjectWriter jsonWriter;
+
+    private ObjectWriter smileWriter;
+
+    private List<WhiskyDTO> whiskies;
+
+    private long jsonBytes;
+
+    private long jsonGzipBytes;
+
+    private long smileBytes;
+
+    @Setup
+    public void setUp () throws IOException {
+        ObjectMapper jsonMapper = new Jackson2ObjectMapperBuilder ().build ();
+        ObjectMapper smileMapper = WhiskyWebConfig.smileConverter (new Jackson2ObjectMapperBuilder ()).getObjectMapper ();
+        jsonWriter = jsonMapper.writerFor (jsonMapper.getTypeFactory ().constructCollectionType (List.class, WhiskyDTO.class));
+        smileWriter = smileMapper.writerFor (smileMapper.getTypeFactory ().constructCollectionType (List.class, WhiskyDTO.class));
+        whiskies = BenchmarkApplication.whiskies (size);
+        jsonBytes = writeJson ().length;
+        jsonGzipBytes = writeJsonGzip ().length;
+        smileBytes = writeSmile ().length;
+    }
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class WireSize {
+
+        public long jsonBytes;
+
+        public long jsonGzipBytes;
+
+        public long smileBytes;
+
+        @Setup(Level.Iteration)
+        public void record (WireFormatBenchmark benchmark) {
+            jsonBytes = benchmark.jsonBytes;
+            jsonGzipBytes = benchmark.jsonGzipBytes;
+            smileBytes = benchmark.smileBytes;
+        }
+    }
+
+    @Benchmark
+    public byte[] json (WireSize wireSize) throws IOException {
+        return writeJson ();
+    }
+
+    @Benchmark
+    public byte[] jsonGzip (WireSize wireSize) throws IOException {
+        return writeJsonGzip ();
+    }
+
+    @Benchmark
+    public byte[] smile (WireSize wireSize) throws IOException {
+        return writeSmile ();
+    }
+
+    private byte[] writeJson () throws IOException {
+        return jsonWriter.writeValueAsBytes (whiskies);
+    }
+
+    private byte[] writeJsonGzip () throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream ();
+        try (GZIPOutputStream gzip = new GZIPOutputStream (bytes)) {
+            jsonWriter.writeValue (gzip, whiskies);
+        }
+        return bytes.toByteArray ();
+    }
+
+    private byte[] writeSmile () throws IOException {
+        return smileWriter.writeValueAsBytes (whiskies);
+    }
+}
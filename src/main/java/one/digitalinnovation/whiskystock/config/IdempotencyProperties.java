@@ -0,0 +1,28 @@
+package one.digitalinnovation.whiskystock.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "whisky.idempotency")
+public class IdempotencyProperties {
+
+    /**
+     * Finished results kept; keys whose request is still running are not counted or evicted.
+     */
+    private long maximumSize = 100_000;
+
+    /**
+     * How long a key is remembered; retries arriving later are applied again.
+     */
+    private Duration timeToLive = Duration.ofHours(24);
+
+    /**
+     * How long a duplicate waits for the request that claimed its key before being told to retry.
+     */
+    private Duration inFlightTimeout = Duration.ofSeconds(30);
+}
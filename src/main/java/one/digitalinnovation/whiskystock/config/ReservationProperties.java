@@ -0,0 +1,31 @@
+package one.digitalinnovation.whiskystock.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "whisky.reservation")
+public class ReservationProperties {
+
+    /**
+     * How long a hold lasts when the request does not say.
+     */
+    private Duration defaultTimeToLive = Duration.ofMinutes(5);
+
+    private Duration maxTimeToLive = Duration.ofMinutes(30);
+
+    /**
+     * Resolution of the expiry wheel; holds expire at most this late.
+     */
+    private Duration tick = Duration.ofMillis(100);
+
+    /**
+     * Buckets on the expiry wheel, rounded up to a power of two. Holds further out than
+     * {@code tick * wheelSize} stay in their bucket for more than one turn.
+     */
+    private int wheelSize = 512;
+}
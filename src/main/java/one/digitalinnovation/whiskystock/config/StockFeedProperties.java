@@ -0,0 +1,38 @@
+package one.digitalinnovation.whiskystock.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "whisky.feed")
+public class StockFeedProperties {
+
+    /**
+     * Distinct whiskies a subscriber may have waiting to be sent. Changes to a whisky already
+     * waiting replace it; past this limit the backlog is dropped and the subscriber is told to
+     * resync.
+     */
+    private int bufferSize = 1_000;
+
+    /**
+     * Most recent changes kept for subscribers resuming from a sequence number.
+     */
+    private int historySize = 10_000;
+
+    private int senderThreads = 2;
+
+    /**
+     * How long a single send may block before its subscriber is disconnected.
+     */
+    private Duration sendTimeout = Duration.ofSeconds(10);
+
+    private long stallCheckIntervalMs = 1_000;
+
+    private long heartbeatIntervalMs = 15_000;
+
+    private Duration timeout = Duration.ofMinutes(30);
+}
@@ -0,0 +1,24 @@
+package one.digitalinnovation.whiskystock.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "whisky.journal")
+public class StockJournalProperties {
+
+    private boolean enabled = false;
+
+    private String directory = "data/journal";
+
+    private DataSize segmentSize = DataSize.ofMegabytes(64);
+
+    private Duration flushInterval = Duration.ofMillis(10);
+
+    private long snapshotEvery = 100_000;
+}
@@ -0,0 +1,27 @@
+package one.digitalinnovation.whiskystock.config;
+
+import one.digitalinnovation.whiskystock.exception.WhiskyBusinessException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+
+import javax.annotation.PostConstruct;
+
+/**
+ * Binds the process-wide stack trace switch of {@link WhiskyBusinessException} once, from
+ * configuration, before any request is served.
+ */
+@Configuration
+public class WhiskyExceptionConfig {
+
+    private final WhiskyExceptionProperties exceptionProperties;
+
+    @Autowired
+    public WhiskyExceptionConfig(WhiskyExceptionProperties exceptionProperties) {
+        this.exceptionProperties = exceptionProperties;
+    }
+
+    @PostConstruct
+    public void bindStackTraces() {
+        WhiskyBusinessException.setStackTraceEnabled(exceptionProperties.isStackTraces());
+    }
+}
@@ -0,0 +1,17 @@
+package one.digitalinnovation.whiskystock.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "whisky.exceptions")
+public class WhiskyExceptionProperties {
+
+    /**
+     * Whether business exceptions (not found, already registered, stock exceeded) capture a
+     * stack trace.
+     */
+    private boolean stackTraces = true;
+}
@@ -0,0 +1,17 @@
+package one.digitalinnovation.whiskystock.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "whisky.import")
+public class WhiskyImportProperties {
+
+    private int chunkSize = 1_000;
+
+    private int maxReportedErrors = 1_000;
+
+    private long progressInterval = 100_000;
+}
@@ -0,0 +1,61 @@
+package one.digitalinnovation.whiskystock.config;
+
+import lombok.Data;
+import one.digitalinnovation.whiskystock.enums.CoalescingAck;
+import one.digitalinnovation.whiskystock.enums.StockMode;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "whisky.stock")
+public class WhiskyStockProperties {
+
+    private StockMode mode = StockMode.OPTIMISTIC;
+
+    private Optimistic optimistic = new Optimistic();
+
+    private Ledger ledger = new Ledger();
+
+    private Coalescing coalescing = new Coalescing();
+
+    @Data
+    public static class Optimistic {
+
+        private int maxAttempts = 5;
+
+        private long backoffMs = 5;
+    }
+
+    @Data
+    public static class Ledger {
+
+        private long flushIntervalMs = 200;
+    }
+
+    @Data
+    public static class Coalescing {
+
+        /**
+         * Adjustments to the same whisky accepted within this window are written as one UPDATE.
+         */
+        private long windowMs = 50;
+
+        /**
+         * A whisky's window is written early once it holds this many adjustments.
+         */
+        private int maxOperations = 500;
+
+        /**
+         * A whisky with no adjustment for this long is dropped from memory and reloaded on its
+         * next adjustment.
+         */
+        private long idleEvictionMs = 60_000;
+
+        /**
+         * AFTER_FLUSH answers a caller once its window is committed; ON_ACCEPT answers as soon as
+         * the adjustment fits the projected quantity, and a failed write is only logged.
+         */
+        private CoalescingAck ack = CoalescingAck.AFTER_FLUSH;
+    }
+}
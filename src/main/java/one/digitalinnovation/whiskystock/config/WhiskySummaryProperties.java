@@ -0,0 +1,18 @@
+package one.digitalinnovation.whiskystock.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "whisky.summary")
+public class WhiskySummaryProperties {
+
+    /**
+     * A whisky counts as low stock when its quantity is at or below this fraction of its max.
+     */
+    private double lowStockRatio = 0.2;
+
+    private long reconcileIntervalMs = 60_000;
+}
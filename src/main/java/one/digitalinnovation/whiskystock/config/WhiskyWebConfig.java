@@ -0,0 +1,100 @@
+package one.digitalinnovation.whiskystock.config;
+
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import one.digitalinnovation.whiskystock.filter.AdaptiveConcurrencyLimit;
+import one.digitalinnovation.whiskystock.filter.AdaptiveConcurrencyLimitFilter;
+import one.digitalinnovation.whiskystock.filter.ConnectionAwareAdmissionFilter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+import javax.servlet.DispatcherType;
+import javax.sql.DataSource;
+
+@Configuration
+public class WhiskyWebConfig {
+
+    public static final String APPLICATION_SMILE_VALUE = "application/x-jackson-smile";
+    public static final MediaType APPLICATION_SMILE = MediaType.parseMediaType(APPLICATION_SMILE_VALUE);
+
+    private static final int DEFAULT_MAX_CONCURRENCY = 10;
+
+    @Bean
+    @ConditionalOnProperty(prefix = "whisky.web", name = "execution-mode", havingValue = "async")
+    public FilterRegistrationBean<ConnectionAwareAdmissionFilter> connectionAwareAdmissionFilter(
+            WhiskyWebProperties webProperties, DataSource dataSource) {
+        int maxConcurrency = webProperties.getMaxConcurrency() > 0
+                ? webProperties.getMaxConcurrency()
+                : connectionPoolSize(dataSource);
+        FilterRegistrationBean<ConnectionAwareAdmissionFilter> registration = new FilterRegistrationBean<>(
+                new ConnectionAwareAdmissionFilter(maxConcurrency, webProperties.getMaxQueued(),
+                        webProperties.getQueueTimeout().toMillis()));
+        registration.addUrlPatterns("/api/v1/*");
+        registration.setDispatcherTypes(DispatcherType.REQUEST, DispatcherType.ASYNC);
+        registration.setAsyncSupported(true);
+        return registration;
+    }
+
+    /**
+     * Runs in front of the admission filter, so requests over the adaptive limit are shed
+     * before they can be parked. Parked requests still count as in flight here. Both limits are
+     * off unless {@code whisky.web.read-limit.enabled} or {@code whisky.web.stock-limit.enabled}
+     * is set.
+     */
+    @Bean
+    public FilterRegistrationBean<AdaptiveConcurrencyLimitFilter> adaptiveConcurrencyLimitFilter(
+            WhiskyWebProperties webProperties, MeterRegistry meterRegistry) {
+        FilterRegistrationBean<AdaptiveConcurrencyLimitFilter> registration = new FilterRegistrationBean<>(
+                new AdaptiveConcurrencyLimitFilter(adaptiveLimit(webProperties.getReadLimit()),
+                        adaptiveLimit(webProperties.getStockLimit()), webProperties.getShedRetryAfter(), meterRegistry));
+        registration.addUrlPatterns("/api/v1/whiskies/*");
+        registration.setDispatcherTypes(DispatcherType.REQUEST);
+        registration.setAsyncSupported(true);
+        registration.setOrder(Ordered.LOWEST_PRECEDENCE - 1);
+        return registration;
+    }
+
+    /**
+     * Binary alternative to JSON, chosen with {@code Accept: application/x-jackson-smile}. Smile
+     * writes each field name and repeated short string (brand, name) once per payload and refers
+     * back to it afterwards. That covers {@code WhiskyType} too, which is written by name like in
+     * JSON so that clients do not depend on the order its constants are declared in.
+     */
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder objectMapperBuilder) {
+        return smileConverter(objectMapperBuilder);
+    }
+
+    public static MappingJackson2SmileHttpMessageConverter smileConverter(Jackson2ObjectMapperBuilder objectMapperBuilder) {
+        SmileFactory smileFactory = SmileFactory.builder()
+                .enable(SmileGenerator.Feature.CHECK_SHARED_NAMES)
+                .enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES)
+                .build();
+        return new MappingJackson2SmileHttpMessageConverter(objectMapperBuilder
+                .factory(smileFactory)
+                .build());
+    }
+
+    private static AdaptiveConcurrencyLimit adaptiveLimit(WhiskyWebProperties.AdaptiveLimit properties) {
+        if (!properties.isEnabled()) {
+            return null;
+        }
+        return new AdaptiveConcurrencyLimit(properties.getInitialLimit(), properties.getMinLimit(),
+                properties.getMaxLimit(), properties.getTolerance());
+    }
+
+    private static int connectionPoolSize(DataSource dataSource) {
+        if (dataSource instanceof HikariDataSource) {
+            return ((HikariDataSource) dataSource).getMaximumPoolSize();
+        }
+        return DEFAULT_MAX_CONCURRENCY;
+    }
+}
@@ -0,0 +1,62 @@
+package one.digitalinnovation.whiskystock.config;
+
+import lombok.Data;
+import one.digitalinnovation.whiskystock.enums.ExecutionMode;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "whisky.web")
+public class WhiskyWebProperties {
+
+    private ExecutionMode executionMode = ExecutionMode.SYNC;
+
+    /**
+     * Requests allowed to run at the same time in async mode; 0 uses the JDBC pool size.
+     */
+    private int maxConcurrency = 0;
+
+    private int maxQueued = 10_000;
+
+    private Duration queueTimeout = Duration.ofSeconds(30);
+
+    /**
+     * Adaptive concurrency limit for reads of the whisky API.
+     */
+    private AdaptiveLimit readLimit = new AdaptiveLimit();
+
+    /**
+     * Adaptive concurrency limit for stock mutations: increments, decrements, bulk adjustments
+     * and location transfers.
+     */
+    private AdaptiveLimit stockLimit = new AdaptiveLimit();
+
+    /**
+     * Sent as {@code Retry-After}, rounded up to whole seconds, with the 503 of a shed request.
+     */
+    private Duration shedRetryAfter = Duration.ofSeconds(1);
+
+    @Data
+    public static class AdaptiveLimit {
+
+        /**
+         * Off by default: once on, requests over the limit get a 503. In async mode the limit
+         * also counts requests parked by the admission filter, so it should leave room for them.
+         */
+        private boolean enabled = false;
+
+        private int initialLimit = 20;
+
+        private int minLimit = 4;
+
+        private int maxLimit = 200;
+
+        /**
+         * How many times the latency without queueing a window of requests may take before the limit shrinks.
+         */
+        private double tolerance = 1.5;
+    }
+}
@@ -0,0 +1,29 @@
+package one.digitalinnovation.whiskystock.controller;
+
+import lombok.AllArgsConstructor;
+import one.digitalinnovation.whiskystock.dto.CatalogSearchResultDTO;
+import one.digitalinnovation.whiskystock.enums.WhiskyType;
+import one.digitalinnovation.whiskystock.service.CatalogSearchIndex;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/v1/catalog")
+@AllArgsConstructor
+public class CatalogController implements CatalogControllerDocs {
+
+    private static final int DEFAULT_LIMIT = 10;
+    private static final int MAX_LIMIT = 100;
+
+    private final CatalogSearchIndex catalogSearchIndex;
+
+    @GetMapping("/search")
+    public CatalogSearchResultDTO search(@RequestParam("q") String query,
+                                         @RequestParam(required = false) WhiskyType type,
+                                         @RequestParam(required = false) Integer limit) {
+        int boundedLimit = limit == null ? DEFAULT_LIMIT : Math.max(1, Math.min(limit, MAX_LIMIT));
+        return catalogSearchIndex.search(query, type, boundedLimit);
+    }
+}
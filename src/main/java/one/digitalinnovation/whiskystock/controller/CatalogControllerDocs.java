@@ -0,0 +1,18 @@
+package one.digitalinnovation.whiskystock.controller;
+
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiResponse;
+import io.swagger.annotations.ApiResponses;
+import one.digitalinnovation.whiskystock.dto.CatalogSearchResultDTO;
+import one.digitalinnovation.whiskystock.enums.WhiskyType;
+
+@Api("Searches the whisky catalog")
+public interface CatalogControllerDocs {
+
+    @ApiOperation(value = "Returns the best whiskies whose name or brand words start with, contain or are a small typo away from every query word, optionally of a single type")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Best matches first, with the number of matches per whisky type"),
+    })
+    CatalogSearchResultDTO search(String query, WhiskyType type, Integer limit);
+}
@@ -0,0 +1,50 @@
+package one.digitalinnovation.whiskystock.controller;
+
+import lombok.AllArgsConstructor;
+import one.digitalinnovation.whiskystock.dto.WhiskyLocationStockDTO;
+import one.digitalinnovation.whiskystock.dto.WhiskyLocationTransferDTO;
+import one.digitalinnovation.whiskystock.dto.WhiskyQuantityDTO;
+import one.digitalinnovation.whiskystock.exception.WhiskyNotFoundException;
+import one.digitalinnovation.whiskystock.exception.WhiskyStockExceededException;
+import one.digitalinnovation.whiskystock.service.LocationStockService;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.validation.Valid;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/whiskies/{id}/locations")
+@AllArgsConstructor
+public class LocationStockController implements LocationStockControllerDocs {
+
+    private final LocationStockService locationStockService;
+
+    @GetMapping
+    public List<WhiskyLocationStockDTO> findAll(@PathVariable Long id) throws WhiskyNotFoundException {
+        return locationStockService.findAll(id);
+    }
+
+    @PatchMapping("/{location}/increment")
+    public WhiskyLocationStockDTO increment(@PathVariable Long id, @PathVariable String location,
+                                            @RequestBody @Valid WhiskyQuantityDTO whiskyQuantityDTO) throws WhiskyNotFoundException, WhiskyStockExceededException {
+        return locationStockService.adjust(id, location, whiskyQuantityDTO.getQuantity());
+    }
+
+    @PatchMapping("/{location}/decrement")
+    public WhiskyLocationStockDTO decrement(@PathVariable Long id, @PathVariable String location,
+                                            @RequestBody @Valid WhiskyQuantityDTO whiskyQuantityDTO) throws WhiskyNotFoundException, WhiskyStockExceededException {
+        return locationStockService.adjust(id, location, -whiskyQuantityDTO.getQuantity());
+    }
+
+    @PostMapping("/transfers")
+    public List<WhiskyLocationStockDTO> transfer(@PathVariable Long id,
+                                                 @RequestBody @Valid WhiskyLocationTransferDTO whiskyLocationTransferDTO) throws WhiskyNotFoundException, WhiskyStockExceededException {
+        return locationStockService.transfer(id, whiskyLocationTransferDTO);
+    }
+}
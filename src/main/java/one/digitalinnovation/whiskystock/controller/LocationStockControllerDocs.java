@@ -0,0 +1,48 @@
+package one.digitalinnovation.whiskystock.controller;
+
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiResponse;
+import io.swagger.annotations.ApiResponses;
+import one.digitalinnovation.whiskystock.dto.WhiskyLocationStockDTO;
+import one.digitalinnovation.whiskystock.dto.WhiskyLocationTransferDTO;
+import one.digitalinnovation.whiskystock.dto.WhiskyQuantityDTO;
+import one.digitalinnovation.whiskystock.exception.WhiskyNotFoundException;
+import one.digitalinnovation.whiskystock.exception.WhiskyStockExceededException;
+
+import java.util.List;
+
+@Api("Manages whisky stock held at each location")
+public interface LocationStockControllerDocs {
+
+    @ApiOperation(value = "Returns the stock of a whisky at every location other than the main one")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Location stock ordered by location"),
+            @ApiResponse(code = 404, message = "Whisky with given id not found.")
+    })
+    List<WhiskyLocationStockDTO> findAll(Long id) throws WhiskyNotFoundException;
+
+    @ApiOperation(value = "Increments the stock of a whisky at a location, opening the location if needed")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Success location stock incremented"),
+            @ApiResponse(code = 400, message = "Quantity to increment exceeds the location capacity."),
+            @ApiResponse(code = 404, message = "Whisky with given id not found.")
+    })
+    WhiskyLocationStockDTO increment(Long id, String location, WhiskyQuantityDTO whiskyQuantityDTO) throws WhiskyNotFoundException, WhiskyStockExceededException;
+
+    @ApiOperation(value = "Decrements the stock of a whisky at a location only if enough quantity is available there")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Success location stock decremented"),
+            @ApiResponse(code = 400, message = "Quantity to decrement exceeds the stock at the location."),
+            @ApiResponse(code = 404, message = "Whisky with given id not found.")
+    })
+    WhiskyLocationStockDTO decrement(Long id, String location, WhiskyQuantityDTO whiskyQuantityDTO) throws WhiskyNotFoundException, WhiskyStockExceededException;
+
+    @ApiOperation(value = "Moves stock of a whisky between two locations atomically")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Source and destination location stock after the transfer"),
+            @ApiResponse(code = 400, message = "Not enough stock at the source, no room at the destination, or invalid transfer."),
+            @ApiResponse(code = 404, message = "Whisky with given id not found.")
+    })
+    List<WhiskyLocationStockDTO> transfer(Long id, WhiskyLocationTransferDTO whiskyLocationTransferDTO) throws WhiskyNotFoundException, WhiskyStockExceededException;
+}
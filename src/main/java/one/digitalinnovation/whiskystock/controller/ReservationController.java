@@ -0,0 +1,55 @@
+package one.digitalinnovation.whiskystock.controller;
+
+import lombok.AllArgsConstructor;
+import one.digitalinnovation.whiskystock.dto.ReservationDTO;
+import one.digitalinnovation.whiskystock.dto.ReservationRequestDTO;
+import one.digitalinnovation.whiskystock.dto.StockAvailabilityDTO;
+import one.digitalinnovation.whiskystock.dto.WhiskyDTO;
+import one.digitalinnovation.whiskystock.exception.ReservationNotFoundException;
+import one.digitalinnovation.whiskystock.exception.WhiskyNotFoundException;
+import one.digitalinnovation.whiskystock.exception.WhiskyStockExceededException;
+import one.digitalinnovation.whiskystock.service.ReservationService;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.validation.Valid;
+import java.time.Duration;
+
+@RestController
+@RequestMapping("/api/v1/reservations")
+@AllArgsConstructor
+public class ReservationController implements ReservationControllerDocs {
+
+    private final ReservationService reservationService;
+
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    public ReservationDTO reserve(@RequestBody @Valid ReservationRequestDTO reservationRequestDTO) throws WhiskyNotFoundException, WhiskyStockExceededException {
+        Long timeToLiveSeconds = reservationRequestDTO.getTimeToLiveSeconds();
+        return reservationService.reserve(reservationRequestDTO.getWhiskyId(), reservationRequestDTO.getQuantity(),
+                timeToLiveSeconds == null ? null : Duration.ofSeconds(timeToLiveSeconds));
+    }
+
+    @PostMapping("/{reservationId}/commit")
+    public WhiskyDTO commit(@PathVariable String reservationId) throws ReservationNotFoundException, WhiskyNotFoundException, WhiskyStockExceededException {
+        return reservationService.commit(reservationId);
+    }
+
+    @DeleteMapping("/{reservationId}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void release(@PathVariable String reservationId) throws ReservationNotFoundException {
+        reservationService.release(reservationId);
+    }
+
+    @GetMapping("/whiskies/{id}")
+    public StockAvailabilityDTO availability(@PathVariable Long id) throws WhiskyNotFoundException {
+        return reservationService.availability(id);
+    }
+}
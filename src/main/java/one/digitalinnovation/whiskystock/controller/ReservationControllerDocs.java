@@ -0,0 +1,47 @@
+package one.digitalinnovation.whiskystock.controller;
+
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiResponse;
+import io.swagger.annotations.ApiResponses;
+import one.digitalinnovation.whiskystock.dto.ReservationDTO;
+import one.digitalinnovation.whiskystock.dto.ReservationRequestDTO;
+import one.digitalinnovation.whiskystock.dto.StockAvailabilityDTO;
+import one.digitalinnovation.whiskystock.dto.WhiskyDTO;
+import one.digitalinnovation.whiskystock.exception.ReservationNotFoundException;
+import one.digitalinnovation.whiskystock.exception.WhiskyNotFoundException;
+import one.digitalinnovation.whiskystock.exception.WhiskyStockExceededException;
+
+@Api("Holds whisky stock for a checkout until it is committed, released or expires")
+public interface ReservationControllerDocs {
+
+    @ApiOperation(value = "Holds stock of a whisky, lowering its available quantity until the hold is committed, released or expires")
+    @ApiResponses(value = {
+            @ApiResponse(code = 201, message = "Hold created"),
+            @ApiResponse(code = 400, message = "Not enough available stock, or invalid request."),
+            @ApiResponse(code = 404, message = "Whisky with given id not found.")
+    })
+    ReservationDTO reserve(ReservationRequestDTO reservationRequestDTO) throws WhiskyNotFoundException, WhiskyStockExceededException;
+
+    @ApiOperation(value = "Commits a hold, decrementing the whisky stock")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Whisky after the decrement"),
+            @ApiResponse(code = 400, message = "The held stock was taken by a direct decrement meanwhile."),
+            @ApiResponse(code = 404, message = "Hold or whisky not found, or the hold expired.")
+    })
+    WhiskyDTO commit(String reservationId) throws ReservationNotFoundException, WhiskyNotFoundException, WhiskyStockExceededException;
+
+    @ApiOperation(value = "Releases a hold without changing the stock")
+    @ApiResponses(value = {
+            @ApiResponse(code = 204, message = "Hold released"),
+            @ApiResponse(code = 404, message = "Hold not found, or it expired.")
+    })
+    void release(String reservationId) throws ReservationNotFoundException;
+
+    @ApiOperation(value = "Returns the quantity, the quantity on hold and the available quantity of a whisky")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Stock availability"),
+            @ApiResponse(code = 404, message = "Whisky with given id not found.")
+    })
+    StockAvailabilityDTO availability(Long id) throws WhiskyNotFoundException;
+}
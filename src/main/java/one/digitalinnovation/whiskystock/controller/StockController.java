@@ -0,0 +1,108 @@
+package one.digitalinnovation.whiskystock.controller;
+
+import lombok.AllArgsConstructor;
+import one.digitalinnovation.whiskystock.config.StockFeedProperties;
+import one.digitalinnovation.whiskystock.dto.StockChangeDTO;
+import one.digitalinnovation.whiskystock.dto.StockSummaryDTO;
+import one.digitalinnovation.whiskystock.dto.WhiskyDTO;
+import one.digitalinnovation.whiskystock.dto.WhiskySearchCriteriaDTO;
+import one.digitalinnovation.whiskystock.enums.WhiskyType;
+import one.digitalinnovation.whiskystock.service.FillRatioIndex;
+import one.digitalinnovation.whiskystock.service.StockChangeFeed;
+import one.digitalinnovation.whiskystock.service.StockSummary;
+import one.digitalinnovation.whiskystock.service.WhiskyService;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.validation.Valid;
+import java.io.IOException;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/stock")
+@AllArgsConstructor
+public class StockController implements StockControllerDocs {
+
+    private static final int DEFAULT_SEARCH_LIMIT = 100;
+    private static final int DEFAULT_LOWEST_LIMIT = 10;
+    private static final int MAX_LIMIT = 1000;
+
+    private final StockSummary stockSummary;
+    private final WhiskyService whiskyService;
+    private final FillRatioIndex fillRatioIndex;
+    private final StockChangeFeed stockChangeFeed;
+    private final StockFeedProperties feedProperties;
+
+    @GetMapping("/summary")
+    public StockSummaryDTO summary() {
+        return stockSummary.summary();
+    }
+
+    @GetMapping("/search")
+    public List<WhiskyDTO> search(@Valid WhiskySearchCriteriaDTO criteria, @RequestParam(required = false) Integer limit) {
+        return whiskyService.search(criteria, boundedLimit(limit, DEFAULT_SEARCH_LIMIT));
+    }
+
+    @GetMapping("/lowest")
+    public List<WhiskyDTO> lowest(@RequestParam(required = false) Integer limit, @RequestParam(required = false) WhiskyType type) {
+        return fillRatioIndex.lowest(boundedLimit(limit, DEFAULT_LOWEST_LIMIT), type);
+    }
+
+    @GetMapping(path = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter events(@RequestParam(name = "id", required = false) List<Long> ids,
+                             @RequestParam(required = false) WhiskyType type,
+                             @RequestParam(required = false) Long after,
+                             @RequestHeader(name = "Last-Event-ID", required = false) Long lastEventId) {
+        SseEmitter emitter = new SseEmitter(feedProperties.getTimeout().toMillis());
+        StockChangeFeed.Subscription subscription = stockChangeFeed.subscribe(
+                lastEventId != null ? lastEventId : after, ids, type, new SseSink(emitter));
+        emitter.onCompletion(subscription::cancel);
+        emitter.onTimeout(subscription::cancel);
+        emitter.onError(error -> subscription.cancel());
+        return emitter;
+    }
+
+    private static int boundedLimit(Integer limit, int defaultLimit) {
+        return limit == null ? defaultLimit : Math.max(1, Math.min(limit, MAX_LIMIT));
+    }
+
+    private static final class SseSink implements StockChangeFeed.Sink {
+
+        private final SseEmitter emitter;
+
+        private SseSink(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        @Override
+        public void send(StockChangeDTO change) throws IOException {
+            emitter.send(SseEmitter.event()
+                    .id(String.valueOf(change.getSequence()))
+                    .name("stock")
+                    .data(change, MediaType.APPLICATION_JSON));
+        }
+
+        @Override
+        public void gap(long sequence) throws IOException {
+            emitter.send(SseEmitter.event()
+                    .id(String.valueOf(sequence))
+                    .name("gap")
+                    .data(sequence));
+        }
+
+        @Override
+        public void heartbeat() throws IOException {
+            emitter.send(SseEmitter.event().comment(""));
+        }
+
+        @Override
+        public void close() {
+            emitter.complete();
+        }
+    }
+}
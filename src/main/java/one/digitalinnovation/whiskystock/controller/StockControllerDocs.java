@@ -0,0 +1,42 @@
+package one.digitalinnovation.whiskystock.controller;
+
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiResponse;
+import io.swagger.annotations.ApiResponses;
+import one.digitalinnovation.whiskystock.dto.StockSummaryDTO;
+import one.digitalinnovation.whiskystock.dto.WhiskyDTO;
+import one.digitalinnovation.whiskystock.dto.WhiskySearchCriteriaDTO;
+import one.digitalinnovation.whiskystock.enums.WhiskyType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+
+@Api("Reports on whisky stock")
+public interface StockControllerDocs {
+
+    @ApiOperation(value = "Returns stock totals, fill ratio and low-stock counts overall, per whisky type and per brand")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Current stock summary"),
+    })
+    StockSummaryDTO summary();
+
+    @ApiOperation(value = "Returns whiskies filtered by type, brand, quantity range and fill ratio range, lowest quantity first")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Whiskies matching every given filter"),
+            @ApiResponse(code = 400, message = "Invalid quantity or fill ratio bound")
+    })
+    List<WhiskyDTO> search(WhiskySearchCriteriaDTO criteria, Integer limit);
+
+    @ApiOperation(value = "Returns the whiskies with the lowest fill ratio, optionally of a single type")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Whiskies ordered by fill ratio, emptiest first"),
+    })
+    List<WhiskyDTO> lowest(Integer limit, WhiskyType type);
+
+    @ApiOperation(value = "Streams stock changes as server-sent events, optionally only for some ids or one type, resuming after Last-Event-ID or the after sequence")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Event stream of 'stock' changes; a 'gap' event means changes were dropped and the catalog should be reloaded"),
+    })
+    SseEmitter events(List<Long> ids, WhiskyType type, Long after, Long lastEventId);
+}
@@ -1,58 +1,197 @@
 package one.digitalinnovation.whiskystock.controller;
 
 import lombok.AllArgsConstructor;
+import one.digitalinnovation.whiskystock.dto.WhiskyBulkAdjustmentDTO;
 import one.digitalinnovation.whiskystock.dto.WhiskyDTO;
+import one.digitalinnovation.whiskystock.dto.WhiskyImportResultDTO;
 import one.digitalinnovation.whiskystock.dto.WhiskyQuantityDTO;
+import one.digitalinnovation.whiskystock.dto.WhiskyStockAdjustmentDTO;
+import one.digitalinnovation.whiskystock.dto.WhiskyStockAdjustmentResultDTO;
+import one.digitalinnovation.whiskystock.enums.ImportFormat;
+import one.digitalinnovation.whiskystock.enums.StreamFormat;
 import one.digitalinnovation.whiskystock.exception.WhiskyAlreadyRegisteredException;
 import one.digitalinnovation.whiskystock.exception.WhiskyNotFoundException;
 import one.digitalinnovation.whiskystock.exception.WhiskyStockExceededException;
+import one.digitalinnovation.whiskystock.service.CatalogVersions;
+import one.digitalinnovation.whiskystock.service.IdempotencyStore;
+import one.digitalinnovation.whiskystock.service.WhiskyCatalogStreamer;
+import one.digitalinnovation.whiskystock.service.WhiskyImportService;
 import one.digitalinnovation.whiskystock.service.WhiskyService;
-import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import javax.validation.Valid;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/v1/whiskies")
 @AllArgsConstructor//(onConstructor = @__(@Autowired))
 public class WhiskyController implements WhiskyControllerDocs {
 
+    static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+
+    private static final int DEFAULT_PAGE_SIZE = 100;
+    private static final int MAX_PAGE_SIZE = 1000;
+    private static final String TEXT_CSV_VALUE = "text/csv";
+    private static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+    private static final MediaType APPLICATION_NDJSON = MediaType.parseMediaType(APPLICATION_NDJSON_VALUE);
+
     private final WhiskyService whiskyService;
-@Autowired
+    private final WhiskyCatalogStreamer whiskyCatalogStreamer;
+    private final WhiskyImportService whiskyImportService;
+    private final IdempotencyStore idempotencyStore;
+    private final CatalogVersions catalogVersions;
+
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
     public WhiskyDTO createWhisky(@RequestBody @Valid WhiskyDTO whiskyDTO) throws WhiskyAlreadyRegisteredException {
         return whiskyService.createWhisky(whiskyDTO);
     }
-@Autowired
+
+    @PostMapping(consumes = {TEXT_CSV_VALUE, APPLICATION_NDJSON_VALUE})
+    public WhiskyImportResultDTO importWhiskies(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType, InputStream body) throws IOException {
+        ImportFormat format = MediaType.parseMediaType(contentType).isCompatibleWith(APPLICATION_NDJSON) ? ImportFormat.NDJSON : ImportFormat.CSV;
+        return whiskyImportService.importWhiskies(body, format);
+    }
+
     @GetMapping("/{name}")
-    public WhiskyDTO findByName(@PathVariable String name) throws WhiskyNotFoundException {
-        return whiskyService.findByName(name);
+    public ResponseEntity<WhiskyDTO> findByName(@PathVariable String name,
+                                                @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) throws WhiskyNotFoundException {
+        Optional<String> currentETag = catalogVersions.eTag(name);
+        if (currentETag.isPresent() && matchesAny(ifNoneMatch, currentETag.get())) {
+            return notModified(currentETag.get());
+        }
+        long catalogVersion = catalogVersions.catalogVersion();
+        WhiskyDTO whiskyDTO = whiskyService.findByName(name);
+        return ResponseEntity.ok()
+                .eTag(weak(catalogVersions.eTag(whiskyDTO, catalogVersion)))
+                .varyBy(HttpHeaders.ACCEPT)
+                .body(whiskyDTO);
     }
-@Autowired
+
     @GetMapping
-    public List<WhiskyDTO> listWhisky() {
-        return whiskyService.listAll();
+    public ResponseEntity<List<WhiskyDTO>> listWhisky(@RequestParam(required = false) Long afterId, @RequestParam(required = false) Integer limit,
+                                                      @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        String eTag = catalogVersions.catalogETag();
+        if (matchesAny(ifNoneMatch, eTag)) {
+            return notModified(eTag);
+        }
+        List<WhiskyDTO> whiskies;
+        if (afterId == null && limit == null) {
+            whiskies = whiskyService.listAll();
+        } else {
+            int pageSize = limit == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+            whiskies = whiskyService.listPage(afterId, pageSize);
+        }
+        return ResponseEntity.ok()
+                .eTag(weak(eTag))
+                .varyBy(HttpHeaders.ACCEPT)
+                .body(whiskies);
+    }
+
+    @GetMapping(params = "stream")
+    public ResponseEntity<StreamingResponseBody> streamWhisky(@RequestParam("stream") String stream) {
+        StreamFormat format = StreamFormat.JSON.name().equalsIgnoreCase(stream) ? StreamFormat.JSON : StreamFormat.NDJSON;
+        StreamingResponseBody body = outputStream -> whiskyCatalogStreamer.write(outputStream, format);
+        return ResponseEntity.ok()
+                .contentType(format == StreamFormat.JSON ? MediaType.APPLICATION_JSON : APPLICATION_NDJSON)
+                .body(body);
     }
-@Autowired
+
     @DeleteMapping("/{id}")
     @ResponseStatus(HttpStatus.NO_CONTENT)
     public void deleteById(@PathVariable Long id) throws WhiskyNotFoundException {
         whiskyService.deleteById(id);
     }
-@Autowired
+
     @PatchMapping("/{id}/increment")
-    public WhiskyDTO increment(@PathVariable Long id, @RequestBody @Valid WhiskyQuantityDTO whiskyQuantityDTO) throws WhiskyNotFoundException, WhiskyStockExceededException {
-        return whiskyService.increment(id, whiskyQuantityDTO.getQuantity());
+    public WhiskyDTO increment(@PathVariable Long id, @RequestBody @Valid WhiskyQuantityDTO whiskyQuantityDTO,
+                               @RequestHeader(name = IDEMPOTENCY_KEY, required = false) String idempotencyKey) throws WhiskyNotFoundException, WhiskyStockExceededException {
+        int quantity = whiskyQuantityDTO.getQuantity();
+        if (idempotencyKey == null) {
+            return whiskyService.increment(id, quantity);
+        }
+        return idempotencyStore.execute(idempotencyKey, "increment " + id + " " + quantity,
+                () -> whiskyService.tryIncrement(id, quantity)).orElseThrow();
+    }
+
+    @PatchMapping("/{id}/decrement")
+    public WhiskyDTO decrement(@PathVariable Long id, @RequestBody @Valid WhiskyQuantityDTO whiskyQuantityDTO,
+                               @RequestHeader(name = IDEMPOTENCY_KEY, required = false) String idempotencyKey) throws WhiskyNotFoundException, WhiskyStockExceededException {
+        int quantity = whiskyQuantityDTO.getQuantity();
+        if (idempotencyKey == null) {
+            return whiskyService.decrement(id, quantity);
+        }
+        return idempotencyStore.execute(idempotencyKey, "decrement " + id + " " + quantity,
+                () -> whiskyService.tryDecrement(id, quantity)).orElseThrow();
+    }
+
+    @PatchMapping
+    public List<WhiskyStockAdjustmentResultDTO> adjustStock(@RequestBody @Valid WhiskyBulkAdjustmentDTO whiskyBulkAdjustmentDTO,
+                                                            @RequestHeader(name = IDEMPOTENCY_KEY, required = false) String idempotencyKey) {
+        if (idempotencyKey == null) {
+            return whiskyService.adjustAll(whiskyBulkAdjustmentDTO.getAdjustments());
+        }
+        return idempotencyStore.execute(idempotencyKey, adjustRequest(whiskyBulkAdjustmentDTO.getAdjustments()),
+                () -> whiskyService.adjustAll(whiskyBulkAdjustmentDTO.getAdjustments()));
+    }
+
+    /**
+     * The bulk request an idempotency key is tied to, written out field by field in the order sent.
+     */
+    private static String adjustRequest(List<WhiskyStockAdjustmentDTO> adjustments) {
+        StringBuilder request = new StringBuilder("adjust");
+        for (WhiskyStockAdjustmentDTO adjustment : adjustments) {
+            request.append(' ').append(adjustment.getId()).append(':').append(adjustment.getQuantity());
+        }
+        return request.toString();
+    }
+
+    /**
+     * If-None-Match uses the weak comparison, so a {@code W/} prefix on a listed tag is ignored.
+     */
+    private static boolean matchesAny(String ifNoneMatch, String eTag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String trimmed = candidate.trim();
+            if (trimmed.equals("*") || trimmed.equals(eTag) || trimmed.equals("W/" + eTag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The same version is served as JSON or Smile depending on Accept, so the tag is weak (the
+     * representations are equivalent, not byte-identical) and caches are told to key on Accept.
+     */
+    private static String weak(String eTag) {
+        return "W/" + eTag;
+    }
+
+    private static <T> ResponseEntity<T> notModified(String eTag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .eTag(weak(eTag))
+                .varyBy(HttpHeaders.ACCEPT)
+                .build();
     }
 }
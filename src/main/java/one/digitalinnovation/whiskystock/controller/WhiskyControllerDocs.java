@@ -4,11 +4,20 @@ import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
 import io.swagger.annotations.ApiResponse;
 import io.swagger.annotations.ApiResponses;
+import one.digitalinnovation.whiskystock.dto.WhiskyBulkAdjustmentDTO;
 import one.digitalinnovation.whiskystock.dto.WhiskyDTO;
+import one.digitalinnovation.whiskystock.dto.WhiskyImportResultDTO;
+import one.digitalinnovation.whiskystock.dto.WhiskyQuantityDTO;
+import one.digitalinnovation.whiskystock.dto.WhiskyStockAdjustmentResultDTO;
 import one.digitalinnovation.whiskystock.exception.WhiskyAlreadyRegisteredException;
 import one.digitalinnovation.whiskystock.exception.WhiskyNotFoundException;
+import one.digitalinnovation.whiskystock.exception.WhiskyStockExceededException;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 
 @Api("Manages whisky stock")
@@ -21,18 +30,32 @@ public interface WhiskyControllerDocs {
     })
     WhiskyDTO createWhisky(WhiskyDTO whiskyDTO) throws WhiskyAlreadyRegisteredException;
 
-    @ApiOperation(value = "Returns whisky found by a given name")
+    @ApiOperation(value = "Imports a catalog uploaded as CSV (with header) or NDJSON, reporting rejected rows")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Import finished, with imported and rejected row counts")
+    })
+    WhiskyImportResultDTO importWhiskies(String contentType, InputStream body) throws IOException;
+
+    @ApiOperation(value = "Returns whisky found by a given name, with an ETag of its version")
     @ApiResponses(value = {
             @ApiResponse(code = 200, message = "Success whisky found in the system"),
+            @ApiResponse(code = 304, message = "Whisky unchanged since the ETag given in If-None-Match"),
             @ApiResponse(code = 404, message = "Whisky with given name not found.")
     })
-    WhiskyDTO findByName(@PathVariable String name) throws WhiskyNotFoundException;
+    ResponseEntity<WhiskyDTO> findByName(@PathVariable String name, String ifNoneMatch) throws WhiskyNotFoundException;
 
-    @ApiOperation(value = "Returns a list of all whisky registered in the system")
+    @ApiOperation(value = "Returns a list of all whisky registered in the system, or a page of it ordered by id when afterId or limit is given, with an ETag of the catalog version")
     @ApiResponses(value = {
             @ApiResponse(code = 200, message = "List of all whiskies registered in the system"),
+            @ApiResponse(code = 304, message = "Catalog unchanged since the ETag given in If-None-Match"),
+    })
+    ResponseEntity<List<WhiskyDTO>> listWhisky(Long afterId, Integer limit, String ifNoneMatch);
+
+    @ApiOperation(value = "Streams every whisky registered in the system as NDJSON, or as a JSON array with stream=json")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Whiskies streamed in id order"),
     })
-    List<WhiskyDTO> listWhisky();
+    ResponseEntity<StreamingResponseBody> streamWhisky(String stream);
 
     @ApiOperation(value = "Delete a whisky found by a given valid Id")
     @ApiResponses(value = {
@@ -40,4 +63,29 @@ public interface WhiskyControllerDocs {
             @ApiResponse(code = 404, message = "Whisky with given id not found.")
     })
     void deleteById(@PathVariable Long id) throws WhiskyNotFoundException;
+
+    @ApiOperation(value = "Increments the stock of a whisky; a repeated Idempotency-Key returns the original result")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Success whisky stock incremented"),
+            @ApiResponse(code = 400, message = "Quantity to increment exceeds the max stock capacity."),
+            @ApiResponse(code = 404, message = "Whisky with given id not found."),
+            @ApiResponse(code = 422, message = "Idempotency key already used for a different request.")
+    })
+    WhiskyDTO increment(@PathVariable Long id, WhiskyQuantityDTO whiskyQuantityDTO, String idempotencyKey) throws WhiskyNotFoundException, WhiskyStockExceededException;
+
+    @ApiOperation(value = "Decrements the stock of a whisky only if enough quantity is available; a repeated Idempotency-Key returns the original result")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Success whisky stock decremented"),
+            @ApiResponse(code = 400, message = "Quantity to decrement exceeds the available stock."),
+            @ApiResponse(code = 404, message = "Whisky with given id not found."),
+            @ApiResponse(code = 422, message = "Idempotency key already used for a different request.")
+    })
+    WhiskyDTO decrement(@PathVariable Long id, WhiskyQuantityDTO whiskyQuantityDTO, String idempotencyKey) throws WhiskyNotFoundException, WhiskyStockExceededException;
+
+    @ApiOperation(value = "Adjusts the stock of several whiskies in a single transaction")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Per item result of the stock adjustments"),
+            @ApiResponse(code = 400, message = "Missing required fields or wrong field range value.")
+    })
+    List<WhiskyStockAdjustmentResultDTO> adjustStock(WhiskyBulkAdjustmentDTO whiskyBulkAdjustmentDTO, String idempotencyKey);
 }
@@ -0,0 +1,22 @@
+package one.digitalinnovation.whiskystock.controller;
+
+import one.digitalinnovation.whiskystock.dto.WhiskyErrorDTO;
+import one.digitalinnovation.whiskystock.exception.WhiskyBusinessException;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+@RestControllerAdvice
+public class WhiskyExceptionHandler {
+
+    @ExceptionHandler(WhiskyBusinessException.class)
+    public ResponseEntity<WhiskyErrorDTO> handleBusinessException(WhiskyBusinessException exception) {
+        ResponseStatus responseStatus = AnnotatedElementUtils.findMergedAnnotation(exception.getClass(), ResponseStatus.class);
+        HttpStatus status = responseStatus == null ? HttpStatus.BAD_REQUEST : responseStatus.code();
+        return ResponseEntity.status(status)
+                .body(new WhiskyErrorDTO(status.value(), exception.getMessage()));
+    }
+}
@@ -0,0 +1,22 @@
+package one.digitalinnovation.whiskystock.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import one.digitalinnovation.whiskystock.enums.WhiskyType;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CatalogMatchDTO {
+
+    private Long id;
+
+    private String name;
+
+    private String brand;
+
+    private WhiskyType type;
+}
@@ -0,0 +1,21 @@
+package one.digitalinnovation.whiskystock.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import one.digitalinnovation.whiskystock.enums.WhiskyType;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CatalogSearchResultDTO {
+
+    private List<CatalogMatchDTO> matches;
+
+    private Map<WhiskyType, Integer> types;
+}
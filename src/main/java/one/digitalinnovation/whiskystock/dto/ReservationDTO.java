@@ -0,0 +1,23 @@
+package one.digitalinnovation.whiskystock.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReservationDTO {
+
+    private String id;
+
+    private Long whiskyId;
+
+    private Integer quantity;
+
+    private Instant expiresAt;
+}
@@ -0,0 +1,29 @@
+package one.digitalinnovation.whiskystock.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import one.digitalinnovation.whiskystock.enums.WhiskyChangeType;
+import one.digitalinnovation.whiskystock.enums.WhiskyType;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockChangeDTO {
+
+    private long sequence;
+
+    private WhiskyChangeType change;
+
+    private Long id;
+
+    private String name;
+
+    private WhiskyType type;
+
+    private int quantity;
+
+    private int max;
+}
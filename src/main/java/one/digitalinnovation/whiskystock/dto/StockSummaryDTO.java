@@ -0,0 +1,29 @@
+package one.digitalinnovation.whiskystock.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockSummaryDTO {
+
+    private long whiskies;
+
+    private long quantity;
+
+    private long capacity;
+
+    private double fillRatio;
+
+    private long lowStock;
+
+    private List<StockSummaryGroupDTO> byType;
+
+    private List<StockSummaryGroupDTO> byBrand;
+}
@@ -0,0 +1,25 @@
+package one.digitalinnovation.whiskystock.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockSummaryGroupDTO {
+
+    private String key;
+
+    private long whiskies;
+
+    private long quantity;
+
+    private long capacity;
+
+    private double fillRatio;
+
+    private long lowStock;
+}
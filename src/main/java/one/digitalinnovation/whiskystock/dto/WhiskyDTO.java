@@ -1,5 +1,6 @@
 package one.digitalinnovation.whiskystock.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -39,4 +40,11 @@ public class WhiskyDTO {
     @Enumerated(EnumType.STRING)
     @NotNull
     private WhiskyType type;
+
+    /**
+     * Row version the whisky was read at, so listeners can order post-commit changes. Not part
+     * of the API.
+     */
+    @JsonIgnore
+    private Long version;
 }
@@ -0,0 +1,19 @@
+package one.digitalinnovation.whiskystock.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class WhiskyImportErrorDTO {
+
+    private long line;
+
+    private String name;
+
+    private String message;
+}
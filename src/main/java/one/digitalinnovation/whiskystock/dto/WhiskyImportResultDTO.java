@@ -0,0 +1,21 @@
+package one.digitalinnovation.whiskystock.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class WhiskyImportResultDTO {
+
+    private long imported;
+
+    private long rejected;
+
+    private List<WhiskyImportErrorDTO> errors;
+}
@@ -0,0 +1,21 @@
+package one.digitalinnovation.whiskystock.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class WhiskyLocationStockDTO {
+
+    private Long whiskyId;
+
+    private String location;
+
+    private Integer quantity;
+
+    private Integer max;
+}
@@ -0,0 +1,20 @@
+package one.digitalinnovation.whiskystock.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import one.digitalinnovation.whiskystock.enums.StockAdjustmentStatus;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class WhiskyStockAdjustmentResultDTO {
+
+    private Long id;
+
+    private StockAdjustmentStatus status;
+
+    private Integer quantity;
+}
@@ -4,7 +4,10 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import one.digitalinnovation.whiskystock.enums.WhiskyType;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
+import javax.persistence.Cacheable;
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.EnumType;
@@ -12,15 +15,27 @@ import javax.persistence.Enumerated;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.SequenceGenerator;
+import javax.persistence.Table;
+import javax.persistence.Version;
 
 @Data
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "whisky")
+@Table(indexes = {
+        @Index(name = "idx_whisky_type_quantity", columnList = "type, quantity"),
+        @Index(name = "idx_whisky_brand_quantity", columnList = "brand, quantity"),
+        @Index(name = "idx_whisky_quantity", columnList = "quantity")
+})
 @NoArgsConstructor
 @AllArgsConstructor
 public class Whisky {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "whisky_seq")
+    @SequenceGenerator(name = "whisky_seq", sequenceName = "whisky_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false, unique = true)
@@ -39,5 +54,7 @@ public class Whisky {
     @Column(nullable = false)
     private WhiskyType type;
 
+    @Version
+    private Long version;
 
 }
@@ -0,0 +1,51 @@
+package one.digitalinnovation.whiskystock.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.IdClass;
+import javax.persistence.Version;
+import java.io.Serializable;
+
+/**
+ * Stock of one whisky held at one location. Each location is its own row, so adjustments at
+ * different locations lock different rows; the whisky's own {@code quantity} is the stock held
+ * at the main location.
+ */
+@Data
+@Entity
+@IdClass(WhiskyLocationStock.Key.class)
+@NoArgsConstructor
+@AllArgsConstructor
+public class WhiskyLocationStock {
+
+    @Id
+    private Long whiskyId;
+
+    @Id
+    @Column(length = 100)
+    private String location;
+
+    @Column(nullable = false)
+    private int max;
+
+    @Column(nullable = false)
+    private int quantity;
+
+    @Version
+    private Long version;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+
+        private Long whiskyId;
+
+        private String location;
+    }
+}
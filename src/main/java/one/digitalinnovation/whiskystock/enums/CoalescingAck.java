@@ -0,0 +1,7 @@
+package one.digitalinnovation.whiskystock.enums;
+
+public enum CoalescingAck {
+
+    ON_ACCEPT,
+    AFTER_FLUSH
+}
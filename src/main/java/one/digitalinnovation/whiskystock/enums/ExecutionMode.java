@@ -0,0 +1,7 @@
+package one.digitalinnovation.whiskystock.enums;
+
+public enum ExecutionMode {
+
+    SYNC,
+    ASYNC
+}
@@ -0,0 +1,8 @@
+package one.digitalinnovation.whiskystock.enums;
+
+public enum StockAdjustmentStatus {
+
+    APPLIED,
+    NOT_FOUND,
+    STOCK_EXCEEDED
+}
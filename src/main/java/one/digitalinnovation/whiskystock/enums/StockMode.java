@@ -0,0 +1,9 @@
+package one.digitalinnovation.whiskystock.enums;
+
+public enum StockMode {
+
+    OPTIMISTIC,
+    ATOMIC,
+    LEDGER,
+    COALESCING
+}
@@ -0,0 +1,8 @@
+package one.digitalinnovation.whiskystock.enums;
+
+public enum WhiskyChangeType {
+
+    CREATED,
+    UPDATED,
+    DELETED
+}
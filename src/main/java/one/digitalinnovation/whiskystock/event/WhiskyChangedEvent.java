@@ -0,0 +1,39 @@
+package one.digitalinnovation.whiskystock.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+import one.digitalinnovation.whiskystock.dto.WhiskyDTO;
+import one.digitalinnovation.whiskystock.enums.WhiskyChangeType;
+
+@Getter
+@ToString
+@AllArgsConstructor
+public class WhiskyChangedEvent {
+
+    private final WhiskyChangeType type;
+
+    private final WhiskyDTO whisky;
+
+    private final int quantityDelta;
+
+    public static WhiskyChangedEvent created(WhiskyDTO whisky) {
+        return new WhiskyChangedEvent(WhiskyChangeType.CREATED, whisky, whisky.getQuantity());
+    }
+
+    public static WhiskyChangedEvent updated(WhiskyDTO whisky, int quantityDelta) {
+        return new WhiskyChangedEvent(WhiskyChangeType.UPDATED, whisky, quantityDelta);
+    }
+
+    public static WhiskyChangedEvent deleted(WhiskyDTO whisky) {
+        return new WhiskyChangedEvent(WhiskyChangeType.DELETED, whisky, -whisky.getQuantity());
+    }
+
+    public int getPreviousQuantity() {
+        return type == WhiskyChangeType.DELETED ? whisky.getQuantity() : whisky.getQuantity() - quantityDelta;
+    }
+
+    public int getCurrentQuantity() {
+        return type == WhiskyChangeType.DELETED ? 0 : whisky.getQuantity();
+    }
+}
@@ -0,0 +1,12 @@
+package one.digitalinnovation.whiskystock.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.NOT_FOUND)
+public class ReservationNotFoundException extends WhiskyBusinessException {
+
+    public ReservationNotFoundException (String reservationId) {
+        super("Reservation %s not found, or already committed, released or expired.", reservationId);
+    }
+}
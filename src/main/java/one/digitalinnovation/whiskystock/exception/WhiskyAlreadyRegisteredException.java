@@ -4,9 +4,9 @@ import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.ResponseStatus;
 
 @ResponseStatus(HttpStatus.BAD_REQUEST)
-public class WhiskyAlreadyRegisteredException extends Exception{
+public class WhiskyAlreadyRegisteredException extends WhiskyBusinessException {
 
     public WhiskyAlreadyRegisteredException (String whiskyName) {
-        super(String.format("Whisky with name %s already registered in the system.", whiskyName));
+        super("Whisky with name %s already registered in the system.", whiskyName);
     }
 }
@@ -0,0 +1,39 @@
+package one.digitalinnovation.whiskystock.exception;
+
+/**
+ * Base class for the expected business outcomes surfaced as checked exceptions. The message is
+ * only formatted when it is read, and stack traces can be switched off globally, since these
+ * exceptions are thrown on ordinary rejected requests and the trace carries no information.
+ */
+public abstract class WhiskyBusinessException extends Exception {
+
+    private static volatile boolean stackTraceEnabled = true;
+
+    private final String messageFormat;
+
+    private final Object[] messageArguments;
+
+    private String message;
+
+    protected WhiskyBusinessException (String messageFormat, Object... messageArguments) {
+        super(null, null, true, stackTraceEnabled);
+        this.messageFormat = messageFormat;
+        this.messageArguments = messageArguments;
+    }
+
+    @Override
+    public String getMessage () {
+        if (message == null && messageFormat != null) {
+            message = String.format(messageFormat, messageArguments);
+        }
+        return message;
+    }
+
+    public static void setStackTraceEnabled (boolean enabled) {
+        stackTraceEnabled = enabled;
+    }
+
+    public static boolean isStackTraceEnabled () {
+        return stackTraceEnabled;
+    }
+}
@@ -0,0 +1,12 @@
+package one.digitalinnovation.whiskystock.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.CONFLICT)
+public class WhiskyStockConflictException extends RuntimeException {
+
+    public WhiskyStockConflictException (Long id, int attempts, Throwable cause) {
+        super(String.format("Whisky with %s ID could not be updated after %s concurrent modification attempts.", id, attempts), cause);
+    }
+}
@@ -4,9 +4,9 @@ import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.ResponseStatus;
 
 @ResponseStatus(HttpStatus.BAD_REQUEST)
-public class WhiskyStockExceededException extends Exception {
+public class WhiskyStockExceededException extends WhiskyBusinessException {
 
     public WhiskyStockExceededException (Long id, int quantityToIncrement) {
-        super(String.format("Whisky with %s ID to increment informed exceeds the max stock capacity: %s", id, quantityToIncrement));
+        super("Whisky with %s ID to increment informed exceeds the max stock capacity: %s", id, quantityToIncrement);
     }
 }
@@ -0,0 +1,117 @@
+package one.digitalinnovation.whiskystock.filter;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Concurrency limit that follows the latency of the requests it lets through, in the style of
+ * a gradient limiter. Samples are averaged over windows of {@code WINDOW_SAMPLES} requests and
+ * each window is compared against a baseline, the latency without queueing. While a window stays
+ * within {@code tolerance} of the baseline the limit grows by about its square root, as long as
+ * the requests actually use it; when latency climbs past that the limit shrinks in proportion, so
+ * requests stop piling up in front of a slow database. Each step is smoothed, and failed requests
+ * shrink the limit as well.
+ * <p>
+ * The baseline cannot be learnt from ordinary traffic, whose latency already includes the
+ * queueing the limit lets in, so it only moves down with it: a window faster than the baseline
+ * replaces it. It is measured afresh, up or down, from windows that never had more than twice
+ * {@code minLimit} requests running, which is where the limit ends up when the database stays
+ * slow; the baseline then follows the slower database and the limit grows back towards what it
+ * can serve, without ever being pinned low just to measure it. Keep twice {@code minLimit}
+ * below the connection pool so those windows do not queue.
+ * <p>
+ * {@link #tryAcquire()} never waits: a request over the limit is refused and the caller sheds it.
+ */
+public class AdaptiveConcurrencyLimit {
+
+    static final int WINDOW_SAMPLES = 16;
+
+    private static final double SMOOTHING = 0.2;
+    private static final double MIN_GRADIENT = 0.5;
+    private static final double FAILURE_BACKOFF = 0.9;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final AtomicInteger inFlight = new AtomicInteger ();
+
+    private volatile int limit;
+
+    // guarded by this
+    private double estimatedLimit;
+    private double baselineRttNanos;
+    private long windowRttNanos;
+    private int windowSamples;
+    private int windowMaxInFlight;
+    private boolean windowFailed;
+
+    public AdaptiveConcurrencyLimit (int initialLimit, int minLimit, int maxLimit, double tolerance) {
+        this.minLimit = Math.max (1, minLimit);
+        this.maxLimit = Math.max (this.minLimit, maxLimit);
+        this.tolerance = Math.max (1.0, tolerance);
+        this.estimatedLimit = Math.max (this.minLimit, Math.min (initialLimit, this.maxLimit));
+        this.limit = (int) estimatedLimit;
+    }
+
+    /**
+     * Takes a slot when fewer than {@link #getLimit()} requests are running; every successful
+     * call must be followed by one {@link #release(long, boolean)}.
+     */
+    public boolean tryAcquire () {
+        int current;
+        do {
+            current = inFlight.get ();
+            if (current >= limit) {
+                return false;
+            }
+        } while (!inFlight.compareAndSet (current, current + 1));
+        return true;
+    }
+
+    /**
+     * Gives the slot back and records how long the request held it.
+     */
+    public void release (long rttNanos, boolean failed) {
+        int running = inFlight.getAndDecrement ();
+        synchronized (this) {
+            windowRttNanos += rttNanos;
+            windowSamples++;
+            windowMaxInFlight = Math.max (windowMaxInFlight, running);
+            windowFailed |= failed;
+            if (windowSamples >= WINDOW_SAMPLES) {
+                update ();
+            }
+        }
+    }
+
+    public int getLimit () {
+        return limit;
+    }
+
+    public int getInFlight () {
+        return inFlight.get ();
+    }
+
+    private void update () {
+        double windowRtt = Math.max (1.0, (double) windowRttNanos / windowSamples);
+        if (baselineRttNanos == 0 || windowMaxInFlight <= 2 * minLimit) {
+            baselineRttNanos = windowRtt;
+        } else {
+            baselineRttNanos = Math.min (baselineRttNanos, windowRtt);
+        }
+        double gradient = Math.max (MIN_GRADIENT, Math.min (1.0, tolerance * baselineRttNanos / windowRtt));
+        double newLimit = gradient < 1.0 ? estimatedLimit * gradient : estimatedLimit + Math.sqrt (estimatedLimit);
+        if (newLimit > estimatedLimit && windowMaxInFlight < estimatedLimit / 2) {
+            newLimit = estimatedLimit;
+        }
+        if (windowFailed) {
+            newLimit = Math.min (newLimit, estimatedLimit * FAILURE_BACKOFF);
+        }
+        estimatedLimit = Math.max (minLimit, Math.min (maxLimit, estimatedLimit * (1 - SMOOTHING) + newLimit * SMOOTHING));
+        limit = (int) estimatedLimit;
+
+        windowRttNanos = 0;
+        windowSamples = 0;
+        windowMaxInFlight = 0;
+        windowFailed = false;
+    }
+}
@@ -0,0 +1,174 @@
+package one.digitalinnovation.whiskystock.filter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Sheds whisky API requests over an {@link AdaptiveConcurrencyLimit} with an immediate 503 and a
+ * {@code Retry-After}, instead of letting them queue for a thread or a JDBC connection. Reads and
+ * stock mutations have a budget each, so a burst of one cannot starve the other. Reads are the
+ * GETs except the streaming export, which holds its request for the whole catalog; stock
+ * mutations are the PATCHes (increment, decrement and bulk adjustments, per whisky or per
+ * location) and location transfers. Other requests, or those of a disabled budget, pass unlimited.
+ * <p>
+ * A request's latency is measured until its response completes, so a request that goes async,
+ * for instance parked by the {@link ConnectionAwareAdmissionFilter} behind this one, reports the
+ * time it spent parked as well. A parked request also stays in flight here, so with both
+ * filters on, the adaptive limit caps running and parked requests together and sheds before the
+ * admission queue fills up. Both budgets are off unless enabled.
+ */
+public class AdaptiveConcurrencyLimitFilter implements Filter {
+
+    public static final String LIMIT_GAUGE = "whisky.web.concurrency.limit";
+    public static final String IN_FLIGHT_GAUGE = "whisky.web.concurrency.in-flight";
+    public static final String SHED_COUNTER = "whisky.web.shed";
+
+    static final String READ_BUDGET = "read";
+    static final String STOCK_BUDGET = "stock";
+
+    private static final String STREAM_PARAMETER = "stream";
+    private static final String TRANSFERS_PATH = "/transfers";
+
+    private final AdaptiveConcurrencyLimit readLimit;
+    private final AdaptiveConcurrencyLimit stockLimit;
+    private final String retryAfterSeconds;
+    private final Counter readsShed;
+    private final Counter stockMutationsShed;
+
+    /**
+     * @param readLimit  budget for reads, or {@code null} to leave them unlimited
+     * @param stockLimit budget for stock mutations, or {@code null} to leave them unlimited
+     */
+    public AdaptiveConcurrencyLimitFilter (AdaptiveConcurrencyLimit readLimit, AdaptiveConcurrencyLimit stockLimit,
+                                           Duration retryAfter, MeterRegistry meterRegistry) {
+        this.readLimit = readLimit;
+        this.stockLimit = stockLimit;
+        this.retryAfterSeconds = Long.toString (Math.max (1, (retryAfter.toMillis () + 999) / 1000));
+        this.readsShed = register (readLimit, READ_BUDGET, meterRegistry);
+        this.stockMutationsShed = register (stockLimit, STOCK_BUDGET, meterRegistry);
+    }
+
+    @Override
+    public void doFilter (ServletRequest request, ServletResponse response, FilterChain chain) throws IOException, ServletException {
+        HttpServletRequest httpRequest = (HttpServletRequest) request;
+        AdaptiveConcurrencyLimit limit = limitFor (httpRequest);
+        if (limit == null) {
+            chain.doFilter (request, response);
+            return;
+        }
+        if (!limit.tryAcquire ()) {
+            (limit == readLimit ? readsShed : stockMutationsShed).increment ();
+            shed ((HttpServletResponse) response);
+            return;
+        }
+        long start = System.nanoTime ();
+        try {
+            chain.doFilter (request, response);
+        } catch (IOException | ServletException | RuntimeException e) {
+            limit.release (System.nanoTime () - start, true);
+            throw e;
+        }
+        if (request.isAsyncStarted ()) {
+            request.getAsyncContext ().addListener (new ReleaseOnComplete (limit, (HttpServletResponse) response, start));
+        } else {
+            limit.release (System.nanoTime () - start, failed ((HttpServletResponse) response));
+        }
+    }
+
+    private AdaptiveConcurrencyLimit limitFor (HttpServletRequest request) {
+        switch (request.getMethod ()) {
+            case "GET":
+            case "HEAD":
+                return request.getParameter (STREAM_PARAMETER) == null ? readLimit : null;
+            case "PATCH":
+                return stockLimit;
+            case "POST":
+                return request.getRequestURI ().endsWith (TRANSFERS_PATH) ? stockLimit : null;
+            default:
+                return null;
+        }
+    }
+
+    private void shed (HttpServletResponse response) throws IOException {
+        if (!response.isCommitted ()) {
+            response.setHeader ("Retry-After", retryAfterSeconds);
+            response.sendError (HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+        }
+    }
+
+    private static boolean failed (HttpServletResponse response) {
+        return response.getStatus () >= HttpServletResponse.SC_INTERNAL_SERVER_ERROR;
+    }
+
+    private static Counter register (AdaptiveConcurrencyLimit limit, String budget, MeterRegistry meterRegistry) {
+        if (limit != null) {
+            Gauge.builder (LIMIT_GAUGE, limit, AdaptiveConcurrencyLimit::getLimit)
+                    .description ("Requests of the budget allowed to run at the same time")
+                    .tag ("budget", budget)
+                    .register (meterRegistry);
+            Gauge.builder (IN_FLIGHT_GAUGE, limit, AdaptiveConcurrencyLimit::getInFlight)
+                    .description ("Requests of the budget running now")
+                    .tag ("budget", budget)
+                    .register (meterRegistry);
+        }
+        return Counter.builder (SHED_COUNTER)
+                .description ("Requests answered with 503 because their budget was used up")
+                .tag ("budget", budget)
+                .register (meterRegistry);
+    }
+
+    private static final class ReleaseOnComplete implements AsyncListener {
+
+        private final AdaptiveConcurrencyLimit limit;
+        private final HttpServletResponse response;
+        private final long start;
+        private volatile boolean failed;
+
+        /**
+         * Holds on to the response itself: after a no-argument {@code startAsync()} the event's
+         * async context has no response to hand back.
+         */
+        private ReleaseOnComplete (AdaptiveConcurrencyLimit limit, HttpServletResponse response, long start) {
+            this.limit = limit;
+            this.response = response;
+            this.start = start;
+        }
+
+        @Override
+        public void onComplete (AsyncEvent event) {
+            limit.release (System.nanoTime () - start, failed || failed (response));
+        }
+
+        @Override
+        public void onTimeout (AsyncEvent event) {
+            failed = true;
+        }
+
+        @Override
+        public void onError (AsyncEvent event) {
+            failed = true;
+        }
+
+        /**
+         * A new async cycle drops the listeners of the previous one, so this one re-registers
+         * to still see the response complete.
+         */
+        @Override
+        public void onStartAsync (AsyncEvent event) {
+            event.getAsyncContext ().addListener (this);
+        }
+    }
+}
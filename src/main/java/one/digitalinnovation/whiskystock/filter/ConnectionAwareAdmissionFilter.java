@@ -0,0 +1,193 @@
+package one.digitalinnovation.whiskystock.filter;
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.DispatcherType;
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Lets at most {@code maxConcurrency} requests run at once, sized to the JDBC pool so that
+ * admitted requests never wait on a connection. Requests over the limit are put in async mode
+ * and parked in a queue without holding a container thread; when a running request finishes,
+ * the oldest parked one is dispatched back to the container. Requests that cannot be queued or
+ * wait longer than the queue timeout get a 503. A request that goes async while admitted, such as
+ * the streaming export, keeps its permit until its response completes. Server-sent event streams
+ * are the exception: a subscriber holds no connection while it waits for events, so its permit
+ * is released as soon as the handler returns.
+ */
+@Slf4j
+public class ConnectionAwareAdmissionFilter implements Filter {
+
+    static final String ADMITTED_ATTRIBUTE = ConnectionAwareAdmissionFilter.class.getName () + ".ADMITTED";
+    private static final String EVENT_STREAM = "text/event-stream";
+
+    private final Semaphore permits;
+    private final int maxQueued;
+    private final long queueTimeoutMs;
+    private final Queue<AsyncContext> parked = new ConcurrentLinkedQueue<> ();
+    private final AtomicInteger parkedCount = new AtomicInteger ();
+
+    public ConnectionAwareAdmissionFilter (int maxConcurrency, int maxQueued, long queueTimeoutMs) {
+        this.permits = new Semaphore (maxConcurrency);
+        this.maxQueued = maxQueued;
+        this.queueTimeoutMs = queueTimeoutMs;
+    }
+
+    @Override
+    public void doFilter (ServletRequest request, ServletResponse response, FilterChain chain) throws IOException, ServletException {
+        if (request.getDispatcherType () == DispatcherType.ASYNC) {
+            if (Boolean.TRUE.equals (request.getAttribute (ADMITTED_ATTRIBUTE))) {
+                request.removeAttribute (ADMITTED_ATTRIBUTE);
+                runAdmitted (request, response, chain);
+            } else {
+                chain.doFilter (request, response);
+            }
+            return;
+        }
+        if (permits.tryAcquire ()) {
+            runAdmitted (request, response, chain);
+            return;
+        }
+        if (!request.isAsyncSupported () || parkedCount.incrementAndGet () > maxQueued) {
+            if (request.isAsyncSupported ()) {
+                parkedCount.decrementAndGet ();
+            }
+            reject ((HttpServletResponse) response);
+            return;
+        }
+        park (request.startAsync (request, response));
+    }
+
+    public int getAvailablePermits () {
+        return permits.availablePermits ();
+    }
+
+    public int getParkedCount () {
+        return parkedCount.get ();
+    }
+
+    private void runAdmitted (ServletRequest request, ServletResponse response, FilterChain chain) throws IOException, ServletException {
+        boolean holdUntilComplete = false;
+        try {
+            chain.doFilter (request, response);
+            holdUntilComplete = request.isAsyncStarted () && !isEventStream (response);
+        } finally {
+            if (holdUntilComplete) {
+                request.getAsyncContext ().addListener (new ReleaseOnComplete ());
+            } else {
+                release ();
+            }
+        }
+    }
+
+    private void release () {
+        permits.release ();
+        drain ();
+    }
+
+    private void park (AsyncContext asyncContext) {
+        asyncContext.setTimeout (queueTimeoutMs);
+        asyncContext.addListener (new AsyncListener () {
+
+            @Override
+            public void onTimeout (AsyncEvent event) throws IOException {
+                if (parked.remove (asyncContext)) {
+                    parkedCount.decrementAndGet ();
+                    reject ((HttpServletResponse) asyncContext.getResponse ());
+                    asyncContext.complete ();
+                }
+            }
+
+            @Override
+            public void onComplete (AsyncEvent event) {
+            }
+
+            @Override
+            public void onError (AsyncEvent event) {
+                if (parked.remove (asyncContext)) {
+                    parkedCount.decrementAndGet ();
+                }
+            }
+
+            @Override
+            public void onStartAsync (AsyncEvent event) {
+            }
+        });
+        parked.add (asyncContext);
+        drain ();
+    }
+
+    private void drain () {
+        while (!parked.isEmpty () && permits.tryAcquire ()) {
+            AsyncContext asyncContext = parked.poll ();
+            if (asyncContext == null) {
+                permits.release ();
+                continue;
+            }
+            parkedCount.decrementAndGet ();
+            asyncContext.getRequest ().setAttribute (ADMITTED_ATTRIBUTE, Boolean.TRUE);
+            try {
+                asyncContext.dispatch ();
+            } catch (IllegalStateException e) {
+                log.debug ("Parked request was already completed", e);
+                asyncContext.getRequest ().removeAttribute (ADMITTED_ATTRIBUTE);
+                permits.release ();
+            }
+        }
+    }
+
+    private final class ReleaseOnComplete implements AsyncListener {
+
+        private final AtomicBoolean released = new AtomicBoolean ();
+
+        @Override
+        public void onComplete (AsyncEvent event) {
+            if (released.compareAndSet (false, true)) {
+                release ();
+            }
+        }
+
+        @Override
+        public void onTimeout (AsyncEvent event) {
+        }
+
+        @Override
+        public void onError (AsyncEvent event) {
+        }
+
+        /**
+         * A new async cycle drops the listeners of the previous one, so this one re-registers
+         * to still see the response complete.
+         */
+        @Override
+        public void onStartAsync (AsyncEvent event) {
+            event.getAsyncContext ().addListener (this);
+        }
+    }
+
+    private static boolean isEventStream (ServletResponse response) {
+        String contentType = response.getContentType ();
+        return contentType != null && contentType.startsWith (EVENT_STREAM);
+    }
+
+    private static void reject (HttpServletResponse response) throws IOException {
+        if (!response.isCommitted ()) {
+            response.setHeader ("Retry-After", "1");
+            response.sendError (HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+        }
+    }
+}
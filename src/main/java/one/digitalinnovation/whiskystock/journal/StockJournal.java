@@ -0,0 +1,262 @@
+package one.digitalinnovation.whiskystock.journal;
+
+import lombok.extern.slf4j.Slf4j;
+import one.digitalinnovation.whiskystock.enums.WhiskyChangeType;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Append-only journal of stock movements stored in fixed-size, memory-mapped segment files.
+ * Appends are plain sequential writes into the mapped segment and are forced to disk in groups
+ * by a background flusher. Every record carries the quantity after the movement, so replaying
+ * the tail written after the latest snapshot rebuilds the current quantities.
+ */
+@Slf4j
+public class StockJournal implements Closeable {
+
+    static final int RECORD_SIZE = 40;
+
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String SNAPSHOT_PREFIX = "snapshot-";
+    private static final String SNAPSHOT_SUFFIX = ".snap";
+    private static final int SNAPSHOT_HEADER_SIZE = Long.BYTES + Integer.BYTES;
+    private static final int SNAPSHOT_ENTRY_SIZE = Long.BYTES + Integer.BYTES;
+    private static final WhiskyChangeType[] CHANGE_TYPES = WhiskyChangeType.values ();
+
+    private final Path directory;
+    private final int recordsPerSegment;
+    private final long snapshotEvery;
+    private final ConcurrentMap<Long, Integer> quantities = new ConcurrentHashMap<> ();
+    private final ScheduledExecutorService background;
+    private final Object appendLock = new Object ();
+
+    private MappedByteBuffer segment;
+    private int segmentRecords;
+    private long nextSequence;
+    private long appendsSinceSnapshot;
+    private boolean unforced;
+    private volatile long lastSequence;
+
+    public StockJournal (Path directory, long segmentSizeBytes, long flushIntervalMs, long snapshotEvery) throws IOException {
+        this.directory = Files.createDirectories (directory);
+        this.recordsPerSegment = (int) Math.max (1, Math.min (segmentSizeBytes, Integer.MAX_VALUE) / RECORD_SIZE);
+        this.snapshotEvery = snapshotEvery;
+        this.lastSequence = recover ();
+        this.nextSequence = lastSequence + 1;
+        openSegment (nextSequence);
+        this.background = Executors.newSingleThreadScheduledExecutor (runnable -> {
+            Thread thread = new Thread (runnable, "stock-journal");
+            thread.setDaemon (true);
+            return thread;
+        });
+        background.scheduleWithFixedDelay (this::force, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    public long append (WhiskyChangeType type, long whiskyId, int quantityDelta, int quantityAfter) {
+        long sequence;
+        boolean snapshotDue;
+        synchronized (appendLock) {
+            if (segmentRecords == recordsPerSegment) {
+                roll ();
+            }
+            sequence = nextSequence++;
+            int position = segmentRecords * RECORD_SIZE;
+            segment.putLong (position + 8, System.currentTimeMillis ());
+            segment.putLong (position + 16, whiskyId);
+            segment.putInt (position + 24, quantityDelta);
+            segment.putInt (position + 28, quantityAfter);
+            segment.put (position + 32, (byte) type.ordinal ());
+            segment.putLong (position, sequence);
+            segmentRecords++;
+            unforced = true;
+            apply (type, whiskyId, quantityAfter);
+            lastSequence = sequence;
+            snapshotDue = ++appendsSinceSnapshot >= snapshotEvery;
+            if (snapshotDue) {
+                appendsSinceSnapshot = 0;
+            }
+        }
+        if (snapshotDue) {
+            background.execute (this::snapshotQuietly);
+        }
+        return sequence;
+    }
+
+    public void force () {
+        MappedByteBuffer segmentToForce;
+        synchronized (appendLock) {
+            if (!unforced) {
+                return;
+            }
+            unforced = false;
+            segmentToForce = segment;
+        }
+        segmentToForce.force ();
+    }
+
+    public synchronized void snapshot () throws IOException {
+        long snapshotSequence = lastSequence;
+        Map<Long, Integer> snapshotQuantities = new HashMap<> (quantities);
+        ByteBuffer buffer = ByteBuffer.allocate (SNAPSHOT_HEADER_SIZE + snapshotQuantities.size () * SNAPSHOT_ENTRY_SIZE);
+        buffer.putLong (snapshotSequence);
+        buffer.putInt (snapshotQuantities.size ());
+        snapshotQuantities.forEach ((id, quantity) -> buffer.putLong (id).putInt (quantity));
+        buffer.flip ();
+
+        Path snapshotPath = directory.resolve (fileName (SNAPSHOT_PREFIX, snapshotSequence, SNAPSHOT_SUFFIX));
+        Path temporaryPath = snapshotPath.resolveSibling (snapshotPath.getFileName () + ".tmp");
+        try (FileChannel channel = FileChannel.open (temporaryPath, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining ()) {
+                channel.write (buffer);
+            }
+            channel.force (true);
+        }
+        Files.move (temporaryPath, snapshotPath, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        deleteObsoleteFiles (snapshotSequence);
+    }
+
+    public Map<Long, Integer> currentQuantities () {
+        return Collections.unmodifiableMap (new HashMap<> (quantities));
+    }
+
+    public long lastSequence () {
+        return lastSequence;
+    }
+
+    @Override
+    public void close () throws IOException {
+        background.shutdown ();
+        try {
+            background.awaitTermination (5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread ().interrupt ();
+        }
+        force ();
+        snapshot ();
+    }
+
+    private void apply (WhiskyChangeType type, long whiskyId, int quantityAfter) {
+        if (type == WhiskyChangeType.DELETED) {
+            quantities.remove (whiskyId);
+        } else {
+            quantities.put (whiskyId, quantityAfter);
+        }
+    }
+
+    private void roll () {
+        segment.force ();
+        try {
+            openSegment (nextSequence);
+        } catch (IOException e) {
+            throw new UncheckedIOException (e);
+        }
+    }
+
+    private void openSegment (long firstSequence) throws IOException {
+        Path segmentPath = directory.resolve (fileName (SEGMENT_PREFIX, firstSequence, SEGMENT_SUFFIX));
+        try (FileChannel channel = FileChannel.open (segmentPath, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            segment = channel.map (FileChannel.MapMode.READ_WRITE, 0, (long) recordsPerSegment * RECORD_SIZE);
+        }
+        segmentRecords = 0;
+    }
+
+    private long recover () throws IOException {
+        long snapshotSequence = loadLatestSnapshot ();
+        long recoveredSequence = snapshotSequence;
+        for (Path segmentPath : list (SEGMENT_PREFIX, SEGMENT_SUFFIX)) {
+            try (FileChannel channel = FileChannel.open (segmentPath, StandardOpenOption.READ)) {
+                MappedByteBuffer buffer = channel.map (FileChannel.MapMode.READ_ONLY, 0, channel.size ());
+                for (int position = 0; position + RECORD_SIZE <= buffer.capacity (); position += RECORD_SIZE) {
+                    long sequence = buffer.getLong (position);
+                    if (sequence == 0) {
+                        break;
+                    }
+                    if (sequence > snapshotSequence) {
+                        apply (CHANGE_TYPES[buffer.get (position + 32)], buffer.getLong (position + 16), buffer.getInt (position + 28));
+                        recoveredSequence = Math.max (recoveredSequence, sequence);
+                    }
+                }
+            }
+        }
+        log.info ("Stock journal recovered up to sequence {} from snapshot {}", recoveredSequence, snapshotSequence);
+        return recoveredSequence;
+    }
+
+    private long loadLatestSnapshot () throws IOException {
+        List<Path> snapshots = list (SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX);
+        if (snapshots.isEmpty ()) {
+            return 0;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap (Files.readAllBytes (snapshots.get (snapshots.size () - 1)));
+        long snapshotSequence = buffer.getLong ();
+        int entries = buffer.getInt ();
+        for (int i = 0; i < entries; i++) {
+            quantities.put (buffer.getLong (), buffer.getInt ());
+        }
+        return snapshotSequence;
+    }
+
+    private void deleteObsoleteFiles (long snapshotSequence) throws IOException {
+        List<Path> snapshots = list (SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX);
+        for (Path snapshotPath : snapshots.subList (0, Math.max (0, snapshots.size () - 1))) {
+            Files.deleteIfExists (snapshotPath);
+        }
+        List<Path> segments = list (SEGMENT_PREFIX, SEGMENT_SUFFIX);
+        for (int i = 0; i + 1 < segments.size (); i++) {
+            long nextFirstSequence = firstSequence (segments.get (i + 1), SEGMENT_PREFIX, SEGMENT_SUFFIX);
+            if (nextFirstSequence - 1 > snapshotSequence) {
+                break;
+            }
+            Files.deleteIfExists (segments.get (i));
+        }
+    }
+
+    private void snapshotQuietly () {
+        try {
+            snapshot ();
+        } catch (IOException | RuntimeException e) {
+            log.error ("Could not write stock journal snapshot", e);
+        }
+    }
+
+    private List<Path> list (String prefix, String suffix) throws IOException {
+        try (Stream<Path> files = Files.list (directory)) {
+            return files.filter (path -> {
+                String name = path.getFileName ().toString ();
+                return name.startsWith (prefix) && name.endsWith (suffix);
+            }).sorted ().collect (Collectors.toList ());
+        }
+    }
+
+    private static long firstSequence (Path path, String prefix, String suffix) {
+        String name = path.getFileName ().toString ();
+        return Long.parseLong (name.substring (prefix.length (), name.length () - suffix.length ()));
+    }
+
+    private static String fileName (String prefix, long sequence, String suffix) {
+        return String.format ("%s%020d%s", prefix, sequence, suffix);
+    }
+}
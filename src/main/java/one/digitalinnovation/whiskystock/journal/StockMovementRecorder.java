@@ -0,0 +1,47 @@
+package one.digitalinnovation.whiskystock.journal;
+
+import one.digitalinnovation.whiskystock.config.StockJournalProperties;
+import one.digitalinnovation.whiskystock.event.WhiskyChangedEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.Paths;
+
+/**
+ * Records every committed stock change in the {@link StockJournal}. The append is a write into
+ * a mapped segment, so it stays off the database write path of increment and decrement.
+ */
+@Component
+@ConditionalOnProperty(prefix = "whisky.journal", name = "enabled", havingValue = "true")
+public class StockMovementRecorder {
+
+    private final StockJournal stockJournal;
+
+    @Autowired
+    public StockMovementRecorder (StockJournalProperties journalProperties) throws IOException {
+        this.stockJournal = new StockJournal (
+                Paths.get (journalProperties.getDirectory ()),
+                journalProperties.getSegmentSize ().toBytes (),
+                journalProperties.getFlushInterval ().toMillis (),
+                journalProperties.getSnapshotEvery ());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onWhiskyChanged (WhiskyChangedEvent event) {
+        stockJournal.append (event.getType (), event.getWhisky ().getId (),
+                event.getQuantityDelta (), event.getCurrentQuantity ());
+    }
+
+    public StockJournal getStockJournal () {
+        return stockJournal;
+    }
+
+    @PreDestroy
+    public void close () throws IOException {
+        stockJournal.close ();
+    }
+}
@@ -3,6 +3,7 @@ package one.digitalinnovation.whiskystock.mapper;
 import one.digitalinnovation.whiskystock.dto.WhiskyDTO;
 import one.digitalinnovation.whiskystock.entity.Whisky;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 import org.mapstruct.factory.Mappers;
 
 @Mapper
@@ -10,6 +11,7 @@ public interface WhiskyMapper {
 
     WhiskyMapper INSTANCE = Mappers.getMapper (WhiskyMapper.class);
 
+    @Mapping(target = "version", ignore = true)
     Whisky toModel (WhiskyDTO whiskyDTO);
 
     WhiskyDTO toDTO (Whisky whisky);
@@ -0,0 +1,41 @@
+package one.digitalinnovation.whiskystock.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Records how many SQL statements each request issued, tagged by method and URI template.
+ */
+public class StatementCountInterceptor implements HandlerInterceptor {
+
+    public static final String STATEMENTS_SUMMARY = "whisky.db.statements";
+
+    private final MeterRegistry meterRegistry;
+
+    public StatementCountInterceptor (MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public boolean preHandle (HttpServletRequest request, HttpServletResponse response, Object handler) {
+        StatementCounter.reset ();
+        return true;
+    }
+
+    @Override
+    public void afterCompletion (HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        Object uri = request.getAttribute (HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        DistributionSummary.builder (STATEMENTS_SUMMARY)
+                .description ("SQL statements issued per request")
+                .tag ("method", request.getMethod ())
+                .tag ("uri", uri == null ? "UNKNOWN" : uri.toString ())
+                .publishPercentileHistogram ()
+                .register (meterRegistry)
+                .record (StatementCounter.current ());
+    }
+}
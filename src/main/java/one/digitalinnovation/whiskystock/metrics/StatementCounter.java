@@ -0,0 +1,26 @@
+package one.digitalinnovation.whiskystock.metrics;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Counts the SQL statements Hibernate prepares on the current thread. The count is reset at the
+ * start of each request and read when it completes.
+ */
+public class StatementCounter implements StatementInspector {
+
+    private static final ThreadLocal<int[]> COUNT = ThreadLocal.withInitial (() -> new int[1]);
+
+    @Override
+    public String inspect (String sql) {
+        COUNT.get ()[0]++;
+        return sql;
+    }
+
+    public static void reset () {
+        COUNT.get ()[0] = 0;
+    }
+
+    public static int current () {
+        return COUNT.get ()[0];
+    }
+}
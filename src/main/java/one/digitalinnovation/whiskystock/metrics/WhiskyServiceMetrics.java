@@ -0,0 +1,138 @@
+package one.digitalinnovation.whiskystock.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import one.digitalinnovation.whiskystock.dto.WhiskyStockAdjustmentResultDTO;
+import one.digitalinnovation.whiskystock.enums.StockAdjustmentStatus;
+import one.digitalinnovation.whiskystock.exception.WhiskyNotFoundException;
+import one.digitalinnovation.whiskystock.exception.WhiskyStockExceededException;
+import one.digitalinnovation.whiskystock.service.StockAdjustment;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Times every public {@code WhiskyService} operation with a percentile histogram, tagged by
+ * operation, exception and outcome, and counts the exceptions each operation ends with.
+ * <p>
+ * Stock adjustments also count their outcome ({@link StockAdjustmentStatus}), however the
+ * operation reports it: a {@link StockAdjustment} result, a bulk result list, or, for operations
+ * that throw {@link WhiskyStockExceededException}, the returned whisky or the not-found and
+ * stock-exceeded exceptions. Keyed and plain increments, decrements and bulk adjustments
+ * therefore report the same outcomes. Other operations are tagged {@code outcome=none}.
+ */
+@Aspect
+@Component
+public class WhiskyServiceMetrics {
+
+    public static final String OPERATION_TIMER = "whisky.service.operation";
+    public static final String ERROR_COUNTER = "whisky.service.errors";
+    public static final String ADJUSTMENT_COUNTER = "whisky.service.adjustments";
+
+    private static final String NO_EXCEPTION = "none";
+    private static final String NO_OUTCOME = "none";
+
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentMap<String, Timer> timers = new ConcurrentHashMap<> ();
+    private final ConcurrentMap<String, Counter> errorCounters = new ConcurrentHashMap<> ();
+    private final Map<StockAdjustmentStatus, Counter> adjustmentCounters = new EnumMap<> (StockAdjustmentStatus.class);
+
+    @Autowired
+    public WhiskyServiceMetrics (MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        for (StockAdjustmentStatus status : StockAdjustmentStatus.values ()) {
+            adjustmentCounters.put (status, Counter.builder (ADJUSTMENT_COUNTER)
+                    .description ("Stock adjustments by outcome")
+                    .tag ("outcome", status.name ())
+                    .register (meterRegistry));
+        }
+    }
+
+    @Around("execution(public * one.digitalinnovation.whiskystock.service.WhiskyService.*(..))")
+    public Object time (ProceedingJoinPoint joinPoint) throws Throwable {
+        String operation = joinPoint.getSignature ().getName ();
+        boolean adjustsStock = adjustsStock (joinPoint);
+        String exception = NO_EXCEPTION;
+        String outcome = NO_OUTCOME;
+        Timer.Sample sample = Timer.start (meterRegistry);
+        try {
+            Object result = joinPoint.proceed ();
+            outcome = recordOutcome (result, adjustsStock);
+            return result;
+        } catch (Throwable e) {
+            exception = e.getClass ().getSimpleName ();
+            errorCounter (operation, exception).increment ();
+            if (adjustsStock) {
+                outcome = recordOutcome (e);
+            }
+            throw e;
+        } finally {
+            sample.stop (timer (operation, exception, outcome));
+        }
+    }
+
+    private static boolean adjustsStock (ProceedingJoinPoint joinPoint) {
+        return joinPoint.getSignature () instanceof MethodSignature
+                && Arrays.asList (((MethodSignature) joinPoint.getSignature ()).getMethod ().getExceptionTypes ())
+                .contains (WhiskyStockExceededException.class);
+    }
+
+    private String recordOutcome (Object result, boolean adjustsStock) {
+        if (result instanceof StockAdjustment) {
+            return record (((StockAdjustment) result).getStatus ());
+        }
+        if (result instanceof List && !((List<?>) result).isEmpty ()
+                && ((List<?>) result).get (0) instanceof WhiskyStockAdjustmentResultDTO) {
+            for (Object adjustmentResult : (List<?>) result) {
+                adjustmentCounters.get (((WhiskyStockAdjustmentResultDTO) adjustmentResult).getStatus ()).increment ();
+            }
+            return NO_OUTCOME;
+        }
+        return adjustsStock ? record (StockAdjustmentStatus.APPLIED) : NO_OUTCOME;
+    }
+
+    private String recordOutcome (Throwable e) {
+        if (e instanceof WhiskyNotFoundException) {
+            return record (StockAdjustmentStatus.NOT_FOUND);
+        }
+        if (e instanceof WhiskyStockExceededException) {
+            return record (StockAdjustmentStatus.STOCK_EXCEEDED);
+        }
+        return NO_OUTCOME;
+    }
+
+    private String record (StockAdjustmentStatus status) {
+        adjustmentCounters.get (status).increment ();
+        return status.name ();
+    }
+
+    private Timer timer (String operation, String exception, String outcome) {
+        return timers.computeIfAbsent (operation + '/' + exception + '/' + outcome, key -> Timer.builder (OPERATION_TIMER)
+                .description ("Time spent in WhiskyService operations")
+                .tag ("operation", operation)
+                .tag ("exception", exception)
+                .tag ("outcome", outcome)
+                .publishPercentileHistogram ()
+                .publishPercentiles (0.5, 0.95, 0.99)
+                .register (meterRegistry));
+    }
+
+    private Counter errorCounter (String operation, String exception) {
+        return errorCounters.computeIfAbsent (operation + '/' + exception, key -> Counter.builder (ERROR_COUNTER)
+                .description ("WhiskyService operations that ended with an exception")
+                .tag ("operation", operation)
+                .tag ("exception", exception)
+                .register (meterRegistry));
+    }
+}
@@ -0,0 +1,27 @@
+package one.digitalinnovation.whiskystock.metrics;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import one.digitalinnovation.whiskystock.enums.WhiskyType;
+import one.digitalinnovation.whiskystock.service.StockSummary;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Total stock per {@link WhiskyType}, read from the in-memory {@link StockSummary}.
+ */
+@Component
+public class WhiskyStockGauges {
+
+    public static final String STOCK_GAUGE = "whisky.stock.quantity";
+
+    @Autowired
+    public WhiskyStockGauges (StockSummary stockSummary, MeterRegistry meterRegistry) {
+        for (WhiskyType type : WhiskyType.values ()) {
+            Gauge.builder (STOCK_GAUGE, stockSummary, summary -> summary.quantityOf (type))
+                    .description ("Bottles in stock per whisky type")
+                    .tag ("type", type.name ())
+                    .register (meterRegistry);
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package one.digitalinnovation.whiskystock.repository;
+
+import one.digitalinnovation.whiskystock.entity.WhiskyLocationStock;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.QueryHint;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+
+public interface WhiskyLocationStockRepository extends JpaRepository<WhiskyLocationStock, WhiskyLocationStock.Key>,
+        WhiskyLocationStockRepositoryCustom {
+
+    List<WhiskyLocationStock> findByWhiskyIdOrderByLocation (Long whiskyId);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query("select s from WhiskyLocationStock s order by s.whiskyId, s.location")
+    Stream<WhiskyLocationStock> streamAll ();
+
+    /**
+     * Opens an empty location with the whisky's own {@code max} as its capacity. Inserts nothing
+     * when the whisky does not exist, and fails with a duplicate key when the location is
+     * already open.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "insert into whisky_location_stock (whisky_id, location, max, quantity, version) " +
+            "select id, :location, max, 0, 0 from whisky where id = :whiskyId", nativeQuery = true)
+    int open (@Param("whiskyId") Long whiskyId, @Param("location") String location);
+}
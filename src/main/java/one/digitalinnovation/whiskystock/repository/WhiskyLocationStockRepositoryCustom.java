@@ -0,0 +1,15 @@
+package one.digitalinnovation.whiskystock.repository;
+
+import one.digitalinnovation.whiskystock.entity.WhiskyLocationStock;
+
+import java.util.Optional;
+
+public interface WhiskyLocationStockRepositoryCustom {
+
+    /**
+     * Adds {@code delta} to the location's quantity in one bounded UPDATE, which only matches
+     * while the result stays within zero and the location's {@code max}, and returns the stock
+     * as it left the row, or empty when nothing matched (including a location not yet open).
+     */
+    Optional<WhiskyLocationStock> adjustIfWithinBounds (Long whiskyId, String location, int delta);
+}
@@ -0,0 +1,47 @@
+package one.digitalinnovation.whiskystock.repository;
+
+import one.digitalinnovation.whiskystock.entity.WhiskyLocationStock;
+import org.hibernate.query.NativeQuery;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.Optional;
+
+public class WhiskyLocationStockRepositoryImpl implements WhiskyLocationStockRepositoryCustom {
+
+    private static final String ADJUST_IF_WITHIN_BOUNDS = "update whisky_location_stock set quantity = quantity + :delta, version = version + 1 " +
+            "where whisky_id = :whiskyId and location = :location and quantity + :delta >= 0 and quantity + :delta <= max";
+
+    private static final String SELECT_BY_KEY = "select max, quantity, version from whisky_location_stock " +
+            "where whisky_id = :whiskyId and location = :location";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * The UPDATE is synchronized on this entity only, so the cached whiskies stay valid, and the
+     * row is read back as plain columns so a stale instance in the persistence context cannot
+     * answer for it.
+     */
+    @Override
+    @Transactional
+    public Optional<WhiskyLocationStock> adjustIfWithinBounds (Long whiskyId, String location, int delta) {
+        int adjusted = entityManager.createNativeQuery (ADJUST_IF_WITHIN_BOUNDS)
+                .unwrap (NativeQuery.class)
+                .addSynchronizedEntityClass (WhiskyLocationStock.class)
+                .setParameter ("whiskyId", whiskyId)
+                .setParameter ("location", location)
+                .setParameter ("delta", delta)
+                .executeUpdate ();
+        if (adjusted == 0) {
+            return Optional.empty ();
+        }
+        Object[] row = (Object[]) entityManager.createNativeQuery (SELECT_BY_KEY)
+                .setParameter ("whiskyId", whiskyId)
+                .setParameter ("location", location)
+                .getSingleResult ();
+        return Optional.of (new WhiskyLocationStock (whiskyId, location, ((Number) row[0]).intValue (),
+                ((Number) row[1]).intValue (), row[2] == null ? null : ((Number) row[2]).longValue ()));
+    }
+}
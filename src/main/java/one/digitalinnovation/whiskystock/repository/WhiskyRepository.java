@@ -1,11 +1,45 @@
 package one.digitalinnovation.whiskystock.repository;
 
 import one.digitalinnovation.whiskystock.entity.Whisky;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import javax.persistence.QueryHint;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
-public interface WhiskyRepository extends JpaRepository<Whisky, Long> {
+import static org.hibernate.jpa.QueryHints.HINT_CACHEABLE;
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
 
+public interface WhiskyRepository extends JpaRepository<Whisky, Long>, WhiskyRepositoryCustom {
+
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
     Optional<Whisky> findByName (String name);
+
+    List<Whisky> findByIdGreaterThanOrderByIdAsc (Long id, Pageable pageable);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query("select w from Whisky w order by w.id")
+    Stream<Whisky> streamAllOrderedById ();
+
+    @Query("select w.name from Whisky w where w.name in :names")
+    Set<String> findRegisteredNames (@Param("names") Collection<String> names);
+
+    @Query("select w.type, w.brand, count(w), sum(w.quantity), sum(w.max), " +
+            "sum(case when w.quantity <= w.max * cast(:lowStockRatio as double) then 1 else 0 end) " +
+            "from Whisky w group by w.type, w.brand")
+    List<Object[]> summarizeByTypeAndBrand (@Param("lowStockRatio") double lowStockRatio);
+
+    @Transactional
+    @Modifying
+    @Query("update Whisky w set w.quantity = :quantity, w.version = w.version + 1 where w.id = :id")
+    int updateQuantity (@Param("id") Long id, @Param("quantity") int quantity);
 }
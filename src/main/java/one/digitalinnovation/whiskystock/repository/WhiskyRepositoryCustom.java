@@ -0,0 +1,35 @@
+package one.digitalinnovation.whiskystock.repository;
+
+import one.digitalinnovation.whiskystock.entity.Whisky;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface WhiskyRepositoryCustom {
+
+    /**
+     * Whiskies matching the specification, lowest quantity first, without the count query a
+     * {@code Page} would need.
+     */
+    List<Whisky> findLowestQuantity (Specification<Whisky> specification, int limit);
+
+    /**
+     * Adds {@code delta} to the quantity in one bounded UPDATE, which only matches while the
+     * result stays within zero and {@code max}, and returns the whisky as it left the row, or
+     * empty when nothing matched. The second-level cache is left alone; call
+     * {@link #evictFromCache(Long)} once the adjustment has committed.
+     */
+    Optional<Whisky> adjustIfWithinBounds (Long id, int delta);
+
+    /**
+     * Like {@link #adjustIfWithinBounds(Long, int)}, but the quantity may not drop below
+     * {@code floor} rather than zero, which keeps a decrement out of stock held for someone else.
+     */
+    Optional<Whisky> adjustIfWithinBounds (Long id, int delta, int floor);
+
+    /**
+     * Drops the whisky from the second-level cache after it was changed behind Hibernate's back.
+     */
+    void evictFromCache (Long id);
+}
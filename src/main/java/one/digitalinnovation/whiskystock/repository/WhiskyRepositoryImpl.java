@@ -0,0 +1,80 @@
+package one.digitalinnovation.whiskystock.repository;
+
+import one.digitalinnovation.whiskystock.entity.Whisky;
+import one.digitalinnovation.whiskystock.enums.WhiskyType;
+import org.hibernate.query.NativeQuery;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Root;
+import java.util.List;
+import java.util.Optional;
+
+public class WhiskyRepositoryImpl implements WhiskyRepositoryCustom {
+
+    private static final String ADJUST_IF_WITHIN_BOUNDS = "update whisky set quantity = quantity + :delta, version = version + 1 " +
+            "where id = :id and quantity + :delta >= :floor and quantity + :delta <= max";
+
+    private static final String SELECT_BY_ID = "select id, name, brand, max, quantity, type, version from whisky where id = :id";
+
+    /**
+     * A native UPDATE would otherwise invalidate every cached region; this space belongs to no
+     * entity, so nothing is, and the caller evicts the one whisky it changed.
+     */
+    private static final String ADJUSTMENT_QUERY_SPACE = "whisky_stock_adjustment";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Whisky> findLowestQuantity (Specification<Whisky> specification, int limit) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder ();
+        CriteriaQuery<Whisky> query = criteriaBuilder.createQuery (Whisky.class);
+        Root<Whisky> root = query.from (Whisky.class);
+        query.where (specification.toPredicate (root, query, criteriaBuilder))
+                .orderBy (criteriaBuilder.asc (root.get ("quantity")), criteriaBuilder.asc (root.get ("id")));
+        return entityManager.createQuery (query)
+                .setMaxResults (limit)
+                .getResultList ();
+    }
+
+    /**
+     * Reads the adjusted row back as plain columns rather than as an entity, so neither a stale
+     * instance in the persistence context nor the second-level cache can answer for it.
+     */
+    @Override
+    @Transactional
+    public Optional<Whisky> adjustIfWithinBounds (Long id, int delta) {
+        return adjustIfWithinBounds (id, delta, 0);
+    }
+
+    @Override
+    @Transactional
+    public Optional<Whisky> adjustIfWithinBounds (Long id, int delta, int floor) {
+        int adjusted = entityManager.createNativeQuery (ADJUST_IF_WITHIN_BOUNDS)
+                .unwrap (NativeQuery.class)
+                .addSynchronizedQuerySpace (ADJUSTMENT_QUERY_SPACE)
+                .setParameter ("id", id)
+                .setParameter ("delta", delta)
+                .setParameter ("floor", floor)
+                .executeUpdate ();
+        if (adjusted == 0) {
+            return Optional.empty ();
+        }
+        Object[] row = (Object[]) entityManager.createNativeQuery (SELECT_BY_ID)
+                .setParameter ("id", id)
+                .getSingleResult ();
+        return Optional.of (new Whisky (((Number) row[0]).longValue (), (String) row[1], (String) row[2],
+                ((Number) row[3]).intValue (), ((Number) row[4]).intValue (), WhiskyType.valueOf ((String) row[5]),
+                row[6] == null ? null : ((Number) row[6]).longValue ()));
+    }
+
+    @Override
+    public void evictFromCache (Long id) {
+        entityManager.getEntityManagerFactory ().getCache ().evict (Whisky.class, id);
+    }
+}
@@ -0,0 +1,47 @@
+package one.digitalinnovation.whiskystock.repository;
+
+import one.digitalinnovation.whiskystock.dto.WhiskySearchCriteriaDTO;
+import one.digitalinnovation.whiskystock.entity.Whisky;
+import org.springframework.data.jpa.domain.Specification;
+
+import javax.persistence.criteria.Predicate;
+import java.util.ArrayList;
+import java.util.List;
+
+public final class WhiskySpecifications {
+
+    private WhiskySpecifications () {
+    }
+
+    /**
+     * Only the criteria that are set become predicates, so the type, brand and quantity filters
+     * can use the indexes declared on {@link Whisky}. Fill ratio bounds are compared as
+     * {@code quantity} against {@code max * ratio}.
+     */
+    public static Specification<Whisky> matching (WhiskySearchCriteriaDTO criteria) {
+        return (root, query, criteriaBuilder) -> {
+            List<Predicate> predicates = new ArrayList<> ();
+            if (criteria.getType () != null) {
+                predicates.add (criteriaBuilder.equal (root.get ("type"), criteria.getType ()));
+            }
+            if (criteria.getBrand () != null) {
+                predicates.add (criteriaBuilder.equal (root.get ("brand"), criteria.getBrand ()));
+            }
+            if (criteria.getMinQuantity () != null) {
+                predicates.add (criteriaBuilder.ge (root.<Integer>get ("quantity"), criteria.getMinQuantity ()));
+            }
+            if (criteria.getMaxQuantity () != null) {
+                predicates.add (criteriaBuilder.le (root.<Integer>get ("quantity"), criteria.getMaxQuantity ()));
+            }
+            if (criteria.getMinFillRatio () != null) {
+                predicates.add (criteriaBuilder.ge (root.<Integer>get ("quantity"),
+                        criteriaBuilder.prod (criteriaBuilder.toDouble (root.<Integer>get ("max")), criteria.getMinFillRatio ())));
+            }
+            if (criteria.getMaxFillRatio () != null) {
+                predicates.add (criteriaBuilder.le (root.<Integer>get ("quantity"),
+                        criteriaBuilder.prod (criteriaBuilder.toDouble (root.<Integer>get ("max")), criteria.getMaxFillRatio ())));
+            }
+            return criteriaBuilder.and (predicates.toArray (new Predicate[0]));
+        };
+    }
+}
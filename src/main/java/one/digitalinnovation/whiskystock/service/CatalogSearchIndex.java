@@ -0,0 +1,938 @@
+package one.digitalinnovation.whiskystock.service;
+
+import one.digitalinnovation.whiskystock.dto.CatalogMatchDTO;
+import one.digitalinnovation.whiskystock.dto.CatalogSearchResultDTO;
+import one.digitalinnovation.whiskystock.dto.WhiskyDTO;
+import one.digitalinnovation.whiskystock.entity.Whisky;
+import one.digitalinnovation.whiskystock.enums.WhiskyChangeType;
+import one.digitalinnovation.whiskystock.enums.WhiskyType;
+import one.digitalinnovation.whiskystock.event.WhiskyChangedEvent;
+import one.digitalinnovation.whiskystock.mapper.WhiskyMapper;
+import one.digitalinnovation.whiskystock.repository.WhiskyRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.persistence.EntityManager;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * In-memory search over whisky name and brand for autocomplete. Text is lower-cased, stripped
+ * of accents and split into words. Each distinct word is a term holding the whiskies that use
+ * it, and terms are indexed by their trigrams, with two leading pad characters so one and two
+ * letter prefixes have a trigram of their own.
+ * <p>
+ * A query word is first resolved against the terms, which are far fewer than the whiskies: the
+ * terms that equal it, start with it or contain it come from intersecting its trigram lists,
+ * and, only when that does not fill the page, the terms within one edit (two for long words) of
+ * it or of their own prefix from counting shared trigrams. Matches are ranked by how well each
+ * word matched, then by shorter name, then by lower id.
+ * <p>
+ * A single query word, the usual autocomplete case, is ranked from each term's list of its
+ * {@value #SHORTEST_PER_TERM} whiskies with the shortest names, merged from the best score down
+ * until the page is full, so its ranking cost follows the page size rather than the number of
+ * matches. Its type facet comes from a cached per-term count when one term matched, and
+ * otherwise walks the matched terms' whiskies so that a whisky matching through two of its own
+ * words counts once. Queries of several words intersect the whiskies of each word, keep the top
+ * {@code limit} of every match and count the facet along the way.
+ * <p>
+ * Loaded once at startup and kept current from create and delete events; quantity changes do
+ * not touch it. The slots of deleted whiskies and the ids of dropped terms are handed out again.
+ * Searches share a read lock and only wait for index writes.
+ */
+@Component
+public class CatalogSearchIndex {
+
+    private static final char PAD = '$';
+    private static final double EXACT_WORD = 3;
+    private static final double PREFIX = 2;
+    private static final double SUBSTRING = 1;
+    private static final double TYPO = 0.5;
+    private static final int SHORTEST_PER_TERM = 100;
+
+    private final WhiskyRepository whiskyRepository;
+    private final EntityManager entityManager;
+    private final WhiskyMapper whiskyMapper = WhiskyMapper.INSTANCE;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock ();
+    private final Map<String, Term> termsByWord = new HashMap<> ();
+    private final Map<Long, Postings> termsByTrigram = new HashMap<> ();
+    private final Map<Long, Integer> slotById = new HashMap<> ();
+    private final ThreadLocal<Scratch> scratch = ThreadLocal.withInitial (Scratch::new);
+
+    private final FreeList termIds = new FreeList ();
+    private final FreeList slots = new FreeList ();
+
+    private Term[] terms = new Term[1024];
+    private Document[] documents = new Document[1024];
+    private byte[] slotTypes = new byte[1024];
+    private int[] slotNameLengths = new int[1024];
+    private long[] slotIds = new long[1024];
+
+    @Autowired
+    public CatalogSearchIndex (WhiskyRepository whiskyRepository, EntityManager entityManager) {
+        this.whiskyRepository = whiskyRepository;
+        this.entityManager = entityManager;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void load () {
+        try (Stream<Whisky> whiskies = whiskyRepository.streamAllOrderedById ()) {
+            Iterator<Whisky> whiskyIterator = whiskies.iterator ();
+            while (whiskyIterator.hasNext ()) {
+                Whisky whisky = whiskyIterator.next ();
+                add (whiskyMapper.toDTO (whisky));
+                entityManager.detach (whisky);
+            }
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onWhiskyChanged (WhiskyChangedEvent event) {
+        if (event.getType () == WhiskyChangeType.CREATED) {
+            add (event.getWhisky ());
+        } else if (event.getType () == WhiskyChangeType.DELETED) {
+            remove (event.getWhisky ().getId ());
+        }
+    }
+
+    /**
+     * The best {@code limit} whiskies matching every word of {@code query}, optionally only of one
+     * {@link WhiskyType}, with the number of matches per type.
+     */
+    public CatalogSearchResultDTO search (String query, WhiskyType type, int limit) {
+        String[] words = words (query);
+        Results results = new Results (type, limit);
+        if (words.length > 0) {
+            lock.readLock ().lock ();
+            try {
+                match (words, false, results);
+                if (results.best.size () < limit && Arrays.stream (words).anyMatch (word -> allowedEdits (word) > 0)) {
+                    results = new Results (type, limit);
+                    match (words, true, results);
+                }
+            } finally {
+                lock.readLock ().unlock ();
+            }
+        }
+        return results.toDTO ();
+    }
+
+    public int size () {
+        lock.readLock ().lock ();
+        try {
+            return slotById.size ();
+        } finally {
+            lock.readLock ().unlock ();
+        }
+    }
+
+    private void add (WhiskyDTO whisky) {
+        Set<String> words = new LinkedHashSet<> (Arrays.asList (words (whisky.getName ())));
+        words.addAll (Arrays.asList (words (whisky.getBrand ())));
+        lock.writeLock ().lock ();
+        try {
+            if (slotById.containsKey (whisky.getId ())) {
+                return;
+            }
+            int slot = slots.take ();
+            if (slot == documents.length) {
+                documents = Arrays.copyOf (documents, documents.length * 2);
+                slotTypes = Arrays.copyOf (slotTypes, documents.length);
+                slotNameLengths = Arrays.copyOf (slotNameLengths, documents.length);
+                slotIds = Arrays.copyOf (slotIds, documents.length);
+            }
+            slotTypes[slot] = (byte) whisky.getType ().ordinal ();
+            slotNameLengths[slot] = whisky.getName ().length ();
+            slotIds[slot] = whisky.getId ();
+            Term[] documentTerms = new Term[words.size ()];
+            int termCount = 0;
+            for (String word : words) {
+                Term term = termsByWord.computeIfAbsent (word, this::newTerm);
+                addDocument (term, slot);
+                documentTerms[termCount++] = term;
+            }
+            documents[slot] = new Document (whisky, documentTerms);
+            slotById.put (whisky.getId (), slot);
+        } finally {
+            lock.writeLock ().unlock ();
+        }
+    }
+
+    private void remove (Long id) {
+        lock.writeLock ().lock ();
+        try {
+            Integer slot = slotById.remove (id);
+            if (slot == null) {
+                return;
+            }
+            for (Term term : documents[slot].terms) {
+                removeDocument (term, slot);
+                if (term.documents.size == 0) {
+                    removeTerm (term);
+                }
+            }
+            documents[slot] = null;
+            slots.give (slot);
+        } finally {
+            lock.writeLock ().unlock ();
+        }
+    }
+
+    private Term newTerm (String word) {
+        int id = termIds.take ();
+        if (id == terms.length) {
+            terms = Arrays.copyOf (terms, terms.length * 2);
+        }
+        Term term = new Term (id, word);
+        terms[term.id] = term;
+        for (long trigram : trigrams (word, true)) {
+            termsByTrigram.computeIfAbsent (trigram, key -> new Postings ()).insert (term.id);
+        }
+        return term;
+    }
+
+    private void removeTerm (Term term) {
+        termsByWord.remove (term.word);
+        terms[term.id] = null;
+        for (long trigram : trigrams (term.word, true)) {
+            Postings postings = termsByTrigram.get (trigram);
+            if (postings != null && postings.remove (term.id) && postings.size == 0) {
+                termsByTrigram.remove (trigram);
+            }
+        }
+        termIds.give (term.id);
+    }
+
+    /**
+     * Keeps the term's cached lists current. A shortest-name list shorter than
+     * {@value #SHORTEST_PER_TERM} holds every whisky of the term, so it can always take or drop
+     * one; a full list takes a whisky that beats its last and is dropped when it loses one.
+     */
+    private void addDocument (Term term, int slot) {
+        term.documents.insert (slot);
+        int[] typeCounts = term.typeCounts;
+        if (typeCounts != null) {
+            typeCounts[slotTypes[slot]]++;
+        }
+        int[] shortest = term.shortest;
+        if (shortest == null) {
+            return;
+        }
+        if (shortest.length < SHORTEST_PER_TERM) {
+            term.shortest = withSlot (shortest, slot, shortest.length + 1);
+        } else if (compareSlots (slot, shortest[shortest.length - 1]) < 0) {
+            term.shortest = withSlot (shortest, slot, shortest.length);
+        }
+    }
+
+    private void removeDocument (Term term, int slot) {
+        term.documents.remove (slot);
+        int[] typeCounts = term.typeCounts;
+        if (typeCounts != null) {
+            typeCounts[slotTypes[slot]]--;
+        }
+        int[] shortest = term.shortest;
+        if (shortest == null) {
+            return;
+        }
+        int index = indexOf (shortest, slot);
+        if (index >= 0) {
+            term.shortest = term.documents.size < shortest.length ? withoutIndex (shortest, index) : null;
+        }
+    }
+
+    /**
+     * The term's whiskies with the shortest names, in ranking order, built on first use.
+     */
+    private int[] shortest (Term term) {
+        int[] shortest = term.shortest;
+        if (shortest == null) {
+            PriorityQueue<Integer> worstFirst = new PriorityQueue<> (SHORTEST_PER_TERM + 1, (a, b) -> compareSlots (b, a));
+            Postings postings = term.documents;
+            for (int p = 0; p < postings.size; p++) {
+                worstFirst.offer (postings.values[p]);
+                if (worstFirst.size () > SHORTEST_PER_TERM) {
+                    worstFirst.poll ();
+                }
+            }
+            shortest = new int[worstFirst.size ()];
+            for (int i = shortest.length - 1; i >= 0; i--) {
+                shortest[i] = worstFirst.poll ();
+            }
+            term.shortest = shortest;
+        }
+        return shortest;
+    }
+
+    private int[] typeCounts (Term term) {
+        int[] typeCounts = term.typeCounts;
+        if (typeCounts == null) {
+            typeCounts = new int[WhiskyType.values ().length];
+            Postings postings = term.documents;
+            for (int p = 0; p < postings.size; p++) {
+                typeCounts[slotTypes[postings.values[p]]]++;
+            }
+            term.typeCounts = typeCounts;
+        }
+        return typeCounts;
+    }
+
+    private int[] withSlot (int[] shortest, int slot, int length) {
+        int position = 0;
+        while (position < shortest.length && compareSlots (shortest[position], slot) < 0) {
+            position++;
+        }
+        int[] updated = new int[length];
+        System.arraycopy (shortest, 0, updated, 0, position);
+        updated[position] = slot;
+        System.arraycopy (shortest, position, updated, position + 1, length - position - 1);
+        return updated;
+    }
+
+    private static int[] withoutIndex (int[] shortest, int index) {
+        int[] updated = new int[shortest.length - 1];
+        System.arraycopy (shortest, 0, updated, 0, index);
+        System.arraycopy (shortest, index + 1, updated, index, updated.length - index);
+        return updated;
+    }
+
+    private static int indexOf (int[] values, int value) {
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Orders whiskies of equal score: shorter name first, then lower id.
+     */
+    private int compareSlots (int slot, int otherSlot) {
+        if (slotNameLengths[slot] != slotNameLengths[otherSlot]) {
+            return Integer.compare (slotNameLengths[slot], slotNameLengths[otherSlot]);
+        }
+        return Long.compare (slotIds[slot], slotIds[otherSlot]);
+    }
+
+    /**
+     * Intersects the whiskies of each query word, starting from the word with the fewest. A later
+     * word either walks its terms' whiskies or, when those far outnumber the whiskies still in
+     * the running, checks the survivors' own terms.
+     */
+    private void match (String[] words, boolean allowTypos, Results results) {
+        List<List<TermMatch>> termMatches = new ArrayList<> (words.length);
+        for (String word : words) {
+            List<TermMatch> matches = termMatches (word, allowTypos);
+            if (matches.isEmpty ()) {
+                return;
+            }
+            termMatches.add (matches);
+        }
+        Scratch scratch = this.scratch.get ().sizedFor (documents.length, terms.length);
+        if (termMatches.size () == 1 && results.limit <= SHORTEST_PER_TERM && collectShortest (termMatches.get (0), results, scratch)) {
+            return;
+        }
+        termMatches.sort (Comparator.comparingLong (CatalogSearchIndex::postingsSize));
+
+        int[] candidates = new int[64];
+        int candidateCount = 0;
+        for (TermMatch termMatch : termMatches.get (0)) {
+            Postings postings = termMatch.term.documents;
+            for (int p = 0; p < postings.size; p++) {
+                int slot = postings.values[p];
+                if (scratch.matchedWords[slot] == 0) {
+                    scratch.matchedWords[slot] = 1;
+                    scratch.scores[slot] = termMatch.score;
+                    candidates = grow (candidates, candidateCount);
+                    candidates[candidateCount++] = slot;
+                }
+            }
+        }
+        int survivors = candidateCount;
+        for (int word = 1; word < termMatches.size () && survivors > 0; word++) {
+            List<TermMatch> matches = termMatches.get (word);
+            survivors = postingsSize (matches) > 4L * survivors
+                    ? matchSurvivors (matches, word, candidates, candidateCount, scratch)
+                    : matchPostings (matches, word, scratch);
+        }
+        for (int c = 0; c < candidateCount; c++) {
+            int slot = candidates[c];
+            if (scratch.matchedWords[slot] == termMatches.size ()) {
+                results.collect (slot, scratch.scores[slot]);
+            }
+            scratch.matchedWords[slot] = 0;
+        }
+    }
+
+    /**
+     * Ranks one query word's terms from their shortest-name lists. Terms of equal score are
+     * merged in ranking order and score groups taken best first, so every whisky reached goes
+     * straight onto the page and the walk ends once the page is full. Returns false, with the
+     * results cleared, when the type filter empties a list that does not hold all of its term's
+     * whiskies before the page is full; the caller then walks the postings instead.
+     */
+    private boolean collectShortest (List<TermMatch> matches, Results results, Scratch scratch) {
+        int[] reached = new int[64];
+        int reachedCount = 0;
+        try {
+            int groupStart = 0;
+            while (groupStart < matches.size () && !results.isFull ()) {
+                double score = matches.get (groupStart).score;
+                PriorityQueue<Cursor> heads = new PriorityQueue<> ((a, b) -> compareSlots (a.slot (), b.slot ()));
+                int groupEnd = groupStart;
+                while (groupEnd < matches.size () && matches.get (groupEnd).score == score) {
+                    Term term = matches.get (groupEnd++).term;
+                    heads.add (new Cursor (shortest (term), term.documents.size));
+                }
+                while (!results.isFull () && !heads.isEmpty ()) {
+                    Cursor cursor = heads.poll ();
+                    int slot = cursor.slot ();
+                    if (scratch.matchedWords[slot] == 0) {
+                        scratch.matchedWords[slot] = 1;
+                        reached = grow (reached, reachedCount);
+                        reached[reachedCount++] = slot;
+                        results.rank (slot, score);
+                    }
+                    if (cursor.advance ()) {
+                        heads.add (cursor);
+                    } else if (cursor.truncated && !results.isFull ()) {
+                        results.clear ();
+                        return false;
+                    }
+                }
+                groupStart = groupEnd;
+            }
+        } finally {
+            for (int r = 0; r < reachedCount; r++) {
+                scratch.matchedWords[reached[r]] = 0;
+            }
+        }
+        if (matches.size () == 1) {
+            results.count (typeCounts (matches.get (0).term));
+        } else {
+            countDistinct (matches, results, scratch);
+        }
+        return true;
+    }
+
+    /**
+     * Counts the type of every whisky of the matched terms once, however many of its words
+     * matched.
+     */
+    private static void countDistinct (List<TermMatch> matches, Results results, Scratch scratch) {
+        for (TermMatch match : matches) {
+            Postings postings = match.term.documents;
+            for (int p = 0; p < postings.size; p++) {
+                int slot = postings.values[p];
+                if (scratch.matchedWords[slot] == 0) {
+                    scratch.matchedWords[slot] = 1;
+                    results.count (slot);
+                }
+            }
+        }
+        for (TermMatch match : matches) {
+            Postings postings = match.term.documents;
+            for (int p = 0; p < postings.size; p++) {
+                scratch.matchedWords[postings.values[p]] = 0;
+            }
+        }
+    }
+
+    private static int matchPostings (List<TermMatch> matches, int word, Scratch scratch) {
+        int survivors = 0;
+        for (TermMatch termMatch : matches) {
+            Postings postings = termMatch.term.documents;
+            for (int p = 0; p < postings.size; p++) {
+                int slot = postings.values[p];
+                if (scratch.matchedWords[slot] == word) {
+                    scratch.matchedWords[slot] = word + 1;
+                    scratch.scores[slot] += termMatch.score;
+                    survivors++;
+                }
+            }
+        }
+        return survivors;
+    }
+
+    private int matchSurvivors (List<TermMatch> matches, int word, int[] candidates, int candidateCount, Scratch scratch) {
+        for (TermMatch termMatch : matches) {
+            scratch.termScores[termMatch.term.id] = termMatch.score;
+        }
+        int survivors = 0;
+        for (int c = 0; c < candidateCount; c++) {
+            int slot = candidates[c];
+            if (scratch.matchedWords[slot] == word) {
+                double best = 0;
+                for (Term term : documents[slot].terms) {
+                    best = Math.max (best, scratch.termScores[term.id]);
+                }
+                if (best > 0) {
+                    scratch.matchedWords[slot] = word + 1;
+                    scratch.scores[slot] += best;
+                    survivors++;
+                }
+            }
+        }
+        for (TermMatch termMatch : matches) {
+            scratch.termScores[termMatch.term.id] = 0;
+        }
+        return survivors;
+    }
+
+    /**
+     * Terms a query word matches, best first. Words shorter than three letters are looked up by
+     * their padded prefix trigram, so they only match as prefixes.
+     */
+    private List<TermMatch> termMatches (String word, boolean allowTypos) {
+        List<TermMatch> matches = new ArrayList<> ();
+        for (int termId : word.length () < 3 ? prefixCandidates (word) : substringCandidates (word)) {
+            Term term = terms[termId];
+            if (term.word.equals (word)) {
+                matches.add (new TermMatch (term, EXACT_WORD));
+            } else if (term.word.startsWith (word)) {
+                matches.add (new TermMatch (term, PREFIX));
+            } else if (term.word.contains (word)) {
+                matches.add (new TermMatch (term, SUBSTRING));
+            }
+        }
+        if (allowTypos) {
+            for (int termId : typoCandidates (word)) {
+                Term term = terms[termId];
+                if (!term.word.contains (word) && isTypo (word, term.word)) {
+                    matches.add (new TermMatch (term, TYPO));
+                }
+            }
+        }
+        matches.sort (Comparator.comparingDouble ((TermMatch match) -> -match.score));
+        return matches;
+    }
+
+    private int[] prefixCandidates (String word) {
+        long trigram = word.length () == 1 ? trigram (PAD, PAD, word.charAt (0)) : trigram (PAD, word.charAt (0), word.charAt (1));
+        Postings postings = termsByTrigram.get (trigram);
+        return postings == null ? new int[0] : Arrays.copyOf (postings.values, postings.size);
+    }
+
+    /**
+     * Terms holding every trigram of the word, intersected smallest list first.
+     */
+    private int[] substringCandidates (String word) {
+        Set<Long> trigrams = trigrams (word, false);
+        Postings[] lists = new Postings[trigrams.size ()];
+        int listCount = 0;
+        for (long trigram : trigrams) {
+            Postings postings = termsByTrigram.get (trigram);
+            if (postings == null) {
+                return new int[0];
+            }
+            lists[listCount++] = postings;
+        }
+        Arrays.sort (lists, Comparator.comparingInt (postings -> postings.size));
+        int[] candidates = Arrays.copyOf (lists[0].values, lists[0].size);
+        int candidateCount = candidates.length;
+        for (int i = 1; i < lists.length && candidateCount > 0; i++) {
+            int retained = 0;
+            for (int c = 0; c < candidateCount; c++) {
+                if (lists[i].contains (candidates[c])) {
+                    candidates[retained++] = candidates[c];
+                }
+            }
+            candidateCount = retained;
+        }
+        return Arrays.copyOf (candidates, candidateCount);
+    }
+
+    /**
+     * Terms sharing enough padded trigrams with the word to be within the allowed edits of it
+     * or of their own prefix: each edit spoils at most three trigrams.
+     */
+    private int[] typoCandidates (String word) {
+        Set<Long> trigrams = trigrams (word, true);
+        int threshold = trigrams.size () - 3 * allowedEdits (word);
+        if (allowedEdits (word) == 0 || threshold < 1) {
+            return new int[0];
+        }
+        int[] sharedTrigrams = scratch.get ().sizedFor (documents.length, terms.length).sharedTrigrams;
+        int[] touched = new int[64];
+        int touchedCount = 0;
+        int[] candidates = new int[16];
+        int candidateCount = 0;
+        for (long trigram : trigrams) {
+            Postings postings = termsByTrigram.get (trigram);
+            if (postings == null) {
+                continue;
+            }
+            for (int p = 0; p < postings.size; p++) {
+                int termId = postings.values[p];
+                if (sharedTrigrams[termId]++ == 0) {
+                    touched = grow (touched, touchedCount);
+                    touched[touchedCount++] = termId;
+                }
+                if (sharedTrigrams[termId] == threshold) {
+                    candidates = grow (candidates, candidateCount);
+                    candidates[candidateCount++] = termId;
+                }
+            }
+        }
+        for (int t = 0; t < touchedCount; t++) {
+            sharedTrigrams[touched[t]] = 0;
+        }
+        return Arrays.copyOf (candidates, candidateCount);
+    }
+
+    private static boolean isTypo (String word, String candidate) {
+        int allowed = allowedEdits (word);
+        if (editDistance (word, candidate, allowed) <= allowed) {
+            return true;
+        }
+        return candidate.length () > word.length ()
+                && editDistance (word, candidate.substring (0, word.length ()), allowed) <= allowed;
+    }
+
+    /**
+     * Numbers such as ages are never corrected: a typo in one is another valid number.
+     */
+    private static int allowedEdits (String word) {
+        if (word.length () < 4 || word.chars ().anyMatch (Character::isDigit)) {
+            return 0;
+        }
+        return word.length () < 8 ? 1 : 2;
+    }
+
+    /**
+     * Levenshtein distance, giving up with {@code limit + 1} once it cannot be within the limit.
+     */
+    static int editDistance (String a, String b, int limit) {
+        if (Math.abs (a.length () - b.length ()) > limit) {
+            return limit + 1;
+        }
+        int[] previous = new int[b.length () + 1];
+        int[] current = new int[b.length () + 1];
+        for (int j = 0; j <= b.length (); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length (); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= b.length (); j++) {
+                int substitution = previous[j - 1] + (a.charAt (i - 1) == b.charAt (j - 1) ? 0 : 1);
+                current[j] = Math.min (substitution, Math.min (previous[j], current[j - 1]) + 1);
+                rowMin = Math.min (rowMin, current[j]);
+            }
+            if (rowMin > limit) {
+                return limit + 1;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[b.length ()];
+    }
+
+    static String[] words (String text) {
+        if (text == null) {
+            return new String[0];
+        }
+        String decomposed = Normalizer.normalize (text, Normalizer.Form.NFD);
+        StringBuilder normalized = new StringBuilder (decomposed.length ());
+        for (int i = 0; i < decomposed.length (); i++) {
+            char c = decomposed.charAt (i);
+            if (Character.isLetterOrDigit (c)) {
+                normalized.append (Character.toLowerCase (c));
+            } else if (Character.getType (c) != Character.NON_SPACING_MARK) {
+                normalized.append (' ');
+            }
+        }
+        String trimmed = normalized.toString ().trim ();
+        return trimmed.isEmpty () ? new String[0] : trimmed.split (" +");
+    }
+
+    private static long postingsSize (List<TermMatch> matches) {
+        long size = 0;
+        for (TermMatch match : matches) {
+            size += match.term.documents.size;
+        }
+        return size;
+    }
+
+    private static Set<Long> trigrams (String word, boolean padded) {
+        String text = padded ? "" + PAD + PAD + word : word;
+        Set<Long> trigrams = new LinkedHashSet<> ();
+        for (int i = 0; i + 3 <= text.length (); i++) {
+            trigrams.add (trigram (text.charAt (i), text.charAt (i + 1), text.charAt (i + 2)));
+        }
+        return trigrams;
+    }
+
+    private static long trigram (char first, char second, char third) {
+        return ((long) first << 32) | ((long) second << 16) | third;
+    }
+
+    private static int[] grow (int[] array, int size) {
+        return size < array.length ? array : Arrays.copyOf (array, array.length * 2);
+    }
+
+    private static final class Term {
+
+        private final int id;
+        private final String word;
+        private final Postings documents = new Postings ();
+        private volatile int[] shortest;
+        private volatile int[] typeCounts;
+
+        private Term (int id, String word) {
+            this.id = id;
+            this.word = word;
+        }
+    }
+
+    private static final class TermMatch {
+
+        private final Term term;
+        private final double score;
+
+        private TermMatch (Term term, double score) {
+            this.term = term;
+            this.score = score;
+        }
+    }
+
+    private static final class Document {
+
+        private final long id;
+        private final String name;
+        private final String brand;
+        private final WhiskyType type;
+        private final Term[] terms;
+
+        private Document (WhiskyDTO whisky, Term[] terms) {
+            this.id = whisky.getId ();
+            this.name = whisky.getName ();
+            this.brand = whisky.getBrand ();
+            this.type = whisky.getType ();
+            this.terms = terms;
+        }
+
+        private CatalogMatchDTO toDTO () {
+            return CatalogMatchDTO.builder ()
+                    .id (id)
+                    .name (name)
+                    .brand (brand)
+                    .type (type)
+                    .build ();
+        }
+    }
+
+    private static final class Cursor {
+
+        private final int[] slots;
+        private final boolean truncated;
+        private int position;
+
+        private Cursor (int[] slots, int termSize) {
+            this.slots = slots;
+            this.truncated = termSize > slots.length;
+        }
+
+        private int slot () {
+            return slots[position];
+        }
+
+        private boolean advance () {
+            return ++position < slots.length;
+        }
+    }
+
+    private static final class Match {
+
+        private final int slot;
+        private final double score;
+
+        private Match (int slot, double score) {
+            this.slot = slot;
+            this.score = score;
+        }
+    }
+
+    /**
+     * The top matches so far, worst on top of the heap, and the match count per type. Reads the
+     * per-slot type and name length arrays, so that counting and ranking a match does not load
+     * its document.
+     */
+    private final class Results {
+
+        private final WhiskyType type;
+        private final int limit;
+        private final PriorityQueue<Match> best;
+        private final int[] typeCounts = new int[WhiskyType.values ().length];
+
+        private Results (WhiskyType type, int limit) {
+            this.type = type;
+            this.limit = limit;
+            this.best = new PriorityQueue<> (limit + 1, this::compare);
+        }
+
+        private void collect (int slot, double score) {
+            count (slot);
+            rank (slot, score);
+        }
+
+        private void count (int slot) {
+            typeCounts[slotTypes[slot]]++;
+        }
+
+        private void rank (int slot, double score) {
+            if (type != null && slotTypes[slot] != type.ordinal ()) {
+                return;
+            }
+            if (best.size () == limit) {
+                if (compare (score, slot, best.peek ().score, best.peek ().slot) <= 0) {
+                    return;
+                }
+                best.poll ();
+            }
+            best.offer (new Match (slot, score));
+        }
+
+        private void count (int[] termTypeCounts) {
+            for (int i = 0; i < typeCounts.length; i++) {
+                typeCounts[i] += termTypeCounts[i];
+            }
+        }
+
+        private boolean isFull () {
+            return best.size () == limit;
+        }
+
+        private void clear () {
+            best.clear ();
+            Arrays.fill (typeCounts, 0);
+        }
+
+        private int compare (Match a, Match b) {
+            return compare (a.score, a.slot, b.score, b.slot);
+        }
+
+        /**
+         * Orders worse matches first: lower score, then longer name, then higher id.
+         */
+        private int compare (double score, int slot, double otherScore, int otherSlot) {
+            if (score != otherScore) {
+                return Double.compare (score, otherScore);
+            }
+            return compareSlots (otherSlot, slot);
+        }
+
+        private CatalogSearchResultDTO toDTO () {
+            List<CatalogMatchDTO> matches = new ArrayList<> (best.size ());
+            while (!best.isEmpty ()) {
+                matches.add (documents[best.poll ().slot].toDTO ());
+            }
+            Collections.reverse (matches);
+            Map<WhiskyType, Integer> types = new EnumMap<> (WhiskyType.class);
+            for (WhiskyType whiskyType : WhiskyType.values ()) {
+                if (typeCounts[whiskyType.ordinal ()] > 0) {
+                    types.put (whiskyType, typeCounts[whiskyType.ordinal ()]);
+                }
+            }
+            return CatalogSearchResultDTO.builder ()
+                    .matches (matches)
+                    .types (types)
+                    .build ();
+        }
+    }
+
+    /**
+     * Per-thread work arrays indexed by slot and by term id, left zeroed between searches.
+     */
+    private static final class Scratch {
+
+        private int[] matchedWords = new int[0];
+        private double[] scores = new double[0];
+        private int[] sharedTrigrams = new int[0];
+        private double[] termScores = new double[0];
+
+        private Scratch sizedFor (int slots, int termIds) {
+            if (matchedWords.length < slots) {
+                matchedWords = new int[slots];
+                scores = new double[slots];
+            }
+            if (sharedTrigrams.length < termIds) {
+                sharedTrigrams = new int[termIds];
+                termScores = new double[termIds];
+            }
+            return this;
+        }
+    }
+
+    /**
+     * Slot or term id allocation: the most recently freed value first, then a fresh one.
+     */
+    private static final class FreeList {
+
+        private int[] freed = new int[16];
+        private int freedCount;
+        private int next;
+
+        private int take () {
+            return freedCount > 0 ? freed[--freedCount] : next++;
+        }
+
+        private void give (int value) {
+            freed = grow (freed, freedCount);
+            freed[freedCount++] = value;
+        }
+    }
+
+    /**
+     * Slots or term ids in ascending order. Both are reused once freed, so a value is inserted
+     * in place; fresh ones land at the end.
+     */
+    private static final class Postings {
+
+        private int[] values = new int[2];
+        private int size;
+
+        private void insert (int value) {
+            int index = -Arrays.binarySearch (values, 0, size, value) - 1;
+            values = grow (values, size);
+            System.arraycopy (values, index, values, index + 1, size - index);
+            values[index] = value;
+            size++;
+        }
+
+        private boolean contains (int value) {
+            return Arrays.binarySearch (values, 0, size, value) >= 0;
+        }
+
+        private boolean remove (int value) {
+            int index = Arrays.binarySearch (values, 0, size, value);
+            if (index < 0) {
+                return false;
+            }
+            System.arraycopy (values, index + 1, values, index, size - index - 1);
+            size--;
+            return true;
+        }
+    }
+}
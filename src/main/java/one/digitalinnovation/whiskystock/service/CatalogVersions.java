@@ -0,0 +1,93 @@
+package one.digitalinnovation.whiskystock.service;
+
+import one.digitalinnovation.whiskystock.dto.WhiskyDTO;
+import one.digitalinnovation.whiskystock.enums.WhiskyChangeType;
+import one.digitalinnovation.whiskystock.event.WhiskyChangedEvent;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Versions behind the ETags of the whisky reads, kept in memory so an unchanged poll is
+ * answered without touching the database. A catalog-wide counter moves on every committed
+ * change, and each whisky remembers the counter value of its own last change; the list ETag is
+ * the counter and a whisky's ETag its own version.
+ * <p>
+ * Changes are picked up from {@link WhiskyChangedEvent}s after commit, and reported directly
+ * by the stock paths that change what a read returns without publishing one: the ledger write
+ * back, coalesced adjustments projected before their flush and location stock. A version is
+ * always taken after the change is visible, and a read takes its version before loading, so a
+ * response is never tagged newer than its content. Whiskies are tracked from their first change
+ * or read since startup, and the ETags carry a per-process epoch so tags issued before a restart
+ * never match.
+ */
+@Component
+public class CatalogVersions {
+
+    private final String epoch = Long.toString (System.currentTimeMillis (), Character.MAX_RADIX);
+    private final AtomicLong catalogVersion = new AtomicLong ();
+    private final ConcurrentMap<Long, Long> versionsById = new ConcurrentHashMap<> ();
+    private final ConcurrentMap<String, Long> idsByName = new ConcurrentHashMap<> ();
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onWhiskyChanged (WhiskyChangedEvent event) {
+        WhiskyDTO whisky = event.getWhisky ();
+        if (event.getType () == WhiskyChangeType.DELETED) {
+            idsByName.remove (whisky.getName (), whisky.getId ());
+        } else if (whisky.getName () != null) {
+            idsByName.put (whisky.getName (), whisky.getId ());
+        }
+        changed (whisky.getId ());
+    }
+
+    /**
+     * Records a change to the whisky that is already visible to readers. Deleted whiskies keep
+     * their last version, so a read that raced the delete cannot bring back an older one.
+     */
+    public void changed (Long id) {
+        long version = catalogVersion.incrementAndGet ();
+        versionsById.merge (id, version, Math::max);
+    }
+
+    /**
+     * The current catalog version, to be taken before loading what will be tagged with it.
+     */
+    public long catalogVersion () {
+        return catalogVersion.get ();
+    }
+
+    /**
+     * The ETag of the catalog as of now, to be taken before loading the list it tags.
+     */
+    public String catalogETag () {
+        return eTag (catalogVersion.get ());
+    }
+
+    /**
+     * The ETag of a whisky's current version, when it is known without loading the whisky.
+     */
+    public Optional<String> eTag (String name) {
+        Long id = idsByName.get (name);
+        Long version = id == null ? null : versionsById.get (id);
+        return version == null ? Optional.empty () : Optional.of (eTag (version));
+    }
+
+    /**
+     * The ETag for a whisky loaded after {@code catalogVersion} was taken. When the whisky
+     * changed since then the loaded content may predate the change, so it is tagged with the
+     * older version, which no longer matches.
+     */
+    public String eTag (WhiskyDTO whisky, long catalogVersion) {
+        idsByName.putIfAbsent (whisky.getName (), whisky.getId ());
+        long version = versionsById.computeIfAbsent (whisky.getId (), id -> catalogVersion);
+        return eTag (Math.min (version, catalogVersion));
+    }
+
+    private String eTag (long version) {
+        return "\"" + epoch + "-" + version + "\"";
+    }
+}
@@ -0,0 +1,171 @@
+package one.digitalinnovation.whiskystock.service;
+
+import one.digitalinnovation.whiskystock.dto.WhiskyDTO;
+import one.digitalinnovation.whiskystock.entity.Whisky;
+import one.digitalinnovation.whiskystock.enums.WhiskyChangeType;
+import one.digitalinnovation.whiskystock.enums.WhiskyType;
+import one.digitalinnovation.whiskystock.event.WhiskyChangedEvent;
+import one.digitalinnovation.whiskystock.mapper.WhiskyMapper;
+import one.digitalinnovation.whiskystock.repository.WhiskyRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.stream.Stream;
+
+/**
+ * Every whisky ordered by fill ratio ({@code quantity / max}), so the emptiest shelves can be
+ * read from the head of a skip list instead of scanning the table. There is one list for the
+ * whole catalog and one per {@link WhiskyType}, so a filtered read is a head read too. Loaded
+ * once at startup and kept current from committed change events; updates for the same id are
+ * serialized through the id map, so no sorted set ever holds two entries for one whisky.
+ * Committed events can arrive out of order, so an entry is only replaced by one with the same
+ * or a newer row version.
+ */
+@Component
+public class FillRatioIndex {
+
+    private static final Comparator<Entry> BY_FILL_RATIO = Comparator.comparingDouble ((Entry entry) -> entry.fillRatio)
+            .thenComparingLong (entry -> entry.id);
+
+    private final WhiskyRepository whiskyRepository;
+    private final EntityManager entityManager;
+    private final WhiskyMapper whiskyMapper = WhiskyMapper.INSTANCE;
+    private final NavigableSet<Entry> byFillRatio = new ConcurrentSkipListSet<> (BY_FILL_RATIO);
+    private final Map<WhiskyType, NavigableSet<Entry>> byTypeAndFillRatio = new EnumMap<> (WhiskyType.class);
+    private final ConcurrentMap<Long, Entry> byId = new ConcurrentHashMap<> ();
+
+    @Autowired
+    public FillRatioIndex (WhiskyRepository whiskyRepository, EntityManager entityManager) {
+        this.whiskyRepository = whiskyRepository;
+        this.entityManager = entityManager;
+        for (WhiskyType type : WhiskyType.values ()) {
+            byTypeAndFillRatio.put (type, new ConcurrentSkipListSet<> (BY_FILL_RATIO));
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void load () {
+        try (Stream<Whisky> whiskies = whiskyRepository.streamAllOrderedById ()) {
+            Iterator<Whisky> whiskyIterator = whiskies.iterator ();
+            while (whiskyIterator.hasNext ()) {
+                Whisky whisky = whiskyIterator.next ();
+                put (whiskyMapper.toDTO (whisky));
+                entityManager.detach (whisky);
+            }
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onWhiskyChanged (WhiskyChangedEvent event) {
+        if (event.getType () == WhiskyChangeType.DELETED) {
+            remove (event.getWhisky ().getId ());
+        } else {
+            put (event.getWhisky ());
+        }
+    }
+
+    /**
+     * The {@code limit} whiskies with the lowest fill ratio, emptiest first, optionally only
+     * those of one {@link WhiskyType}.
+     */
+    public List<WhiskyDTO> lowest (int limit, WhiskyType type) {
+        NavigableSet<Entry> entries = type == null ? byFillRatio : byTypeAndFillRatio.get (type);
+        List<WhiskyDTO> lowest = new ArrayList<> (Math.min (limit, byId.size ()));
+        for (Entry entry : entries) {
+            if (lowest.size () >= limit) {
+                break;
+            }
+            lowest.add (entry.toDTO ());
+        }
+        return lowest;
+    }
+
+    public int size () {
+        return byId.size ();
+    }
+
+    private void put (WhiskyDTO whisky) {
+        Entry updated = new Entry (whisky);
+        byId.compute (updated.id, (id, current) -> {
+            if (current != null) {
+                if (updated.isOlderThan (current)) {
+                    return current;
+                }
+                unlink (current);
+            }
+            byFillRatio.add (updated);
+            byTypeAndFillRatio.get (updated.type).add (updated);
+            return updated;
+        });
+    }
+
+    private void remove (Long id) {
+        byId.computeIfPresent (id, (key, current) -> {
+            unlink (current);
+            return null;
+        });
+    }
+
+    private void unlink (Entry entry) {
+        byFillRatio.remove (entry);
+        byTypeAndFillRatio.get (entry.type).remove (entry);
+    }
+
+    private static final class Entry {
+
+        private final long id;
+        private final String name;
+        private final String brand;
+        private final WhiskyType type;
+        private final int max;
+        private final int quantity;
+        private final double fillRatio;
+        private final Long version;
+
+        private Entry (WhiskyDTO whisky) {
+            this.id = whisky.getId ();
+            this.name = whisky.getName ();
+            this.brand = whisky.getBrand ();
+            this.type = whisky.getType ();
+            this.max = whisky.getMax ();
+            this.quantity = whisky.getQuantity ();
+            this.fillRatio = max == 0 ? 0 : (double) quantity / max;
+            this.version = whisky.getVersion ();
+        }
+
+        /**
+         * Entries without a version, such as those projected by the ledger, are never older.
+         */
+        private boolean isOlderThan (Entry other) {
+            return version != null && other.version != null && version < other.version;
+        }
+
+        private WhiskyDTO toDTO () {
+            return WhiskyDTO.builder ()
+                    .id (id)
+                    .name (name)
+                    .brand (brand)
+                    .type (type)
+                    .max (max)
+                    .quantity (quantity)
+                    .version (version)
+                    .build ();
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package one.digitalinnovation.whiskystock.service;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+/**
+ * Hashed timing wheel: {@code wheelSize} buckets of {@code tickMs} each, turned by a single
+ * thread calling {@link #advanceTo(long)}. A timeout goes into the bucket of its deadline tick
+ * with the number of full turns left before it is due, so scheduling is O(1) and each tick only
+ * visits one bucket, however many timeouts are outstanding. Timeouts fire up to one tick late.
+ * <p>
+ * Timeouts are the scheduled objects themselves, so scheduling allocates nothing beyond the
+ * caller's own object. {@link #schedule} can be called from any thread; new timeouts are queued
+ * and moved into their buckets on the next tick. Cancelling only flips the timeout's state, and
+ * the wheel unlinks it when it next visits the bucket.
+ */
+final class HashedTimingWheel {
+
+    /**
+     * A deadline on the wheel. Exactly one of {@link #cancel()} and expiry wins.
+     */
+    abstract static class Timeout {
+
+        private static final int PENDING = 0;
+        private static final int CANCELLED = 1;
+        private static final int EXPIRED = 2;
+
+        private static final AtomicIntegerFieldUpdater<Timeout> STATE =
+                AtomicIntegerFieldUpdater.newUpdater (Timeout.class, "state");
+
+        private final long deadlineMs;
+        private volatile int state;
+        private long remainingRounds;
+        private Timeout next;
+
+        protected Timeout (long deadlineMs) {
+            this.deadlineMs = deadlineMs;
+        }
+
+        long getDeadlineMs () {
+            return deadlineMs;
+        }
+
+        /**
+         * Returns false when the timeout already expired or was cancelled.
+         */
+        boolean cancel () {
+            return STATE.compareAndSet (this, PENDING, CANCELLED);
+        }
+
+        boolean isCancelled () {
+            return state == CANCELLED;
+        }
+
+        /**
+         * Runs on the thread turning the wheel, so it should be short.
+         */
+        protected abstract void expired (long nowMs);
+
+        private boolean expire () {
+            return STATE.compareAndSet (this, PENDING, EXPIRED);
+        }
+    }
+
+    private final long tickMs;
+    private final int mask;
+    private final long startMs;
+    private final Timeout[] buckets;
+    private final Queue<Timeout> scheduled = new ConcurrentLinkedQueue<> ();
+
+    private long tick;
+
+    HashedTimingWheel (long tickMs, int wheelSize, long startMs) {
+        this.tickMs = Math.max (1, tickMs);
+        int size = Integer.highestOneBit (Math.max (1, wheelSize - 1)) << 1;
+        this.mask = size - 1;
+        this.startMs = startMs;
+        this.buckets = new Timeout[size];
+    }
+
+    void schedule (Timeout timeout) {
+        scheduled.add (timeout);
+    }
+
+    /**
+     * Expires every timeout due by {@code nowMs}. Must only be called from one thread at a time.
+     */
+    void advanceTo (long nowMs) {
+        long targetTick = (nowMs - startMs) / tickMs;
+        while (tick <= targetTick) {
+            transferScheduled ();
+            expireBucket ((int) (tick & mask), nowMs);
+            tick++;
+        }
+    }
+
+    private void transferScheduled () {
+        for (Timeout timeout = scheduled.poll (); timeout != null; timeout = scheduled.poll ()) {
+            if (timeout.isCancelled ()) {
+                continue;
+            }
+            long deadlineTick = Math.max (tick, (timeout.deadlineMs - startMs + tickMs - 1) / tickMs);
+            timeout.remainingRounds = (deadlineTick - tick) / buckets.length;
+            int bucket = (int) (deadlineTick & mask);
+            timeout.next = buckets[bucket];
+            buckets[bucket] = timeout;
+        }
+    }
+
+    private void expireBucket (int bucket, long nowMs) {
+        Timeout previous = null;
+        Timeout timeout = buckets[bucket];
+        while (timeout != null) {
+            Timeout next = timeout.next;
+            boolean due = timeout.remainingRounds <= 0;
+            if (timeout.isCancelled () || due) {
+                if (previous == null) {
+                    buckets[bucket] = next;
+                } else {
+                    previous.next = next;
+                }
+                timeout.next = null;
+                if (due && timeout.expire ()) {
+                    timeout.expired (nowMs);
+                }
+            } else {
+                timeout.remainingRounds--;
+                previous = timeout;
+            }
+            timeout = next;
+        }
+    }
+}
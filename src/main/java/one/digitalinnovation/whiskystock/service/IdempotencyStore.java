@@ -0,0 +1,114 @@
+package one.digitalinnovation.whiskystock.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import one.digitalinnovation.whiskystock.config.IdempotencyProperties;
+import one.digitalinnovation.whiskystock.exception.IdempotencyKeyInFlightException;
+import one.digitalinnovation.whiskystock.exception.IdempotencyKeyReusedException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Remembers the outcome of each mutation sent with an {@code Idempotency-Key}, so a client retry
+ * gets the original result instead of being applied twice. The first request with a key claims
+ * it with an atomic insert and runs; duplicates arriving while it runs wait for its result, up
+ * to {@code inFlightTimeout}, rather than running themselves. Keys are held in a bounded Caffeine
+ * cache that expires them after {@code timeToLive}. A claimed key weighs nothing until its
+ * result is in, so the size bound only evicts finished results and never lets a duplicate in
+ * while the original is still running. If the operation throws, the key is released so the
+ * request can be retried.
+ * <p>
+ * A key is tied to the request it was first used with (operation and arguments); reusing it for
+ * a different request is rejected.
+ */
+@Component
+public class IdempotencyStore {
+
+    public static final String CACHE_NAME = "whisky.idempotency";
+    public static final String REPLAY_COUNTER = "whisky.idempotency.replays";
+
+    private final Cache<String, Entry> cache;
+    private final ConcurrentMap<String, Entry> entries;
+    private final Counter replays;
+    private final long inFlightTimeoutMs;
+
+    @Autowired
+    public IdempotencyStore (IdempotencyProperties idempotencyProperties, MeterRegistry meterRegistry) {
+        this (idempotencyProperties, meterRegistry, ForkJoinPool.commonPool ());
+    }
+
+    IdempotencyStore (IdempotencyProperties idempotencyProperties, MeterRegistry meterRegistry, Executor maintenance) {
+        this.cache = Caffeine.newBuilder ()
+                .executor (maintenance)
+                .maximumWeight (idempotencyProperties.getMaximumSize ())
+                .weigher ((String key, Entry entry) -> entry.result.isDone () ? 1 : 0)
+                .expireAfterWrite (idempotencyProperties.getTimeToLive ())
+                .recordStats ()
+                .build ();
+        this.entries = cache.asMap ();
+        this.replays = Counter.builder (REPLAY_COUNTER)
+                .description ("Mutations answered from a stored result because their idempotency key was seen before")
+                .register (meterRegistry);
+        CaffeineCacheMetrics.monitor (meterRegistry, cache, CACHE_NAME);
+        this.inFlightTimeoutMs = idempotencyProperties.getInFlightTimeout ().toMillis ();
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T execute (String key, String request, Supplier<T> operation) {
+        Entry claimed = new Entry (request);
+        Entry existing = entries.putIfAbsent (key, claimed);
+        if (existing != null) {
+            if (!existing.request.equals (request)) {
+                throw new IdempotencyKeyReusedException (key);
+            }
+            replays.increment ();
+            try {
+                return (T) existing.result.copy ().orTimeout (inFlightTimeoutMs, TimeUnit.MILLISECONDS).join ();
+            } catch (CompletionException e) {
+                if (e.getCause () instanceof TimeoutException) {
+                    throw new IdempotencyKeyInFlightException (key);
+                }
+                throw e.getCause () instanceof RuntimeException
+                        ? (RuntimeException) e.getCause ()
+                        : e;
+            }
+        }
+        try {
+            T result = operation.get ();
+            claimed.result.complete (result);
+            // rewritten so the finished entry is weighed again and counts toward the bound
+            entries.replace (key, claimed, claimed);
+            return result;
+        } catch (RuntimeException | Error e) {
+            entries.remove (key, claimed);
+            claimed.result.completeExceptionally (e);
+            throw e;
+        }
+    }
+
+    public long size () {
+        return cache.estimatedSize ();
+    }
+
+    private static final class Entry {
+
+        private final String request;
+        private final CompletableFuture<Object> result = new CompletableFuture<> ();
+
+        private Entry (String request) {
+            this.request = request;
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package one.digitalinnovation.whiskystock.service;
+
+import one.digitalinnovation.whiskystock.dto.WhiskyDTO;
+import one.digitalinnovation.whiskystock.dto.WhiskyLocationStockDTO;
+import one.digitalinnovation.whiskystock.dto.WhiskyLocationTransferDTO;
+import one.digitalinnovation.whiskystock.entity.WhiskyLocationStock;
+import one.digitalinnovation.whiskystock.enums.WhiskyChangeType;
+import one.digitalinnovation.whiskystock.event.WhiskyChangedEvent;
+import one.digitalinnovation.whiskystock.exception.WhiskyNotFoundException;
+import one.digitalinnovation.whiskystock.exception.WhiskyStockExceededException;
+import one.digitalinnovation.whiskystock.repository.WhiskyLocationStockRepository;
+import one.digitalinnovation.whiskystock.repository.WhiskyRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Stock of a whisky split across locations. Every (whisky, location) pair is a separate row
+ * adjusted with a single conditional UPDATE, so adjustments at different locations never wait
+ * on each other; the whisky row itself holds the main location and is left to
+ * {@link WhiskyService}.
+ * <p>
+ * The committed quantity of every location is mirrored in memory, one cell per location, and
+ * the whisky total is summed from those cells when read. A cell only moves to a newer row
+ * version, so concurrent adjustments recording out of order cannot roll it back.
+ * <p>
+ * A transfer updates both locations in one transaction, always in location name order, so two
+ * opposite transfers lock the rows in the same order instead of deadlocking. Location stock is
+ * not published as {@link WhiskyChangedEvent}s; the feed, summary and fill ratio index track
+ * the main location.
+ */
+@Service
+public class LocationStockService {
+
+    private final WhiskyLocationStockRepository locationStockRepository;
+    private final WhiskyRepository whiskyRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final CatalogVersions catalogVersions;
+    private final ConcurrentMap<Long, ConcurrentMap<String, Cell>> cells = new ConcurrentHashMap<> ();
+
+    @Autowired
+    public LocationStockService (WhiskyLocationStockRepository locationStockRepository, WhiskyRepository whiskyRepository,
+                                 TransactionTemplate transactionTemplate, CatalogVersions catalogVersions) {
+        this.locationStockRepository = locationStockRepository;
+        this.whiskyRepository = whiskyRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.catalogVersions = catalogVersions;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void load () {
+        try (Stream<WhiskyLocationStock> stocks = locationStockRepository.streamAll ()) {
+            Iterator<WhiskyLocationStock> stockIterator = stocks.iterator ();
+            while (stockIterator.hasNext ()) {
+                record (stockIterator.next ());
+            }
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onWhiskyChanged (WhiskyChangedEvent event) {
+        if (event.getType () == WhiskyChangeType.DELETED) {
+            cells.remove (event.getWhisky ().getId ());
+        }
+    }
+
+    public List<WhiskyLocationStockDTO> findAll (Long whiskyId) throws WhiskyNotFoundException {
+        List<WhiskyLocationStock> stocks = locationStockRepository.findByWhiskyIdOrderByLocation (whiskyId);
+        if (stocks.isEmpty () && !whiskyRepository.existsById (whiskyId)) {
+            throw new WhiskyNotFoundException (whiskyId);
+        }
+        return stocks.stream ()
+                .map (LocationStockService::toDTO)
+                .collect (Collectors.toList ());
+    }
+
+    /**
+     * Adjusts the stock at one location, opening the location on its first increment.
+     */
+    public WhiskyLocationStockDTO adjust (Long whiskyId, String location, int quantityDelta) throws WhiskyNotFoundException, WhiskyStockExceededException {
+        Optional<WhiskyLocationStock> adjusted = locationStockRepository.adjustIfWithinBounds (whiskyId, location, quantityDelta);
+        if (adjusted.isEmpty () && quantityDelta > 0 && open (whiskyId, location)) {
+            adjusted = locationStockRepository.adjustIfWithinBounds (whiskyId, location, quantityDelta);
+        }
+        if (adjusted.isEmpty ()) {
+            throw rejection (whiskyId, quantityDelta);
+        }
+        record (adjusted.get ());
+        catalogVersions.changed (whiskyId);
+        return toDTO (adjusted.get ());
+    }
+
+    /**
+     * Moves stock from one location to another atomically: either both locations change or
+     * neither does. The destination is opened first when needed.
+     */
+    public List<WhiskyLocationStockDTO> transfer (Long whiskyId, WhiskyLocationTransferDTO transfer) throws WhiskyNotFoundException, WhiskyStockExceededException {
+        open (whiskyId, transfer.getTo ());
+        boolean fromFirst = transfer.getFrom ().compareTo (transfer.getTo ()) < 0;
+        String firstLocation = fromFirst ? transfer.getFrom () : transfer.getTo ();
+        String secondLocation = fromFirst ? transfer.getTo () : transfer.getFrom ();
+        int firstDelta = fromFirst ? -transfer.getQuantity () : transfer.getQuantity ();
+        WhiskyLocationStock[] transferred;
+        try {
+            transferred = transactionTemplate.execute (status -> new WhiskyLocationStock[] {
+                    adjustOrRollBack (whiskyId, firstLocation, firstDelta),
+                    adjustOrRollBack (whiskyId, secondLocation, -firstDelta)
+            });
+        } catch (TransferRejectedException e) {
+            throw rejection (whiskyId, transfer.getQuantity ());
+        }
+        WhiskyLocationStock from = fromFirst ? transferred[0] : transferred[1];
+        WhiskyLocationStock to = fromFirst ? transferred[1] : transferred[0];
+        record (from);
+        record (to);
+        catalogVersions.changed (whiskyId);
+        return List.of (toDTO (from), toDTO (to));
+    }
+
+    /**
+     * Adds every location's quantity and capacity to the whisky's main location figures.
+     */
+    public WhiskyDTO addLocationTotals (WhiskyDTO whisky) {
+        Map<String, Cell> locationCells = cells.get (whisky.getId ());
+        if (locationCells == null) {
+            return whisky;
+        }
+        int quantity = whisky.getQuantity ();
+        int max = whisky.getMax ();
+        for (Cell cell : locationCells.values ()) {
+            quantity += cell.quantity;
+            max += cell.max;
+        }
+        whisky.setQuantity (quantity);
+        whisky.setMax (max);
+        return whisky;
+    }
+
+    /**
+     * Opens the location unless it is already open, returning whether an adjustment that found
+     * no row is worth retrying.
+     */
+    private boolean open (Long whiskyId, String location) {
+        if (locationStockRepository.existsById (new WhiskyLocationStock.Key (whiskyId, location))) {
+            return false;
+        }
+        try {
+            return locationStockRepository.open (whiskyId, location) > 0;
+        } catch (DataIntegrityViolationException e) {
+            return true;
+        }
+    }
+
+    private WhiskyLocationStock adjustOrRollBack (Long whiskyId, String location, int quantityDelta) {
+        return locationStockRepository.adjustIfWithinBounds (whiskyId, location, quantityDelta)
+                .orElseThrow (TransferRejectedException::new);
+    }
+
+    private WhiskyStockExceededException rejection (Long whiskyId, int quantity) throws WhiskyNotFoundException {
+        if (!whiskyRepository.existsById (whiskyId)) {
+            throw new WhiskyNotFoundException (whiskyId);
+        }
+        return new WhiskyStockExceededException (whiskyId, Math.abs (quantity));
+    }
+
+    private void record (WhiskyLocationStock stock) {
+        Cell updated = new Cell (stock);
+        cells.computeIfAbsent (stock.getWhiskyId (), id -> new ConcurrentHashMap<> ())
+                .merge (stock.getLocation (), updated, (current, candidate) -> candidate.version > current.version ? candidate : current);
+    }
+
+    private static WhiskyLocationStockDTO toDTO (WhiskyLocationStock stock) {
+        return WhiskyLocationStockDTO.builder ()
+                .whiskyId (stock.getWhiskyId ())
+                .location (stock.getLocation ())
+                .quantity (stock.getQuantity ())
+                .max (stock.getMax ())
+                .build ();
+    }
+
+    private static final class Cell {
+
+        private final int quantity;
+        private final int max;
+        private final long version;
+
+        private Cell (WhiskyLocationStock stock) {
+            this.quantity = stock.getQuantity ();
+            this.max = stock.getMax ();
+            this.version = stock.getVersion () == null ? 0 : stock.getVersion ();
+        }
+    }
+
+    /**
+     * Thrown inside the transfer transaction to roll back the location already updated.
+     */
+    private static final class TransferRejectedException extends RuntimeException {
+
+        private TransferRejectedException () {
+            super (null, null, false, false);
+        }
+    }
+}
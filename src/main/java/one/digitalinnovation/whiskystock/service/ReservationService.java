@@ -0,0 +1,230 @@
+package one.digitalinnovation.whiskystock.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import one.digitalinnovation.whiskystock.config.ReservationProperties;
+import one.digitalinnovation.whiskystock.dto.ReservationDTO;
+import one.digitalinnovation.whiskystock.dto.StockAvailabilityDTO;
+import one.digitalinnovation.whiskystock.dto.WhiskyDTO;
+import one.digitalinnovation.whiskystock.exception.ReservationNotFoundException;
+import one.digitalinnovation.whiskystock.exception.WhiskyNotFoundException;
+import one.digitalinnovation.whiskystock.exception.WhiskyStockExceededException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.OptionalInt;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+/**
+ * Holds stock for a while before a checkout commits it. A hold only raises the whisky's
+ * reserved count in {@link StockHolds}, so it lowers the available quantity
+ * ({@code quantity - reserved}) and leaves the stored quantity alone until it is committed, which
+ * decrements the stock through {@link WhiskyService}. Plain decrements cannot take held stock.
+ * A hold that is neither committed nor released expires on its own.
+ * <p>
+ * Holds live in memory and expire on a {@link HashedTimingWheel} turned by one thread, so an
+ * outstanding hold costs a map entry and its wheel slot, with no task or row of its own. Commit,
+ * release and expiry race through the hold's wheel state, and only the first of them takes
+ * effect. Holds apply to the main location and do not survive a restart.
+ */
+@Slf4j
+@Service
+public class ReservationService {
+
+    public static final String HOLDS_GAUGE = "whisky.reservation.holds";
+    public static final String EXPIRED_COUNTER = "whisky.reservation.expired";
+    public static final String EXPIRY_LATENESS_TIMER = "whisky.reservation.expiry.lateness";
+
+    private final WhiskyService whiskyService;
+    private final StockHolds stockHolds;
+    private final ReservationProperties reservationProperties;
+    private final LongSupplier clock;
+    private final HashedTimingWheel wheel;
+    private final ConcurrentMap<String, Hold> holds = new ConcurrentHashMap<> ();
+    private final Counter expiredHolds;
+    private final Timer expiryLateness;
+
+    private ScheduledExecutorService ticker;
+
+    @Autowired
+    public ReservationService (WhiskyService whiskyService, StockHolds stockHolds, ReservationProperties reservationProperties,
+                               MeterRegistry meterRegistry) {
+        this (whiskyService, stockHolds, reservationProperties, meterRegistry, System::currentTimeMillis);
+    }
+
+    ReservationService (WhiskyService whiskyService, StockHolds stockHolds, ReservationProperties reservationProperties,
+                        MeterRegistry meterRegistry, LongSupplier clock) {
+        this.whiskyService = whiskyService;
+        this.stockHolds = stockHolds;
+        this.reservationProperties = reservationProperties;
+        this.clock = clock;
+        this.wheel = new HashedTimingWheel (reservationProperties.getTick ().toMillis (), reservationProperties.getWheelSize (),
+                clock.getAsLong ());
+        this.expiredHolds = Counter.builder (EXPIRED_COUNTER)
+                .description ("Stock holds released because they were not committed in time")
+                .register (meterRegistry);
+        this.expiryLateness = Timer.builder (EXPIRY_LATENESS_TIMER)
+                .description ("Delay between a hold's deadline and its expiry")
+                .publishPercentiles (0.5, 0.99)
+                .register (meterRegistry);
+        Gauge.builder (HOLDS_GAUGE, holds, ConcurrentMap::size)
+                .description ("Outstanding stock holds")
+                .register (meterRegistry);
+    }
+
+    @PostConstruct
+    public void start () {
+        ticker = Executors.newSingleThreadScheduledExecutor (runnable -> {
+            Thread thread = new Thread (runnable, "reservation-wheel");
+            thread.setDaemon (true);
+            return thread;
+        });
+        long tickMs = Math.max (1, reservationProperties.getTick ().toMillis ());
+        ticker.scheduleAtFixedRate (this::expireDue, tickMs, tickMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop () {
+        if (ticker != null) {
+            ticker.shutdownNow ();
+        }
+    }
+
+    /**
+     * Holds {@code quantity} bottles if that many are available, for {@code timeToLive} or the
+     * default when null, capped at the configured maximum.
+     */
+    public ReservationDTO reserve (Long whiskyId, int quantity, Duration timeToLive) throws WhiskyNotFoundException, WhiskyStockExceededException {
+        OptionalInt quantityOnHand = whiskyService.quantityOnHand (whiskyId);
+        if (quantityOnHand.isEmpty ()) {
+            throw new WhiskyNotFoundException (whiskyId);
+        }
+        AtomicInteger reserved = stockHolds.counter (whiskyId);
+        int currentlyReserved;
+        do {
+            currentlyReserved = reserved.get ();
+            if (currentlyReserved + quantity > quantityOnHand.getAsInt ()) {
+                throw new WhiskyStockExceededException (whiskyId, quantity);
+            }
+        } while (!reserved.compareAndSet (currentlyReserved, currentlyReserved + quantity));
+
+        Hold hold = new Hold (UUID.randomUUID ().toString (), whiskyId, quantity, reserved, clock.getAsLong () + boundedTimeToLive (timeToLive).toMillis ());
+        holds.put (hold.id, hold);
+        wheel.schedule (hold);
+        return hold.toDTO ();
+    }
+
+    /**
+     * Turns the hold into a decrement of the stored quantity, which may use the held bottles but
+     * not those of other holds. The hold is used up either way, so if the commit is rejected it
+     * has to be reserved again.
+     */
+    public WhiskyDTO commit (String reservationId) throws ReservationNotFoundException, WhiskyNotFoundException, WhiskyStockExceededException {
+        Hold hold = claim (reservationId);
+        try {
+            return whiskyService.decrementHeld (hold.whiskyId, hold.quantity);
+        } finally {
+            hold.reserved.addAndGet (-hold.quantity);
+        }
+    }
+
+    public void release (String reservationId) throws ReservationNotFoundException {
+        Hold hold = claim (reservationId);
+        hold.reserved.addAndGet (-hold.quantity);
+    }
+
+    public StockAvailabilityDTO availability (Long whiskyId) throws WhiskyNotFoundException {
+        OptionalInt quantityOnHand = whiskyService.quantityOnHand (whiskyId);
+        if (quantityOnHand.isEmpty ()) {
+            throw new WhiskyNotFoundException (whiskyId);
+        }
+        int reserved = reserved (whiskyId);
+        return StockAvailabilityDTO.builder ()
+                .id (whiskyId)
+                .quantity (quantityOnHand.getAsInt ())
+                .reserved (reserved)
+                .available (Math.max (0, quantityOnHand.getAsInt () - reserved))
+                .build ();
+    }
+
+    public int reserved (Long whiskyId) {
+        return stockHolds.reserved (whiskyId);
+    }
+
+    public int holdCount () {
+        return holds.size ();
+    }
+
+    void expireDue () {
+        try {
+            wheel.advanceTo (clock.getAsLong ());
+        } catch (RuntimeException e) {
+            log.warn ("Could not expire stock holds", e);
+        }
+    }
+
+    private Hold claim (String reservationId) throws ReservationNotFoundException {
+        Hold hold = holds.get (reservationId);
+        if (hold == null || !hold.cancel ()) {
+            throw new ReservationNotFoundException (reservationId);
+        }
+        holds.remove (reservationId, hold);
+        return hold;
+    }
+
+    private Duration boundedTimeToLive (Duration timeToLive) {
+        if (timeToLive == null) {
+            return reservationProperties.getDefaultTimeToLive ();
+        }
+        return timeToLive.compareTo (reservationProperties.getMaxTimeToLive ()) > 0
+                ? reservationProperties.getMaxTimeToLive ()
+                : timeToLive;
+    }
+
+    private final class Hold extends HashedTimingWheel.Timeout {
+
+        private final String id;
+        private final Long whiskyId;
+        private final int quantity;
+        private final AtomicInteger reserved;
+
+        private Hold (String id, Long whiskyId, int quantity, AtomicInteger reserved, long deadlineMs) {
+            super (deadlineMs);
+            this.id = id;
+            this.whiskyId = whiskyId;
+            this.quantity = quantity;
+            this.reserved = reserved;
+        }
+
+        @Override
+        protected void expired (long nowMs) {
+            holds.remove (id, this);
+            reserved.addAndGet (-quantity);
+            expiredHolds.increment ();
+            expiryLateness.record (Math.max (0, nowMs - getDeadlineMs ()), TimeUnit.MILLISECONDS);
+        }
+
+        private ReservationDTO toDTO () {
+            return ReservationDTO.builder ()
+                    .id (id)
+                    .whiskyId (whiskyId)
+                    .quantity (quantity)
+                    .expiresAt (Instant.ofEpochMilli (getDeadlineMs ()))
+                    .build ();
+        }
+    }
+}
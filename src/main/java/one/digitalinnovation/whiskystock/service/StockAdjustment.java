@@ -0,0 +1,55 @@
+package one.digitalinnovation.whiskystock.service;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+import one.digitalinnovation.whiskystock.dto.WhiskyDTO;
+import one.digitalinnovation.whiskystock.enums.StockAdjustmentStatus;
+import one.digitalinnovation.whiskystock.exception.WhiskyNotFoundException;
+import one.digitalinnovation.whiskystock.exception.WhiskyStockExceededException;
+
+/**
+ * Outcome of a stock adjustment. Not-found and stock-exceeded are ordinary results here, so
+ * callers that expect them can branch on {@link #getStatus()} without an exception being built.
+ */
+@Getter
+@ToString
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public class StockAdjustment {
+
+    private final Long id;
+
+    private final StockAdjustmentStatus status;
+
+    private final WhiskyDTO whisky;
+
+    private final int quantityDelta;
+
+    public static StockAdjustment applied (WhiskyDTO whisky, int quantityDelta) {
+        return new StockAdjustment (whisky.getId (), StockAdjustmentStatus.APPLIED, whisky, quantityDelta);
+    }
+
+    public static StockAdjustment notFound (Long id, int quantityDelta) {
+        return new StockAdjustment (id, StockAdjustmentStatus.NOT_FOUND, null, quantityDelta);
+    }
+
+    public static StockAdjustment stockExceeded (Long id, int quantityDelta) {
+        return new StockAdjustment (id, StockAdjustmentStatus.STOCK_EXCEEDED, null, quantityDelta);
+    }
+
+    public boolean isApplied () {
+        return status == StockAdjustmentStatus.APPLIED;
+    }
+
+    public WhiskyDTO orElseThrow () throws WhiskyNotFoundException, WhiskyStockExceededException {
+        switch (status) {
+            case NOT_FOUND:
+                throw new WhiskyNotFoundException (id);
+            case STOCK_EXCEEDED:
+                throw new WhiskyStockExceededException (id, Math.abs (quantityDelta));
+            default:
+                return whisky;
+        }
+    }
+}
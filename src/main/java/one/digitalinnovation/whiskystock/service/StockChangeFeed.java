@@ -0,0 +1,422 @@
+package one.digitalinnovation.whiskystock.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import one.digitalinnovation.whiskystock.config.StockFeedProperties;
+import one.digitalinnovation.whiskystock.dto.StockChangeDTO;
+import one.digitalinnovation.whiskystock.dto.WhiskyDTO;
+import one.digitalinnovation.whiskystock.enums.WhiskyChangeType;
+import one.digitalinnovation.whiskystock.enums.WhiskyType;
+import one.digitalinnovation.whiskystock.event.WhiskyChangedEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+/**
+ * Pushes every committed whisky change to subscribers instead of having them poll. Each change
+ * gets a sequence number and is kept in a bounded history so a reconnecting subscriber can
+ * resume after the last sequence it saw.
+ * <p>
+ * Publishing never blocks on a subscriber: changes are filtered by id and type, then queued per
+ * subscriber and written by a small pool of sender threads. A queued change for a whisky is
+ * replaced by a newer one for the same whisky, so a slow subscriber receives the latest state
+ * rather than every step. If a subscriber still falls {@code bufferSize} whiskies behind, its
+ * backlog is dropped and it is sent a gap telling it to reload the catalog and carry on from
+ * the gap's sequence. The same happens when the requested sequence is no longer in the history,
+ * including after a restart, since sequences are not persisted.
+ * <p>
+ * A send still blocked after {@code sendTimeout} disconnects its subscriber, and the pool gets
+ * a thread in place of the stuck one until the send returns, so a stalled client cannot hold
+ * up the others. Post-commit events of concurrent transactions can arrive out of order, so a
+ * change carrying an older row version than the last one published for its whisky is dropped.
+ */
+@Slf4j
+@Component
+public class StockChangeFeed {
+
+    public static final String SUBSCRIBERS_GAUGE = "whisky.feed.subscribers";
+    public static final String COALESCED_COUNTER = "whisky.feed.coalesced";
+    public static final String DROPPED_COUNTER = "whisky.feed.dropped";
+    public static final String STALE_COUNTER = "whisky.feed.stale";
+    public static final String STALLED_COUNTER = "whisky.feed.stalled";
+
+    /**
+     * Where a subscriber's changes are written, one call at a time.
+     */
+    public interface Sink {
+
+        void send (StockChangeDTO change) throws IOException;
+
+        void gap (long sequence) throws IOException;
+
+        void heartbeat () throws IOException;
+
+        void close ();
+    }
+
+    public interface Subscription {
+
+        void cancel ();
+    }
+
+    private final StockFeedProperties feedProperties;
+    private final Executor sender;
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet ();
+    private final Counter coalesced;
+    private final Counter dropped;
+    private final Counter stale;
+    private final Counter stalled;
+    private final LongSupplier nanoClock;
+    private final Object publishLock = new Object ();
+    private final StockChangeDTO[] history;
+    private final Map<Long, Long> publishedVersions = new HashMap<> ();
+
+    private long lastSequence;
+
+    @Autowired
+    public StockChangeFeed (StockFeedProperties feedProperties, MeterRegistry meterRegistry) {
+        this (feedProperties, meterRegistry, senderPool (feedProperties.getSenderThreads ()), System::nanoTime);
+    }
+
+    StockChangeFeed (StockFeedProperties feedProperties, MeterRegistry meterRegistry, Executor sender, LongSupplier nanoClock) {
+        this.feedProperties = feedProperties;
+        this.sender = sender;
+        this.nanoClock = nanoClock;
+        this.history = new StockChangeDTO[Math.max (1, feedProperties.getHistorySize ())];
+        this.coalesced = Counter.builder (COALESCED_COUNTER)
+                .description ("Queued stock changes replaced by a newer change to the same whisky")
+                .register (meterRegistry);
+        this.dropped = Counter.builder (DROPPED_COUNTER)
+                .description ("Stock changes dropped because a subscriber fell too far behind")
+                .register (meterRegistry);
+        this.stale = Counter.builder (STALE_COUNTER)
+                .description ("Stock changes dropped because a newer version of the whisky was already published")
+                .register (meterRegistry);
+        this.stalled = Counter.builder (STALLED_COUNTER)
+                .description ("Subscribers disconnected because a send did not finish within the send timeout")
+                .register (meterRegistry);
+        Gauge.builder (SUBSCRIBERS_GAUGE, subscribers, Set::size)
+                .description ("Open stock change feed subscriptions")
+                .register (meterRegistry);
+    }
+
+    /**
+     * Subscribes to changes of the given whiskies (all when {@code ids} is empty) and type (all
+     * when null), starting after {@code afterSequence}, or with the next change when null.
+     */
+    public Subscription subscribe (Long afterSequence, Collection<Long> ids, WhiskyType type, Sink sink) {
+        Subscriber subscriber = new Subscriber (ids == null ? Collections.emptySet () : new HashSet<> (ids), type, sink);
+        synchronized (publishLock) {
+            if (afterSequence != null && afterSequence != lastSequence) {
+                long oldestRetained = Math.max (1, lastSequence - history.length + 1);
+                if (afterSequence < oldestRetained - 1 || afterSequence > lastSequence) {
+                    subscriber.offerGap (lastSequence);
+                } else {
+                    for (long sequence = afterSequence + 1; sequence <= lastSequence; sequence++) {
+                        subscriber.offer (history[historyIndex (sequence)]);
+                    }
+                }
+            }
+            subscribers.add (subscriber);
+        }
+        subscriber.scheduleSend ();
+        return subscriber;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onWhiskyChanged (WhiskyChangedEvent event) {
+        WhiskyDTO whisky = event.getWhisky ();
+        synchronized (publishLock) {
+            if (isStale (event)) {
+                stale.increment ();
+                return;
+            }
+            StockChangeDTO change = StockChangeDTO.builder ()
+                    .sequence (++lastSequence)
+                    .change (event.getType ())
+                    .id (whisky.getId ())
+                    .name (whisky.getName ())
+                    .type (whisky.getType ())
+                    .quantity (event.getCurrentQuantity ())
+                    .max (whisky.getMax ())
+                    .build ();
+            history[historyIndex (change.getSequence ())] = change;
+            for (Subscriber subscriber : subscribers) {
+                if (subscriber.offer (change)) {
+                    subscriber.scheduleSend ();
+                }
+            }
+        }
+    }
+
+    /**
+     * Checked under the publish lock. Changes without a version, such as those projected by the
+     * ledger, are never considered stale.
+     */
+    private boolean isStale (WhiskyChangedEvent event) {
+        Long id = event.getWhisky ().getId ();
+        Long version = event.getWhisky ().getVersion ();
+        if (event.getType () == WhiskyChangeType.DELETED) {
+            publishedVersions.remove (id);
+            return false;
+        }
+        if (version == null) {
+            return false;
+        }
+        Long publishedVersion = publishedVersions.get (id);
+        if (publishedVersion != null && version < publishedVersion) {
+            return true;
+        }
+        publishedVersions.put (id, version);
+        return false;
+    }
+
+    @Scheduled(fixedDelayString = "${whisky.feed.stall-check-interval-ms:1000}",
+            initialDelayString = "${whisky.feed.stall-check-interval-ms:1000}")
+    public void disconnectStalled () {
+        long now = nanoClock.getAsLong ();
+        long sendTimeoutNanos = feedProperties.getSendTimeout ().toNanos ();
+        for (Subscriber subscriber : subscribers) {
+            subscriber.disconnectIfStalled (now, sendTimeoutNanos);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${whisky.feed.heartbeat-interval-ms:15000}",
+            initialDelayString = "${whisky.feed.heartbeat-interval-ms:15000}")
+    public void heartbeat () {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.offerHeartbeat ();
+            subscriber.scheduleSend ();
+        }
+    }
+
+    public long lastSequence () {
+        synchronized (publishLock) {
+            return lastSequence;
+        }
+    }
+
+    public int subscriberCount () {
+        return subscribers.size ();
+    }
+
+    @PreDestroy
+    public void close () {
+        for (Iterator<Subscriber> iterator = subscribers.iterator (); iterator.hasNext (); ) {
+            Subscriber subscriber = iterator.next ();
+            iterator.remove ();
+            subscriber.sink.close ();
+        }
+        if (sender instanceof ExecutorService) {
+            ((ExecutorService) sender).shutdownNow ();
+        }
+    }
+
+    private int historyIndex (long sequence) {
+        return (int) (sequence % history.length);
+    }
+
+    /**
+     * Fixed at {@code threads} until a send stalls; the unbounded maximum only leaves room for
+     * the replacement threads added by {@link #resizeSender(int)}.
+     */
+    private static ExecutorService senderPool (int threads) {
+        AtomicInteger threadNumber = new AtomicInteger ();
+        return new ThreadPoolExecutor (Math.max (1, threads), Integer.MAX_VALUE, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<> (), runnable -> {
+            Thread thread = new Thread (runnable, "stock-feed-" + threadNumber.incrementAndGet ());
+            thread.setDaemon (true);
+            return thread;
+        });
+    }
+
+    private void resizeSender (int threads) {
+        if (sender instanceof ThreadPoolExecutor) {
+            ThreadPoolExecutor pool = (ThreadPoolExecutor) sender;
+            synchronized (pool) {
+                pool.setCorePoolSize (Math.max (1, pool.getCorePoolSize () + threads));
+            }
+        }
+    }
+
+    private final class Subscriber implements Subscription {
+
+        private static final long NO_GAP = -1;
+
+        private final Set<Long> ids;
+        private final WhiskyType type;
+        private final Sink sink;
+        private final AtomicBoolean sending = new AtomicBoolean ();
+        private final LinkedHashMap<Long, StockChangeDTO> pending = new LinkedHashMap<> ();
+        private final Object sendGuard = new Object ();
+        private long gapSequence = NO_GAP;
+        private boolean heartbeatDue;
+        private volatile boolean cancelled;
+        private Thread sendingThread;
+        private long sendStartedNanos;
+        private boolean stalledSend;
+
+        private Subscriber (Set<Long> ids, WhiskyType type, Sink sink) {
+            this.ids = ids;
+            this.type = type;
+            this.sink = sink;
+        }
+
+        private synchronized boolean offer (StockChangeDTO change) {
+            if ((!ids.isEmpty () && !ids.contains (change.getId ())) || (type != null && type != change.getType ())) {
+                return false;
+            }
+            if (pending.remove (change.getId ()) != null) {
+                coalesced.increment ();
+            } else if (pending.size () >= feedProperties.getBufferSize ()) {
+                dropped.increment (pending.size () + 1);
+                pending.clear ();
+                gapSequence = change.getSequence ();
+                return true;
+            }
+            pending.put (change.getId (), change);
+            return true;
+        }
+
+        private synchronized void offerGap (long sequence) {
+            pending.clear ();
+            gapSequence = sequence;
+        }
+
+        private synchronized void offerHeartbeat () {
+            heartbeatDue = true;
+        }
+
+        private void scheduleSend () {
+            if (!cancelled && sending.compareAndSet (false, true)) {
+                try {
+                    sender.execute (this::send);
+                } catch (RuntimeException e) {
+                    sending.set (false);
+                    log.warn ("Could not schedule stock feed delivery", e);
+                }
+            }
+        }
+
+        private void send () {
+            try {
+                while (!cancelled) {
+                    long gap;
+                    boolean heartbeat;
+                    List<StockChangeDTO> changes;
+                    synchronized (this) {
+                        if (gapSequence == NO_GAP && pending.isEmpty () && !heartbeatDue) {
+                            sending.set (false);
+                            return;
+                        }
+                        gap = gapSequence;
+                        heartbeat = heartbeatDue;
+                        changes = new ArrayList<> (pending.values ());
+                        gapSequence = NO_GAP;
+                        heartbeatDue = false;
+                        pending.clear ();
+                    }
+                    boolean stalledWhileSending;
+                    beginSend ();
+                    try {
+                        if (gap != NO_GAP) {
+                            sink.gap (gap);
+                        }
+                        for (StockChangeDTO change : changes) {
+                            if (cancelled) {
+                                break;
+                            }
+                            sink.send (change);
+                        }
+                        if (heartbeat && gap == NO_GAP && changes.isEmpty ()) {
+                            sink.heartbeat ();
+                        }
+                    } finally {
+                        stalledWhileSending = endSend ();
+                    }
+                    if (stalledWhileSending) {
+                        sink.close ();
+                        return;
+                    }
+                }
+            } catch (IOException | RuntimeException e) {
+                log.debug ("Stock feed subscriber disconnected", e);
+                cancel ();
+                sink.close ();
+            }
+        }
+
+        private void beginSend () {
+            synchronized (sendGuard) {
+                sendingThread = Thread.currentThread ();
+                sendStartedNanos = nanoClock.getAsLong ();
+            }
+        }
+
+        /**
+         * Returns whether the send stalled, in which case the subscriber is already cancelled
+         * and the replacement thread is given back.
+         */
+        private boolean endSend () {
+            synchronized (sendGuard) {
+                sendingThread = null;
+                if (!stalledSend) {
+                    return false;
+                }
+                stalledSend = false;
+                resizeSender (-1);
+                return true;
+            }
+        }
+
+        /**
+         * Cancels the subscriber and interrupts its sender if a send has been running for longer
+         * than the timeout. The sink is closed by the sender once the send returns, since it may
+         * not be closable while a write is blocked.
+         */
+        private void disconnectIfStalled (long now, long sendTimeoutNanos) {
+            synchronized (sendGuard) {
+                if (sendingThread == null || stalledSend || now - sendStartedNanos < sendTimeoutNanos) {
+                    return;
+                }
+                stalledSend = true;
+                cancel ();
+                stalled.increment ();
+                log.debug ("Stock feed subscriber stalled for {} ms, disconnecting", TimeUnit.NANOSECONDS.toMillis (now - sendStartedNanos));
+                resizeSender (1);
+                sendingThread.interrupt ();
+            }
+        }
+
+        @Override
+        public void cancel () {
+            cancelled = true;
+            subscribers.remove (this);
+        }
+    }
+}
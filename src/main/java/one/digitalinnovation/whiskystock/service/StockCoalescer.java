@@ -0,0 +1,464 @@
+package one.digitalinnovation.whiskystock.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import one.digitalinnovation.whiskystock.config.WhiskyStockProperties;
+import one.digitalinnovation.whiskystock.dto.WhiskyDTO;
+import one.digitalinnovation.whiskystock.dto.WhiskyStockAdjustmentDTO;
+import one.digitalinnovation.whiskystock.entity.Whisky;
+import one.digitalinnovation.whiskystock.enums.CoalescingAck;
+import one.digitalinnovation.whiskystock.enums.StockAdjustmentStatus;
+import one.digitalinnovation.whiskystock.enums.WhiskyChangeType;
+import one.digitalinnovation.whiskystock.event.WhiskyChangedEvent;
+import one.digitalinnovation.whiskystock.mapper.WhiskyMapper;
+import one.digitalinnovation.whiskystock.repository.WhiskyRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.LongSupplier;
+import java.util.function.ToIntFunction;
+
+/**
+ * Write-behind for hot whiskies: adjustments to the same id are summed over a short window and
+ * written with a single bounded UPDATE per id. Each adjustment is checked on arrival against the
+ * projected quantity (last written quantity, plus the window being written, plus the window
+ * being filled), and the UPDATE checks the bounds again, so the database stays the authority.
+ * <p>
+ * With {@link CoalescingAck#AFTER_FLUSH} a caller waits for its window to commit; if the
+ * scheduled flush has not run within one window the caller writes it itself. With
+ * {@link CoalescingAck#ON_ACCEPT} the caller returns right away. One {@link WhiskyChangedEvent}
+ * is published per committed window, carrying the summed delta.
+ * <p>
+ * If the database rejects a window's sum, its adjustments are written one by one in arrival
+ * order, so only the callers that no longer fit are rejected. Entries idle for
+ * {@code idleEvictionMs} are dropped and reloaded on the next adjustment.
+ */
+@Slf4j
+@Component
+public class StockCoalescer {
+
+    public static final String BATCH_SUMMARY = "whisky.stock.coalescing.batch";
+    public static final String FAILED_COUNTER = "whisky.stock.coalescing.failed";
+
+    private final WhiskyRepository whiskyRepository;
+    private final WhiskyStockProperties stockProperties;
+    private final ApplicationEventPublisher eventPublisher;
+    private final WhiskyMapper whiskyMapper = WhiskyMapper.INSTANCE;
+    private final ConcurrentMap<Long, Entry> entries = new ConcurrentHashMap<> ();
+    private final DistributionSummary batchSize;
+    private final Counter failed;
+    private final LongSupplier clock;
+
+    @Autowired
+    public StockCoalescer (WhiskyRepository whiskyRepository, WhiskyStockProperties stockProperties,
+                           ApplicationEventPublisher eventPublisher, MeterRegistry meterRegistry) {
+        this (whiskyRepository, stockProperties, eventPublisher, meterRegistry, System::currentTimeMillis);
+    }
+
+    StockCoalescer (WhiskyRepository whiskyRepository, WhiskyStockProperties stockProperties,
+                    ApplicationEventPublisher eventPublisher, MeterRegistry meterRegistry, LongSupplier clock) {
+        this.whiskyRepository = whiskyRepository;
+        this.stockProperties = stockProperties;
+        this.eventPublisher = eventPublisher;
+        this.clock = clock;
+        this.batchSize = DistributionSummary.builder (BATCH_SUMMARY)
+                .description ("Stock adjustments written by one coalesced UPDATE")
+                .register (meterRegistry);
+        this.failed = Counter.builder (FAILED_COUNTER)
+                .description ("Accepted stock adjustments whose coalesced UPDATE was rejected or failed")
+                .register (meterRegistry);
+    }
+
+    public StockAdjustment tryAdjust (Long id, int quantityDelta) {
+        return tryAdjust (id, quantityDelta, 0);
+    }
+
+    /**
+     * Accepts the adjustment only if the projected quantity stays at or above {@code floor}.
+     * The coalesced UPDATE itself only checks zero, since a window sums callers with different
+     * floors.
+     */
+    public StockAdjustment tryAdjust (Long id, int quantityDelta, int floor) {
+        return await (accept (id, quantityDelta, floor));
+    }
+
+    public List<StockAdjustment> tryAdjustAll (List<WhiskyStockAdjustmentDTO> adjustments) {
+        return tryAdjustAll (adjustments, adjustment -> 0);
+    }
+
+    /**
+     * Accepts every adjustment before waiting on any of them, so a batch spends one window
+     * waiting rather than one per adjustment.
+     */
+    public List<StockAdjustment> tryAdjustAll (List<WhiskyStockAdjustmentDTO> adjustments,
+                                               ToIntFunction<WhiskyStockAdjustmentDTO> floor) {
+        List<Accepted> accepted = new ArrayList<> (adjustments.size ());
+        for (WhiskyStockAdjustmentDTO adjustment : adjustments) {
+            accepted.add (accept (adjustment.getId (), adjustment.getQuantity (), floor.applyAsInt (adjustment)));
+        }
+        List<StockAdjustment> results = new ArrayList<> (accepted.size ());
+        for (Accepted acceptedAdjustment : accepted) {
+            results.add (await (acceptedAdjustment));
+        }
+        return results;
+    }
+
+    public OptionalInt projectedQuantity (Long id) {
+        Entry entry = entries.get (id);
+        if (entry == null) {
+            return OptionalInt.empty ();
+        }
+        synchronized (entry) {
+            return entry.deleted ? OptionalInt.empty () : OptionalInt.of (entry.projectedQuantity ());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${whisky.stock.coalescing.window-ms:50}")
+    public void flush () {
+        long idleSince = clock.getAsLong () - stockProperties.getCoalescing ().getIdleEvictionMs ();
+        for (Entry entry : entries.values ()) {
+            flush (entry);
+            synchronized (entry) {
+                if (entry.pending.operations == 0 && (entry.deleted || entry.lastAcceptedMs < idleSince)) {
+                    entry.evicted = true;
+                    entries.remove (entry.snapshot.getId (), entry);
+                }
+            }
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown () {
+        flush ();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onWhiskyChanged (WhiskyChangedEvent event) {
+        if (event.getType () == WhiskyChangeType.DELETED) {
+            Entry entry = entries.get (event.getWhisky ().getId ());
+            if (entry != null) {
+                synchronized (entry) {
+                    entry.deleted = true;
+                }
+            }
+        }
+    }
+
+    private Accepted accept (Long id, int quantityDelta, int floor) {
+        Entry entry;
+        Window window;
+        int index;
+        int projectedQuantity;
+        boolean full;
+        for (;;) {
+            entry = load (id);
+            if (entry == null) {
+                return new Accepted (StockAdjustment.notFound (id, quantityDelta));
+            }
+            synchronized (entry) {
+                if (entry.evicted) {
+                    continue;
+                }
+                if (entry.deleted) {
+                    return new Accepted (StockAdjustment.notFound (id, quantityDelta));
+                }
+                projectedQuantity = entry.projectedQuantity () + quantityDelta;
+                if (projectedQuantity < floor || projectedQuantity > entry.snapshot.getMax ()) {
+                    return new Accepted (StockAdjustment.stockExceeded (id, quantityDelta));
+                }
+                window = entry.pending;
+                index = window.add (quantityDelta);
+                entry.lastAcceptedMs = clock.getAsLong ();
+                full = window.operations >= stockProperties.getCoalescing ().getMaxOperations ();
+            }
+            break;
+        }
+        if (full) {
+            flush (entry);
+        }
+        if (stockProperties.getCoalescing ().getAck () == CoalescingAck.ON_ACCEPT) {
+            return new Accepted (StockAdjustment.applied (entry.toDTO (projectedQuantity), quantityDelta));
+        }
+        return new Accepted (entry, window, index, quantityDelta);
+    }
+
+    private StockAdjustment await (Accepted accepted) {
+        if (accepted.result != null) {
+            return accepted.result;
+        }
+        CompletableFuture<WindowOutcome> written = accepted.window.written;
+        try {
+            try {
+                return accepted.outcome (written.get (stockProperties.getCoalescing ().getWindowMs (), TimeUnit.MILLISECONDS));
+            } catch (TimeoutException e) {
+                flush (accepted.entry);
+                return accepted.outcome (written.get ());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread ().interrupt ();
+            throw new IllegalStateException ("Interrupted while waiting for a coalesced stock update", e);
+        } catch (ExecutionException e) {
+            throw e.getCause () instanceof RuntimeException
+                    ? (RuntimeException) e.getCause ()
+                    : new IllegalStateException (e.getCause ());
+        }
+    }
+
+    /**
+     * Writes the entry's pending window, if any. Windows of one entry are written one at a time,
+     * and a window's future is completed before the next one starts, so a caller that flushes
+     * after its own window was taken by someone else still finds it completed.
+     */
+    private void flush (Entry entry) {
+        synchronized (entry.flushLock) {
+            Window window;
+            synchronized (entry) {
+                window = entry.pending;
+                if (window.operations == 0) {
+                    return;
+                }
+                entry.pending = new Window ();
+                entry.inFlightDelta = window.quantityDelta;
+            }
+            WindowOutcome windowOutcome;
+            try {
+                StockAdjustment outcome = write (entry, window.quantityDelta);
+                windowOutcome = outcome.getStatus () == StockAdjustmentStatus.STOCK_EXCEEDED && window.operations > 1
+                        ? writeEach (entry, window)
+                        : new WindowOutcome (outcome, null, window.quantityDelta);
+            } catch (RuntimeException e) {
+                synchronized (entry) {
+                    entry.inFlightDelta = 0;
+                }
+                failed.increment (window.operations);
+                log.warn ("Coalesced stock update of {} adjustments to whisky {} failed", window.operations, entry.snapshot.getId (), e);
+                window.written.completeExceptionally (e);
+                return;
+            }
+            StockAdjustment outcome = windowOutcome.outcome;
+            synchronized (entry) {
+                entry.inFlightDelta = 0;
+                if (outcome.isApplied ()) {
+                    entry.committedQuantity = outcome.getWhisky ().getQuantity ();
+                } else if (outcome.getStatus () == StockAdjustmentStatus.NOT_FOUND) {
+                    entry.deleted = true;
+                }
+            }
+            batchSize.record (window.operations);
+            if (outcome.isApplied () && windowOutcome.appliedDelta != 0) {
+                eventPublisher.publishEvent (WhiskyChangedEvent.updated (outcome.getWhisky (), windowOutcome.appliedDelta));
+            }
+            int rejected = windowOutcome.rejected (window.operations);
+            if (rejected > 0) {
+                failed.increment (rejected);
+                log.warn ("{} of {} coalesced stock adjustments to whisky {} were rejected: {}",
+                        rejected, window.operations, entry.snapshot.getId (), windowOutcome.rejectedStatus ());
+            }
+            window.written.complete (windowOutcome);
+        }
+    }
+
+    /**
+     * Falls back to one bounded UPDATE per adjustment after the window's sum was rejected. The
+     * outcome is the last applied adjustment, or the rejection when none applied.
+     */
+    private WindowOutcome writeEach (Entry entry, Window window) {
+        StockAdjustment[] outcomes = new StockAdjustment[window.operations];
+        StockAdjustment lastOutcome = null;
+        StockAdjustment lastApplied = null;
+        int appliedDelta = 0;
+        for (int i = 0; i < window.operations; i++) {
+            int quantityDelta = window.quantityDeltas[i];
+            StockAdjustment outcome = write (entry, quantityDelta);
+            synchronized (entry) {
+                entry.inFlightDelta -= quantityDelta;
+                if (outcome.isApplied ()) {
+                    entry.committedQuantity = outcome.getWhisky ().getQuantity ();
+                }
+            }
+            if (outcome.isApplied ()) {
+                appliedDelta += quantityDelta;
+                lastApplied = outcome;
+            }
+            outcomes[i] = outcome;
+            lastOutcome = outcome;
+        }
+        return new WindowOutcome (lastApplied != null ? lastApplied : lastOutcome, outcomes, appliedDelta);
+    }
+
+    private StockAdjustment write (Entry entry, int quantityDelta) {
+        Long id = entry.snapshot.getId ();
+        if (quantityDelta == 0) {
+            return StockAdjustment.applied (entry.toDTO (entry.committedQuantity), 0);
+        }
+        Optional<Whisky> adjustedWhisky = whiskyRepository.adjustIfWithinBounds (id, quantityDelta);
+        if (adjustedWhisky.isPresent ()) {
+            whiskyRepository.evictFromCache (id);
+            return StockAdjustment.applied (whiskyMapper.toDTO (adjustedWhisky.get ()), quantityDelta);
+        }
+        Optional<Whisky> currentWhisky = whiskyRepository.findById (id);
+        if (currentWhisky.isEmpty ()) {
+            return StockAdjustment.notFound (id, quantityDelta);
+        }
+        synchronized (entry) {
+            entry.committedQuantity = currentWhisky.get ().getQuantity ();
+        }
+        return StockAdjustment.stockExceeded (id, quantityDelta);
+    }
+
+    private Entry load (Long id) {
+        Entry entry = entries.get (id);
+        if (entry != null) {
+            return entry;
+        }
+        Optional<Whisky> whisky = whiskyRepository.findById (id);
+        if (whisky.isEmpty ()) {
+            return null;
+        }
+        Entry loadedEntry = new Entry (whiskyMapper.toDTO (whisky.get ()));
+        Entry existingEntry = entries.putIfAbsent (id, loadedEntry);
+        return existingEntry != null ? existingEntry : loadedEntry;
+    }
+
+    private static final class Window {
+
+        private final CompletableFuture<WindowOutcome> written = new CompletableFuture<> ();
+        private int[] quantityDeltas = new int[8];
+        private int quantityDelta;
+        private int operations;
+
+        private int add (int delta) {
+            if (operations == quantityDeltas.length) {
+                quantityDeltas = Arrays.copyOf (quantityDeltas, operations * 2);
+            }
+            quantityDeltas[operations] = delta;
+            quantityDelta += delta;
+            return operations++;
+        }
+    }
+
+    /**
+     * How a window was written: one outcome for all of its adjustments, or one each when the
+     * window fell back to writing them separately.
+     */
+    private static final class WindowOutcome {
+
+        private final StockAdjustment outcome;
+        private final StockAdjustment[] outcomes;
+        private final int appliedDelta;
+
+        private WindowOutcome (StockAdjustment outcome, StockAdjustment[] outcomes, int appliedDelta) {
+            this.outcome = outcome;
+            this.outcomes = outcomes;
+            this.appliedDelta = outcome.isApplied () || outcomes != null ? appliedDelta : 0;
+        }
+
+        private StockAdjustment outcome (int index) {
+            return outcomes == null ? outcome : outcomes[index];
+        }
+
+        private int rejected (int operations) {
+            if (outcomes == null) {
+                return outcome.isApplied () ? 0 : operations;
+            }
+            return (int) Arrays.stream (outcomes).filter (each -> !each.isApplied ()).count ();
+        }
+
+        private StockAdjustmentStatus rejectedStatus () {
+            if (outcomes == null) {
+                return outcome.getStatus ();
+            }
+            return Arrays.stream (outcomes)
+                    .filter (each -> !each.isApplied ())
+                    .map (StockAdjustment::getStatus)
+                    .findFirst ()
+                    .orElse (null);
+        }
+    }
+
+    private static final class Entry {
+
+        private final WhiskyDTO snapshot;
+        private final Object flushLock = new Object ();
+        private int committedQuantity;
+        private int inFlightDelta;
+        private Window pending = new Window ();
+        private boolean deleted;
+        private boolean evicted;
+        private long lastAcceptedMs;
+
+        private Entry (WhiskyDTO snapshot) {
+            this.snapshot = snapshot;
+            this.committedQuantity = snapshot.getQuantity ();
+        }
+
+        private int projectedQuantity () {
+            return committedQuantity + inFlightDelta + pending.quantityDelta;
+        }
+
+        private WhiskyDTO toDTO (int currentQuantity) {
+            return WhiskyDTO.builder ()
+                    .id (snapshot.getId ())
+                    .name (snapshot.getName ())
+                    .brand (snapshot.getBrand ())
+                    .max (snapshot.getMax ())
+                    .quantity (currentQuantity)
+                    .type (snapshot.getType ())
+                    .build ();
+        }
+    }
+
+    private static final class Accepted {
+
+        private final StockAdjustment result;
+        private final Entry entry;
+        private final Window window;
+        private final int index;
+        private final int quantityDelta;
+
+        private Accepted (StockAdjustment result) {
+            this.result = result;
+            this.entry = null;
+            this.window = null;
+            this.index = -1;
+            this.quantityDelta = result.getQuantityDelta ();
+        }
+
+        private Accepted (Entry entry, Window window, int index, int quantityDelta) {
+            this.result = null;
+            this.entry = entry;
+            this.window = window;
+            this.index = index;
+            this.quantityDelta = quantityDelta;
+        }
+
+        private StockAdjustment outcome (WindowOutcome written) {
+            StockAdjustment windowOutcome = written.outcome (index);
+            switch (windowOutcome.getStatus ()) {
+                case APPLIED:
+                    return StockAdjustment.applied (windowOutcome.getWhisky (), quantityDelta);
+                case NOT_FOUND:
+                    return StockAdjustment.notFound (windowOutcome.getId (), quantityDelta);
+                default:
+                    return StockAdjustment.stockExceeded (windowOutcome.getId (), quantityDelta);
+            }
+        }
+    }
+}
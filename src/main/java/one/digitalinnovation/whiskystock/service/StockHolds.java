@@ -0,0 +1,38 @@
+package one.digitalinnovation.whiskystock.service;
+
+import one.digitalinnovation.whiskystock.enums.WhiskyChangeType;
+import one.digitalinnovation.whiskystock.event.WhiskyChangedEvent;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bottles held by outstanding reservations, per whisky. {@link ReservationService} raises and
+ * lowers the counts; {@link WhiskyService} reads them so a plain decrement cannot take stock that
+ * is held. A decrement racing a brand new hold can still leave that hold short, in which case its
+ * commit is rejected like any other decrement that finds too little stock.
+ */
+@Component
+public class StockHolds {
+
+    private final ConcurrentMap<Long, AtomicInteger> reservedByWhisky = new ConcurrentHashMap<> ();
+
+    public int reserved (Long whiskyId) {
+        AtomicInteger reserved = reservedByWhisky.get (whiskyId);
+        return reserved == null ? 0 : reserved.get ();
+    }
+
+    AtomicInteger counter (Long whiskyId) {
+        return reservedByWhisky.computeIfAbsent (whiskyId, id -> new AtomicInteger ());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onWhiskyChanged (WhiskyChangedEvent event) {
+        if (event.getType () == WhiskyChangeType.DELETED) {
+            reservedByWhisky.remove (event.getWhisky ().getId ());
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package one.digitalinnovation.whiskystock.service;
+
+import lombok.extern.slf4j.Slf4j;
+import one.digitalinnovation.whiskystock.dto.WhiskyDTO;
+import one.digitalinnovation.whiskystock.entity.Whisky;
+import one.digitalinnovation.whiskystock.enums.WhiskyChangeType;
+import one.digitalinnovation.whiskystock.event.WhiskyChangedEvent;
+import one.digitalinnovation.whiskystock.exception.WhiskyNotFoundException;
+import one.digitalinnovation.whiskystock.exception.WhiskyStockExceededException;
+import one.digitalinnovation.whiskystock.mapper.WhiskyMapper;
+import one.digitalinnovation.whiskystock.repository.WhiskyRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-memory stock counters keyed by whisky id. Adjustments are applied with a CAS loop that
+ * enforces the floor (zero unless the caller passes one) and the {@code max} ceiling, and the resulting quantities are written
+ * back to the database in the background.
+ */
+@Slf4j
+@Component
+public class StockLedger {
+
+    private final WhiskyRepository whiskyRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final CatalogVersions catalogVersions;
+    private final WhiskyMapper whiskyMapper = WhiskyMapper.INSTANCE;
+
+    private final ConcurrentMap<Long, Entry> entries = new ConcurrentHashMap<> ();
+    private final Set<Long> dirtyIds = ConcurrentHashMap.newKeySet ();
+
+    @Autowired
+    public StockLedger (WhiskyRepository whiskyRepository, TransactionTemplate transactionTemplate, CatalogVersions catalogVersions) {
+        this.whiskyRepository = whiskyRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.catalogVersions = catalogVersions;
+    }
+
+    public WhiskyDTO adjust (Long id, int quantityDelta) throws WhiskyNotFoundException, WhiskyStockExceededException {
+        return tryAdjust (id, quantityDelta).orElseThrow ();
+    }
+
+    public StockAdjustment tryAdjust (Long id, int quantityDelta) {
+        return tryAdjust (id, quantityDelta, 0);
+    }
+
+    public StockAdjustment tryAdjust (Long id, int quantityDelta, int floor) {
+        Entry entry = load (id);
+        if (entry == null) {
+            return StockAdjustment.notFound (id, quantityDelta);
+        }
+        int quantityAfterAdjust = entry.apply (quantityDelta, floor);
+        if (quantityAfterAdjust < 0) {
+            return StockAdjustment.stockExceeded (id, quantityDelta);
+        }
+        dirtyIds.add (id);
+        return StockAdjustment.applied (entry.toDTO (quantityAfterAdjust), quantityDelta);
+    }
+
+    public OptionalInt currentQuantity (Long id) {
+        Entry entry = entries.get (id);
+        return entry == null ? OptionalInt.empty () : OptionalInt.of (entry.quantity.get ());
+    }
+
+    @Scheduled(fixedDelayString = "${whisky.stock.ledger.flush-interval-ms:200}")
+    public void flush () {
+        if (dirtyIds.isEmpty ()) {
+            return;
+        }
+        List<Long> flushedIds = new ArrayList<> (dirtyIds.size ());
+        Iterator<Long> dirtyIterator = dirtyIds.iterator ();
+        while (dirtyIterator.hasNext ()) {
+            flushedIds.add (dirtyIterator.next ());
+            dirtyIterator.remove ();
+        }
+        try {
+            transactionTemplate.executeWithoutResult (status -> flushedIds.forEach (id -> {
+                Entry entry = entries.get (id);
+                if (entry != null) {
+                    whiskyRepository.updateQuantity (id, entry.quantity.get ());
+                }
+            }));
+        } catch (RuntimeException e) {
+            dirtyIds.addAll (flushedIds);
+            throw e;
+        }
+        flushedIds.forEach (catalogVersions::changed);
+    }
+
+    @PreDestroy
+    public void flushOnShutdown () {
+        try {
+            flush ();
+        } catch (RuntimeException e) {
+            log.error ("Could not flush {} pending stock ledger entries on shutdown", dirtyIds.size (), e);
+        }
+    }
+
+    @EventListener
+    public void onWhiskyChanged (WhiskyChangedEvent event) {
+        if (event.getType () == WhiskyChangeType.DELETED) {
+            Long id = event.getWhisky ().getId ();
+            entries.remove (id);
+            dirtyIds.remove (id);
+        }
+    }
+
+    private Entry load (Long id) {
+        Entry entry = entries.get (id);
+        if (entry != null) {
+            return entry;
+        }
+        Optional<Whisky> whisky = whiskyRepository.findById (id);
+        if (whisky.isEmpty ()) {
+            return null;
+        }
+        Entry loadedEntry = new Entry (whiskyMapper.toDTO (whisky.get ()));
+        Entry existingEntry = entries.putIfAbsent (id, loadedEntry);
+        return existingEntry != null ? existingEntry : loadedEntry;
+    }
+
+    private static final class Entry {
+
+        private final WhiskyDTO snapshot;
+        private final AtomicInteger quantity;
+
+        private Entry (WhiskyDTO snapshot) {
+            this.snapshot = snapshot;
+            this.quantity = new AtomicInteger (snapshot.getQuantity ());
+        }
+
+        private int apply (int quantityDelta, int floor) {
+            int max = snapshot.getMax ();
+            for (;;) {
+                int current = quantity.get ();
+                int next = current + quantityDelta;
+                if (next < floor || next > max) {
+                    return -1;
+                }
+                if (quantity.compareAndSet (current, next)) {
+                    return next;
+                }
+            }
+        }
+
+        private WhiskyDTO toDTO (int currentQuantity) {
+            return WhiskyDTO.builder ()
+                    .id (snapshot.getId ())
+                    .name (snapshot.getName ())
+                    .brand (snapshot.getBrand ())
+                    .max (snapshot.getMax ())
+                    .quantity (currentQuantity)
+                    .type (snapshot.getType ())
+                    .build ();
+        }
+    }
+}
@@ -0,0 +1,292 @@
+package one.digitalinnovation.whiskystock.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import one.digitalinnovation.whiskystock.config.WhiskySummaryProperties;
+import one.digitalinnovation.whiskystock.dto.StockSummaryDTO;
+import one.digitalinnovation.whiskystock.dto.StockSummaryGroupDTO;
+import one.digitalinnovation.whiskystock.dto.WhiskyDTO;
+import one.digitalinnovation.whiskystock.enums.WhiskyChangeType;
+import one.digitalinnovation.whiskystock.enums.WhiskyType;
+import one.digitalinnovation.whiskystock.event.WhiskyChangedEvent;
+import one.digitalinnovation.whiskystock.repository.WhiskyRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Stock totals, capacity and low-stock counts per {@link WhiskyType} and per brand, kept in
+ * memory and updated from every committed change event, so a summary read only walks the
+ * groups. A scheduled job recomputes the same figures with a {@code GROUP BY} and corrects the
+ * in-memory aggregate where they drifted.
+ * <p>
+ * The aggregate also keeps each type and brand pair as a cell that counts the events applied to
+ * it. Reconciliation notes those counts before the query and only compares the cells that did
+ * not change while it ran; a cell that disagrees with the database may still be waiting for the
+ * event of a commit the query already saw (or for a stock ledger write), so it is only corrected
+ * when the next reconciliation finds it disagreeing again with no event in between. Busy cells
+ * never hold up the rest of the catalog.
+ */
+@Slf4j
+@Component
+public class StockSummary {
+
+    public static final String MISMATCH_COUNTER = "whisky.summary.reconcile.mismatches";
+
+    private static final int LOAD_ATTEMPTS = 5;
+
+    private final WhiskyRepository whiskyRepository;
+    private final WhiskySummaryProperties summaryProperties;
+    private final Counter mismatches;
+    private final ReadWriteLock swapLock = new ReentrantReadWriteLock ();
+    private final LongAdder changes = new LongAdder ();
+
+    private volatile Aggregate aggregate = new Aggregate ();
+    private volatile boolean loaded;
+
+    @Autowired
+    public StockSummary (WhiskyRepository whiskyRepository, WhiskySummaryProperties summaryProperties, MeterRegistry meterRegistry) {
+        this.whiskyRepository = whiskyRepository;
+        this.summaryProperties = summaryProperties;
+        this.mismatches = Counter.builder (MISMATCH_COUNTER)
+                .description ("Reconciliations that found the in-memory stock summary out of date")
+                .register (meterRegistry);
+    }
+
+    public StockSummaryDTO summary () {
+        return aggregate.toDTO ();
+    }
+
+    public long quantityOf (WhiskyType type) {
+        return aggregate.byType.get (type).quantity.sum ();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load () {
+        for (int attempt = 1; attempt <= LOAD_ATTEMPTS && !loaded; attempt++) {
+            long changesBefore = changes.sum ();
+            Aggregate fromDatabase = fromDatabase ();
+            swapLock.writeLock ().lock ();
+            try {
+                if (changes.sum () == changesBefore) {
+                    aggregate = fromDatabase;
+                    loaded = true;
+                }
+            } finally {
+                swapLock.writeLock ().unlock ();
+            }
+        }
+        if (!loaded) {
+            log.warn ("Stock summary could not be loaded while the catalog was changing; retrying on the next reconciliation");
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${whisky.summary.reconcile-interval-ms:60000}",
+            initialDelayString = "${whisky.summary.reconcile-interval-ms:60000}")
+    public void reconcile () {
+        if (!loaded) {
+            load ();
+            return;
+        }
+        Aggregate current = aggregate;
+        Map<Group, Long> sequencesBefore = current.cellSequences ();
+        Aggregate fromDatabase = fromDatabase ();
+        int corrected;
+        swapLock.writeLock ().lock ();
+        try {
+            corrected = current.correct (fromDatabase, sequencesBefore);
+        } finally {
+            swapLock.writeLock ().unlock ();
+        }
+        if (corrected > 0) {
+            mismatches.increment ();
+            log.warn ("Stock summary drifted from the database in {} type and brand groups, which were corrected", corrected);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onWhiskyChanged (WhiskyChangedEvent event) {
+        WhiskyDTO whisky = event.getWhisky ();
+        long whiskies = event.getType () == WhiskyChangeType.CREATED ? 1 : event.getType () == WhiskyChangeType.DELETED ? -1 : 0;
+        long lowStockBefore = event.getType () == WhiskyChangeType.CREATED ? 0 : lowStock (event.getPreviousQuantity (), whisky.getMax ());
+        long lowStockAfter = event.getType () == WhiskyChangeType.DELETED ? 0 : lowStock (event.getCurrentQuantity (), whisky.getMax ());
+        swapLock.readLock ().lock ();
+        try {
+            aggregate.add (whisky.getType (), whisky.getBrand (), whiskies, event.getQuantityDelta (),
+                    whiskies * whisky.getMax (), lowStockAfter - lowStockBefore);
+            changes.increment ();
+        } finally {
+            swapLock.readLock ().unlock ();
+        }
+    }
+
+    private long lowStock (int quantity, int max) {
+        return quantity <= max * summaryProperties.getLowStockRatio () ? 1 : 0;
+    }
+
+    private Aggregate fromDatabase () {
+        Aggregate fromDatabase = new Aggregate ();
+        for (Object[] row : whiskyRepository.summarizeByTypeAndBrand (summaryProperties.getLowStockRatio ())) {
+            fromDatabase.add ((WhiskyType) row[0], (String) row[1], asLong (row[2]), asLong (row[3]), asLong (row[4]), asLong (row[5]));
+        }
+        return fromDatabase;
+    }
+
+    private static long asLong (Object value) {
+        return value == null ? 0 : ((Number) value).longValue ();
+    }
+
+    private static final class Aggregate {
+
+        private final Map<WhiskyType, Group> byType = new EnumMap<> (WhiskyType.class);
+        private final ConcurrentMap<String, Group> byBrand = new ConcurrentHashMap<> ();
+        private final Map<WhiskyType, ConcurrentMap<String, Group>> cells = new EnumMap<> (WhiskyType.class);
+
+        private Aggregate () {
+            for (WhiskyType type : WhiskyType.values ()) {
+                byType.put (type, new Group ());
+                cells.put (type, new ConcurrentHashMap<> ());
+            }
+        }
+
+        private void add (WhiskyType type, String brand, long whiskies, long quantity, long capacity, long lowStock) {
+            Group cell = cells.get (type).computeIfAbsent (brand, key -> new Group ());
+            cell.add (whiskies, quantity, capacity, lowStock);
+            cell.sequence.increment ();
+            byType.get (type).add (whiskies, quantity, capacity, lowStock);
+            byBrand.computeIfAbsent (brand, key -> new Group ()).add (whiskies, quantity, capacity, lowStock);
+        }
+
+        private Map<Group, Long> cellSequences () {
+            Map<Group, Long> sequences = new IdentityHashMap<> ();
+            cells.values ().forEach (brands -> brands.values ().forEach (cell -> sequences.put (cell, cell.sequence.sum ())));
+            return sequences;
+        }
+
+        /**
+         * Compares every cell that saw no event since {@code sequencesBefore} was taken with the
+         * same cell in {@code fromDatabase}, and moves the cell, its type and its brand by the
+         * difference once it has disagreed on two reconciliations in a row. Must run with no
+         * event being applied. Returns how many cells were corrected.
+         */
+        private int correct (Aggregate fromDatabase, Map<Group, Long> sequencesBefore) {
+            fromDatabase.cells.forEach ((type, brands) -> brands.keySet ()
+                    .forEach (brand -> cells.get (type).computeIfAbsent (brand, key -> new Group ())));
+            int corrected = 0;
+            for (Map.Entry<WhiskyType, ConcurrentMap<String, Group>> typeCells : cells.entrySet ()) {
+                for (Map.Entry<String, Group> brandCell : typeCells.getValue ().entrySet ()) {
+                    Group cell = brandCell.getValue ();
+                    long sequence = cell.sequence.sum ();
+                    if (!Long.valueOf (sequence).equals (sequencesBefore.get (cell))) {
+                        continue;
+                    }
+                    Group expected = fromDatabase.cells.get (typeCells.getKey ()).getOrDefault (brandCell.getKey (), new Group ());
+                    if (cell.sameFigures (expected)) {
+                        cell.driftSequence = -1;
+                    } else if (cell.driftSequence != sequence) {
+                        cell.driftSequence = sequence;
+                    } else {
+                        long whiskies = expected.whiskies.sum () - cell.whiskies.sum ();
+                        long quantity = expected.quantity.sum () - cell.quantity.sum ();
+                        long capacity = expected.capacity.sum () - cell.capacity.sum ();
+                        long lowStock = expected.lowStock.sum () - cell.lowStock.sum ();
+                        cell.add (whiskies, quantity, capacity, lowStock);
+                        byType.get (typeCells.getKey ()).add (whiskies, quantity, capacity, lowStock);
+                        byBrand.computeIfAbsent (brandCell.getKey (), key -> new Group ()).add (whiskies, quantity, capacity, lowStock);
+                        cell.driftSequence = -1;
+                        corrected++;
+                    }
+                }
+            }
+            return corrected;
+        }
+
+        private StockSummaryDTO toDTO () {
+            List<StockSummaryGroupDTO> typeGroups = new ArrayList<> (byType.size ());
+            byType.forEach ((type, group) -> typeGroups.add (group.toDTO (type.name ())));
+            List<StockSummaryGroupDTO> brandGroups = new ArrayList<> (byBrand.size ());
+            byBrand.forEach ((brand, group) -> {
+                StockSummaryGroupDTO brandGroup = group.toDTO (brand);
+                if (brandGroup.getWhiskies () > 0) {
+                    brandGroups.add (brandGroup);
+                }
+            });
+            brandGroups.sort ((first, second) -> first.getKey ().compareTo (second.getKey ()));
+
+            long whiskies = 0, quantity = 0, capacity = 0, lowStock = 0;
+            for (StockSummaryGroupDTO typeGroup : typeGroups) {
+                whiskies += typeGroup.getWhiskies ();
+                quantity += typeGroup.getQuantity ();
+                capacity += typeGroup.getCapacity ();
+                lowStock += typeGroup.getLowStock ();
+            }
+            return StockSummaryDTO.builder ()
+                    .whiskies (whiskies)
+                    .quantity (quantity)
+                    .capacity (capacity)
+                    .fillRatio (fillRatio (quantity, capacity))
+                    .lowStock (lowStock)
+                    .byType (typeGroups)
+                    .byBrand (brandGroups)
+                    .build ();
+        }
+    }
+
+    private static final class Group {
+
+        private final LongAdder whiskies = new LongAdder ();
+        private final LongAdder quantity = new LongAdder ();
+        private final LongAdder capacity = new LongAdder ();
+        private final LongAdder lowStock = new LongAdder ();
+        private final LongAdder sequence = new LongAdder ();
+
+        // event count at which reconciliation last found this cell disagreeing, guarded by the write lock
+        private long driftSequence = -1;
+
+        private void add (long whiskyCount, long quantityDelta, long capacityDelta, long lowStockDelta) {
+            whiskies.add (whiskyCount);
+            quantity.add (quantityDelta);
+            capacity.add (capacityDelta);
+            lowStock.add (lowStockDelta);
+        }
+
+        private boolean sameFigures (Group other) {
+            return whiskies.sum () == other.whiskies.sum ()
+                    && quantity.sum () == other.quantity.sum ()
+                    && capacity.sum () == other.capacity.sum ()
+                    && lowStock.sum () == other.lowStock.sum ();
+        }
+
+        private StockSummaryGroupDTO toDTO (String key) {
+            long groupQuantity = quantity.sum ();
+            long groupCapacity = capacity.sum ();
+            return StockSummaryGroupDTO.builder ()
+                    .key (key)
+                    .whiskies (whiskies.sum ())
+                    .quantity (groupQuantity)
+                    .capacity (groupCapacity)
+                    .fillRatio (fillRatio (groupQuantity, groupCapacity))
+                    .lowStock (lowStock.sum ())
+                    .build ();
+        }
+    }
+
+    private static double fillRatio (long quantity, long capacity) {
+        return capacity == 0 ? 0 : (double) quantity / capacity;
+    }
+}
@@ -0,0 +1,58 @@
+package one.digitalinnovation.whiskystock.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import lombok.AllArgsConstructor;
+import one.digitalinnovation.whiskystock.dto.WhiskyDTO;
+import one.digitalinnovation.whiskystock.entity.Whisky;
+import one.digitalinnovation.whiskystock.enums.StreamFormat;
+import one.digitalinnovation.whiskystock.mapper.WhiskyMapper;
+import one.digitalinnovation.whiskystock.repository.WhiskyRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+@Service
+@AllArgsConstructor(onConstructor = @__(@Autowired))
+public class WhiskyCatalogStreamer {
+
+    private static final String NDJSON_SEPARATOR = "\n";
+
+    private final WhiskyRepository whiskyRepository;
+    private final WhiskyService whiskyService;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+    private final WhiskyMapper whiskyMapper = WhiskyMapper.INSTANCE;
+
+    @Transactional(readOnly = true)
+    public void write (OutputStream outputStream, StreamFormat format) throws IOException {
+        ObjectWriter whiskyWriter = objectMapper.writerFor (WhiskyDTO.class)
+                .without (SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                .without (JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .withRootValueSeparator (NDJSON_SEPARATOR);
+
+        try (Stream<Whisky> whiskies = whiskyRepository.streamAllOrderedById ();
+             SequenceWriter sequenceWriter = whiskyWriter.writeValues (outputStream)) {
+            sequenceWriter.init (format == StreamFormat.JSON);
+            Iterator<Whisky> whiskyIterator = whiskies.iterator ();
+            while (whiskyIterator.hasNext ()) {
+                Whisky whisky = whiskyIterator.next ();
+                sequenceWriter.write (whiskyService.overlayInMemoryQuantity (whiskyMapper.toDTO (whisky)));
+                entityManager.detach (whisky);
+            }
+        }
+        if (format == StreamFormat.NDJSON) {
+            outputStream.write (NDJSON_SEPARATOR.getBytes ());
+        }
+        outputStream.flush ();
+    }
+}
@@ -0,0 +1,269 @@
+package one.digitalinnovation.whiskystock.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import one.digitalinnovation.whiskystock.config.WhiskyImportProperties;
+import one.digitalinnovation.whiskystock.dto.WhiskyDTO;
+import one.digitalinnovation.whiskystock.dto.WhiskyImportErrorDTO;
+import one.digitalinnovation.whiskystock.dto.WhiskyImportResultDTO;
+import one.digitalinnovation.whiskystock.entity.Whisky;
+import one.digitalinnovation.whiskystock.enums.ImportFormat;
+import one.digitalinnovation.whiskystock.enums.WhiskyType;
+import one.digitalinnovation.whiskystock.event.WhiskyChangedEvent;
+import one.digitalinnovation.whiskystock.mapper.WhiskyMapper;
+import one.digitalinnovation.whiskystock.repository.WhiskyRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceException;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Streams a CSV or NDJSON catalog upload line by line. Valid rows are collected in chunks; each
+ * chunk is checked against registered names with a single {@code IN} query and persisted in its
+ * own transaction, so inserts are sent as JDBC batches using ids from the pooled sequence. A
+ * chunk that fails to flush or commit is rejected as a whole and the import moves on; the
+ * shared {@link EntityManager} is not translated by Spring, so its exceptions are caught too.
+ */
+@Slf4j
+@Service
+@AllArgsConstructor(onConstructor = @__(@Autowired))
+public class WhiskyImportService {
+
+    private static final String[] CSV_COLUMNS = {"name", "brand", "max", "quantity", "type"};
+
+    private final WhiskyRepository whiskyRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final WhiskyImportProperties importProperties;
+    private final WhiskyMapper whiskyMapper = WhiskyMapper.INSTANCE;
+
+    public WhiskyImportResultDTO importWhiskies (InputStream inputStream, ImportFormat format) throws IOException {
+        ImportProgress progress = new ImportProgress (importProperties.getMaxReportedErrors ());
+        BufferedReader reader = new BufferedReader (new InputStreamReader (inputStream, StandardCharsets.UTF_8), 1 << 16);
+        long lineNumber = 0;
+        RowParser rowParser;
+        if (format == ImportFormat.CSV) {
+            lineNumber++;
+            try {
+                rowParser = csvRowParser (reader.readLine ());
+            } catch (IllegalArgumentException e) {
+                progress.reject (lineNumber, null, e.getMessage ());
+                return progress.toResult ();
+            }
+        } else {
+            ObjectReader whiskyReader = objectMapper.readerFor (WhiskyDTO.class);
+            rowParser = whiskyReader::readValue;
+        }
+
+        List<ImportRow> chunk = new ArrayList<> (importProperties.getChunkSize ());
+        String line;
+        while ((line = reader.readLine ()) != null) {
+            lineNumber++;
+            if (line.isBlank ()) {
+                continue;
+            }
+            WhiskyDTO whiskyDTO;
+            try {
+                whiskyDTO = rowParser.parse (line);
+            } catch (IOException | IllegalArgumentException e) {
+                progress.reject (lineNumber, null, "Malformed row: " + e.getMessage ());
+                continue;
+            }
+            String violations = validate (whiskyDTO);
+            if (violations != null) {
+                progress.reject (lineNumber, whiskyDTO.getName (), violations);
+                continue;
+            }
+            chunk.add (new ImportRow (lineNumber, whiskyDTO));
+            if (chunk.size () == importProperties.getChunkSize ()) {
+                insertChunk (chunk, progress);
+                chunk.clear ();
+            }
+        }
+        if (!chunk.isEmpty ()) {
+            insertChunk (chunk, progress);
+        }
+        log.info ("Whisky import finished: {} imported, {} rejected", progress.imported, progress.rejected);
+        return progress.toResult ();
+    }
+
+    private void insertChunk (List<ImportRow> chunk, ImportProgress progress) {
+        Map<String, ImportRow> rowsByName = new LinkedHashMap<> ();
+        for (ImportRow row : chunk) {
+            if (rowsByName.putIfAbsent (row.whisky.getName (), row) != null) {
+                progress.reject (row.line, row.whisky.getName (), "Whisky name repeated in the import.");
+            }
+        }
+        for (String registeredName : whiskyRepository.findRegisteredNames (rowsByName.keySet ())) {
+            ImportRow row = rowsByName.remove (registeredName);
+            progress.reject (row.line, registeredName,
+                    String.format ("Whisky with name %s already registered in the system.", registeredName));
+        }
+        if (rowsByName.isEmpty ()) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult (status -> {
+                List<Whisky> whiskies = new ArrayList<> (rowsByName.size ());
+                for (ImportRow row : rowsByName.values ()) {
+                    Whisky whisky = whiskyMapper.toModel (row.whisky);
+                    whisky.setId (null);
+                    entityManager.persist (whisky);
+                    whiskies.add (whisky);
+                }
+                entityManager.flush ();
+                whiskies.forEach (whisky -> eventPublisher.publishEvent (WhiskyChangedEvent.created (whiskyMapper.toDTO (whisky))));
+                entityManager.clear ();
+            });
+            progress.imported (rowsByName.size (), importProperties.getProgressInterval ());
+        } catch (DataAccessException | PersistenceException e) {
+            String message = "Chunk rejected: " + NestedExceptionUtils.getMostSpecificCause (e).getMessage ();
+            rowsByName.values ().forEach (row -> progress.reject (row.line, row.whisky.getName (), message));
+        }
+    }
+
+    private String validate (WhiskyDTO whiskyDTO) {
+        Set<ConstraintViolation<WhiskyDTO>> violations = validator.validate (whiskyDTO);
+        if (violations.isEmpty ()) {
+            return null;
+        }
+        return violations.stream ()
+                .map (violation -> violation.getPropertyPath () + " " + violation.getMessage ())
+                .sorted ()
+                .collect (Collectors.joining (", "));
+    }
+
+    private static RowParser csvRowParser (String header) {
+        if (header == null) {
+            throw new IllegalArgumentException ("Missing CSV header");
+        }
+        Map<String, Integer> columnIndexes = new HashMap<> ();
+        List<String> headerFields = splitCsvLine (header);
+        for (int i = 0; i < headerFields.size (); i++) {
+            columnIndexes.put (headerFields.get (i).trim ().toLowerCase (Locale.ROOT), i);
+        }
+        int[] indexes = new int[CSV_COLUMNS.length];
+        for (int i = 0; i < CSV_COLUMNS.length; i++) {
+            Integer index = columnIndexes.get (CSV_COLUMNS[i]);
+            if (index == null) {
+                throw new IllegalArgumentException ("Missing CSV column: " + CSV_COLUMNS[i]);
+            }
+            indexes[i] = index;
+        }
+        int columns = headerFields.size ();
+        return line -> {
+            List<String> fields = splitCsvLine (line);
+            if (fields.size () != columns) {
+                throw new IllegalArgumentException ("expected " + columns + " columns but found " + fields.size ());
+            }
+            return WhiskyDTO.builder ()
+                    .name (fields.get (indexes[0]))
+                    .brand (fields.get (indexes[1]))
+                    .max (Integer.valueOf (fields.get (indexes[2]).trim ()))
+                    .quantity (Integer.valueOf (fields.get (indexes[3]).trim ()))
+                    .type (WhiskyType.valueOf (fields.get (indexes[4]).trim ().toUpperCase (Locale.ROOT)))
+                    .build ();
+        };
+    }
+
+    static List<String> splitCsvLine (String line) {
+        List<String> fields = new ArrayList<> ();
+        StringBuilder field = new StringBuilder ();
+        boolean quoted = false;
+        for (int i = 0; i < line.length (); i++) {
+            char c = line.charAt (i);
+            if (quoted) {
+                if (c != '"') {
+                    field.append (c);
+                } else if (i + 1 < line.length () && line.charAt (i + 1) == '"') {
+                    field.append ('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add (field.toString ());
+                field.setLength (0);
+            } else {
+                field.append (c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException ("unterminated quoted field");
+        }
+        fields.add (field.toString ());
+        return fields;
+    }
+
+    @FunctionalInterface
+    private interface RowParser {
+
+        WhiskyDTO parse (String line) throws IOException;
+    }
+
+    @AllArgsConstructor
+    private static final class ImportRow {
+
+        private final long line;
+
+        private final WhiskyDTO whisky;
+    }
+
+    private static final class ImportProgress {
+
+        private final int maxReportedErrors;
+        private final List<WhiskyImportErrorDTO> errors = new ArrayList<> ();
+        private long imported;
+        private long rejected;
+
+        private ImportProgress (int maxReportedErrors) {
+            this.maxReportedErrors = maxReportedErrors;
+        }
+
+        private void imported (int rows, long progressInterval) {
+            long before = imported;
+            imported += rows;
+            if (imported / progressInterval > before / progressInterval) {
+                log.info ("Whisky import progress: {} imported, {} rejected", imported, rejected);
+            }
+        }
+
+        private void reject (long line, String name, String message) {
+            rejected++;
+            if (errors.size () < maxReportedErrors) {
+                errors.add (new WhiskyImportErrorDTO (line, name, message));
+            }
+        }
+
+        private WhiskyImportResultDTO toResult () {
+            return new WhiskyImportResultDTO (imported, rejected, errors);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package one.digitalinnovation.whiskystock.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import one.digitalinnovation.whiskystock.config.WhiskyCacheProperties;
+import one.digitalinnovation.whiskystock.dto.WhiskyDTO;
+import one.digitalinnovation.whiskystock.event.WhiskyChangedEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Bounded read-through cache of whiskies by name. Misses are cached as well, so repeated lookups
+ * of unknown names and duplicate checks on creation do not reach the database.
+ */
+@Component
+public class WhiskyNameCache {
+
+    public static final String CACHE_NAME = "whisky.name";
+
+    private final Cache<String, Optional<WhiskyDTO>> cache;
+
+    @Autowired
+    public WhiskyNameCache (WhiskyCacheProperties cacheProperties, MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder ()
+                .maximumSize (cacheProperties.getMaximumSize ())
+                .expireAfterWrite (cacheProperties.getTimeToLive ())
+                .recordStats ()
+                .build ();
+        CaffeineCacheMetrics.monitor (meterRegistry, cache, CACHE_NAME);
+    }
+
+    public Optional<WhiskyDTO> get (String name, Function<String, Optional<WhiskyDTO>> loader) {
+        return cache.get (name, loader).map (WhiskyNameCache::copyOf);
+    }
+
+    public void invalidate (String name) {
+        cache.invalidate (name);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onWhiskyChanged (WhiskyChangedEvent event) {
+        invalidate (event.getWhisky ().getName ());
+    }
+
+    private static WhiskyDTO copyOf (WhiskyDTO whiskyDTO) {
+        return WhiskyDTO.builder ()
+                .id (whiskyDTO.getId ())
+                .name (whiskyDTO.getName ())
+                .brand (whiskyDTO.getBrand ())
+                .max (whiskyDTO.getMax ())
+                .quantity (whiskyDTO.getQuantity ())
+                .type (whiskyDTO.getType ())
+                .version (whiskyDTO.getVersion ())
+                .build ();
+    }
+}
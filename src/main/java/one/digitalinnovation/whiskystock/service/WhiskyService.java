@@ -1,84 +1,379 @@
 package one.digitalinnovation.whiskystock.service;
 
 import lombok.AllArgsConstructor;
+import one.digitalinnovation.whiskystock.config.WhiskyStockProperties;
 import one.digitalinnovation.whiskystock.dto.WhiskyDTO;
+import one.digitalinnovation.whiskystock.dto.WhiskySearchCriteriaDTO;
+import one.digitalinnovation.whiskystock.dto.WhiskyStockAdjustmentDTO;
+import one.digitalinnovation.whiskystock.dto.WhiskyStockAdjustmentResultDTO;
 import one.digitalinnovation.whiskystock.entity.Whisky;
+import one.digitalinnovation.whiskystock.enums.CoalescingAck;
+import one.digitalinnovation.whiskystock.enums.StockAdjustmentStatus;
+import one.digitalinnovation.whiskystock.enums.StockMode;
+import one.digitalinnovation.whiskystock.event.WhiskyChangedEvent;
 import one.digitalinnovation.whiskystock.exception.WhiskyAlreadyRegisteredException;
 import one.digitalinnovation.whiskystock.exception.WhiskyNotFoundException;
+import one.digitalinnovation.whiskystock.exception.WhiskyStockConflictException;
 import one.digitalinnovation.whiskystock.exception.WhiskyStockExceededException;
 import one.digitalinnovation.whiskystock.mapper.WhiskyMapper;
 import one.digitalinnovation.whiskystock.repository.WhiskyRepository;
+import one.digitalinnovation.whiskystock.repository.WhiskySpecifications;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Controller;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 @AllArgsConstructor(onConstructor = @__(@Autowired))
 public class WhiskyService {
 
+    private static final int MAX_BACKOFF_SHIFT = 6;
 
     private final WhiskyRepository whiskyRepository;
+    private final StockLedger stockLedger;
+    private final StockCoalescer stockCoalescer;
+    private final StockHolds stockHolds;
+    private final WhiskyNameCache whiskyNameCache;
+    private final LocationStockService locationStockService;
+    private final CatalogVersions catalogVersions;
+    private final WhiskyStockProperties stockProperties;
+    private final ApplicationEventPublisher eventPublisher;
     private final WhiskyMapper whiskyMapper = WhiskyMapper.INSTANCE;
 
     public WhiskyDTO createWhisky (WhiskyDTO whiskyDTO) throws WhiskyAlreadyRegisteredException {
         verifyIfIsAlreadyRegistered (whiskyDTO.getName ());
         Whisky whisky = whiskyMapper.toModel (whiskyDTO);
         Whisky savedWhisky = whiskyRepository.save (whisky);
-        return whiskyMapper.toDTO (savedWhisky);
+        WhiskyDTO savedWhiskyDTO = whiskyMapper.toDTO (savedWhisky);
+        eventPublisher.publishEvent (WhiskyChangedEvent.created (savedWhiskyDTO));
+        return savedWhiskyDTO;
     }
 
     public WhiskyDTO findByName (String name) throws WhiskyNotFoundException {
-        Whisky foundWhisky = whiskyRepository.findByName (name)
+        WhiskyDTO foundWhiskyDTO = whiskyNameCache.get (name, this::loadByName)
                 .orElseThrow (() -> new WhiskyNotFoundException (name));
-        return whiskyMapper.toDTO (foundWhisky);
+        overlayInMemoryQuantity (foundWhiskyDTO);
+        locationStockService.addLocationTotals (foundWhiskyDTO);
+        return foundWhiskyDTO;
+    }
+
+    /**
+     * Quantity at the main location as seen by the current stock mode, including adjustments
+     * not yet written back by the ledger or coalescer.
+     */
+    public OptionalInt quantityOnHand (Long id) {
+        Optional<Whisky> foundWhisky = whiskyRepository.findById (id);
+        if (foundWhisky.isEmpty ()) {
+            return OptionalInt.empty ();
+        }
+        return OptionalInt.of (overlayInMemoryQuantity (whiskyMapper.toDTO (foundWhisky.get ())).getQuantity ());
+    }
+
+    /**
+     * Replaces the stored quantity with the one the ledger or an acknowledged coalescer holds,
+     * when the stock mode keeps adjustments in memory before writing them back.
+     */
+    public WhiskyDTO overlayInMemoryQuantity (WhiskyDTO whiskyDTO) {
+        if (stockProperties.getMode () == StockMode.LEDGER) {
+            stockLedger.currentQuantity (whiskyDTO.getId ()).ifPresent (whiskyDTO::setQuantity);
+        } else if (stockProperties.getMode () == StockMode.COALESCING
+                && stockProperties.getCoalescing ().getAck () == CoalescingAck.ON_ACCEPT) {
+            stockCoalescer.projectedQuantity (whiskyDTO.getId ()).ifPresent (whiskyDTO::setQuantity);
+        }
+        return whiskyDTO;
     }
 
     public List<WhiskyDTO> listAll () {
         return whiskyRepository.findAll ()
                 .stream ()
                 .map (whiskyMapper::toDTO)
+                .map (this::overlayInMemoryQuantity)
+                .collect (Collectors.toList ());
+    }
+
+    public List<WhiskyDTO> listPage (Long afterId, int limit) {
+        return whiskyRepository.findByIdGreaterThanOrderByIdAsc (afterId == null ? 0L : afterId, PageRequest.of (0, limit))
+                .stream ()
+                .map (whiskyMapper::toDTO)
+                .map (this::overlayInMemoryQuantity)
+                .collect (Collectors.toList ());
+    }
+
+    /**
+     * Filters and orders by the stored quantity, so adjustments still held in memory do not move
+     * a whisky in or out of the result until they are written back; the quantities returned
+     * include them.
+     */
+    public List<WhiskyDTO> search (WhiskySearchCriteriaDTO criteria, int limit) {
+        return whiskyRepository.findLowestQuantity (WhiskySpecifications.matching (criteria), limit)
+                .stream ()
+                .map (whiskyMapper::toDTO)
+                .map (this::overlayInMemoryQuantity)
                 .collect (Collectors.toList ());
     }
 
     public void deleteById (Long id) throws WhiskyNotFoundException {
-        verifyIfExists (id);
+        Whisky whiskyToDelete = verifyIfExists (id);
         whiskyRepository.deleteById (id);
+        eventPublisher.publishEvent (WhiskyChangedEvent.deleted (whiskyMapper.toDTO (whiskyToDelete)));
     }
 
     private void verifyIfIsAlreadyRegistered (String name) throws WhiskyAlreadyRegisteredException {
-        Optional<Whisky> optSavedWhisky = whiskyRepository.findByName (name);
+        Optional<WhiskyDTO> optSavedWhisky = whiskyNameCache.get (name, this::loadByName);
         if (optSavedWhisky.isPresent ()) {
             throw new WhiskyAlreadyRegisteredException (name);
         }
     }
 
+    private Optional<WhiskyDTO> loadByName (String name) {
+        return whiskyRepository.findByName (name).map (whiskyMapper::toDTO);
+    }
+
     private Whisky verifyIfExists (Long id) throws WhiskyNotFoundException {
         return whiskyRepository.findById (id)
                 .orElseThrow (() -> new WhiskyNotFoundException (id));
     }
 
     public WhiskyDTO increment (Long id, int quantityToIncrement) throws WhiskyNotFoundException, WhiskyStockExceededException {
-        Whisky whiskyToIncrementStock = verifyIfExists (id);
-        int quantityAfterIncrement = quantityToIncrement + whiskyToIncrementStock.getQuantity ();
-        if (quantityAfterIncrement <= whiskyToIncrementStock.getMax ()) {
-            whiskyToIncrementStock.setQuantity (whiskyToIncrementStock.getQuantity () + quantityToIncrement);
-            Whisky incrementedWhiskyStock = whiskyRepository.save (whiskyToIncrementStock);
-            return whiskyMapper.toDTO (incrementedWhiskyStock);
-        }
-        throw new WhiskyStockExceededException (id, quantityToIncrement);
-    }
-    public WhiskyDTO decrement(Long id, int quantityToDecrement) throws WhiskyNotFoundException, WhiskyStockExceededException {
-        Whisky beerToDecrementStock = verifyIfExists(id);
-        int beerStockAfterDecremented = beerToDecrementStock.getQuantity() - quantityToDecrement;
-        if (beerStockAfterDecremented >= 0) {
-            beerToDecrementStock.setQuantity (beerStockAfterDecremented);
-            Whisky decrementedBeerStock = whiskyRepository.save (beerToDecrementStock);
-            return whiskyMapper.toDTO (decrementedBeerStock);
-        }
-        throw new WhiskyStockExceededException (id, quantityToDecrement);
+        return tryIncrement (id, quantityToIncrement).orElseThrow ();
+    }
+
+    public WhiskyDTO decrement (Long id, int quantityToDecrement) throws WhiskyNotFoundException, WhiskyStockExceededException {
+        return tryDecrement (id, quantityToDecrement).orElseThrow ();
+    }
+
+    /**
+     * Decrements stock the caller holds through {@link ReservationService}: the held bottles may
+     * be taken, those held by other reservations may not.
+     */
+    public WhiskyDTO decrementHeld (Long id, int quantityToDecrement) throws WhiskyNotFoundException, WhiskyStockExceededException {
+        int floor = Math.max (0, stockHolds.reserved (id) - quantityToDecrement);
+        return tryDecrement (id, quantityToDecrement, floor).orElseThrow ();
+    }
+
+    public StockAdjustment tryIncrement (Long id, int quantityToIncrement) {
+        if (stockProperties.getMode () == StockMode.COALESCING) {
+            return changedIfApplied (stockCoalescer.tryAdjust (id, quantityToIncrement));
+        }
+        return publishIfApplied (adjustStock (id, quantityToIncrement));
+    }
+
+    /**
+     * Decrements only the available stock: the quantity may not drop below what reservations
+     * hold.
+     */
+    public StockAdjustment tryDecrement (Long id, int quantityToDecrement) {
+        return tryDecrement (id, quantityToDecrement, stockHolds.reserved (id));
+    }
+
+    private StockAdjustment tryDecrement (Long id, int quantityToDecrement, int floor) {
+        if (stockProperties.getMode () == StockMode.COALESCING) {
+            return changedIfApplied (stockCoalescer.tryAdjust (id, -quantityToDecrement, floor));
+        }
+        StockAdjustment decrement = stockProperties.getMode () == StockMode.LEDGER
+                ? stockLedger.tryAdjust (id, -quantityToDecrement, floor)
+                : adjustAtomically (id, -quantityToDecrement, floor);
+        return publishIfApplied (decrement);
+    }
+
+    private StockAdjustment adjustStock (Long id, int quantityDelta) {
+        switch (stockProperties.getMode ()) {
+            case LEDGER:
+                return stockLedger.tryAdjust (id, quantityDelta);
+            case ATOMIC:
+                return adjustAtomically (id, quantityDelta, 0);
+            default:
+                return adjustOptimistically (id, quantityDelta);
+        }
+    }
+
+    private StockAdjustment adjustOptimistically (Long id, int quantityDelta) {
+        WhiskyStockProperties.Optimistic optimistic = stockProperties.getOptimistic ();
+        for (int attempt = 1; ; attempt++) {
+            Optional<Whisky> foundWhisky = whiskyRepository.findById (id);
+            if (foundWhisky.isEmpty ()) {
+                return StockAdjustment.notFound (id, quantityDelta);
+            }
+            Whisky whiskyToAdjust = foundWhisky.get ();
+            int quantityAfterAdjust = whiskyToAdjust.getQuantity () + quantityDelta;
+            if (quantityAfterAdjust < 0 || quantityAfterAdjust > whiskyToAdjust.getMax ()) {
+                return StockAdjustment.stockExceeded (id, quantityDelta);
+            }
+            whiskyToAdjust.setQuantity (quantityAfterAdjust);
+            try {
+                Whisky adjustedWhisky = whiskyRepository.save (whiskyToAdjust);
+                return StockAdjustment.applied (whiskyMapper.toDTO (adjustedWhisky), quantityDelta);
+            } catch (OptimisticLockingFailureException e) {
+                if (attempt >= optimistic.getMaxAttempts ()) {
+                    throw new WhiskyStockConflictException (id, attempt, e);
+                }
+                backOff (attempt, optimistic.getBackoffMs ());
+            }
+        }
+    }
+
+    private StockAdjustment adjustAtomically (Long id, int quantityDelta, int floor) {
+        Optional<Whisky> adjustedWhisky = whiskyRepository.adjustIfWithinBounds (id, quantityDelta, floor);
+        if (adjustedWhisky.isPresent ()) {
+            whiskyRepository.evictFromCache (id);
+            return StockAdjustment.applied (whiskyMapper.toDTO (adjustedWhisky.get ()), quantityDelta);
+        }
+        if (!whiskyRepository.existsById (id)) {
+            return StockAdjustment.notFound (id, quantityDelta);
+        }
+        return StockAdjustment.stockExceeded (id, quantityDelta);
+    }
+
+    private void backOff (int attempt, long backoffMs) {
+        long maxBackoffMs = backoffMs << Math.min (attempt - 1, MAX_BACKOFF_SHIFT);
+        try {
+            Thread.sleep (ThreadLocalRandom.current ().nextLong (maxBackoffMs + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread ().interrupt ();
+        }
+    }
+
+    /**
+     * Applies each adjustment the way the stock mode applies a single one, except in optimistic
+     * mode, where the whiskies are read once and written back together. A concurrent write to one
+     * of them then fails the whole batch with {@link WhiskyStockConflictException}, since the
+     * transaction cannot be retried from inside.
+     */
+    @Transactional
+    public List<WhiskyStockAdjustmentResultDTO> adjustAll (List<WhiskyStockAdjustmentDTO> adjustments) {
+        switch (stockProperties.getMode ()) {
+            case LEDGER:
+                return adjustEach (adjustments, adjustment ->
+                        stockLedger.tryAdjust (adjustment.getId (), adjustment.getQuantity (), floorFor (adjustment)));
+            case ATOMIC:
+                return adjustEach (adjustments, adjustment ->
+                        adjustAtomically (adjustment.getId (), adjustment.getQuantity (), floorFor (adjustment)));
+            case COALESCING:
+                return adjustAllCoalesced (adjustments);
+            default:
+                return adjustAllOptimistically (adjustments);
+        }
+    }
+
+    private List<WhiskyStockAdjustmentResultDTO> adjustAllOptimistically (List<WhiskyStockAdjustmentDTO> adjustments) {
+        List<Long> ids = adjustments.stream ()
+                .map (WhiskyStockAdjustmentDTO::getId)
+                .distinct ()
+                .collect (Collectors.toList ());
+        Map<Long, Whisky> whiskiesById = whiskyRepository.findAllById (ids)
+                .stream ()
+                .collect (Collectors.toMap (Whisky::getId, Function.identity ()));
+
+        List<WhiskyStockAdjustmentResultDTO> results = new ArrayList<> (adjustments.size ());
+        Map<Long, Integer> appliedDeltas = new LinkedHashMap<> ();
+        for (WhiskyStockAdjustmentDTO adjustment : adjustments) {
+            Whisky whisky = whiskiesById.get (adjustment.getId ());
+            if (whisky == null) {
+                results.add (adjustmentResult (adjustment.getId (), StockAdjustmentStatus.NOT_FOUND, null));
+                continue;
+            }
+            int quantityAfterAdjust = whisky.getQuantity () + adjustment.getQuantity ();
+            if (quantityAfterAdjust < floorFor (adjustment) || quantityAfterAdjust > whisky.getMax ()) {
+                results.add (adjustmentResult (whisky.getId (), StockAdjustmentStatus.STOCK_EXCEEDED, whisky.getQuantity ()));
+                continue;
+            }
+            whisky.setQuantity (quantityAfterAdjust);
+            appliedDeltas.merge (whisky.getId (), adjustment.getQuantity (), Integer::sum);
+            results.add (adjustmentResult (whisky.getId (), StockAdjustmentStatus.APPLIED, quantityAfterAdjust));
+        }
+
+        List<Whisky> adjustedWhiskies = appliedDeltas.keySet ()
+                .stream ()
+                .map (whiskiesById::get)
+                .collect (Collectors.toList ());
+        whiskyRepository.saveAll (adjustedWhiskies);
+        try {
+            // flushed so the published changes carry the versions the rows were written with
+            whiskyRepository.flush ();
+        } catch (OptimisticLockingFailureException e) {
+            throw new WhiskyStockConflictException (conflictingId (e, appliedDeltas.keySet ()), 1, e);
+        }
+        adjustedWhiskies.forEach (whisky -> publishUpdated (whiskyMapper.toDTO (whisky), appliedDeltas.get (whisky.getId ())));
+        return results;
+    }
+
+    private List<WhiskyStockAdjustmentResultDTO> adjustEach (List<WhiskyStockAdjustmentDTO> adjustments,
+                                                             Function<WhiskyStockAdjustmentDTO, StockAdjustment> adjust) {
+        List<WhiskyStockAdjustmentResultDTO> results = new ArrayList<> (adjustments.size ());
+        for (WhiskyStockAdjustmentDTO adjustment : adjustments) {
+            StockAdjustment stockAdjustment = publishIfApplied (adjust.apply (adjustment));
+            Integer quantity = stockAdjustment.isApplied () ? stockAdjustment.getWhisky ().getQuantity () : null;
+            results.add (adjustmentResult (adjustment.getId (), stockAdjustment.getStatus (), quantity));
+        }
+        return results;
+    }
+
+    private List<WhiskyStockAdjustmentResultDTO> adjustAllCoalesced (List<WhiskyStockAdjustmentDTO> adjustments) {
+        List<StockAdjustment> stockAdjustments = stockCoalescer.tryAdjustAll (adjustments, this::floorFor);
+        List<WhiskyStockAdjustmentResultDTO> results = new ArrayList<> (stockAdjustments.size ());
+        for (StockAdjustment stockAdjustment : stockAdjustments) {
+            changedIfApplied (stockAdjustment);
+            Integer quantity = stockAdjustment.isApplied () ? stockAdjustment.getWhisky ().getQuantity () : null;
+            results.add (adjustmentResult (stockAdjustment.getId (), stockAdjustment.getStatus (), quantity));
+        }
+        return results;
+    }
+
+    private static Long conflictingId (OptimisticLockingFailureException e, Collection<Long> adjustedIds) {
+        if (e instanceof ObjectOptimisticLockingFailureException
+                && ((ObjectOptimisticLockingFailureException) e).getIdentifier () instanceof Long) {
+            return (Long) ((ObjectOptimisticLockingFailureException) e).getIdentifier ();
+        }
+        return adjustedIds.iterator ().next ();
+    }
+
+    private int floorFor (WhiskyStockAdjustmentDTO adjustment) {
+        return adjustment.getQuantity () < 0 ? stockHolds.reserved (adjustment.getId ()) : 0;
+    }
+
+    private WhiskyStockAdjustmentResultDTO adjustmentResult (Long id, StockAdjustmentStatus status, Integer quantity) {
+        return WhiskyStockAdjustmentResultDTO.builder ()
+                .id (id)
+                .status (status)
+                .quantity (quantity)
+                .build ();
+    }
+
+    private StockAdjustment publishIfApplied (StockAdjustment stockAdjustment) {
+        if (stockAdjustment.isApplied ()) {
+            publishUpdated (stockAdjustment.getWhisky (), stockAdjustment.getQuantityDelta ());
+        }
+        return stockAdjustment;
+    }
+
+    /**
+     * Coalesced adjustments publish their change when flushed, but reads project them as soon
+     * as they are accepted, so the read's version has to move now.
+     */
+    private StockAdjustment changedIfApplied (StockAdjustment stockAdjustment) {
+        if (stockAdjustment.isApplied ()) {
+            catalogVersions.changed (stockAdjustment.getId ());
+        }
+        return stockAdjustment;
+    }
+
+    private WhiskyDTO publishUpdated (WhiskyDTO updatedWhiskyDTO, int quantityDelta) {
+        eventPublisher.publishEvent (WhiskyChangedEvent.updated (updatedWhiskyDTO, quantityDelta));
+        return updatedWhiskyDTO;
     }
 }
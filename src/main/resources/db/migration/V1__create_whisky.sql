@@ -0,0 +1,17 @@
+create sequence whisky_seq start with 1 increment by 50;
+
+create table whisky (
+    id bigint not null,
+    name varchar(255) not null,
+    brand varchar(255) not null,
+    max integer not null,
+    quantity integer not null,
+    type varchar(255) not null,
+    version bigint,
+    constraint pk_whisky primary key (id),
+    constraint uk_whisky_name unique (name)
+);
+
+create index idx_whisky_type_quantity on whisky (type, quantity);
+create index idx_whisky_brand_quantity on whisky (brand, quantity);
+create index idx_whisky_quantity on whisky (quantity);
@@ -0,0 +1,9 @@
+create table whisky_location_stock (
+    whisky_id bigint not null,
+    location varchar(100) not null,
+    max integer not null,
+    quantity integer not null,
+    version bigint,
+    constraint pk_whisky_location_stock primary key (whisky_id, location),
+    constraint fk_whisky_location_stock_whisky foreign key (whisky_id) references whisky (id) on delete cascade
+);
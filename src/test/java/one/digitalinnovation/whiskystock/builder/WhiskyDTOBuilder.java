@@ -25,12 +25,15 @@ public class WhiskyDTOBuilder {
     @Builder.Default
     private WhiskyType type = WhiskyType.OLDPARR;
 
+    private Long version;
+
     public WhiskyDTO toWhiskyDTO () {
         return new WhiskyDTO (id,
                 name,
                 brand,
                 max,
                 quantity,
-                type);
+                type,
+                version);
     }
 }
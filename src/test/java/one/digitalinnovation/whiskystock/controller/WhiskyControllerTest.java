@@ -1,31 +1,67 @@
 package one.digitalinnovation.whiskystock.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import one.digitalinnovation.whiskystock.builder.WhiskyDTOBuilder;
+import one.digitalinnovation.whiskystock.config.IdempotencyProperties;
+import one.digitalinnovation.whiskystock.config.WhiskyWebConfig;
+import one.digitalinnovation.whiskystock.dto.WhiskyBulkAdjustmentDTO;
 import one.digitalinnovation.whiskystock.dto.WhiskyDTO;
+import one.digitalinnovation.whiskystock.dto.WhiskyImportResultDTO;
 import one.digitalinnovation.whiskystock.dto.WhiskyQuantityDTO;
+import one.digitalinnovation.whiskystock.dto.WhiskyStockAdjustmentDTO;
+import one.digitalinnovation.whiskystock.dto.WhiskyStockAdjustmentResultDTO;
+import one.digitalinnovation.whiskystock.enums.ImportFormat;
+import one.digitalinnovation.whiskystock.enums.StockAdjustmentStatus;
+import one.digitalinnovation.whiskystock.enums.StreamFormat;
 import one.digitalinnovation.whiskystock.exception.WhiskyNotFoundException;
 import one.digitalinnovation.whiskystock.exception.WhiskyStockExceededException;
+import one.digitalinnovation.whiskystock.service.CatalogVersions;
+import one.digitalinnovation.whiskystock.service.IdempotencyStore;
+import one.digitalinnovation.whiskystock.service.StockAdjustment;
+import one.digitalinnovation.whiskystock.service.WhiskyCatalogStreamer;
+import one.digitalinnovation.whiskystock.service.WhiskyImportService;
 import one.digitalinnovation.whiskystock.service.WhiskyService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.web.PageableHandlerMethodArgumentResolver;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.web.servlet.view.json.MappingJackson2JsonView;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.Collections;
+import java.util.List;
 import static one.digitalinnovation.whiskystock.utils.JsonConvertionUtils.asJsonString;
+import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.core.Is.is;
+import static org.hamcrest.Matchers.startsWith;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @ExtendWith(MockitoExtension.class)
@@ -42,12 +78,25 @@ public class WhiskyControllerTest {
     @Mock
     private WhiskyService whiskyService;
 
+    @Mock
+    private WhiskyCatalogStreamer whiskyCatalogStreamer;
+
+    @Mock
+    private WhiskyImportService whiskyImportService;
+
+    @Spy
+    private IdempotencyStore idempotencyStore = new IdempotencyStore (new IdempotencyProperties (), new SimpleMeterRegistry ());
+
+    @Spy
+    private CatalogVersions catalogVersions = new CatalogVersions ();
+
     @InjectMocks
     private WhiskyController whiskyController;
 
     @BeforeEach
     void setUp () {
         mockMvc = MockMvcBuilders.standaloneSetup (whiskyController)
+                .setControllerAdvice (new WhiskyExceptionHandler ())
                 .setCustomArgumentResolvers (new PageableHandlerMethodArgumentResolver ())
                 .setViewResolvers ((s, locale) -> new MappingJackson2JsonView ())
                 .build ();
@@ -102,6 +151,77 @@ public class WhiskyControllerTest {
                 .andExpect (jsonPath ("$.type", is (whiskyDTO.getType ().toString ())));
     }
 
+    @Test
+    void quandoGETRepetidoComIfNoneMatchEntaoNotModifiedSemConsultarServico () throws Exception {
+        WhiskyDTO whiskyDTO = WhiskyDTOBuilder.builder ().build ().toWhiskyDTO ();
+
+        when (whiskyService.findByName (whiskyDTO.getName ())).thenReturn (whiskyDTO);
+
+        String eTag = mockMvc.perform (MockMvcRequestBuilders.get (WHISKY_API_URL_PATH + "/" + whiskyDTO.getName ()))
+                .andExpect (status ().isOk ())
+                .andExpect (header ().string (HttpHeaders.ETAG, startsWith ("W/\"")))
+                .andExpect (header ().string (HttpHeaders.VARY, HttpHeaders.ACCEPT))
+                .andReturn ().getResponse ().getHeader (HttpHeaders.ETAG);
+
+        mockMvc.perform (MockMvcRequestBuilders.get (WHISKY_API_URL_PATH + "/" + whiskyDTO.getName ())
+                .header (HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect (status ().isNotModified ())
+                .andExpect (header ().string (HttpHeaders.ETAG, eTag))
+                .andExpect (header ().string (HttpHeaders.VARY, HttpHeaders.ACCEPT));
+
+        verify (whiskyService, times (1)).findByName (whiskyDTO.getName ());
+    }
+
+    @Test
+    void quandoWhiskyAlteradoAposGETEntaoIfNoneMatchAntigoRetornaOK () throws Exception {
+        WhiskyDTO whiskyDTO = WhiskyDTOBuilder.builder ().build ().toWhiskyDTO ();
+
+        when (whiskyService.findByName (whiskyDTO.getName ())).thenReturn (whiskyDTO);
+
+        String eTag = mockMvc.perform (MockMvcRequestBuilders.get (WHISKY_API_URL_PATH + "/" + whiskyDTO.getName ()))
+                .andReturn ().getResponse ().getHeader (HttpHeaders.ETAG);
+        catalogVersions.changed (whiskyDTO.getId ());
+
+        mockMvc.perform (MockMvcRequestBuilders.get (WHISKY_API_URL_PATH + "/" + whiskyDTO.getName ())
+                .header (HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect (status ().isOk ())
+                .andExpect (jsonPath ("$.name", is (whiskyDTO.getName ())));
+    }
+
+    @Test
+    void quandoListaGETComIfNoneMatchAtualEntaoNotModifiedSemListar () throws Exception {
+        String eTag = mockMvc.perform (MockMvcRequestBuilders.get (WHISKY_API_URL_PATH))
+                .andExpect (status ().isOk ())
+                .andReturn ().getResponse ().getHeader (HttpHeaders.ETAG);
+
+        mockMvc.perform (MockMvcRequestBuilders.get (WHISKY_API_URL_PATH)
+                .header (HttpHeaders.IF_NONE_MATCH, eTag.substring ("W/".length ())))
+                .andExpect (status ().isNotModified ());
+        verify (whiskyService, times (1)).listAll ();
+
+        catalogVersions.changed (VALID_WHISKY_ID);
+
+        mockMvc.perform (MockMvcRequestBuilders.get (WHISKY_API_URL_PATH)
+                .param ("afterId", "0")
+                .header (HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect (status ().isOk ());
+        verify (whiskyService).listPage (0L, 100);
+    }
+
+    @Test
+    void quandoPOSTComCSVChamadoImportacaoERetornada () throws Exception {
+        WhiskyImportResultDTO importResult = new WhiskyImportResultDTO (2, 0, Collections.emptyList ());
+
+        when (whiskyImportService.importWhiskies (any (InputStream.class), eq (ImportFormat.CSV))).thenReturn (importResult);
+
+        mockMvc.perform (post (WHISKY_API_URL_PATH)
+                .contentType ("text/csv")
+                .content ("name,brand,max,quantity,type\nOld Parr,Scotland,50,10,OLDPARR\nJameson,Ireland,50,10,JAMESON\n"))
+                .andExpect (status ().isOk ())
+                .andExpect (jsonPath ("$.imported", is (2)))
+                .andExpect (jsonPath ("$.rejected", is (0)));
+    }
+
     @Test
     void quandoGETSemNomeRegistradoEChamadoEStatusNãoEncontradoERetornado () throws Exception {
         // given
@@ -116,6 +236,17 @@ public class WhiskyControllerTest {
                 .andExpect (status ().isNotFound ());
     }
 
+    @Test
+    void quandoGETSemNomeRegistradoCorpoDeErroCompactoERetornado () throws Exception {
+        when (whiskyService.findByName ("Jameson")).thenThrow (new WhiskyNotFoundException ("Jameson"));
+
+        mockMvc.perform (MockMvcRequestBuilders.get (WHISKY_API_URL_PATH + "/Jameson")
+                .contentType (MediaType.APPLICATION_JSON))
+                .andExpect (status ().isNotFound ())
+                .andExpect (jsonPath ("$.status", is (404)))
+                .andExpect (jsonPath ("$.message", is ("Whisky with name Jameson not found in the system.")));
+    }
+
     @Test
     void umalistaGETComWhiskyValidoChamadaEStatusDeOKERetornado () throws Exception {
         // given
@@ -147,6 +278,60 @@ public class WhiskyControllerTest {
                 .andExpect (status ().isOk ());
     }
 
+    @Test
+    void quandoGETComAcceptSmileListaERetornadaEmBinarioComTipoPeloNome () throws Exception {
+        WhiskyDTO whiskyDTO = WhiskyDTOBuilder.builder ().build ().toWhiskyDTO ();
+        MappingJackson2SmileHttpMessageConverter smileConverter = WhiskyWebConfig.smileConverter (new Jackson2ObjectMapperBuilder ());
+        MockMvc negotiatingMockMvc = MockMvcBuilders.standaloneSetup (whiskyController)
+                .setMessageConverters (new MappingJackson2HttpMessageConverter (), smileConverter)
+                .build ();
+
+        when (whiskyService.listAll ()).thenReturn (Collections.singletonList (whiskyDTO));
+
+        MvcResult result = negotiatingMockMvc.perform (MockMvcRequestBuilders.get (WHISKY_API_URL_PATH)
+                .accept (WhiskyWebConfig.APPLICATION_SMILE))
+                .andExpect (status ().isOk ())
+                .andExpect (content ().contentType (WhiskyWebConfig.APPLICATION_SMILE))
+                .andReturn ();
+
+        JsonNode whiskies = smileConverter.getObjectMapper ().readTree (result.getResponse ().getContentAsByteArray ());
+        assertThat (whiskies.get (0).get ("name").asText (), is (whiskyDTO.getName ()));
+        assertThat (whiskies.get (0).get ("type").asText (), is (whiskyDTO.getType ().name ()));
+    }
+
+    @Test
+    void quandoGETPaginadoChamadoPaginaAposIdERetornada () throws Exception {
+        WhiskyDTO whiskyDTO = WhiskyDTOBuilder.builder ().id (11L).build ().toWhiskyDTO ();
+
+        when (whiskyService.listPage (10L, 5)).thenReturn (Collections.singletonList (whiskyDTO));
+
+        mockMvc.perform (MockMvcRequestBuilders.get (WHISKY_API_URL_PATH)
+                .param ("afterId", "10")
+                .param ("limit", "5")
+                .contentType (MediaType.APPLICATION_JSON))
+                .andExpect (status ().isOk ())
+                .andExpect (jsonPath ("$[0].id", is (11)));
+    }
+
+    @Test
+    void quandoGETEmStreamingChamadoWhiskiesSaoEscritosEmNDJSON () throws Exception {
+        doAnswer (invocation -> {
+            OutputStream outputStream = invocation.getArgument (0);
+            outputStream.write ("{\"name\":\"Old Parr\"}\n".getBytes ());
+            return null;
+        }).when (whiskyCatalogStreamer).write (any (OutputStream.class), eq (StreamFormat.NDJSON));
+
+        MvcResult mvcResult = mockMvc.perform (MockMvcRequestBuilders.get (WHISKY_API_URL_PATH)
+                .param ("stream", "ndjson"))
+                .andExpect (request ().asyncStarted ())
+                .andReturn ();
+
+        mockMvc.perform (asyncDispatch (mvcResult))
+                .andExpect (status ().isOk ())
+                .andExpect (content ().contentType ("application/x-ndjson"))
+                .andExpect (content ().string ("{\"name\":\"Old Parr\"}\n"));
+    }
+
     @Test
     void quandoDELETEChamadoComIdValidoEntaoSemEstoqueStatusERetornado () throws Exception {
         // given
@@ -196,6 +381,52 @@ public class WhiskyControllerTest {
                 .andExpect (jsonPath ("$.quantity", is (whiskyDTO.getQuantity ())));
     }
 
+    @Test
+    void quandoPATCHRepetidoComMesmaIdempotencyKeyEntaoIncrementoAplicadoUmaVez () throws Exception {
+        WhiskyQuantityDTO whiskyQuantityDTO = WhiskyQuantityDTO.builder ()
+                .quantity (10)
+                .build ();
+
+        WhiskyDTO whiskyDTO = WhiskyDTOBuilder.builder ().build ().toWhiskyDTO ();
+        whiskyDTO.setQuantity (whiskyDTO.getQuantity () + whiskyQuantityDTO.getQuantity ());
+
+        when (whiskyService.tryIncrement (VALID_WHISKY_ID, whiskyQuantityDTO.getQuantity ())).
+                thenReturn (StockAdjustment.applied (whiskyDTO, whiskyQuantityDTO.getQuantity ()));
+
+        for (int attempt = 0; attempt < 2; attempt++) {
+            mockMvc.perform (MockMvcRequestBuilders.patch (WHISKY_API_URL_PATH +
+                    "/" + VALID_WHISKY_ID + WHISKY_API_SUBPATH_INCREMENT_URL)
+                    .header (WhiskyController.IDEMPOTENCY_KEY, "retry-1")
+                    .contentType (MediaType.APPLICATION_JSON)
+                    .content (asJsonString (whiskyQuantityDTO))).andExpect (status ().isOk ())
+                    .andExpect (jsonPath ("$.quantity", is (whiskyDTO.getQuantity ())));
+        }
+
+        verify (whiskyService, times (1)).tryIncrement (VALID_WHISKY_ID, whiskyQuantityDTO.getQuantity ());
+    }
+
+    @Test
+    void quandoIdempotencyKeyReutilizadaComOutraQuantidadeEntaoUnprocessableEntityStatusERetornado () throws Exception {
+        WhiskyDTO whiskyDTO = WhiskyDTOBuilder.builder ().build ().toWhiskyDTO ();
+
+        when (whiskyService.tryIncrement (VALID_WHISKY_ID, 10)).
+                thenReturn (StockAdjustment.applied (whiskyDTO, 10));
+
+        mockMvc.perform (MockMvcRequestBuilders.patch (WHISKY_API_URL_PATH +
+                "/" + VALID_WHISKY_ID + WHISKY_API_SUBPATH_INCREMENT_URL)
+                .header (WhiskyController.IDEMPOTENCY_KEY, "retry-2")
+                .contentType (MediaType.APPLICATION_JSON)
+                .content (asJsonString (WhiskyQuantityDTO.builder ().quantity (10).build ())))
+                .andExpect (status ().isOk ());
+
+        mockMvc.perform (MockMvcRequestBuilders.patch (WHISKY_API_URL_PATH +
+                "/" + VALID_WHISKY_ID + WHISKY_API_SUBPATH_INCREMENT_URL)
+                .header (WhiskyController.IDEMPOTENCY_KEY, "retry-2")
+                .contentType (MediaType.APPLICATION_JSON)
+                .content (asJsonString (WhiskyQuantityDTO.builder ().quantity (5).build ())))
+                .andExpect (status ().isUnprocessableEntity ());
+    }
+
     @Test
     void quandoPATCHEChamadoParaIncrementoMaiorQueMaxBadRequestStatusERetornado () throws Exception {
         WhiskyQuantityDTO quantityDTO = WhiskyQuantityDTO.builder ()
@@ -231,57 +462,80 @@ public class WhiskyControllerTest {
     }
 
 
-    // @Test
-    // void quandoPATCHChamadoParaDecrescimoDescontoOKstatusERetornado() throws Exception {
-    //    WhiskyQuantityDTO whiskQuantityDTO = WhiskyQuantityDTO.builder()
-    //           .quantity(5)
-    //           .build();
-//
-    //  WhiskyDTO whiskyDTO = WhiskyDTOBuilder.builder().build().toWhiskyDTO();
-    //  whiskyDTO.setQuantity(whiskyDTO.getQuantity() + whiskQuantityDTO.getQuantity());
-//
-    //  when(whiskyService.decrement(VALID_WHISKY_ID, whiskQuantityDTO.getQuantity())).thenReturn(whiskyDTO);
-//
-    //  mockMvc.perform(MockMvcRequestBuilders.patch(WHISKY_API_URL_PATH +
-    //          "/" + VALID_WHISKY_ID + WHISKY_API_SUBPATH_DECREMENT_URL)
-    //          .contentType(MediaType.APPLICATION_JSON)
-    //          .content(asJsonString(whiskQuantityDTO))).andExpect(status().isOk())
-    //          .andExpect(jsonPath("$.name", is(whiskyDTO.getName())))
-    //          .andExpect(jsonPath("$.brand", is(whiskyDTO.getBrand())))
-    //          .andExpect(jsonPath("$.type", is(whiskyDTO.getType().toString())))
-    //          .andExpect(jsonPath("$.quantity", is(whiskyDTO.getQuantity())));
-//    }
-
-    //  @Test
-    // void whenPATCHIsCalledToDEcrementLowerThanZeroThenBadRequestStatusIsReturned() throws Exception {
-    //      WhiskyQuantityDTO whiskyQuantityDTO = WhiskyQuantityDTO.builder()
-    //             .quantity(60)
-    //             .build();
-//
-    //   WhiskyDTO whiskyDTO = WhiskyDTOBuilder.builder().build().toWhiskyDTO();
-    //   whiskyDTO.setQuantity(whiskyDTO.getQuantity() + whiskyQuantityDTO.getQuantity());
-//
-    //   when(whiskyService.decrement(VALID_WHISKY_ID, whiskyQuantityDTO.getQuantity())).
-    //           thenThrow(WhiskyStockExceededException.class);
-//
-    //   mockMvc.perform(MockMvcRequestBuilders.patch(WHISKY_API_URL_PATH +
-    //          "/" + VALID_WHISKY_ID + WHISKY_API_SUBPATH_DECREMENT_URL)
-    //          .contentType(MediaType.APPLICATION_JSON)
-    //         .content(asJsonString(whiskyQuantityDTO))).andExpect(status().isBadRequest());
-//    }
-    //  @Test
-    // void whenPATCHIsCalledWithInvalidBeerIdToDecrementThenNotFoundStatusIsReturned() throws Exception {
-    //    WhiskyQuantityDTO whiskyQuantityDTO = WhiskyQuantityDTO.builder()
-    //           .quantity(5)
-    //            .build();
-//
-    //    when(whiskyService.decrement(INVALID_WHISKY_ID, whiskyQuantityDTO.getQuantity())).
-    //            thenThrow(WhiskyNotFoundException.class);
-    //     mockMvc.perform(MockMvcRequestBuilders.patch(WHISKY_API_URL_PATH +
-    //            "/" + INVALID_WHISKY_ID + WHISKY_API_SUBPATH_DECREMENT_URL)
-    //           .contentType(MediaType.APPLICATION_JSON)
-    //            .content(asJsonString(whiskyQuantityDTO)))
-    //            .andExpect(status().isNotFound());
-    //    }
-}
+    @Test
+    void quandoPATCHEmLoteChamadoResultadoPorItemERetornado () throws Exception {
+        List<WhiskyStockAdjustmentDTO> adjustments = Collections.singletonList (
+                new WhiskyStockAdjustmentDTO (VALID_WHISKY_ID, 10));
+        WhiskyStockAdjustmentResultDTO result = new WhiskyStockAdjustmentResultDTO (VALID_WHISKY_ID, StockAdjustmentStatus.APPLIED, 20);
+
+        when (whiskyService.adjustAll (adjustments)).thenReturn (Collections.singletonList (result));
+
+        mockMvc.perform (MockMvcRequestBuilders.patch (WHISKY_API_URL_PATH)
+                .contentType (MediaType.APPLICATION_JSON)
+                .content (asJsonString (new WhiskyBulkAdjustmentDTO (adjustments))))
+                .andExpect (status ().isOk ())
+                .andExpect (jsonPath ("$[0].status", is (StockAdjustmentStatus.APPLIED.toString ())))
+                .andExpect (jsonPath ("$[0].quantity", is (20)));
+    }
 
+    @Test
+    void quandoPATCHEmLoteSemItensBadRequestStatusERetornado () throws Exception {
+        mockMvc.perform (MockMvcRequestBuilders.patch (WHISKY_API_URL_PATH)
+                .contentType (MediaType.APPLICATION_JSON)
+                .content (asJsonString (new WhiskyBulkAdjustmentDTO (Collections.emptyList ()))))
+                .andExpect (status ().isBadRequest ());
+    }
+
+    @Test
+    void quandoPATCHChamadoParaDecrementoEntaoOKStatusERetornado () throws Exception {
+        WhiskyQuantityDTO whiskyQuantityDTO = WhiskyQuantityDTO.builder ()
+                .quantity (5)
+                .build ();
+
+        WhiskyDTO whiskyDTO = WhiskyDTOBuilder.builder ().build ().toWhiskyDTO ();
+        whiskyDTO.setQuantity (whiskyDTO.getQuantity () - whiskyQuantityDTO.getQuantity ());
+
+        when (whiskyService.decrement (VALID_WHISKY_ID, whiskyQuantityDTO.getQuantity ())).thenReturn (whiskyDTO);
+
+        mockMvc.perform (MockMvcRequestBuilders.patch (WHISKY_API_URL_PATH +
+                "/" + VALID_WHISKY_ID + WHISKY_API_SUBPATH_DECREMENT_URL)
+                .contentType (MediaType.APPLICATION_JSON)
+                .content (asJsonString (whiskyQuantityDTO))).andExpect (status ().isOk ())
+                .andExpect (jsonPath ("$.name", is (whiskyDTO.getName ())))
+                .andExpect (jsonPath ("$.brand", is (whiskyDTO.getBrand ())))
+                .andExpect (jsonPath ("$.type", is (whiskyDTO.getType ().toString ())))
+                .andExpect (jsonPath ("$.quantity", is (whiskyDTO.getQuantity ())));
+    }
+
+    @Test
+    void quandoPATCHChamadoParaDecrementoMaiorQueEstoqueBadRequestStatusERetornado () throws Exception {
+        WhiskyQuantityDTO whiskyQuantityDTO = WhiskyQuantityDTO.builder ()
+                .quantity (60)
+                .build ();
+
+        when (whiskyService.decrement (VALID_WHISKY_ID, whiskyQuantityDTO.getQuantity ())).
+                thenThrow (WhiskyStockExceededException.class);
+
+        mockMvc.perform (MockMvcRequestBuilders.patch (WHISKY_API_URL_PATH +
+                "/" + VALID_WHISKY_ID + WHISKY_API_SUBPATH_DECREMENT_URL)
+                .contentType (MediaType.APPLICATION_JSON)
+                .content (asJsonString (whiskyQuantityDTO)))
+                .andExpect (status ().isBadRequest ());
+    }
+
+    @Test
+    void quandoPATCHChamadoComIdWhiskyInvalidoParaDecrementoNotFoundStatusERetornado () throws Exception {
+        WhiskyQuantityDTO whiskyQuantityDTO = WhiskyQuantityDTO.builder ()
+                .quantity (5)
+                .build ();
+
+        when (whiskyService.decrement (INVALID_WHISKY_ID, whiskyQuantityDTO.getQuantity ())).
+                thenThrow (WhiskyNotFoundException.class);
+
+        mockMvc.perform (MockMvcRequestBuilders.patch (WHISKY_API_URL_PATH +
+                "/" + INVALID_WHISKY_ID + WHISKY_API_SUBPATH_DECREMENT_URL)
+                .contentType (MediaType.APPLICATION_JSON)
+                .content (asJsonString (whiskyQuantityDTO)))
+                .andExpect (status ().isNotFound ());
+    }
+}
@@ -0,0 +1,36 @@
+package one.digitalinnovation.whiskystock.exception;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.arrayWithSize;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+
+public class WhiskyBusinessExceptionTest {
+
+    @AfterEach
+    void tearDown () {
+        WhiskyBusinessException.setStackTraceEnabled (true);
+    }
+
+    @Test
+    void quandoStackTraceDesabilitadoExcecaoNaoCapturaPilha () {
+        WhiskyBusinessException.setStackTraceEnabled (false);
+
+        WhiskyNotFoundException exception = new WhiskyNotFoundException (1L);
+
+        assertThat (exception.getStackTrace (), is (arrayWithSize (0)));
+        assertThat (exception.getMessage (), is (equalTo ("Whisky with id 1 not found in the system.")));
+    }
+
+    @Test
+    void quandoStackTraceHabilitadoExcecaoCapturaPilha () {
+        WhiskyStockExceededException exception = new WhiskyStockExceededException (1L, 30);
+
+        assertThat (exception.getStackTrace ().length, is (greaterThan (0)));
+        assertThat (exception.getMessage (), is (equalTo ("Whisky with 1 ID to increment informed exceeds the max stock capacity: 30")));
+    }
+}
@@ -0,0 +1,129 @@
+package one.digitalinnovation.whiskystock.filter;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+
+public class AdaptiveConcurrencyLimitFilterTest {
+
+    private static final String WHISKY_API_URL_PATH = "/api/v1/whiskies";
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry ();
+    private final AdaptiveConcurrencyLimit readLimit = singleRequestLimit ();
+    private final AdaptiveConcurrencyLimit stockLimit = singleRequestLimit ();
+    private final AdaptiveConcurrencyLimitFilter filter = new AdaptiveConcurrencyLimitFilter (readLimit, stockLimit,
+            Duration.ofSeconds (2), meterRegistry);
+
+    @Test
+    void quandoOrcamentoDeLeituraEsgotadoGETRecebe503ComRetryAfter () throws Exception {
+        MockHttpServletResponse shedResponse = new MockHttpServletResponse ();
+        AtomicInteger shedInvocations = new AtomicInteger ();
+
+        filter.doFilter (request ("GET", WHISKY_API_URL_PATH), new MockHttpServletResponse (), (request, response) ->
+                filter.doFilter (request ("GET", WHISKY_API_URL_PATH + "/Old Parr"), shedResponse,
+                        (shedRequest, ignoredResponse) -> shedInvocations.incrementAndGet ()));
+
+        assertThat (shedInvocations.get (), is (equalTo (0)));
+        assertThat (shedResponse.getStatus (), is (equalTo (HttpServletResponse.SC_SERVICE_UNAVAILABLE)));
+        assertThat (shedResponse.getHeader ("Retry-After"), is (equalTo ("2")));
+        assertThat (meterRegistry.get (AdaptiveConcurrencyLimitFilter.SHED_COUNTER)
+                .tag ("budget", AdaptiveConcurrencyLimitFilter.READ_BUDGET).counter ().count (), is (equalTo (1.0)));
+        assertThat (readLimit.getInFlight (), is (equalTo (0)));
+    }
+
+    @Test
+    void quandoLeiturasEsgotadasMutacaoDeEstoqueUsaOutroOrcamento () throws Exception {
+        AtomicInteger stockInvocations = new AtomicInteger ();
+
+        filter.doFilter (request ("GET", WHISKY_API_URL_PATH), new MockHttpServletResponse (), (request, response) ->
+                filter.doFilter (request ("PATCH", WHISKY_API_URL_PATH + "/1/increment"), new MockHttpServletResponse (),
+                        (stockRequest, stockResponse) -> {
+                            stockInvocations.incrementAndGet ();
+                            assertThat (stockLimit.getInFlight (), is (equalTo (1)));
+                        }));
+
+        assertThat (stockInvocations.get (), is (equalTo (1)));
+        assertThat (stockLimit.getInFlight (), is (equalTo (0)));
+    }
+
+    @Test
+    void quandoExportacaoEmStreamingOuCadastroNaoPassaPeloLimite () throws Exception {
+        AtomicInteger invocations = new AtomicInteger ();
+        FilterChain countingChain = (request, response) -> invocations.incrementAndGet ();
+        MockHttpServletRequest streamRequest = request ("GET", WHISKY_API_URL_PATH);
+        streamRequest.setParameter ("stream", "ndjson");
+
+        filter.doFilter (request ("GET", WHISKY_API_URL_PATH), new MockHttpServletResponse (), (request, response) ->
+                filter.doFilter (streamRequest, new MockHttpServletResponse (), countingChain));
+        filter.doFilter (request ("PATCH", WHISKY_API_URL_PATH), new MockHttpServletResponse (), (request, response) ->
+                filter.doFilter (request ("POST", WHISKY_API_URL_PATH), new MockHttpServletResponse (), countingChain));
+
+        assertThat (invocations.get (), is (equalTo (2)));
+    }
+
+    @Test
+    void quandoRequisicaoAssincronaVagaELiberadaAoCompletar () throws Exception {
+        MockHttpServletRequest asyncRequest = request ("POST", WHISKY_API_URL_PATH + "/1/locations/transfers");
+
+        filter.doFilter (asyncRequest, new MockHttpServletResponse (), (request, response) -> request.startAsync ());
+
+        assertThat (stockLimit.getInFlight (), is (equalTo (1)));
+
+        asyncRequest.getAsyncContext ().complete ();
+
+        assertThat (stockLimit.getInFlight (), is (equalTo (0)));
+    }
+
+    @Test
+    void quandoRequisicaoReiniciaAssincronoVagaELiberadaAoCompletarONovoCiclo () throws Exception {
+        MockHttpServletRequest asyncRequest = request ("POST", WHISKY_API_URL_PATH + "/1/locations/transfers");
+
+        filter.doFilter (asyncRequest, new MockHttpServletResponse (), (request, response) -> request.startAsync ());
+        restartAsync (asyncRequest);
+
+        assertThat (stockLimit.getInFlight (), is (equalTo (1)));
+
+        asyncRequest.getAsyncContext ().complete ();
+
+        assertThat (stockLimit.getInFlight (), is (equalTo (0)));
+    }
+
+    /**
+     * Starts a new async cycle and, like a servlet container does, tells the listeners of the
+     * previous cycle through {@code onStartAsync} without carrying them over.
+     */
+    static void restartAsync (MockHttpServletRequest request) throws IOException {
+        List<AsyncListener> previousListeners = ((MockAsyncContext) request.getAsyncContext ()).getListeners ();
+        AsyncContext asyncContext = request.startAsync ();
+        for (AsyncListener listener : previousListeners) {
+            listener.onStartAsync (new AsyncEvent (asyncContext));
+        }
+    }
+
+    private static AdaptiveConcurrencyLimit singleRequestLimit () {
+        return new AdaptiveConcurrencyLimit (1, 1, 1, 1.5);
+    }
+
+    private static MockHttpServletRequest request (String method, String uri) {
+        MockHttpServletRequest request = new MockHttpServletRequest (method, uri);
+        request.setAsyncSupported (true);
+        return request;
+    }
+}
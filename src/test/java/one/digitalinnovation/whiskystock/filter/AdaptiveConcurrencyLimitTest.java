@@ -0,0 +1,127 @@
+package one.digitalinnovation.whiskystock.filter;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+
+public class AdaptiveConcurrencyLimitTest {
+
+    @Test
+    void quandoLimiteAtingidoNovaRequisicaoERecusadaSemEsperar () {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit (2, 1, 10, 1.5);
+
+        assertThat (limit.tryAcquire (), is (true));
+        assertThat (limit.tryAcquire (), is (true));
+        assertThat (limit.tryAcquire (), is (false));
+
+        limit.release (TimeUnit.MILLISECONDS.toNanos (1), false);
+
+        assertThat (limit.tryAcquire (), is (true));
+        assertThat (limit.getInFlight (), is (equalTo (2)));
+    }
+
+    @Test
+    void quandoLatenciaEstavelEComLimiteUsadoLimiteCresce () {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit (10, 1, 100, 1.5);
+
+        for (int i = 0; i < 10; i++) {
+            runWindow (limit, limit.getLimit (), 2);
+        }
+
+        assertThat (limit.getLimit (), is (greaterThan (10)));
+    }
+
+    @Test
+    void quandoLimiteNaoEUsadoLimiteNaoCresce () {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit (10, 1, 100, 1.5);
+
+        for (int i = 0; i < 10; i++) {
+            runWindow (limit, 1, 2);
+        }
+
+        assertThat (limit.getLimit (), is (equalTo (10)));
+    }
+
+    @Test
+    void quandoLatenciaSobeAlemDaToleranciaLimiteDiminui () {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit (20, 1, 100, 1.5);
+        runWindow (limit, 4, 2);
+
+        for (int i = 0; i < 30; i++) {
+            runWindow (limit, limit.getLimit (), 20);
+        }
+
+        assertThat (limit.getLimit (), is (lessThan (10)));
+    }
+
+    @Test
+    void quandoRequisicoesFalhamLimiteDiminui () {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit (20, 1, 100, 1.5);
+        runWindow (limit, 4, 2);
+
+        for (int i = 0; i < 5; i++) {
+            for (int j = 0; j < AdaptiveConcurrencyLimit.WINDOW_SAMPLES; j++) {
+                assertThat (limit.tryAcquire (), is (true));
+                limit.release (TimeUnit.MILLISECONDS.toNanos (2), true);
+            }
+        }
+
+        assertThat (limit.getLimit (), is (lessThan (20)));
+    }
+
+    @Test
+    void quandoLatenciaEstavelLimiteNuncaEReduzidoParaMedirReferencia () {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit (20, 2, 100, 1.5);
+        int lowestLimit = limit.getLimit ();
+
+        for (int i = 0; i < 200; i++) {
+            runWindow (limit, limit.getLimit (), 2);
+            lowestLimit = Math.min (lowestLimit, limit.getLimit ());
+        }
+
+        assertThat (lowestLimit, is (equalTo (20)));
+    }
+
+    @Test
+    void quandoBancoContinuaLentoLatenciaDeReferenciaAcompanhaELimiteVoltaACrescer () {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit (20, 2, 100, 1.5);
+        runWindow (limit, 2, 2);
+        int lowestLimit = limit.getLimit ();
+        for (int i = 0; i < 30; i++) {
+            runWindow (limit, limit.getLimit (), 20);
+            lowestLimit = Math.min (lowestLimit, limit.getLimit ());
+        }
+
+        assertThat (lowestLimit, is (lessThan (10)));
+
+        for (int i = 0; i < 10; i++) {
+            runWindow (limit, limit.getLimit (), 20);
+        }
+
+        assertThat (limit.getLimit (), is (greaterThan (lowestLimit)));
+    }
+
+    /**
+     * Completes one window of samples, {@code concurrency} requests at a time, each taking
+     * {@code latencyMs}.
+     */
+    private static void runWindow (AdaptiveConcurrencyLimit limit, int concurrency, long latencyMs) {
+        int remaining = AdaptiveConcurrencyLimit.WINDOW_SAMPLES;
+        while (remaining > 0) {
+            int acquired = 0;
+            while (acquired < Math.min (concurrency, remaining) && limit.tryAcquire ()) {
+                acquired++;
+            }
+            for (int i = 0; i < acquired; i++) {
+                limit.release (TimeUnit.MILLISECONDS.toNanos (latencyMs), false);
+            }
+            remaining -= acquired;
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package one.digitalinnovation.whiskystock.filter;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.servlet.DispatcherType;
+import javax.servlet.FilterChain;
+import javax.servlet.http.HttpServletResponse;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+
+public class ConnectionAwareAdmissionFilterTest {
+
+    @Test
+    void quandoSemPermissaoLivreRequisicaoEEstacionadaEDespachadaDepois () throws Exception {
+        ConnectionAwareAdmissionFilter filter = new ConnectionAwareAdmissionFilter (1, 10, 1_000);
+        MockHttpServletRequest parkedRequest = asyncRequest ();
+        MockHttpServletResponse parkedResponse = new MockHttpServletResponse ();
+        AtomicInteger parkedInvocations = new AtomicInteger ();
+        FilterChain parkedChain = (request, response) -> parkedInvocations.incrementAndGet ();
+
+        filter.doFilter (asyncRequest (), new MockHttpServletResponse (), (request, response) -> {
+            filter.doFilter (parkedRequest, parkedResponse, parkedChain);
+            assertThat (parkedRequest.isAsyncStarted (), is (true));
+            assertThat (filter.getParkedCount (), is (equalTo (1)));
+        });
+
+        assertThat (parkedInvocations.get (), is (equalTo (0)));
+        assertThat (((MockAsyncContext) parkedRequest.getAsyncContext ()).getDispatchedPath (), is (notNullValue ()));
+        assertThat (filter.getAvailablePermits (), is (equalTo (0)));
+
+        parkedRequest.setAsyncStarted (false);
+        parkedRequest.setDispatcherType (DispatcherType.ASYNC);
+        filter.doFilter (parkedRequest, parkedResponse, parkedChain);
+
+        assertThat (parkedInvocations.get (), is (equalTo (1)));
+        assertThat (filter.getAvailablePermits (), is (equalTo (1)));
+        assertThat (filter.getParkedCount (), is (equalTo (0)));
+    }
+
+    @Test
+    void quandoFilaCheiaRetornaServicoIndisponivel () throws Exception {
+        ConnectionAwareAdmissionFilter filter = new ConnectionAwareAdmissionFilter (1, 0, 1_000);
+        MockHttpServletResponse rejectedResponse = new MockHttpServletResponse ();
+
+        filter.doFilter (asyncRequest (), new MockHttpServletResponse (), (request, response) ->
+                filter.doFilter (asyncRequest (), rejectedResponse, (ignoredRequest, ignoredResponse) -> {
+                }));
+
+        assertThat (rejectedResponse.getStatus (), is (equalTo (HttpServletResponse.SC_SERVICE_UNAVAILABLE)));
+        assertThat (rejectedResponse.getHeader ("Retry-After"), is (equalTo ("1")));
+        assertThat (filter.getAvailablePermits (), is (equalTo (1)));
+    }
+
+    @Test
+    void quandoDespachoAssincronoNaoAdmitidoApenasRepassa () throws Exception {
+        ConnectionAwareAdmissionFilter filter = new ConnectionAwareAdmissionFilter (1, 10, 1_000);
+        MockHttpServletRequest request = asyncRequest ();
+        request.setDispatcherType (DispatcherType.ASYNC);
+        AtomicInteger invocations = new AtomicInteger ();
+
+        filter.doFilter (request, new MockHttpServletResponse (), (req, res) -> invocations.incrementAndGet ());
+
+        assertThat (invocations.get (), is (equalTo (1)));
+        assertThat (filter.getAvailablePermits (), is (equalTo (1)));
+        assertThat (request.getAttribute (ConnectionAwareAdmissionFilter.ADMITTED_ATTRIBUTE), is (nullValue ()));
+    }
+
+    @Test
+    void quandoRequisicaoAdmitidaFicaAssincronaPermissaoSoELiberadaAoCompletar () throws Exception {
+        ConnectionAwareAdmissionFilter filter = new ConnectionAwareAdmissionFilter (1, 10, 1_000);
+        MockHttpServletRequest streamingRequest = asyncRequest ();
+
+        filter.doFilter (streamingRequest, new MockHttpServletResponse (), (request, response) -> request.startAsync ());
+
+        assertThat (filter.getAvailablePermits (), is (equalTo (0)));
+
+        streamingRequest.getAsyncContext ().complete ();
+
+        assertThat (filter.getAvailablePermits (), is (equalTo (1)));
+    }
+
+    @Test
+    void quandoRequisicaoAdmitidaReiniciaAssincronoPermissaoSoELiberadaAoCompletarONovoCiclo () throws Exception {
+        ConnectionAwareAdmissionFilter filter = new ConnectionAwareAdmissionFilter (1, 10, 1_000);
+        MockHttpServletRequest asyncRequest = asyncRequest ();
+
+        filter.doFilter (asyncRequest, new MockHttpServletResponse (), (request, response) -> request.startAsync ());
+        AdaptiveConcurrencyLimitFilterTest.restartAsync (asyncRequest);
+
+        assertThat (filter.getAvailablePermits (), is (equalTo (0)));
+
+        asyncRequest.getAsyncContext ().complete ();
+
+        assertThat (filter.getAvailablePermits (), is (equalTo (1)));
+    }
+
+    @Test
+    void quandoStreamDeEventosFicaAssincronoPermissaoLiberadaEOutraRequisicaoAdmitida () throws Exception {
+        ConnectionAwareAdmissionFilter filter = new ConnectionAwareAdmissionFilter (1, 10, 1_000);
+        MockHttpServletRequest subscribeRequest = asyncRequest ();
+        AtomicInteger invocations = new AtomicInteger ();
+
+        filter.doFilter (subscribeRequest, new MockHttpServletResponse (), (request, response) -> {
+            response.setContentType ("text/event-stream");
+            request.startAsync ();
+        });
+        filter.doFilter (asyncRequest (), new MockHttpServletResponse (), (request, response) -> invocations.incrementAndGet ());
+
+        assertThat (subscribeRequest.isAsyncStarted (), is (true));
+        assertThat (invocations.get (), is (equalTo (1)));
+        assertThat (filter.getParkedCount (), is (equalTo (0)));
+        assertThat (filter.getAvailablePermits (), is (equalTo (1)));
+
+        subscribeRequest.getAsyncContext ().complete ();
+
+        assertThat (filter.getAvailablePermits (), is (equalTo (1)));
+    }
+
+    private static MockHttpServletRequest asyncRequest () {
+        MockHttpServletRequest request = new MockHttpServletRequest ("GET", "/api/v1/whiskies");
+        request.setAsyncSupported (true);
+        return request;
+    }
+}
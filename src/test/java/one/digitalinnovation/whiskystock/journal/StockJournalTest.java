@@ -0,0 +1,108 @@
+package one.digitalinnovation.whiskystock.journal;
+
+import one.digitalinnovation.whiskystock.enums.WhiskyChangeType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+
+public class StockJournalTest {
+
+    private static final long SEGMENT_SIZE = 10L * StockJournal.RECORD_SIZE;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void quandoJournalReabertoEstadoEReconstruidoPelosSegmentos () throws IOException {
+        Map<Long, Integer> expected = new HashMap<> ();
+        StockJournal stockJournal = new StockJournal (directory, SEGMENT_SIZE, 1_000, Long.MAX_VALUE);
+        for (int i = 1; i <= 35; i++) {
+            long id = i % 4;
+            stockJournal.append (WhiskyChangeType.UPDATED, id, 1, i);
+            expected.put (id, i);
+        }
+        stockJournal.append (WhiskyChangeType.DELETED, 0L, -32, 0);
+        expected.remove (0L);
+        stockJournal.force ();
+        assertThat (countFiles ("snapshot-"), is (equalTo (0L)));
+
+        try (StockJournal reopened = new StockJournal (directory, SEGMENT_SIZE, 1_000, Long.MAX_VALUE)) {
+            assertThat (reopened.currentQuantities (), is (equalTo (expected)));
+            assertThat (reopened.lastSequence (), is (equalTo (36L)));
+            assertThat (reopened.append (WhiskyChangeType.CREATED, 9L, 3, 3), is (equalTo (37L)));
+        }
+    }
+
+    @Test
+    void quandoSnapshotGravadoSegmentosAntigosSaoDescartados () throws IOException {
+        try (StockJournal stockJournal = new StockJournal (directory, SEGMENT_SIZE, 1_000, Long.MAX_VALUE)) {
+            for (int i = 1; i <= 45; i++) {
+                stockJournal.append (WhiskyChangeType.UPDATED, 1L, 1, i);
+            }
+            assertThat (countFiles ("segment-"), is (equalTo (5L)));
+
+            stockJournal.snapshot ();
+            assertThat (countFiles ("segment-"), is (equalTo (1L)));
+
+            for (int i = 46; i <= 50; i++) {
+                stockJournal.append (WhiskyChangeType.UPDATED, 2L, 1, i);
+            }
+        }
+
+        try (StockJournal reopened = new StockJournal (directory, SEGMENT_SIZE, 1_000, Long.MAX_VALUE)) {
+            assertThat (reopened.currentQuantities ().get (1L), is (equalTo (45)));
+            assertThat (reopened.currentQuantities ().get (2L), is (equalTo (50)));
+            assertThat (countFiles ("snapshot-"), is (equalTo (1L)));
+        }
+    }
+
+    @Test
+    void quandoAppendsConcorrentesSequenciasSaoUnicas () throws Exception {
+        int threads = 8;
+        int appendsPerThread = 10_000;
+        try (StockJournal stockJournal = new StockJournal (directory, 1 << 20, 5, 25_000)) {
+            Thread[] writers = new Thread[threads];
+            for (int t = 0; t < threads; t++) {
+                long id = t;
+                writers[t] = new Thread (() -> {
+                    for (int i = 1; i <= appendsPerThread; i++) {
+                        stockJournal.append (WhiskyChangeType.UPDATED, id, 1, i);
+                    }
+                });
+                writers[t].start ();
+            }
+            for (Thread writer : writers) {
+                writer.join ();
+            }
+
+            assertThat (stockJournal.lastSequence (), is (equalTo ((long) threads * appendsPerThread)));
+        }
+
+        try (StockJournal reopened = new StockJournal (directory, 1 << 20, 5, Long.MAX_VALUE)) {
+            assertThat (reopened.currentQuantities ().size (), is (equalTo (threads)));
+            reopened.currentQuantities ().values ()
+                    .forEach (quantity -> assertThat (quantity, is (equalTo (appendsPerThread))));
+            assertThat (countFiles ("segment-"), is (greaterThan (0L)));
+            assertThat (countFiles ("snapshot-"), is (lessThan (2L)));
+        }
+    }
+
+    private long countFiles (String prefix) throws IOException {
+        try (Stream<Path> files = Files.list (directory)) {
+            return files.filter (path -> path.getFileName ().toString ().startsWith (prefix)
+                    && !path.getFileName ().toString ().endsWith (".tmp")).count ();
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package one.digitalinnovation.whiskystock.metrics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import one.digitalinnovation.whiskystock.builder.WhiskyDTOBuilder;
+import one.digitalinnovation.whiskystock.config.WhiskySummaryProperties;
+import one.digitalinnovation.whiskystock.dto.WhiskyDTO;
+import one.digitalinnovation.whiskystock.enums.WhiskyType;
+import one.digitalinnovation.whiskystock.event.WhiskyChangedEvent;
+import one.digitalinnovation.whiskystock.dto.WhiskyStockAdjustmentResultDTO;
+import one.digitalinnovation.whiskystock.enums.StockAdjustmentStatus;
+import one.digitalinnovation.whiskystock.exception.WhiskyNotFoundException;
+import one.digitalinnovation.whiskystock.exception.WhiskyStockExceededException;
+import one.digitalinnovation.whiskystock.repository.WhiskyRepository;
+import one.digitalinnovation.whiskystock.service.StockAdjustment;
+import one.digitalinnovation.whiskystock.service.StockSummary;
+import one.digitalinnovation.whiskystock.service.WhiskyService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class WhiskyServiceMetricsTest {
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private WhiskyService whiskyService;
+
+    private WhiskyService instrumentedWhiskyService;
+
+    @BeforeEach
+    void setUp () {
+        meterRegistry = new SimpleMeterRegistry ();
+        whiskyService = mock (WhiskyService.class);
+        AspectJProxyFactory proxyFactory = new AspectJProxyFactory (whiskyService);
+        proxyFactory.setProxyTargetClass (true);
+        proxyFactory.addAspect (new WhiskyServiceMetrics (meterRegistry));
+        instrumentedWhiskyService = proxyFactory.getProxy ();
+    }
+
+    @Test
+    void quandoOperacaoExecutadaTempoERegistrado () throws WhiskyNotFoundException {
+        WhiskyDTO whiskyDTO = WhiskyDTOBuilder.builder ().build ().toWhiskyDTO ();
+        when (whiskyService.findByName (whiskyDTO.getName ())).thenReturn (whiskyDTO);
+
+        instrumentedWhiskyService.findByName (whiskyDTO.getName ());
+        instrumentedWhiskyService.findByName (whiskyDTO.getName ());
+
+        assertThat (meterRegistry.get (WhiskyServiceMetrics.OPERATION_TIMER)
+                .tags ("operation", "findByName", "exception", "none")
+                .timer ().count (), is (equalTo (2L)));
+    }
+
+    @Test
+    void quandoOperacaoLancaExcecaoContadorDeErrosEIncrementado () throws WhiskyNotFoundException {
+        when (whiskyService.findByName ("Jameson")).thenThrow (new WhiskyNotFoundException ("Jameson"));
+
+        assertThrows (WhiskyNotFoundException.class, () -> instrumentedWhiskyService.findByName ("Jameson"));
+
+        assertThat (meterRegistry.get (WhiskyServiceMetrics.ERROR_COUNTER)
+                .tags ("operation", "findByName", "exception", "WhiskyNotFoundException")
+                .counter ().count (), is (equalTo (1.0)));
+        assertThat (meterRegistry.get (WhiskyServiceMetrics.OPERATION_TIMER)
+                .tags ("operation", "findByName", "exception", "WhiskyNotFoundException")
+                .timer ().count (), is (equalTo (1L)));
+    }
+
+    @Test
+    void quandoAjusteRejeitadoComOuSemChaveResultadoEContadoIgual () throws Exception {
+        when (whiskyService.tryDecrement (1L, 5)).thenReturn (StockAdjustment.stockExceeded (1L, -5));
+        when (whiskyService.decrement (1L, 5)).thenThrow (new WhiskyStockExceededException (1L, 5));
+        when (whiskyService.increment (2L, 5)).thenThrow (new WhiskyNotFoundException (2L));
+        when (whiskyService.adjustAll (any ())).thenReturn (Arrays.asList (
+                WhiskyStockAdjustmentResultDTO.builder ().id (1L).status (StockAdjustmentStatus.APPLIED).quantity (10).build (),
+                WhiskyStockAdjustmentResultDTO.builder ().id (2L).status (StockAdjustmentStatus.NOT_FOUND).build ()));
+
+        instrumentedWhiskyService.tryDecrement (1L, 5);
+        assertThrows (WhiskyStockExceededException.class, () -> instrumentedWhiskyService.decrement (1L, 5));
+        assertThrows (WhiskyNotFoundException.class, () -> instrumentedWhiskyService.increment (2L, 5));
+        instrumentedWhiskyService.adjustAll (Collections.emptyList ());
+
+        assertThat (adjustments (StockAdjustmentStatus.STOCK_EXCEEDED), is (equalTo (2.0)));
+        assertThat (adjustments (StockAdjustmentStatus.NOT_FOUND), is (equalTo (2.0)));
+        assertThat (adjustments (StockAdjustmentStatus.APPLIED), is (equalTo (1.0)));
+        assertThat (meterRegistry.get (WhiskyServiceMetrics.OPERATION_TIMER)
+                .tags ("operation", "tryDecrement", "exception", "none", "outcome", "STOCK_EXCEEDED")
+                .timer ().count (), is (equalTo (1L)));
+        assertThat (meterRegistry.get (WhiskyServiceMetrics.OPERATION_TIMER)
+                .tags ("operation", "decrement", "outcome", "STOCK_EXCEEDED")
+                .timer ().count (), is (equalTo (1L)));
+    }
+
+    @Test
+    void quandoEstoqueAlteradoGaugePorTipoEAtualizado () {
+        WhiskyRepository whiskyRepository = mock (WhiskyRepository.class);
+        when (whiskyRepository.summarizeByTypeAndBrand (anyDouble ())).thenReturn (Arrays.asList (
+                new Object[] {WhiskyType.OLDPARR, "Scotland", 2L, 30L, 100L, 0L},
+                new Object[] {WhiskyType.JAMESON, "Ireland", 1L, 7L, 50L, 1L}));
+        StockSummary stockSummary = new StockSummary (whiskyRepository, new WhiskySummaryProperties (), meterRegistry);
+        new WhiskyStockGauges (stockSummary, meterRegistry);
+        WhiskyDTO whiskyDTO = WhiskyDTOBuilder.builder ().quantity (15).build ().toWhiskyDTO ();
+
+        stockSummary.load ();
+        stockSummary.onWhiskyChanged (WhiskyChangedEvent.updated (whiskyDTO, 5));
+        stockSummary.onWhiskyChanged (WhiskyChangedEvent.deleted (WhiskyDTOBuilder.builder ()
+                .brand ("Ireland").type (WhiskyType.JAMESON).quantity (7).build ().toWhiskyDTO ()));
+
+        assertThat (meterRegistry.get (WhiskyStockGauges.STOCK_GAUGE).tags ("type", "OLDPARR").gauge ().value (), is (equalTo (35.0)));
+        assertThat (meterRegistry.get (WhiskyStockGauges.STOCK_GAUGE).tags ("type", "JAMESON").gauge ().value (), is (equalTo (0.0)));
+        assertThat (meterRegistry.get (WhiskyStockGauges.STOCK_GAUGE).tags ("type", "GRANTS").gauge ().value (), is (equalTo (0.0)));
+    }
+
+    private double adjustments (StockAdjustmentStatus status) {
+        return meterRegistry.get (WhiskyServiceMetrics.ADJUSTMENT_COUNTER).tags ("outcome", status.name ()).counter ().count ();
+    }
+}
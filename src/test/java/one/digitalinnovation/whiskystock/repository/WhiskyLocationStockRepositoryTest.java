@@ -0,0 +1,75 @@
+package one.digitalinnovation.whiskystock.repository;
+
+import one.digitalinnovation.whiskystock.entity.Whisky;
+import one.digitalinnovation.whiskystock.entity.WhiskyLocationStock;
+import one.digitalinnovation.whiskystock.enums.WhiskyType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.util.Optional;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+
+@DataJpaTest
+public class WhiskyLocationStockRepositoryTest {
+
+    @Autowired
+    private WhiskyLocationStockRepository locationStockRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private Long whiskyId;
+
+    @BeforeEach
+    void setUp () {
+        whiskyId = entityManager.persistAndFlush (new Whisky (null, "Old Parr 12", "Scotland", 50, 10, WhiskyType.OLDPARR, null)).getId ();
+        locationStockRepository.open (whiskyId, "lisboa");
+        locationStockRepository.open (whiskyId, "porto");
+        entityManager.clear ();
+    }
+
+    @Test
+    void quandoAjusteDentroDosLimitesLocalizacaoAtualizadaERetornada () {
+        Optional<WhiskyLocationStock> adjusted = locationStockRepository.adjustIfWithinBounds (whiskyId, "lisboa", 5);
+
+        assertThat (adjusted.isPresent (), is (true));
+        assertThat (adjusted.get ().getQuantity (), is (equalTo (5)));
+        assertThat (adjusted.get ().getMax (), is (equalTo (50)));
+        assertThat (adjusted.get ().getVersion (), is (equalTo (1L)));
+        assertThat (quantityAt ("lisboa"), is (equalTo (5)));
+    }
+
+    @Test
+    void quandoAjusteForaDosLimitesOuLocalizacaoFechadaNadaMuda () {
+        assertThat (locationStockRepository.adjustIfWithinBounds (whiskyId, "lisboa", -1).isPresent (), is (false));
+        assertThat (locationStockRepository.adjustIfWithinBounds (whiskyId, "lisboa", 51).isPresent (), is (false));
+        assertThat (locationStockRepository.adjustIfWithinBounds (whiskyId, "faro", 1).isPresent (), is (false));
+
+        assertThat (quantityAt ("lisboa"), is (equalTo (0)));
+    }
+
+    @Test
+    void quandoTransferenciaAjustaDuasLocalizacoesNaMesmaTransacaoAmbasSaoGravadas () {
+        locationStockRepository.adjustIfWithinBounds (whiskyId, "lisboa", 10);
+        entityManager.find (WhiskyLocationStock.class, new WhiskyLocationStock.Key (whiskyId, "porto"));
+
+        Optional<WhiskyLocationStock> from = locationStockRepository.adjustIfWithinBounds (whiskyId, "lisboa", -4);
+        Optional<WhiskyLocationStock> to = locationStockRepository.adjustIfWithinBounds (whiskyId, "porto", 4);
+
+        assertThat (from.get ().getQuantity (), is (equalTo (6)));
+        assertThat (to.get ().getQuantity (), is (equalTo (4)));
+        assertThat (quantityAt ("lisboa"), is (equalTo (6)));
+        assertThat (quantityAt ("porto"), is (equalTo (4)));
+    }
+
+    private int quantityAt (String location) {
+        entityManager.clear ();
+        return locationStockRepository.findById (new WhiskyLocationStock.Key (whiskyId, location)).get ().getQuantity ();
+    }
+}
@@ -0,0 +1,100 @@
+package one.digitalinnovation.whiskystock.repository;
+
+import one.digitalinnovation.whiskystock.dto.WhiskySearchCriteriaDTO;
+import one.digitalinnovation.whiskystock.entity.Whisky;
+import one.digitalinnovation.whiskystock.enums.WhiskyType;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+
+@DataJpaTest
+public class WhiskyRepositoryTest {
+
+    @Autowired
+    private WhiskyRepository whiskyRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Test
+    void quandoAjusteDentroDosLimitesLinhaAtualizadaERetornada () {
+        Long id = persist (whisky ("Old Parr 12", "Scotland", 10, 50));
+
+        Optional<Whisky> adjusted = whiskyRepository.adjustIfWithinBounds (id, -4);
+
+        assertThat (adjusted.isPresent (), is (true));
+        assertThat (adjusted.get ().getQuantity (), is (equalTo (6)));
+        assertThat (adjusted.get ().getVersion (), is (equalTo (1L)));
+        entityManager.clear ();
+        assertThat (whiskyRepository.findById (id).get ().getQuantity (), is (equalTo (6)));
+    }
+
+    @Test
+    void quandoAjusteForaDosLimitesNadaERetornadoNemAlterado () {
+        Long id = persist (whisky ("Old Parr 12", "Scotland", 10, 50));
+
+        assertThat (whiskyRepository.adjustIfWithinBounds (id, -11).isPresent (), is (false));
+        assertThat (whiskyRepository.adjustIfWithinBounds (id, 41).isPresent (), is (false));
+
+        entityManager.clear ();
+        Whisky whisky = whiskyRepository.findById (id).get ();
+        assertThat (whisky.getQuantity (), is (equalTo (10)));
+        assertThat (whisky.getVersion (), is (equalTo (0L)));
+    }
+
+    @Test
+    void quandoAjusteDesceAbaixoDoPisoNadaEAlterado () {
+        Long id = persist (whisky ("Old Parr 12", "Scotland", 10, 50));
+
+        assertThat (whiskyRepository.adjustIfWithinBounds (id, -7, 4).isPresent (), is (false));
+        assertThat (whiskyRepository.adjustIfWithinBounds (id, -6, 4).get ().getQuantity (), is (equalTo (4)));
+    }
+
+    @Test
+    void quandoResumoPorTipoEMarcaCalculadoEstoqueBaixoUsaFracaoDoMaximo () {
+        whiskyRepository.save (whisky ("Old Parr 12", "Scotland", 10, 50));
+        whiskyRepository.save (whisky ("Old Parr 18", "Scotland", 11, 50));
+        whiskyRepository.flush ();
+
+        List<Object[]> rows = whiskyRepository.summarizeByTypeAndBrand (0.2);
+
+        assertThat (rows.size (), is (equalTo (1)));
+        Object[] row = rows.get (0);
+        assertThat (row[0], is (equalTo (WhiskyType.OLDPARR)));
+        assertThat (row[1], is (equalTo ("Scotland")));
+        assertThat (((Number) row[2]).longValue (), is (equalTo (2L)));
+        assertThat (((Number) row[3]).longValue (), is (equalTo (21L)));
+        assertThat (((Number) row[4]).longValue (), is (equalTo (100L)));
+        assertThat (((Number) row[5]).longValue (), is (equalTo (1L)));
+    }
+
+    @Test
+    void quandoBuscaPorFracaoDoMaximoComparaQuantidadeComMaximoEscalado () {
+        persist (whisky ("Old Parr 12", "Scotland", 10, 50));
+        persist (whisky ("Old Parr 18", "Scotland", 40, 50));
+        WhiskySearchCriteriaDTO criteria = WhiskySearchCriteriaDTO.builder ().minFillRatio (0.5).build ();
+
+        List<Whisky> whiskies = whiskyRepository.findLowestQuantity (WhiskySpecifications.matching (criteria), 10);
+
+        assertThat (whiskies.size (), is (equalTo (1)));
+        assertThat (whiskies.get (0).getName (), is (equalTo ("Old Parr 18")));
+    }
+
+    private Long persist (Whisky whisky) {
+        Long id = entityManager.persistAndFlush (whisky).getId ();
+        entityManager.clear ();
+        return id;
+    }
+
+    private static Whisky whisky (String name, String brand, int quantity, int max) {
+        return new Whisky (null, name, brand, max, quantity, WhiskyType.OLDPARR, null);
+    }
+}
@@ -0,0 +1,108 @@
+package one.digitalinnovation.whiskystock.repository;
+
+import one.digitalinnovation.whiskystock.builder.WhiskyDTOBuilder;
+import one.digitalinnovation.whiskystock.config.WhiskyStockProperties;
+import one.digitalinnovation.whiskystock.dto.WhiskyDTO;
+import one.digitalinnovation.whiskystock.entity.Whisky;
+import one.digitalinnovation.whiskystock.enums.StockMode;
+import one.digitalinnovation.whiskystock.metrics.StatementCounter;
+import one.digitalinnovation.whiskystock.service.WhiskyService;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import javax.persistence.EntityManagerFactory;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+
+@SpringBootTest
+public class WhiskySecondLevelCacheTest {
+
+    @Autowired
+    private WhiskyService whiskyService;
+
+    @Autowired
+    private WhiskyRepository whiskyRepository;
+
+    @Autowired
+    private WhiskyStockProperties stockProperties;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    private Long whiskyId;
+
+    @BeforeEach
+    void setUp () throws Exception {
+        statistics = entityManagerFactory.unwrap (SessionFactory.class).getStatistics ();
+        WhiskyDTO whisky = WhiskyDTOBuilder.builder ().id (null).name ("Cached " + System.nanoTime ()).quantity (10).max (50).build ().toWhiskyDTO ();
+        whiskyId = whiskyService.createWhisky (whisky).getId ();
+    }
+
+    @AfterEach
+    void tearDown () {
+        stockProperties.setMode (StockMode.OPTIMISTIC);
+    }
+
+    @Test
+    void quandoCacheDeSegundoNivelAtivoIncrementoExecutaMenosSql () throws Exception {
+        whiskyRepository.findById (whiskyId);
+        entityManagerFactory.getCache ().evict (Whisky.class, whiskyId);
+        int statementsWithoutCache = statementsFor (() -> whiskyService.increment (whiskyId, 1));
+
+        statistics.clear ();
+        int statementsWithCache = statementsFor (() -> whiskyService.increment (whiskyId, 1));
+
+        assertThat (statementsWithCache, is (lessThan (statementsWithoutCache)));
+        assertThat (statistics.getSecondLevelCacheHitCount (), is (greaterThan (0L)));
+        assertThat (whiskyRepository.findById (whiskyId).get ().getQuantity (), is (equalTo (12)));
+    }
+
+    @Test
+    void quandoAjusteAtomicoNativoEntidadeEmCacheEInvalidada () throws Exception {
+        whiskyRepository.findById (whiskyId);
+        stockProperties.setMode (StockMode.ATOMIC);
+
+        whiskyService.increment (whiskyId, 5);
+
+        assertThat (whiskyRepository.findById (whiskyId).get ().getQuantity (), is (equalTo (15)));
+    }
+
+    @Test
+    void quandoBuscaPorNomeRepetidaConsultaVemDoCacheDeConsultas () {
+        String name = whiskyRepository.findById (whiskyId).get ().getName ();
+        whiskyRepository.findByName (name);
+
+        statistics.clear ();
+        int statements = statementsFor (() -> whiskyRepository.findByName (name));
+
+        assertThat (statements, is (equalTo (0)));
+        assertThat (statistics.getQueryCacheHitCount (), is (equalTo (1L)));
+    }
+
+    private int statementsFor (ThrowingRunnable operation) {
+        StatementCounter.reset ();
+        try {
+            operation.run ();
+        } catch (Exception e) {
+            throw new IllegalStateException (e);
+        }
+        return StatementCounter.current ();
+    }
+
+    @FunctionalInterface
+    private interface ThrowingRunnable {
+
+        void run () throws Exception;
+    }
+}
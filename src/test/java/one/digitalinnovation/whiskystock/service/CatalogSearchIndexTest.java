@@ -0,0 +1,140 @@
+package one.digitalinnovation.whiskystock.service;
+
+import one.digitalinnovation.whiskystock.builder.WhiskyDTOBuilder;
+import one.digitalinnovation.whiskystock.dto.CatalogMatchDTO;
+import one.digitalinnovation.whiskystock.dto.CatalogSearchResultDTO;
+import one.digitalinnovation.whiskystock.dto.WhiskyDTO;
+import one.digitalinnovation.whiskystock.enums.WhiskyType;
+import one.digitalinnovation.whiskystock.event.WhiskyChangedEvent;
+import one.digitalinnovation.whiskystock.repository.WhiskyRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+
+@ExtendWith(MockitoExtension.class)
+public class CatalogSearchIndexTest {
+
+    @Mock
+    private WhiskyRepository whiskyRepository;
+
+    @Mock
+    private EntityManager entityManager;
+
+    private CatalogSearchIndex catalogSearchIndex;
+
+    @BeforeEach
+    void setUp () {
+        catalogSearchIndex = new CatalogSearchIndex (whiskyRepository, entityManager);
+        create (1L, "Old Parr 12", "Scotland", WhiskyType.OLDPARR);
+        create (2L, "Old Parr Superior", "Scotland", WhiskyType.OLDPARR);
+        create (3L, "Jameson", "Irlanda", WhiskyType.JAMESON);
+        create (4L, "Glenfiddich Single Malt", "Speyside", WhiskyType.GRANTS);
+        create (5L, "Jameson Black Barrel", "Irlanda", WhiskyType.JAMESON);
+    }
+
+    @Test
+    void quandoPrefixoInformadoMelhoresResultadosVemPrimeiro () {
+        assertThat (names (catalogSearchIndex.search ("jam", null, 10)), contains ("Jameson", "Jameson Black Barrel"));
+        assertThat (names (catalogSearchIndex.search ("old p", null, 10)), contains ("Old Parr 12", "Old Parr Superior"));
+        assertThat (names (catalogSearchIndex.search ("jameson", null, 1)), contains ("Jameson"));
+    }
+
+    @Test
+    void quandoTrechoDaPalavraInformadoWhiskyEncontrado () {
+        assertThat (names (catalogSearchIndex.search ("fiddich", null, 10)), contains ("Glenfiddich Single Malt"));
+        assertThat (names (catalogSearchIndex.search ("SPEY", null, 10)), contains ("Glenfiddich Single Malt"));
+    }
+
+    @Test
+    void quandoConsultaTemErroDeDigitacaoWhiskyAindaEncontrado () {
+        assertThat (names (catalogSearchIndex.search ("glenfidich", null, 10)), contains ("Glenfiddich Single Malt"));
+        assertThat (names (catalogSearchIndex.search ("jamesn", null, 10)), contains ("Jameson", "Jameson Black Barrel"));
+        assertThat (names (catalogSearchIndex.search ("jqx", null, 10)), is (empty ()));
+    }
+
+    @Test
+    void quandoTipoInformadoResultadosFiltradosEContagemPorTipoCompleta () {
+        create (6L, "Scotland Reserve", "Lowlands", WhiskyType.BALANTINES);
+
+        CatalogSearchResultDTO result = catalogSearchIndex.search ("scot", WhiskyType.BALANTINES, 10);
+
+        assertThat (names (result), contains ("Scotland Reserve"));
+        assertThat (result.getTypes ().get (WhiskyType.OLDPARR), is (equalTo (2)));
+        assertThat (result.getTypes ().get (WhiskyType.BALANTINES), is (equalTo (1)));
+    }
+
+    @Test
+    void quandoDuasPalavrasDoWhiskyCasamComOPrefixoContagemPorTipoContaUmaVez () {
+        create (6L, "Glen Glenlivet", "Speyside", WhiskyType.GRANTS);
+
+        CatalogSearchResultDTO result = catalogSearchIndex.search ("glen", null, 10);
+
+        assertThat (names (result), contains ("Glen Glenlivet", "Glenfiddich Single Malt"));
+        assertThat (result.getTypes ().get (WhiskyType.GRANTS), is (equalTo (2)));
+    }
+
+    @Test
+    void quandoWhiskyExcluidoSaiDoIndice () {
+        catalogSearchIndex.onWhiskyChanged (WhiskyChangedEvent.deleted (whisky (3L, "Jameson", "Irlanda", WhiskyType.JAMESON)));
+
+        assertThat (names (catalogSearchIndex.search ("jameson", null, 10)), contains ("Jameson Black Barrel"));
+        assertThat (catalogSearchIndex.size (), is (equalTo (4)));
+    }
+
+    @Test
+    void quandoSlotDeExcluidoReaproveitadoEmpateSegueOId () {
+        create (6L, "Old Parr 15", "Scotland", WhiskyType.OLDPARR);
+        catalogSearchIndex.onWhiskyChanged (WhiskyChangedEvent.deleted (whisky (1L, "Old Parr 12", "Scotland", WhiskyType.OLDPARR)));
+        create (7L, "Old Parr 18", "Scotland", WhiskyType.OLDPARR);
+
+        assertThat (names (catalogSearchIndex.search ("parr", null, 3)), contains ("Old Parr 15", "Old Parr 18", "Old Parr Superior"));
+        assertThat (names (catalogSearchIndex.search ("12", null, 10)), is (empty ()));
+        assertThat (catalogSearchIndex.size (), is (equalTo (6)));
+    }
+
+    @Test
+    void quandoPalavraTemMaisWhiskiesQueAListaCurtaTipoRaroAindaEncontrado () {
+        for (long id = 10; id < 160; id++) {
+            create (id, "Glen " + id, "Speyside", WhiskyType.GRANTS);
+        }
+        create (200L, "Glen Rare Cask", "Speyside", WhiskyType.OLDPARR);
+
+        CatalogSearchResultDTO all = catalogSearchIndex.search ("glen", null, 3);
+        CatalogSearchResultDTO rare = catalogSearchIndex.search ("glen", WhiskyType.OLDPARR, 3);
+
+        assertThat (names (all), contains ("Glen 10", "Glen 11", "Glen 12"));
+        assertThat (all.getTypes ().get (WhiskyType.GRANTS), is (equalTo (151)));
+        assertThat (names (rare), contains ("Glen Rare Cask"));
+        assertThat (rare.getTypes ().get (WhiskyType.OLDPARR), is (equalTo (1)));
+    }
+
+    @Test
+    void quandoAcentosEPontuacaoNaConsultaSaoIgnorados () {
+        assertThat (names (catalogSearchIndex.search ("  Jámeson-BLACK ", null, 10)), contains ("Jameson Black Barrel"));
+        assertThat (names (catalogSearchIndex.search (" - ", null, 10)), is (empty ()));
+    }
+
+    private void create (Long id, String name, String brand, WhiskyType type) {
+        catalogSearchIndex.onWhiskyChanged (WhiskyChangedEvent.created (whisky (id, name, brand, type)));
+    }
+
+    private static WhiskyDTO whisky (Long id, String name, String brand, WhiskyType type) {
+        return WhiskyDTOBuilder.builder ().id (id).name (name).brand (brand).type (type).build ().toWhiskyDTO ();
+    }
+
+    private static List<String> names (CatalogSearchResultDTO result) {
+        return result.getMatches ().stream ().map (CatalogMatchDTO::getName).collect (Collectors.toList ());
+    }
+}
@@ -0,0 +1,98 @@
+package one.digitalinnovation.whiskystock.service;
+
+import one.digitalinnovation.whiskystock.builder.WhiskyDTOBuilder;
+import one.digitalinnovation.whiskystock.dto.WhiskyDTO;
+import one.digitalinnovation.whiskystock.enums.WhiskyType;
+import one.digitalinnovation.whiskystock.event.WhiskyChangedEvent;
+import one.digitalinnovation.whiskystock.repository.WhiskyRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+
+@ExtendWith(MockitoExtension.class)
+public class FillRatioIndexTest {
+
+    @Mock
+    private WhiskyRepository whiskyRepository;
+
+    @Mock
+    private EntityManager entityManager;
+
+    private FillRatioIndex fillRatioIndex;
+
+    @BeforeEach
+    void setUp () {
+        fillRatioIndex = new FillRatioIndex (whiskyRepository, entityManager);
+    }
+
+    @Test
+    void quandoWhiskiesAlteradosIndiceRetornaOsMenosCheiosPrimeiro () {
+        WhiskyDTO oldParr = whisky (1L, "Old Parr", WhiskyType.OLDPARR, 50, 25);
+        WhiskyDTO jameson = whisky (2L, "Jameson", WhiskyType.JAMESON, 100, 10);
+        WhiskyDTO balantines = whisky (3L, "Balantines", WhiskyType.BALANTINES, 10, 9);
+
+        fillRatioIndex.onWhiskyChanged (WhiskyChangedEvent.created (oldParr));
+        fillRatioIndex.onWhiskyChanged (WhiskyChangedEvent.created (jameson));
+        fillRatioIndex.onWhiskyChanged (WhiskyChangedEvent.created (balantines));
+
+        assertThat (names (fillRatioIndex.lowest (2, null)), contains ("Jameson", "Old Parr"));
+
+        oldParr.setQuantity (0);
+        fillRatioIndex.onWhiskyChanged (WhiskyChangedEvent.updated (oldParr, -25));
+
+        assertThat (names (fillRatioIndex.lowest (10, null)), contains ("Old Parr", "Jameson", "Balantines"));
+        assertThat (fillRatioIndex.lowest (1, null).get (0).getQuantity (), is (equalTo (0)));
+        assertThat (fillRatioIndex.size (), is (equalTo (3)));
+    }
+
+    @Test
+    void quandoTipoInformadoIndiceFiltraEIgnoraExcluidos () {
+        WhiskyDTO oldParr = whisky (1L, "Old Parr", WhiskyType.OLDPARR, 50, 5);
+        WhiskyDTO jameson = whisky (2L, "Jameson", WhiskyType.JAMESON, 100, 10);
+
+        fillRatioIndex.onWhiskyChanged (WhiskyChangedEvent.created (oldParr));
+        fillRatioIndex.onWhiskyChanged (WhiskyChangedEvent.created (jameson));
+
+        assertThat (names (fillRatioIndex.lowest (10, WhiskyType.JAMESON)), contains ("Jameson"));
+
+        fillRatioIndex.onWhiskyChanged (WhiskyChangedEvent.deleted (oldParr));
+
+        assertThat (names (fillRatioIndex.lowest (10, null)), contains ("Jameson"));
+        assertThat (fillRatioIndex.size (), is (equalTo (1)));
+    }
+
+    @Test
+    void quandoAlteracaoChegaForaDeOrdemVersaoMaisNovaPermanece () {
+        WhiskyDTO newer = whisky (1L, "Old Parr", WhiskyType.OLDPARR, 50, 5);
+        newer.setVersion (4L);
+        WhiskyDTO older = whisky (1L, "Old Parr", WhiskyType.OLDPARR, 50, 40);
+        older.setVersion (3L);
+        WhiskyDTO jameson = whisky (2L, "Jameson", WhiskyType.JAMESON, 100, 50);
+
+        fillRatioIndex.onWhiskyChanged (WhiskyChangedEvent.created (jameson));
+        fillRatioIndex.onWhiskyChanged (WhiskyChangedEvent.updated (newer, -35));
+        fillRatioIndex.onWhiskyChanged (WhiskyChangedEvent.updated (older, 35));
+
+        assertThat (names (fillRatioIndex.lowest (10, null)), contains ("Old Parr", "Jameson"));
+        assertThat (fillRatioIndex.lowest (10, WhiskyType.OLDPARR).get (0).getQuantity (), is (equalTo (5)));
+    }
+
+    private static WhiskyDTO whisky (Long id, String name, WhiskyType type, int max, int quantity) {
+        return WhiskyDTOBuilder.builder ().id (id).name (name).type (type).max (max).quantity (quantity).build ().toWhiskyDTO ();
+    }
+
+    private static List<String> names (List<WhiskyDTO> whiskies) {
+        return whiskies.stream ().map (WhiskyDTO::getName).collect (Collectors.toList ());
+    }
+}
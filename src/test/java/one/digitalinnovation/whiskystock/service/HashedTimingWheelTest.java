@@ -0,0 +1,92 @@
+package one.digitalinnovation.whiskystock.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+
+public class HashedTimingWheelTest {
+
+    private static final long TICK_MS = 10;
+
+    private final List<Long> expiredAt = new ArrayList<> ();
+
+    @Test
+    void quandoPrazoChegaTimeoutExpiraNoPrimeiroTickDepoisDoPrazo () {
+        HashedTimingWheel wheel = new HashedTimingWheel (TICK_MS, 8, 0);
+        wheel.schedule (timeout (25));
+
+        wheel.advanceTo (20);
+        assertThat (expiredAt, is (empty ()));
+
+        wheel.advanceTo (30);
+        assertThat (expiredAt, contains (30L));
+    }
+
+    @Test
+    void quandoPrazoMaiorQueUmaVoltaTimeoutEsperaAsVoltasRestantes () {
+        HashedTimingWheel wheel = new HashedTimingWheel (TICK_MS, 8, 0);
+        wheel.schedule (timeout (8 * TICK_MS * 3 + 5));
+
+        for (long now = 0; now < 8 * TICK_MS * 3; now += TICK_MS) {
+            wheel.advanceTo (now);
+        }
+        assertThat (expiredAt, is (empty ()));
+
+        wheel.advanceTo (8 * TICK_MS * 3 + TICK_MS);
+        assertThat (expiredAt, contains (8 * TICK_MS * 3 + TICK_MS));
+    }
+
+    @Test
+    void quandoRelogioAtrasaVariosTicksTimeoutsVencidosExpiramJuntos () {
+        HashedTimingWheel wheel = new HashedTimingWheel (TICK_MS, 8, 0);
+        wheel.schedule (timeout (15));
+        wheel.schedule (timeout (95));
+        wheel.schedule (timeout (500));
+
+        wheel.advanceTo (200);
+
+        assertThat (expiredAt, contains (200L, 200L));
+    }
+
+    @Test
+    void quandoTimeoutCanceladoNaoExpiraENaoPodeSerCanceladoDeNovo () {
+        HashedTimingWheel wheel = new HashedTimingWheel (TICK_MS, 8, 0);
+        HashedTimingWheel.Timeout timeout = timeout (15);
+        wheel.schedule (timeout);
+
+        assertThat (timeout.cancel (), is (true));
+        wheel.advanceTo (100);
+
+        assertThat (expiredAt, is (empty ()));
+        assertThat (timeout.cancel (), is (false));
+    }
+
+    @Test
+    void quandoTimeoutExpiradoCancelamentoFalha () {
+        HashedTimingWheel wheel = new HashedTimingWheel (TICK_MS, 8, 0);
+        HashedTimingWheel.Timeout timeout = timeout (15);
+        wheel.schedule (timeout);
+
+        wheel.advanceTo (20);
+
+        assertThat (expiredAt.size (), is (equalTo (1)));
+        assertThat (timeout.cancel (), is (false));
+    }
+
+    private HashedTimingWheel.Timeout timeout (long deadlineMs) {
+        return new HashedTimingWheel.Timeout (deadlineMs) {
+
+            @Override
+            protected void expired (long nowMs) {
+                expiredAt.add (nowMs);
+            }
+        };
+    }
+}
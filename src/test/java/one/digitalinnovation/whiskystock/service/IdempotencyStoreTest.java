@@ -0,0 +1,158 @@
+package one.digitalinnovation.whiskystock.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import one.digitalinnovation.whiskystock.config.IdempotencyProperties;
+import one.digitalinnovation.whiskystock.exception.IdempotencyKeyInFlightException;
+import one.digitalinnovation.whiskystock.exception.IdempotencyKeyReusedException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class IdempotencyStoreTest {
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private IdempotencyStore idempotencyStore;
+
+    @BeforeEach
+    void setUp () {
+        meterRegistry = new SimpleMeterRegistry ();
+        idempotencyStore = new IdempotencyStore (new IdempotencyProperties (), meterRegistry);
+    }
+
+    @Test
+    void quandoMesmaChaveEnviadaEmParaleloEntaoOperacaoExecutadaUmaVez () throws Exception {
+        int threads = 16;
+        AtomicInteger executions = new AtomicInteger ();
+        CountDownLatch start = new CountDownLatch (1);
+        ExecutorService executor = Executors.newFixedThreadPool (threads);
+        try {
+            List<Future<Integer>> results = new ArrayList<> ();
+            for (int i = 0; i < threads; i++) {
+                results.add (executor.submit (() -> {
+                    start.await ();
+                    return idempotencyStore.execute ("key", "increment 1 10", () -> {
+                        sleep (20);
+                        return executions.incrementAndGet ();
+                    });
+                }));
+            }
+            start.countDown ();
+
+            for (Future<Integer> result : results) {
+                assertThat (result.get (5, TimeUnit.SECONDS), is (equalTo (1)));
+            }
+        } finally {
+            executor.shutdownNow ();
+        }
+
+        assertThat (executions.get (), is (equalTo (1)));
+        assertThat (meterRegistry.get (IdempotencyStore.REPLAY_COUNTER).counter ().count (), is (equalTo ((double) threads - 1)));
+    }
+
+    @Test
+    void quandoChaveReutilizadaParaOutraRequisicaoEntaoExcecaoLancada () {
+        idempotencyStore.execute ("key", "increment 1 10", () -> 1);
+
+        assertThrows (IdempotencyKeyReusedException.class,
+                () -> idempotencyStore.execute ("key", "increment 1 5", () -> 2));
+    }
+
+    @Test
+    void quandoOperacaoFalhaEntaoChaveLiberadaParaNovaTentativa () {
+        assertThrows (IllegalStateException.class, () -> idempotencyStore.execute ("key", "increment 1 10", () -> {
+            throw new IllegalStateException ();
+        }));
+
+        assertThat (idempotencyStore.execute ("key", "increment 1 10", () -> 1), is (equalTo (1)));
+    }
+
+    @Test
+    void quandoOriginalDemoraMaisQueOLimiteEntaoDuplicadaRecebeConflito () throws Exception {
+        IdempotencyProperties idempotencyProperties = new IdempotencyProperties ();
+        idempotencyProperties.setInFlightTimeout (Duration.ofMillis (50));
+        idempotencyStore = new IdempotencyStore (idempotencyProperties, meterRegistry);
+        CountDownLatch running = new CountDownLatch (1);
+        CountDownLatch release = new CountDownLatch (1);
+        ExecutorService executor = Executors.newSingleThreadExecutor ();
+        try {
+            Future<Integer> original = executor.submit (() -> idempotencyStore.execute ("key", "increment 1 10", () -> {
+                running.countDown ();
+                await (release);
+                return 1;
+            }));
+            running.await ();
+
+            assertThrows (IdempotencyKeyInFlightException.class,
+                    () -> idempotencyStore.execute ("key", "increment 1 10", () -> 2));
+
+            release.countDown ();
+            assertThat (original.get (5, TimeUnit.SECONDS), is (equalTo (1)));
+            assertThat (idempotencyStore.execute ("key", "increment 1 10", () -> 2), is (equalTo (1)));
+        } finally {
+            executor.shutdownNow ();
+        }
+    }
+
+    @Test
+    void quandoCacheCheioChaveEmAndamentoNaoEDescartada () throws Exception {
+        IdempotencyProperties idempotencyProperties = new IdempotencyProperties ();
+        idempotencyProperties.setMaximumSize (1);
+        idempotencyStore = new IdempotencyStore (idempotencyProperties, meterRegistry, Runnable::run);
+        AtomicInteger executions = new AtomicInteger ();
+        CountDownLatch running = new CountDownLatch (1);
+        CountDownLatch release = new CountDownLatch (1);
+        ExecutorService executor = Executors.newFixedThreadPool (2);
+        try {
+            Future<Integer> original = executor.submit (() -> idempotencyStore.execute ("key", "increment 1 10", () -> {
+                running.countDown ();
+                await (release);
+                return executions.incrementAndGet ();
+            }));
+            running.await ();
+            for (int i = 0; i < 10; i++) {
+                int result = i;
+                idempotencyStore.execute ("other-" + i, "increment 2 1", () -> result);
+            }
+
+            Future<Integer> duplicate = executor.submit (() -> idempotencyStore.execute ("key", "increment 1 10", executions::incrementAndGet));
+            release.countDown ();
+
+            assertThat (original.get (5, TimeUnit.SECONDS), is (equalTo (1)));
+            assertThat (duplicate.get (5, TimeUnit.SECONDS), is (equalTo (1)));
+        } finally {
+            executor.shutdownNow ();
+        }
+        assertThat (executions.get (), is (equalTo (1)));
+    }
+
+    private static void await (CountDownLatch latch) {
+        try {
+            latch.await ();
+        } catch (InterruptedException e) {
+            Thread.currentThread ().interrupt ();
+        }
+    }
+
+    private static void sleep (long millis) {
+        try {
+            Thread.sleep (millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread ().interrupt ();
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package one.digitalinnovation.whiskystock.service;
+
+import one.digitalinnovation.whiskystock.builder.WhiskyDTOBuilder;
+import one.digitalinnovation.whiskystock.dto.WhiskyDTO;
+import one.digitalinnovation.whiskystock.dto.WhiskyLocationStockDTO;
+import one.digitalinnovation.whiskystock.dto.WhiskyLocationTransferDTO;
+import one.digitalinnovation.whiskystock.entity.WhiskyLocationStock;
+import one.digitalinnovation.whiskystock.exception.WhiskyNotFoundException;
+import one.digitalinnovation.whiskystock.exception.WhiskyStockExceededException;
+import one.digitalinnovation.whiskystock.repository.WhiskyLocationStockRepository;
+import one.digitalinnovation.whiskystock.repository.WhiskyRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class LocationStockServiceTest {
+
+    private static final long WHISKY_ID = 1L;
+
+    @Mock
+    private WhiskyLocationStockRepository locationStockRepository;
+
+    @Mock
+    private WhiskyRepository whiskyRepository;
+
+    private LocationStockService locationStockService;
+
+    @BeforeEach
+    void setUp () {
+        TransactionTemplate transactionTemplate = new TransactionTemplate (mock (PlatformTransactionManager.class));
+        locationStockService = new LocationStockService (locationStockRepository, whiskyRepository, transactionTemplate, new CatalogVersions ());
+    }
+
+    @Test
+    void quandoIncrementosEmLocaisDiferentesTotalSomaTodosOsLocais () throws Exception {
+        when (locationStockRepository.adjustIfWithinBounds (WHISKY_ID, "lisboa", 5)).thenReturn (Optional.of (stock ("lisboa", 5, 1)));
+        when (locationStockRepository.adjustIfWithinBounds (WHISKY_ID, "porto", 7)).thenReturn (Optional.of (stock ("porto", 7, 1)));
+
+        locationStockService.adjust (WHISKY_ID, "lisboa", 5);
+        locationStockService.adjust (WHISKY_ID, "porto", 7);
+        WhiskyDTO whisky = locationStockService.addLocationTotals (WhiskyDTOBuilder.builder ().build ().toWhiskyDTO ());
+
+        assertThat (whisky.getQuantity (), is (equalTo (10 + 5 + 7)));
+        assertThat (whisky.getMax (), is (equalTo (50 * 3)));
+    }
+
+    @Test
+    void quandoAjusteAntigoRegistradoDepoisDoNovoTotalMantemVersaoMaisRecente () throws Exception {
+        when (locationStockRepository.adjustIfWithinBounds (WHISKY_ID, "lisboa", 5)).thenReturn (Optional.of (stock ("lisboa", 8, 2)));
+        when (locationStockRepository.adjustIfWithinBounds (WHISKY_ID, "lisboa", 3)).thenReturn (Optional.of (stock ("lisboa", 3, 1)));
+
+        locationStockService.adjust (WHISKY_ID, "lisboa", 5);
+        locationStockService.adjust (WHISKY_ID, "lisboa", 3);
+        WhiskyDTO whisky = locationStockService.addLocationTotals (WhiskyDTOBuilder.builder ().build ().toWhiskyDTO ());
+
+        assertThat (whisky.getQuantity (), is (equalTo (10 + 8)));
+    }
+
+    @Test
+    void quandoPrimeiroIncrementoNoLocalEntaoLocalEAbertoEAjusteRepetido () throws Exception {
+        when (locationStockRepository.adjustIfWithinBounds (WHISKY_ID, "lisboa", 5))
+                .thenReturn (Optional.empty ())
+                .thenReturn (Optional.of (stock ("lisboa", 5, 1)));
+        when (locationStockRepository.existsById (new WhiskyLocationStock.Key (WHISKY_ID, "lisboa"))).thenReturn (false);
+        when (locationStockRepository.open (WHISKY_ID, "lisboa")).thenReturn (1);
+
+        WhiskyLocationStockDTO adjusted = locationStockService.adjust (WHISKY_ID, "lisboa", 5);
+
+        assertThat (adjusted.getQuantity (), is (equalTo (5)));
+    }
+
+    @Test
+    void quandoTransferenciaEntaoLocaisSaoAtualizadosEmOrdemDeNome () throws Exception {
+        when (locationStockRepository.existsById (new WhiskyLocationStock.Key (WHISKY_ID, "lisboa"))).thenReturn (true);
+        when (locationStockRepository.adjustIfWithinBounds (WHISKY_ID, "lisboa", 5)).thenReturn (Optional.of (stock ("lisboa", 5, 1)));
+        when (locationStockRepository.adjustIfWithinBounds (WHISKY_ID, "porto", -5)).thenReturn (Optional.of (stock ("porto", 15, 2)));
+
+        List<WhiskyLocationStockDTO> transferred = locationStockService.transfer (WHISKY_ID, transfer ("porto", "lisboa", 5));
+
+        InOrder order = inOrder (locationStockRepository);
+        order.verify (locationStockRepository).adjustIfWithinBounds (WHISKY_ID, "lisboa", 5);
+        order.verify (locationStockRepository).adjustIfWithinBounds (WHISKY_ID, "porto", -5);
+        assertThat (transferred.get (0).getLocation (), is (equalTo ("porto")));
+        assertThat (transferred.get (1).getLocation (), is (equalTo ("lisboa")));
+        verify (locationStockRepository, never ()).open (any (), any ());
+    }
+
+    @Test
+    void quandoOrigemSemEstoqueSuficienteEntaoTransferenciaERejeitadaSemAlterarTotais () {
+        when (locationStockRepository.existsById (new WhiskyLocationStock.Key (WHISKY_ID, "lisboa"))).thenReturn (true);
+        when (locationStockRepository.adjustIfWithinBounds (WHISKY_ID, "lisboa", 5)).thenReturn (Optional.of (stock ("lisboa", 5, 1)));
+        when (locationStockRepository.adjustIfWithinBounds (WHISKY_ID, "porto", -5)).thenReturn (Optional.empty ());
+        when (whiskyRepository.existsById (WHISKY_ID)).thenReturn (true);
+
+        assertThrows (WhiskyStockExceededException.class,
+                () -> locationStockService.transfer (WHISKY_ID, transfer ("porto", "lisboa", 5)));
+
+        WhiskyDTO whisky = locationStockService.addLocationTotals (WhiskyDTOBuilder.builder ().build ().toWhiskyDTO ());
+        assertThat (whisky.getQuantity (), is (equalTo (10)));
+    }
+
+    @Test
+    void quandoWhiskyInexistenteEntaoNotFoundELancado () {
+        when (locationStockRepository.adjustIfWithinBounds (WHISKY_ID, "lisboa", -5)).thenReturn (Optional.empty ());
+        when (whiskyRepository.existsById (WHISKY_ID)).thenReturn (false);
+
+        assertThrows (WhiskyNotFoundException.class, () -> locationStockService.adjust (WHISKY_ID, "lisboa", -5));
+    }
+
+    private static WhiskyLocationStock stock (String location, int quantity, long version) {
+        return new WhiskyLocationStock (WHISKY_ID, location, 50, quantity, version);
+    }
+
+    private static WhiskyLocationTransferDTO transfer (String from, String to, int quantity) {
+        return WhiskyLocationTransferDTO.builder ()
+                .from (from)
+                .to (to)
+                .quantity (quantity)
+                .build ();
+    }
+}
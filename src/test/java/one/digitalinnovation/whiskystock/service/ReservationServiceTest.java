@@ -0,0 +1,124 @@
+package one.digitalinnovation.whiskystock.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import one.digitalinnovation.whiskystock.builder.WhiskyDTOBuilder;
+import one.digitalinnovation.whiskystock.config.ReservationProperties;
+import one.digitalinnovation.whiskystock.dto.ReservationDTO;
+import one.digitalinnovation.whiskystock.dto.WhiskyDTO;
+import one.digitalinnovation.whiskystock.exception.ReservationNotFoundException;
+import one.digitalinnovation.whiskystock.exception.WhiskyNotFoundException;
+import one.digitalinnovation.whiskystock.exception.WhiskyStockExceededException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.OptionalInt;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class ReservationServiceTest {
+
+    private static final long WHISKY_ID = 1L;
+
+    @Mock
+    private WhiskyService whiskyService;
+
+    private final AtomicLong clock = new AtomicLong (1_000);
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private ReservationService reservationService;
+
+    @BeforeEach
+    void setUp () {
+        ReservationProperties reservationProperties = new ReservationProperties ();
+        reservationProperties.setTick (Duration.ofMillis (10));
+        meterRegistry = new SimpleMeterRegistry ();
+        reservationService = new ReservationService (whiskyService, new StockHolds (), reservationProperties, meterRegistry, clock::get);
+    }
+
+    @Test
+    void quandoReservaFeitaDisponivelDiminuiEQuantidadeNao () throws Exception {
+        when (whiskyService.quantityOnHand (WHISKY_ID)).thenReturn (OptionalInt.of (10));
+
+        reservationService.reserve (WHISKY_ID, 4, null);
+
+        assertThat (reservationService.availability (WHISKY_ID).getQuantity (), is (equalTo (10)));
+        assertThat (reservationService.availability (WHISKY_ID).getAvailable (), is (equalTo (6)));
+        verify (whiskyService, never ()).decrementHeld (anyLong (), anyInt ());
+    }
+
+    @Test
+    void quandoReservaExcedeDisponivelEntaoExcecaoLancada () throws Exception {
+        when (whiskyService.quantityOnHand (WHISKY_ID)).thenReturn (OptionalInt.of (10));
+        reservationService.reserve (WHISKY_ID, 8, null);
+
+        assertThrows (WhiskyStockExceededException.class, () -> reservationService.reserve (WHISKY_ID, 3, null));
+    }
+
+    @Test
+    void quandoWhiskyInexistenteEntaoNotFoundLancado () {
+        when (whiskyService.quantityOnHand (WHISKY_ID)).thenReturn (OptionalInt.empty ());
+
+        assertThrows (WhiskyNotFoundException.class, () -> reservationService.reserve (WHISKY_ID, 1, null));
+    }
+
+    @Test
+    void quandoReservaConfirmadaEstoqueEDecrementadoEReservaLiberada () throws Exception {
+        WhiskyDTO decremented = WhiskyDTOBuilder.builder ().quantity (6).build ().toWhiskyDTO ();
+        when (whiskyService.quantityOnHand (WHISKY_ID)).thenReturn (OptionalInt.of (10));
+        when (whiskyService.decrementHeld (WHISKY_ID, 4)).thenReturn (decremented);
+        ReservationDTO reservation = reservationService.reserve (WHISKY_ID, 4, null);
+
+        WhiskyDTO committed = reservationService.commit (reservation.getId ());
+
+        assertThat (committed.getQuantity (), is (equalTo (6)));
+        assertThat (reservationService.reserved (WHISKY_ID), is (equalTo (0)));
+        assertThrows (ReservationNotFoundException.class, () -> reservationService.release (reservation.getId ()));
+    }
+
+    @Test
+    void quandoPrazoDaReservaPassaEntaoElaExpiraENaoPodeSerConfirmada () throws Exception {
+        when (whiskyService.quantityOnHand (WHISKY_ID)).thenReturn (OptionalInt.of (10));
+        ReservationDTO reservation = reservationService.reserve (WHISKY_ID, 4, Duration.ofSeconds (1));
+
+        clock.addAndGet (990);
+        reservationService.expireDue ();
+        assertThat (reservationService.reserved (WHISKY_ID), is (equalTo (4)));
+
+        clock.addAndGet (20);
+        reservationService.expireDue ();
+
+        assertThat (reservationService.reserved (WHISKY_ID), is (equalTo (0)));
+        assertThat (reservationService.holdCount (), is (equalTo (0)));
+        assertThat (meterRegistry.get (ReservationService.EXPIRED_COUNTER).counter ().count (), is (equalTo (1.0)));
+        assertThrows (ReservationNotFoundException.class, () -> reservationService.commit (reservation.getId ()));
+        verify (whiskyService, never ()).decrementHeld (anyLong (), anyInt ());
+    }
+
+    @Test
+    void quandoReservaLiberadaNaoExpiraDepois () throws Exception {
+        when (whiskyService.quantityOnHand (WHISKY_ID)).thenReturn (OptionalInt.of (10));
+        ReservationDTO reservation = reservationService.reserve (WHISKY_ID, 4, Duration.ofSeconds (1));
+
+        reservationService.release (reservation.getId ());
+        clock.addAndGet (2_000);
+        reservationService.expireDue ();
+
+        assertThat (reservationService.reserved (WHISKY_ID), is (equalTo (0)));
+        assertThat (meterRegistry.get (ReservationService.EXPIRED_COUNTER).counter ().count (), is (equalTo (0.0)));
+    }
+}
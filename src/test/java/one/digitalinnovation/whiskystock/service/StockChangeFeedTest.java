@@ -0,0 +1,211 @@
+package one.digitalinnovation.whiskystock.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import one.digitalinnovation.whiskystock.builder.WhiskyDTOBuilder;
+import one.digitalinnovation.whiskystock.config.StockFeedProperties;
+import one.digitalinnovation.whiskystock.dto.StockChangeDTO;
+import one.digitalinnovation.whiskystock.dto.WhiskyDTO;
+import one.digitalinnovation.whiskystock.enums.WhiskyType;
+import one.digitalinnovation.whiskystock.event.WhiskyChangedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+
+public class StockChangeFeedTest {
+
+    private final List<Runnable> pendingSends = new ArrayList<> ();
+
+    private final AtomicLong clock = new AtomicLong ();
+
+    private StockFeedProperties feedProperties;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private StockChangeFeed stockChangeFeed;
+
+    @BeforeEach
+    void setUp () {
+        feedProperties = new StockFeedProperties ();
+        feedProperties.setBufferSize (2);
+        feedProperties.setHistorySize (3);
+        meterRegistry = new SimpleMeterRegistry ();
+        stockChangeFeed = new StockChangeFeed (feedProperties, meterRegistry, pendingSends::add, clock::get);
+    }
+
+    @Test
+    void quandoAssinanteFiltraPorTipoRecebeApenasAlteracoesDoTipo () {
+        RecordingSink sink = new RecordingSink ();
+        stockChangeFeed.subscribe (null, null, WhiskyType.JAMESON, sink);
+
+        stockChangeFeed.onWhiskyChanged (WhiskyChangedEvent.created (whisky (1L, WhiskyType.OLDPARR, 10)));
+        stockChangeFeed.onWhiskyChanged (WhiskyChangedEvent.created (whisky (2L, WhiskyType.JAMESON, 20)));
+        runPendingSends ();
+
+        assertThat (sequences (sink.changes), contains (2L));
+        assertThat (sink.changes.get (0).getQuantity (), is (equalTo (20)));
+    }
+
+    @Test
+    void quandoAssinanteLentoAlteracoesDoMesmoWhiskySaoAgrupadas () {
+        RecordingSink sink = new RecordingSink ();
+        stockChangeFeed.subscribe (null, Collections.singletonList (1L), null, sink);
+        WhiskyDTO oldParr = whisky (1L, WhiskyType.OLDPARR, 10);
+
+        stockChangeFeed.onWhiskyChanged (WhiskyChangedEvent.created (oldParr));
+        oldParr.setQuantity (15);
+        stockChangeFeed.onWhiskyChanged (WhiskyChangedEvent.updated (oldParr, 5));
+        oldParr.setQuantity (12);
+        stockChangeFeed.onWhiskyChanged (WhiskyChangedEvent.updated (oldParr, -3));
+        stockChangeFeed.onWhiskyChanged (WhiskyChangedEvent.created (whisky (2L, WhiskyType.OLDPARR, 1)));
+        runPendingSends ();
+
+        assertThat (sequences (sink.changes), contains (3L));
+        assertThat (sink.changes.get (0).getQuantity (), is (equalTo (12)));
+        assertThat (meterRegistry.counter (StockChangeFeed.COALESCED_COUNTER).count (), is (equalTo (2.0)));
+    }
+
+    @Test
+    void quandoBufferDoAssinanteEstouraEnviaLacunaEDescartaPendentes () {
+        RecordingSink sink = new RecordingSink ();
+        stockChangeFeed.subscribe (null, null, null, sink);
+
+        for (long id = 1; id <= 3; id++) {
+            stockChangeFeed.onWhiskyChanged (WhiskyChangedEvent.created (whisky (id, WhiskyType.OLDPARR, 1)));
+        }
+        stockChangeFeed.onWhiskyChanged (WhiskyChangedEvent.created (whisky (4L, WhiskyType.OLDPARR, 1)));
+        runPendingSends ();
+
+        assertThat (sink.gaps, contains (3L));
+        assertThat (sequences (sink.changes), contains (4L));
+        assertThat (meterRegistry.counter (StockChangeFeed.DROPPED_COUNTER).count (), is (equalTo (3.0)));
+    }
+
+    @Test
+    void quandoAssinanteRetomaDeUmaSequenciaRecebeAsAlteracoesSeguintes () {
+        for (long id = 1; id <= 4; id++) {
+            stockChangeFeed.onWhiskyChanged (WhiskyChangedEvent.created (whisky (id, WhiskyType.OLDPARR, 1)));
+        }
+
+        RecordingSink resumed = new RecordingSink ();
+        stockChangeFeed.subscribe (2L, null, null, resumed);
+        RecordingSink tooOld = new RecordingSink ();
+        stockChangeFeed.subscribe (0L, null, null, tooOld);
+        runPendingSends ();
+
+        assertThat (sequences (resumed.changes), contains (3L, 4L));
+        assertThat (resumed.gaps, is (empty ()));
+        assertThat (tooOld.gaps, contains (4L));
+        assertThat (tooOld.changes, is (empty ()));
+    }
+
+    @Test
+    void quandoEnvioFalhaAssinaturaECanceladaEFechada () {
+        RecordingSink sink = new RecordingSink ();
+        sink.failing = true;
+        stockChangeFeed.subscribe (null, null, null, sink);
+
+        stockChangeFeed.onWhiskyChanged (WhiskyChangedEvent.created (whisky (1L, WhiskyType.OLDPARR, 1)));
+        runPendingSends ();
+
+        assertThat (sink.closed, is (true));
+        assertThat (stockChangeFeed.subscriberCount (), is (equalTo (0)));
+    }
+
+    @Test
+    void quandoAlteracaoChegaComVersaoAntigaElaEDescartada () {
+        RecordingSink sink = new RecordingSink ();
+        stockChangeFeed.subscribe (null, null, null, sink);
+        WhiskyDTO newer = whisky (1L, WhiskyType.OLDPARR, 12);
+        newer.setVersion (3L);
+        WhiskyDTO older = whisky (1L, WhiskyType.OLDPARR, 15);
+        older.setVersion (2L);
+
+        stockChangeFeed.onWhiskyChanged (WhiskyChangedEvent.updated (newer, -3));
+        stockChangeFeed.onWhiskyChanged (WhiskyChangedEvent.updated (older, 5));
+        runPendingSends ();
+
+        assertThat (sequences (sink.changes), contains (1L));
+        assertThat (sink.changes.get (0).getQuantity (), is (equalTo (12)));
+        assertThat (stockChangeFeed.lastSequence (), is (equalTo (1L)));
+        assertThat (meterRegistry.counter (StockChangeFeed.STALE_COUNTER).count (), is (equalTo (1.0)));
+    }
+
+    @Test
+    void quandoEnvioExcedeOTempoLimiteAssinanteEDesconectado () {
+        RecordingSink sink = new RecordingSink ();
+        sink.onSend = () -> {
+            clock.addAndGet (feedProperties.getSendTimeout ().toNanos ());
+            stockChangeFeed.disconnectStalled ();
+        };
+        stockChangeFeed.subscribe (null, null, null, sink);
+
+        stockChangeFeed.onWhiskyChanged (WhiskyChangedEvent.created (whisky (1L, WhiskyType.OLDPARR, 1)));
+        stockChangeFeed.onWhiskyChanged (WhiskyChangedEvent.created (whisky (2L, WhiskyType.OLDPARR, 1)));
+        runPendingSends ();
+        boolean senderInterrupted = Thread.interrupted ();
+
+        assertThat (senderInterrupted, is (true));
+        assertThat (sequences (sink.changes), contains (1L));
+        assertThat (sink.closed, is (true));
+        assertThat (stockChangeFeed.subscriberCount (), is (equalTo (0)));
+        assertThat (meterRegistry.counter (StockChangeFeed.STALLED_COUNTER).count (), is (equalTo (1.0)));
+    }
+
+    private void runPendingSends () {
+        while (!pendingSends.isEmpty ()) {
+            pendingSends.remove (0).run ();
+        }
+    }
+
+    private static WhiskyDTO whisky (Long id, WhiskyType type, int quantity) {
+        return WhiskyDTOBuilder.builder ().id (id).name ("Whisky " + id).type (type).max (50).quantity (quantity).build ().toWhiskyDTO ();
+    }
+
+    private static List<Long> sequences (List<StockChangeDTO> changes) {
+        return changes.stream ().map (StockChangeDTO::getSequence).collect (Collectors.toList ());
+    }
+
+    private static class RecordingSink implements StockChangeFeed.Sink {
+
+        private final List<StockChangeDTO> changes = new ArrayList<> ();
+        private final List<Long> gaps = new ArrayList<> ();
+        private boolean failing;
+        private boolean closed;
+        private Runnable onSend = () -> { };
+
+        @Override
+        public void send (StockChangeDTO change) throws IOException {
+            if (failing) {
+                throw new IOException ("Broken pipe");
+            }
+            changes.add (change);
+            onSend.run ();
+        }
+
+        @Override
+        public void gap (long sequence) {
+            gaps.add (sequence);
+        }
+
+        @Override
+        public void heartbeat () {
+        }
+
+        @Override
+        public void close () {
+            closed = true;
+        }
+    }
+}
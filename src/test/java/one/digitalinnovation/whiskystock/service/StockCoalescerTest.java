@@ -0,0 +1,172 @@
+package one.digitalinnovation.whiskystock.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import one.digitalinnovation.whiskystock.builder.WhiskyDTOBuilder;
+import one.digitalinnovation.whiskystock.config.WhiskyStockProperties;
+import one.digitalinnovation.whiskystock.dto.WhiskyDTO;
+import one.digitalinnovation.whiskystock.entity.Whisky;
+import one.digitalinnovation.whiskystock.enums.CoalescingAck;
+import one.digitalinnovation.whiskystock.enums.StockAdjustmentStatus;
+import one.digitalinnovation.whiskystock.event.WhiskyChangedEvent;
+import one.digitalinnovation.whiskystock.mapper.WhiskyMapper;
+import one.digitalinnovation.whiskystock.repository.WhiskyRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class StockCoalescerTest {
+
+    @Mock
+    private WhiskyRepository whiskyRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private WhiskyStockProperties stockProperties;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private StockCoalescer stockCoalescer;
+
+    private final AtomicLong clock = new AtomicLong ();
+
+    private final WhiskyMapper whiskyMapper = WhiskyMapper.INSTANCE;
+
+    @BeforeEach
+    void setUp () {
+        stockProperties = new WhiskyStockProperties ();
+        stockProperties.getCoalescing ().setWindowMs (1);
+        meterRegistry = new SimpleMeterRegistry ();
+        stockCoalescer = new StockCoalescer (whiskyRepository, stockProperties, eventPublisher, meterRegistry, clock::get);
+    }
+
+    @Test
+    void quandoIncrementosAceitosNaJanelaSaoGravadosComUmUnicoUpdate () {
+        stockProperties.getCoalescing ().setAck (CoalescingAck.ON_ACCEPT);
+        Whisky whisky = whiskyMapper.toModel (WhiskyDTOBuilder.builder ().quantity (10).max (50).build ().toWhiskyDTO ());
+        Whisky adjustedWhisky = whiskyMapper.toModel (WhiskyDTOBuilder.builder ().quantity (16).max (50).build ().toWhiskyDTO ());
+        when (whiskyRepository.findById (whisky.getId ())).thenReturn (Optional.of (whisky));
+        when (whiskyRepository.adjustIfWithinBounds (whisky.getId (), 6)).thenReturn (Optional.of (adjustedWhisky));
+
+        assertThat (stockCoalescer.tryAdjust (whisky.getId (), 1).getWhisky ().getQuantity (), is (equalTo (11)));
+        assertThat (stockCoalescer.tryAdjust (whisky.getId (), 2).getWhisky ().getQuantity (), is (equalTo (13)));
+        assertThat (stockCoalescer.tryAdjust (whisky.getId (), 3).getWhisky ().getQuantity (), is (equalTo (16)));
+        stockCoalescer.flush ();
+
+        verify (whiskyRepository, times (1)).findById (whisky.getId ());
+        verify (whiskyRepository, times (1)).adjustIfWithinBounds (anyLong (), anyInt ());
+        ArgumentCaptor<WhiskyChangedEvent> event = ArgumentCaptor.forClass (WhiskyChangedEvent.class);
+        verify (eventPublisher, times (1)).publishEvent (event.capture ());
+        assertThat (event.getValue ().getQuantityDelta (), is (equalTo (6)));
+        assertThat (meterRegistry.summary (StockCoalescer.BATCH_SUMMARY).totalAmount (), is (equalTo (3.0)));
+    }
+
+    @Test
+    void quandoQuantidadeProjetadaExcedeMaximoAjusteERejeitadoSemGravar () {
+        stockProperties.getCoalescing ().setAck (CoalescingAck.ON_ACCEPT);
+        Whisky whisky = whiskyMapper.toModel (WhiskyDTOBuilder.builder ().quantity (10).max (12).build ().toWhiskyDTO ());
+        when (whiskyRepository.findById (whisky.getId ())).thenReturn (Optional.of (whisky));
+
+        assertThat (stockCoalescer.tryAdjust (whisky.getId (), 2).isApplied (), is (true));
+        assertThat (stockCoalescer.tryAdjust (whisky.getId (), 1).getStatus (), is (equalTo (StockAdjustmentStatus.STOCK_EXCEEDED)));
+        assertThat (stockCoalescer.projectedQuantity (whisky.getId ()).getAsInt (), is (equalTo (12)));
+        verify (whiskyRepository, never ()).adjustIfWithinBounds (anyLong (), anyInt ());
+    }
+
+    @Test
+    void quandoConfirmacaoAposGravacaoChamadorRecebeQuantidadeGravada () {
+        WhiskyDTO whiskyDTO = WhiskyDTOBuilder.builder ().quantity (10).max (50).build ().toWhiskyDTO ();
+        Whisky whisky = whiskyMapper.toModel (whiskyDTO);
+        Whisky adjustedWhisky = whiskyMapper.toModel (WhiskyDTOBuilder.builder ().quantity (15).max (50).build ().toWhiskyDTO ());
+        when (whiskyRepository.findById (whisky.getId ())).thenReturn (Optional.of (whisky));
+        when (whiskyRepository.adjustIfWithinBounds (whisky.getId (), 5)).thenReturn (Optional.of (adjustedWhisky));
+
+        StockAdjustment adjustment = stockCoalescer.tryAdjust (whisky.getId (), 5);
+
+        assertThat (adjustment.isApplied (), is (true));
+        assertThat (adjustment.getWhisky ().getQuantity (), is (equalTo (15)));
+        verify (eventPublisher, times (1)).publishEvent (any (WhiskyChangedEvent.class));
+    }
+
+    @Test
+    void quandoUpdateCoalescidoERejeitadoPeloBancoChamadorRecebeEstoqueExcedido () {
+        Whisky whisky = whiskyMapper.toModel (WhiskyDTOBuilder.builder ().quantity (10).max (50).build ().toWhiskyDTO ());
+        Whisky changedElsewhere = whiskyMapper.toModel (WhiskyDTOBuilder.builder ().quantity (48).max (50).build ().toWhiskyDTO ());
+        when (whiskyRepository.findById (whisky.getId ()))
+                .thenReturn (Optional.of (whisky))
+                .thenReturn (Optional.of (changedElsewhere));
+        when (whiskyRepository.adjustIfWithinBounds (whisky.getId (), 5)).thenReturn (Optional.empty ());
+
+        StockAdjustment adjustment = stockCoalescer.tryAdjust (whisky.getId (), 5);
+
+        assertThat (adjustment.getStatus (), is (equalTo (StockAdjustmentStatus.STOCK_EXCEEDED)));
+        assertThat (stockCoalescer.projectedQuantity (whisky.getId ()).getAsInt (), is (equalTo (48)));
+        assertThat (meterRegistry.counter (StockCoalescer.FAILED_COUNTER).count (), is (equalTo (1.0)));
+    }
+
+    @Test
+    void quandoUpdateCoalescidoERejeitadoAjustesSaoGravadosUmAUm () {
+        stockProperties.getCoalescing ().setAck (CoalescingAck.ON_ACCEPT);
+        Whisky whisky = whiskyMapper.toModel (WhiskyDTOBuilder.builder ().quantity (10).max (50).build ().toWhiskyDTO ());
+        Whisky changedElsewhere = whiskyMapper.toModel (WhiskyDTOBuilder.builder ().quantity (46).max (50).build ().toWhiskyDTO ());
+        Whisky firstApplied = whiskyMapper.toModel (WhiskyDTOBuilder.builder ().quantity (48).max (50).build ().toWhiskyDTO ());
+        when (whiskyRepository.findById (whisky.getId ()))
+                .thenReturn (Optional.of (whisky))
+                .thenReturn (Optional.of (changedElsewhere))
+                .thenReturn (Optional.of (firstApplied));
+        when (whiskyRepository.adjustIfWithinBounds (whisky.getId (), 5)).thenReturn (Optional.empty ());
+        when (whiskyRepository.adjustIfWithinBounds (whisky.getId (), 2)).thenReturn (Optional.of (firstApplied));
+        when (whiskyRepository.adjustIfWithinBounds (whisky.getId (), 3)).thenReturn (Optional.empty ());
+
+        stockCoalescer.tryAdjust (whisky.getId (), 2);
+        stockCoalescer.tryAdjust (whisky.getId (), 3);
+        stockCoalescer.flush ();
+
+        ArgumentCaptor<WhiskyChangedEvent> event = ArgumentCaptor.forClass (WhiskyChangedEvent.class);
+        verify (eventPublisher, times (1)).publishEvent (event.capture ());
+        assertThat (event.getValue ().getQuantityDelta (), is (equalTo (2)));
+        assertThat (stockCoalescer.projectedQuantity (whisky.getId ()).getAsInt (), is (equalTo (48)));
+        assertThat (meterRegistry.counter (StockCoalescer.FAILED_COUNTER).count (), is (equalTo (1.0)));
+    }
+
+    @Test
+    void quandoWhiskyFicaOciosoEntradaEDescartadaERecarregada () {
+        stockProperties.getCoalescing ().setAck (CoalescingAck.ON_ACCEPT);
+        Whisky whisky = whiskyMapper.toModel (WhiskyDTOBuilder.builder ().quantity (10).max (50).build ().toWhiskyDTO ());
+        Whisky adjustedWhisky = whiskyMapper.toModel (WhiskyDTOBuilder.builder ().quantity (11).max (50).build ().toWhiskyDTO ());
+        when (whiskyRepository.findById (whisky.getId ()))
+                .thenReturn (Optional.of (whisky))
+                .thenReturn (Optional.of (adjustedWhisky));
+        when (whiskyRepository.adjustIfWithinBounds (whisky.getId (), 1)).thenReturn (Optional.of (adjustedWhisky));
+
+        stockCoalescer.tryAdjust (whisky.getId (), 1);
+        stockCoalescer.flush ();
+        assertThat (stockCoalescer.projectedQuantity (whisky.getId ()).isPresent (), is (true));
+
+        clock.addAndGet (stockProperties.getCoalescing ().getIdleEvictionMs () + 1);
+        stockCoalescer.flush ();
+        assertThat (stockCoalescer.projectedQuantity (whisky.getId ()).isPresent (), is (false));
+
+        assertThat (stockCoalescer.tryAdjust (whisky.getId (), 1).getWhisky ().getQuantity (), is (equalTo (12)));
+        verify (whiskyRepository, times (2)).findById (whisky.getId ());
+    }
+}
@@ -0,0 +1,138 @@
+package one.digitalinnovation.whiskystock.service;
+
+import one.digitalinnovation.whiskystock.builder.WhiskyDTOBuilder;
+import one.digitalinnovation.whiskystock.entity.Whisky;
+import one.digitalinnovation.whiskystock.exception.WhiskyNotFoundException;
+import one.digitalinnovation.whiskystock.exception.WhiskyStockExceededException;
+import one.digitalinnovation.whiskystock.mapper.WhiskyMapper;
+import one.digitalinnovation.whiskystock.repository.WhiskyRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class StockLedgerTest {
+
+    private static final int THREADS = 8;
+
+    @Mock
+    private WhiskyRepository whiskyRepository;
+
+    private StockLedger stockLedger;
+
+    private final WhiskyMapper whiskyMapper = WhiskyMapper.INSTANCE;
+
+    @BeforeEach
+    void setUp () {
+        TransactionTemplate transactionTemplate = new TransactionTemplate (mock (PlatformTransactionManager.class));
+        stockLedger = new StockLedger (whiskyRepository, transactionTemplate, new CatalogVersions ());
+    }
+
+    @Test
+    void quandoIncrementosConcorrentesNenhumaAtualizacaoEPerdida () throws Exception {
+        int incrementsPerThread = 50_000;
+        Whisky whisky = whiskyMapper.toModel (WhiskyDTOBuilder.builder ()
+                .quantity (0)
+                .max (THREADS * incrementsPerThread)
+                .build ().toWhiskyDTO ());
+        when (whiskyRepository.findById (whisky.getId ())).thenReturn (Optional.of (whisky));
+
+        int applied = runConcurrently (() -> {
+            int succeeded = 0;
+            for (int i = 0; i < incrementsPerThread; i++) {
+                stockLedger.adjust (whisky.getId (), 1);
+                succeeded++;
+            }
+            return succeeded;
+        });
+
+        assertThat (applied, is (equalTo (THREADS * incrementsPerThread)));
+        assertThat (stockLedger.currentQuantity (whisky.getId ()).getAsInt (), is (equalTo (THREADS * incrementsPerThread)));
+        assertThrows (WhiskyStockExceededException.class, () -> stockLedger.adjust (whisky.getId (), 1));
+    }
+
+    @Test
+    void quandoDecrementosConcorrentesEstoqueNuncaFicaNegativo () throws Exception {
+        Whisky whisky = whiskyMapper.toModel (WhiskyDTOBuilder.builder ()
+                .quantity (1_000)
+                .max (1_000)
+                .build ().toWhiskyDTO ());
+        when (whiskyRepository.findById (whisky.getId ())).thenReturn (Optional.of (whisky));
+
+        int applied = runConcurrently (() -> {
+            int succeeded = 0;
+            for (int i = 0; i < 500; i++) {
+                try {
+                    stockLedger.adjust (whisky.getId (), -1);
+                    succeeded++;
+                } catch (WhiskyStockExceededException e) {
+                    // expected once the stock is exhausted
+                }
+            }
+            return succeeded;
+        });
+
+        assertThat (applied, is (equalTo (1_000)));
+        assertThat (stockLedger.currentQuantity (whisky.getId ()).getAsInt (), is (equalTo (0)));
+    }
+
+    @Test
+    void quandoFlushExecutadoQuantidadeFinalEGravadaUmaVez () throws Exception {
+        Whisky whisky = whiskyMapper.toModel (WhiskyDTOBuilder.builder ().build ().toWhiskyDTO ());
+        when (whiskyRepository.findById (whisky.getId ())).thenReturn (Optional.of (whisky));
+
+        stockLedger.adjust (whisky.getId (), 5);
+        stockLedger.adjust (whisky.getId (), 7);
+        stockLedger.adjust (whisky.getId (), -2);
+        stockLedger.flush ();
+        stockLedger.flush ();
+
+        verify (whiskyRepository, times (1)).findById (whisky.getId ());
+        verify (whiskyRepository, times (1)).updateQuantity (whisky.getId (), 20);
+    }
+
+    @Test
+    void quandoIdInvalidoRetornaUmaExcecao () {
+        when (whiskyRepository.findById (2L)).thenReturn (Optional.empty ());
+
+        assertThrows (WhiskyNotFoundException.class, () -> stockLedger.adjust (2L, 1));
+    }
+
+    private int runConcurrently (Callable<Integer> task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool (THREADS);
+        try {
+            List<Future<Integer>> futures = new ArrayList<> ();
+            for (int i = 0; i < THREADS; i++) {
+                futures.add (executor.submit (task));
+            }
+            int total = 0;
+            for (Future<Integer> future : futures) {
+                total += future.get ();
+            }
+            return total;
+        } finally {
+            executor.shutdownNow ();
+        }
+    }
+}
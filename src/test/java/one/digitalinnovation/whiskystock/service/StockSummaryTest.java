@@ -0,0 +1,148 @@
+package one.digitalinnovation.whiskystock.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import one.digitalinnovation.whiskystock.builder.WhiskyDTOBuilder;
+import one.digitalinnovation.whiskystock.config.WhiskySummaryProperties;
+import one.digitalinnovation.whiskystock.dto.StockSummaryDTO;
+import one.digitalinnovation.whiskystock.dto.StockSummaryGroupDTO;
+import one.digitalinnovation.whiskystock.dto.WhiskyDTO;
+import one.digitalinnovation.whiskystock.enums.WhiskyType;
+import one.digitalinnovation.whiskystock.event.WhiskyChangedEvent;
+import one.digitalinnovation.whiskystock.repository.WhiskyRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class StockSummaryTest {
+
+    private static final double LOW_STOCK_RATIO = 0.2;
+
+    @Mock
+    private WhiskyRepository whiskyRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private StockSummary stockSummary;
+
+    @BeforeEach
+    void setUp () {
+        WhiskySummaryProperties summaryProperties = new WhiskySummaryProperties ();
+        meterRegistry = new SimpleMeterRegistry ();
+        stockSummary = new StockSummary (whiskyRepository, summaryProperties, meterRegistry);
+    }
+
+    @Test
+    void quandoWhiskiesAlteradosResumoEAtualizadoIncrementalmente () {
+        WhiskyDTO oldParr = WhiskyDTOBuilder.builder ().max (50).quantity (20).build ().toWhiskyDTO ();
+        WhiskyDTO jameson = WhiskyDTOBuilder.builder ().id (2L).name ("Jameson").brand ("Ireland")
+                .type (WhiskyType.JAMESON).max (100).quantity (50).build ().toWhiskyDTO ();
+
+        stockSummary.onWhiskyChanged (WhiskyChangedEvent.created (oldParr));
+        stockSummary.onWhiskyChanged (WhiskyChangedEvent.created (jameson));
+        oldParr.setQuantity (5);
+        stockSummary.onWhiskyChanged (WhiskyChangedEvent.updated (oldParr, -15));
+
+        StockSummaryDTO summary = stockSummary.summary ();
+        assertThat (summary.getWhiskies (), is (equalTo (2L)));
+        assertThat (summary.getQuantity (), is (equalTo (55L)));
+        assertThat (summary.getCapacity (), is (equalTo (150L)));
+        assertThat (summary.getLowStock (), is (equalTo (1L)));
+        assertThat (group (summary.getByType (), "OLDPARR").getFillRatio (), is (equalTo (0.1)));
+        assertThat (group (summary.getByBrand (), "Ireland").getQuantity (), is (equalTo (50L)));
+
+        stockSummary.onWhiskyChanged (WhiskyChangedEvent.deleted (oldParr));
+
+        assertThat (stockSummary.summary ().getLowStock (), is (equalTo (0L)));
+        assertThat (stockSummary.summary ().getByBrand ().size (), is (equalTo (1)));
+        assertThat (stockSummary.quantityOf (WhiskyType.OLDPARR), is (equalTo (0L)));
+    }
+
+    @Test
+    void quandoResumoDivergeDoBancoReconciliacaoSubstituiEConta () {
+        when (whiskyRepository.summarizeByTypeAndBrand (LOW_STOCK_RATIO))
+                .thenReturn (Collections.singletonList (new Object[] {WhiskyType.OLDPARR, "Scotland", 1L, 10L, 50L, 0L}))
+                .thenReturn (Collections.singletonList (new Object[] {WhiskyType.OLDPARR, "Scotland", 1L, 8L, 50L, 0L}));
+
+        stockSummary.load ();
+        stockSummary.reconcile ();
+
+        assertThat (stockSummary.summary ().getQuantity (), is (equalTo (10L)));
+        assertThat (meterRegistry.get (StockSummary.MISMATCH_COUNTER).counter ().count (), is (equalTo (0.0)));
+
+        stockSummary.reconcile ();
+
+        assertThat (stockSummary.summary ().getQuantity (), is (equalTo (8L)));
+        assertThat (group (stockSummary.summary ().getByBrand (), "Scotland").getQuantity (), is (equalTo (8L)));
+        assertThat (meterRegistry.get (StockSummary.MISMATCH_COUNTER).counter ().count (), is (equalTo (1.0)));
+    }
+
+    @Test
+    void quandoEventoAtrasadoChegaEntreReconciliacoesNenhumaDivergenciaEContada () {
+        WhiskyDTO oldParr = WhiskyDTOBuilder.builder ().quantity (22).build ().toWhiskyDTO ();
+        when (whiskyRepository.summarizeByTypeAndBrand (LOW_STOCK_RATIO))
+                .thenReturn (Collections.singletonList (new Object[] {WhiskyType.OLDPARR, "Scotland", 1L, 20L, 50L, 0L}))
+                .thenReturn (Collections.singletonList (new Object[] {WhiskyType.OLDPARR, "Scotland", 1L, 22L, 50L, 0L}));
+
+        stockSummary.load ();
+        stockSummary.reconcile ();
+        stockSummary.onWhiskyChanged (WhiskyChangedEvent.updated (oldParr, 2));
+        stockSummary.reconcile ();
+        stockSummary.reconcile ();
+
+        assertThat (stockSummary.summary ().getQuantity (), is (equalTo (22L)));
+        assertThat (meterRegistry.get (StockSummary.MISMATCH_COUNTER).counter ().count (), is (equalTo (0.0)));
+    }
+
+    @Test
+    void quandoOutroGrupoMudaDuranteReconciliacaoGrupoDivergenteAindaECorrigido () {
+        WhiskyDTO jameson = WhiskyDTOBuilder.builder ().id (2L).name ("Jameson").brand ("Ireland")
+                .type (WhiskyType.JAMESON).max (100).quantity (50).build ().toWhiskyDTO ();
+        List<Object[]> loadedRows = Arrays.asList (new Object[] {WhiskyType.OLDPARR, "Scotland", 1L, 10L, 50L, 0L},
+                new Object[] {WhiskyType.JAMESON, "Ireland", 1L, 50L, 100L, 0L});
+        List<Object[]> driftedRows = Arrays.asList (new Object[] {WhiskyType.OLDPARR, "Scotland", 1L, 8L, 50L, 0L},
+                new Object[] {WhiskyType.JAMESON, "Ireland", 1L, 51L, 100L, 0L});
+        when (whiskyRepository.summarizeByTypeAndBrand (LOW_STOCK_RATIO))
+                .thenReturn (loadedRows)
+                .thenAnswer (invocation -> {
+                    jameson.setQuantity (jameson.getQuantity () + 1);
+                    stockSummary.onWhiskyChanged (WhiskyChangedEvent.updated (jameson, 1));
+                    return driftedRows;
+                });
+
+        stockSummary.load ();
+        stockSummary.reconcile ();
+        stockSummary.reconcile ();
+
+        assertThat (group (stockSummary.summary ().getByType (), "OLDPARR").getQuantity (), is (equalTo (8L)));
+        assertThat (group (stockSummary.summary ().getByType (), "JAMESON").getQuantity (), is (equalTo (52L)));
+        assertThat (meterRegistry.get (StockSummary.MISMATCH_COUNTER).counter ().count (), is (equalTo (1.0)));
+    }
+
+    @Test
+    void quandoResumoConfereComBancoNenhumaDivergenciaEContada () {
+        when (whiskyRepository.summarizeByTypeAndBrand (LOW_STOCK_RATIO))
+                .thenReturn (Collections.singletonList (new Object[] {WhiskyType.OLDPARR, "Scotland", 1L, 10L, 50L, 0L}));
+
+        stockSummary.load ();
+        stockSummary.reconcile ();
+
+        assertThat (stockSummary.summary ().getQuantity (), is (equalTo (10L)));
+        assertThat (meterRegistry.get (StockSummary.MISMATCH_COUNTER).counter ().count (), is (equalTo (0.0)));
+    }
+
+    private static StockSummaryGroupDTO group (List<StockSummaryGroupDTO> groups, String key) {
+        return groups.stream ().filter (group -> group.getKey ().equals (key)).findFirst ().orElseThrow ();
+    }
+}
@@ -0,0 +1,136 @@
+package one.digitalinnovation.whiskystock.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import one.digitalinnovation.whiskystock.config.WhiskyImportProperties;
+import one.digitalinnovation.whiskystock.dto.WhiskyImportResultDTO;
+import one.digitalinnovation.whiskystock.entity.Whisky;
+import one.digitalinnovation.whiskystock.enums.ImportFormat;
+import one.digitalinnovation.whiskystock.event.WhiskyChangedEvent;
+import one.digitalinnovation.whiskystock.repository.WhiskyRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceException;
+import javax.validation.Validation;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Set;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.startsWith;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class WhiskyImportServiceTest {
+
+    @Mock
+    private WhiskyRepository whiskyRepository;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private WhiskyImportService whiskyImportService;
+
+    @BeforeEach
+    void setUp () {
+        WhiskyImportProperties importProperties = new WhiskyImportProperties ();
+        importProperties.setChunkSize (2);
+        whiskyImportService = new WhiskyImportService (whiskyRepository, entityManager,
+                new TransactionTemplate (mock (PlatformTransactionManager.class)),
+                Validation.buildDefaultValidatorFactory ().getValidator (),
+                new ObjectMapper (), eventPublisher, importProperties);
+    }
+
+    @Test
+    void quandoCSVImportadoLinhasValidasSaoInseridasEDemaisRejeitadas () throws IOException {
+        String csv = "name,brand,max,quantity,type\n"
+                + "Old Parr,Scotland,50,10,OLDPARR\n"
+                + "Jameson,Ireland,50,200,JAMESON\n"
+                + "\"Grants, Triple Wood\",Scotland,50,5,grants\n"
+                + "White Horse,Scotland,50,5,WHITEHORSE\n";
+        when (whiskyRepository.findRegisteredNames (anyCollection ()))
+                .thenReturn (Collections.emptySet ())
+                .thenReturn (Set.of ("White Horse"));
+
+        WhiskyImportResultDTO result = whiskyImportService.importWhiskies (asStream (csv), ImportFormat.CSV);
+
+        assertThat (result.getImported (), is (equalTo (2L)));
+        assertThat (result.getRejected (), is (equalTo (2L)));
+        assertThat (result.getErrors ().get (0).getLine (), is (equalTo (3L)));
+        assertThat (result.getErrors ().get (0).getMessage (), startsWith ("quantity "));
+        assertThat (result.getErrors ().get (1).getName (), is (equalTo ("White Horse")));
+        verify (entityManager, times (2)).persist (any (Whisky.class));
+        verify (eventPublisher, times (2)).publishEvent (any (WhiskyChangedEvent.class));
+    }
+
+    @Test
+    void quandoNDJSONComLinhaMalformadaApenasEssaLinhaERejeitada () throws IOException {
+        String ndjson = "{\"name\":\"Old Parr\",\"brand\":\"Scotland\",\"max\":50,\"quantity\":10,\"type\":\"OLDPARR\"}\n"
+                + "{\"name\":\"Jameson\",\n"
+                + "{\"name\":\"Old Parr\",\"brand\":\"Scotland\",\"max\":50,\"quantity\":10,\"type\":\"OLDPARR\"}\n";
+        when (whiskyRepository.findRegisteredNames (anyCollection ())).thenReturn (Collections.emptySet ());
+
+        WhiskyImportResultDTO result = whiskyImportService.importWhiskies (asStream (ndjson), ImportFormat.NDJSON);
+
+        assertThat (result.getImported (), is (equalTo (1L)));
+        assertThat (result.getRejected (), is (equalTo (2L)));
+        assertThat (result.getErrors ().get (0).getLine (), is (equalTo (2L)));
+        assertThat (result.getErrors ().get (1).getMessage (), is (equalTo ("Whisky name repeated in the import.")));
+    }
+
+    @Test
+    void quandoFlushDoLoteFalhaLinhasDoLoteSaoRejeitadasEImportacaoContinua () throws IOException {
+        String csv = "name,brand,max,quantity,type\n"
+                + "Old Parr,Scotland,50,10,OLDPARR\n"
+                + "Jameson,Ireland,50,20,JAMESON\n"
+                + "White Horse,Scotland,50,5,WHITEHORSE\n";
+        when (whiskyRepository.findRegisteredNames (anyCollection ())).thenReturn (Collections.emptySet ());
+        doThrow (new PersistenceException ("unique constraint violated")).doNothing ().when (entityManager).flush ();
+
+        WhiskyImportResultDTO result = whiskyImportService.importWhiskies (asStream (csv), ImportFormat.CSV);
+
+        assertThat (result.getImported (), is (equalTo (1L)));
+        assertThat (result.getRejected (), is (equalTo (2L)));
+        assertThat (result.getErrors ().get (0).getMessage (), is (equalTo ("Chunk rejected: unique constraint violated")));
+        verify (eventPublisher, times (1)).publishEvent (any (WhiskyChangedEvent.class));
+    }
+
+    @Test
+    void quandoCabecalhoCSVIncompletoNadaEImportado () throws IOException {
+        WhiskyImportResultDTO result = whiskyImportService.importWhiskies (asStream ("name,brand\nOld Parr,Scotland\n"), ImportFormat.CSV);
+
+        assertThat (result.getImported (), is (equalTo (0L)));
+        assertThat (result.getErrors ().get (0).getMessage (), is (equalTo ("Missing CSV column: max")));
+    }
+
+    @Test
+    void quandoCampoCSVEntreAspasVirgulasEAspasSaoPreservadas () {
+        assertThat (WhiskyImportService.splitCsvLine ("\"Grants, \"\"Triple\"\" Wood\",Scotland,50"),
+                contains ("Grants, \"Triple\" Wood", "Scotland", "50"));
+    }
+
+    private static ByteArrayInputStream asStream (String content) {
+        return new ByteArrayInputStream (content.getBytes (StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,68 @@
+package one.digitalinnovation.whiskystock.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import one.digitalinnovation.whiskystock.builder.WhiskyDTOBuilder;
+import one.digitalinnovation.whiskystock.config.WhiskyCacheProperties;
+import one.digitalinnovation.whiskystock.dto.WhiskyDTO;
+import one.digitalinnovation.whiskystock.event.WhiskyChangedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+
+public class WhiskyNameCacheTest {
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private WhiskyNameCache whiskyNameCache;
+
+    @BeforeEach
+    void setUp () {
+        meterRegistry = new SimpleMeterRegistry ();
+        whiskyNameCache = new WhiskyNameCache (new WhiskyCacheProperties (), meterRegistry);
+    }
+
+    @Test
+    void quandoNomeInexistenteConsultadoResultadoNegativoFicaEmCache () {
+        AtomicInteger loads = new AtomicInteger ();
+
+        whiskyNameCache.get ("Old Parr", name -> countedLoad (loads, Optional.empty ()));
+        Optional<WhiskyDTO> cachedWhisky = whiskyNameCache.get ("Old Parr", name -> countedLoad (loads, Optional.empty ()));
+
+        assertThat (cachedWhisky.isPresent (), is (false));
+        assertThat (loads.get (), is (equalTo (1)));
+        assertThat (meterRegistry.get ("cache.gets").tags ("cache", WhiskyNameCache.CACHE_NAME, "result", "hit")
+                .functionCounter ().count (), is (equalTo (1.0)));
+    }
+
+    @Test
+    void quandoWhiskyCriadoResultadoNegativoEInvalidado () {
+        WhiskyDTO whiskyDTO = WhiskyDTOBuilder.builder ().build ().toWhiskyDTO ();
+        whiskyNameCache.get (whiskyDTO.getName (), name -> Optional.empty ());
+
+        whiskyNameCache.onWhiskyChanged (WhiskyChangedEvent.created (whiskyDTO));
+        Optional<WhiskyDTO> cachedWhisky = whiskyNameCache.get (whiskyDTO.getName (), name -> Optional.of (whiskyDTO));
+
+        assertThat (cachedWhisky.get (), is (equalTo (whiskyDTO)));
+    }
+
+    @Test
+    void quandoCopiaRetornadaEAlteradaValorEmCacheNaoMuda () {
+        WhiskyDTO whiskyDTO = WhiskyDTOBuilder.builder ().build ().toWhiskyDTO ();
+        whiskyNameCache.get (whiskyDTO.getName (), name -> Optional.of (whiskyDTO)).get ().setQuantity (0);
+
+        Optional<WhiskyDTO> cachedWhisky = whiskyNameCache.get (whiskyDTO.getName (), name -> Optional.empty ());
+
+        assertThat (cachedWhisky.get ().getQuantity (), is (equalTo (whiskyDTO.getQuantity ())));
+    }
+
+    private Optional<WhiskyDTO> countedLoad (AtomicInteger loads, Optional<WhiskyDTO> result) {
+        loads.incrementAndGet ();
+        return result;
+    }
+}
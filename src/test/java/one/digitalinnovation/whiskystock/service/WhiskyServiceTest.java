@@ -1,22 +1,37 @@
 package one.digitalinnovation.whiskystock.service;
 
 import one.digitalinnovation.whiskystock.builder.WhiskyDTOBuilder;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import one.digitalinnovation.whiskystock.config.WhiskyCacheProperties;
+import one.digitalinnovation.whiskystock.config.WhiskyStockProperties;
 import one.digitalinnovation.whiskystock.dto.WhiskyDTO;
+import one.digitalinnovation.whiskystock.dto.WhiskySearchCriteriaDTO;
+import one.digitalinnovation.whiskystock.dto.WhiskyStockAdjustmentDTO;
+import one.digitalinnovation.whiskystock.dto.WhiskyStockAdjustmentResultDTO;
 import one.digitalinnovation.whiskystock.entity.Whisky;
+import one.digitalinnovation.whiskystock.enums.StockAdjustmentStatus;
+import one.digitalinnovation.whiskystock.enums.StockMode;
+import one.digitalinnovation.whiskystock.event.WhiskyChangedEvent;
 import one.digitalinnovation.whiskystock.exception.WhiskyAlreadyRegisteredException;
 import one.digitalinnovation.whiskystock.exception.WhiskyNotFoundException;
+import one.digitalinnovation.whiskystock.exception.WhiskyStockConflictException;
 import one.digitalinnovation.whiskystock.exception.WhiskyStockExceededException;
 import one.digitalinnovation.whiskystock.mapper.WhiskyMapper;
 import one.digitalinnovation.whiskystock.repository.WhiskyRepository;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.OptionalInt;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.*;
@@ -26,9 +41,13 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -39,6 +58,30 @@ public class WhiskyServiceTest {
     @Mock
     private WhiskyRepository whiskyRepository;
 
+    @Mock
+    private StockLedger stockLedger;
+
+    @Mock
+    private StockCoalescer stockCoalescer;
+
+    @Mock
+    private LocationStockService locationStockService;
+
+    @Mock
+    private CatalogVersions catalogVersions;
+
+    @Spy
+    private StockHolds stockHolds = new StockHolds ();
+
+    @Spy
+    private WhiskyNameCache whiskyNameCache = new WhiskyNameCache (new WhiskyCacheProperties (), new SimpleMeterRegistry ());
+
+    @Spy
+    private WhiskyStockProperties stockProperties = new WhiskyStockProperties ();
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     private WhiskyMapper whiskyMapper = WhiskyMapper.INSTANCE;
 
     @InjectMocks
@@ -90,6 +133,20 @@ public class WhiskyServiceTest {
         assertThat (foundWhiskyDTO, is (equalTo (expectedFoundWhiskyDTO)));
     }
 
+    @Test
+    void quandoNomeConsultadoDuasVezesORepositorioEChamadoUmaVez () throws WhiskyNotFoundException {
+        WhiskyDTO expectedFoundWhiskyDTO = WhiskyDTOBuilder.builder ().build ().toWhiskyDTO ();
+        Whisky expectedFoundWhisky = whiskyMapper.toModel (expectedFoundWhiskyDTO);
+
+        when (whiskyRepository.findByName (expectedFoundWhisky.getName ())).thenReturn (Optional.of (expectedFoundWhisky));
+
+        whiskyService.findByName (expectedFoundWhiskyDTO.getName ());
+        WhiskyDTO foundWhiskyDTO = whiskyService.findByName (expectedFoundWhiskyDTO.getName ());
+
+        assertThat (foundWhiskyDTO, is (equalTo (expectedFoundWhiskyDTO)));
+        verify (whiskyRepository, times (1)).findByName (expectedFoundWhiskyDTO.getName ());
+    }
+
     @Test
     void quandoWhiskySemRegistroEDadoRetornaUmaExcecao () {
         // given
@@ -118,6 +175,20 @@ public class WhiskyServiceTest {
         assertThat (foundListBeersDTO.get (0), is (equalTo (expectedFoundWhiskyDTO)));
     }
 
+    @Test
+    void quandoModoLedgerAtivoListaMostraQuantidadeDoLedger () {
+        WhiskyDTO expectedFoundWhiskyDTO = WhiskyDTOBuilder.builder ().quantity (10).build ().toWhiskyDTO ();
+        Whisky expectedFoundWhisky = whiskyMapper.toModel (expectedFoundWhiskyDTO);
+        stockProperties.setMode (StockMode.LEDGER);
+
+        when (whiskyRepository.findByIdGreaterThanOrderByIdAsc (eq (0L), any ())).thenReturn (Collections.singletonList (expectedFoundWhisky));
+        when (stockLedger.currentQuantity (expectedFoundWhiskyDTO.getId ())).thenReturn (OptionalInt.of (4));
+
+        List<WhiskyDTO> foundWhiskies = whiskyService.listPage (null, 10);
+
+        assertThat (foundWhiskies.get (0).getQuantity (), is (equalTo (4)));
+    }
+
     @Test
     void quandoUmaListaVaziaEChamadaRetornaListaVaziaWhiskies () {
         //when
@@ -129,6 +200,25 @@ public class WhiskyServiceTest {
         assertThat (foundListBeersDTO, is (empty ()));
     }
 
+    @Test
+    void quandoBuscaPorCriteriosEChamadaRetornaWhiskiesComLimite () {
+        // given
+        WhiskyDTO expectedFoundWhiskyDTO = WhiskyDTOBuilder.builder ().build ().toWhiskyDTO ();
+        Whisky expectedFoundWhisky = whiskyMapper.toModel (expectedFoundWhiskyDTO);
+        WhiskySearchCriteriaDTO criteria = WhiskySearchCriteriaDTO.builder ()
+                .type (expectedFoundWhiskyDTO.getType ())
+                .maxFillRatio (0.2)
+                .build ();
+
+        //when
+        when (whiskyRepository.findLowestQuantity (any (), eq (10))).thenReturn (Collections.singletonList (expectedFoundWhisky));
+
+        //then
+        List<WhiskyDTO> foundWhiskies = whiskyService.search (criteria, 10);
+
+        assertThat (foundWhiskies, is (equalTo (Collections.singletonList (expectedFoundWhiskyDTO))));
+    }
+
     @Test
     void quandoExclusaoSolicitadaDeIDValidoWhiskyEDeletado () throws WhiskyNotFoundException {
         // given
@@ -202,9 +292,10 @@ public class WhiskyServiceTest {
         WhiskyDTO expectedWhiskyDTO = WhiskyDTOBuilder.builder ().build ().toWhiskyDTO ();
         Whisky expectedWhisky = whiskyMapper.toModel (expectedWhiskyDTO);
 
-        when (whiskyRepository.findById (expectedWhiskyDTO.getId ())).thenReturn (Optional.of (expectedWhisky));
-        when (whiskyRepository.save (expectedWhisky)).thenReturn (expectedWhisky);
-//
+        expectedWhisky.setQuantity (expectedWhiskyDTO.getQuantity () - 5);
+
+        when (whiskyRepository.adjustIfWithinBounds (expectedWhiskyDTO.getId (), -5, 0)).thenReturn (Optional.of (expectedWhisky));
+
         int quantityToDecrement = 5;
         int expectedQuantityAfterDecrement = expectedWhiskyDTO.getQuantity () - quantityToDecrement;
         WhiskyDTO incrementedBeerDTO = whiskyService.decrement (expectedWhiskyDTO.getId (), quantityToDecrement);
@@ -218,8 +309,9 @@ public class WhiskyServiceTest {
         WhiskyDTO expectedWhiskyDTO = WhiskyDTOBuilder.builder ().build ().toWhiskyDTO ();
         Whisky expectedWhisky = whiskyMapper.toModel (expectedWhiskyDTO);
 
-        when (whiskyRepository.findById (expectedWhiskyDTO.getId ())).thenReturn (Optional.of (expectedWhisky));
-        when (whiskyRepository.save (expectedWhisky)).thenReturn (expectedWhisky);
+        expectedWhisky.setQuantity (0);
+
+        when (whiskyRepository.adjustIfWithinBounds (expectedWhiskyDTO.getId (), -10, 0)).thenReturn (Optional.of (expectedWhisky));
 
         int quantityToDecrement = 10;
         int expectedQuantityAfterDecrement = expectedWhiskyDTO.getQuantity () - quantityToDecrement;
@@ -232,9 +324,9 @@ public class WhiskyServiceTest {
     @Test
     void QuandoDecrementoSolicitadoEmEstoqueVazioUmaExcecaoERetornada () {
         WhiskyDTO expectedWhiskyDTO = WhiskyDTOBuilder.builder ().build ().toWhiskyDTO ();
-        Whisky expectedWhisky = whiskyMapper.toModel (expectedWhiskyDTO);
 
-        when (whiskyRepository.findById (expectedWhiskyDTO.getId ())).thenReturn (Optional.of (expectedWhisky));
+        when (whiskyRepository.adjustIfWithinBounds (expectedWhiskyDTO.getId (), -80, 0)).thenReturn (Optional.empty ());
+        when (whiskyRepository.existsById (expectedWhiskyDTO.getId ())).thenReturn (true);
 
         int quantityToDecrement = 80;
         assertThrows (WhiskyStockExceededException.class, () -> whiskyService.decrement (expectedWhiskyDTO.getId (), quantityToDecrement));
@@ -244,8 +336,208 @@ public class WhiskyServiceTest {
     void quandoDecrementoSolicitadoParaIDInvalidoRetornaUmaExcecao () {
         int quantityToDecrement = 10;
 
-        when (whiskyRepository.findById (INVALID_WHISKY_ID)).thenReturn (Optional.empty ());
+        when (whiskyRepository.adjustIfWithinBounds (INVALID_WHISKY_ID, -quantityToDecrement, 0)).thenReturn (Optional.empty ());
+        when (whiskyRepository.existsById (INVALID_WHISKY_ID)).thenReturn (false);
 
         assertThrows (WhiskyNotFoundException.class, () -> whiskyService.decrement (INVALID_WHISKY_ID, quantityToDecrement));
     }
+
+    @Test
+    void quandoConflitoDeVersaoNoIncrementoOperacaoERepetida () throws WhiskyNotFoundException, WhiskyStockExceededException {
+        WhiskyDTO expectedWhiskyDTO = WhiskyDTOBuilder.builder ().build ().toWhiskyDTO ();
+        Whisky staleWhisky = whiskyMapper.toModel (expectedWhiskyDTO);
+        Whisky freshWhisky = whiskyMapper.toModel (expectedWhiskyDTO);
+        freshWhisky.setQuantity (12);
+
+        when (whiskyRepository.findById (expectedWhiskyDTO.getId ()))
+                .thenReturn (Optional.of (staleWhisky), Optional.of (freshWhisky));
+        when (whiskyRepository.save (staleWhisky))
+                .thenThrow (new ObjectOptimisticLockingFailureException (Whisky.class, expectedWhiskyDTO.getId ()));
+        when (whiskyRepository.save (freshWhisky)).thenReturn (freshWhisky);
+
+        WhiskyDTO incrementedWhiskyDTO = whiskyService.increment (expectedWhiskyDTO.getId (), 10);
+
+        assertThat (incrementedWhiskyDTO.getQuantity (), is (equalTo (22)));
+        verify (whiskyRepository, times (2)).findById (expectedWhiskyDTO.getId ());
+    }
+
+    @Test
+    void quandoConflitosDeVersaoEsgotamTentativasUmaExcecaoERetornada () {
+        WhiskyDTO expectedWhiskyDTO = WhiskyDTOBuilder.builder ().build ().toWhiskyDTO ();
+        stockProperties.getOptimistic ().setMaxAttempts (3);
+        stockProperties.getOptimistic ().setBackoffMs (0);
+
+        when (whiskyRepository.findById (expectedWhiskyDTO.getId ()))
+                .thenAnswer (invocation -> Optional.of (whiskyMapper.toModel (expectedWhiskyDTO)));
+        when (whiskyRepository.save (any (Whisky.class)))
+                .thenThrow (new ObjectOptimisticLockingFailureException (Whisky.class, expectedWhiskyDTO.getId ()));
+
+        assertThrows (WhiskyStockConflictException.class, () -> whiskyService.increment (expectedWhiskyDTO.getId (), 10));
+        verify (whiskyRepository, times (3)).save (any (Whisky.class));
+    }
+
+    @Test
+    void quandoModoAtomicoUpdateNaoAfetaLinhasUmaExcecaoERetornada () {
+        WhiskyDTO expectedWhiskyDTO = WhiskyDTOBuilder.builder ().build ().toWhiskyDTO ();
+        stockProperties.setMode (StockMode.ATOMIC);
+
+        when (whiskyRepository.adjustIfWithinBounds (expectedWhiskyDTO.getId (), 80, 0)).thenReturn (Optional.empty ());
+        when (whiskyRepository.existsById (expectedWhiskyDTO.getId ())).thenReturn (true);
+
+        assertThrows (WhiskyStockExceededException.class, () -> whiskyService.increment (expectedWhiskyDTO.getId (), 80));
+    }
+
+    @Test
+    void quandoModoLedgerAtivoIncrementoNaoAcessaORepositorio () throws WhiskyNotFoundException, WhiskyStockExceededException {
+        WhiskyDTO expectedWhiskyDTO = WhiskyDTOBuilder.builder ().quantity (20).build ().toWhiskyDTO ();
+        stockProperties.setMode (StockMode.LEDGER);
+
+        when (stockLedger.tryAdjust (expectedWhiskyDTO.getId (), 10)).thenReturn (StockAdjustment.applied (expectedWhiskyDTO, 10));
+
+        WhiskyDTO incrementedWhiskyDTO = whiskyService.increment (expectedWhiskyDTO.getId (), 10);
+
+        assertThat (incrementedWhiskyDTO, is (equalTo (expectedWhiskyDTO)));
+        verifyNoInteractions (whiskyRepository);
+        verify (eventPublisher, times (1)).publishEvent (any (WhiskyChangedEvent.class));
+    }
+
+    @Test
+    void quandoModoLedgerAtivoDecrementoEDelegadoComDeltaNegativo () throws WhiskyNotFoundException, WhiskyStockExceededException {
+        WhiskyDTO expectedWhiskyDTO = WhiskyDTOBuilder.builder ().quantity (5).build ().toWhiskyDTO ();
+        stockProperties.setMode (StockMode.LEDGER);
+
+        when (stockLedger.tryAdjust (expectedWhiskyDTO.getId (), -5, 0)).thenReturn (StockAdjustment.applied (expectedWhiskyDTO, -5));
+
+        WhiskyDTO decrementedWhiskyDTO = whiskyService.decrement (expectedWhiskyDTO.getId (), 5);
+
+        assertThat (decrementedWhiskyDTO.getQuantity (), is (equalTo (5)));
+        verifyNoInteractions (whiskyRepository);
+    }
+
+    @Test
+    void quandoModoCoalescenteAtivoIncrementoEDelegadoSemPublicarEvento () throws WhiskyNotFoundException, WhiskyStockExceededException {
+        WhiskyDTO expectedWhiskyDTO = WhiskyDTOBuilder.builder ().quantity (20).build ().toWhiskyDTO ();
+        stockProperties.setMode (StockMode.COALESCING);
+
+        when (stockCoalescer.tryAdjust (expectedWhiskyDTO.getId (), 10)).thenReturn (StockAdjustment.applied (expectedWhiskyDTO, 10));
+
+        WhiskyDTO incrementedWhiskyDTO = whiskyService.increment (expectedWhiskyDTO.getId (), 10);
+
+        assertThat (incrementedWhiskyDTO, is (equalTo (expectedWhiskyDTO)));
+        verifyNoInteractions (whiskyRepository);
+        verifyNoInteractions (eventPublisher);
+    }
+
+    @Test
+    void quandoEstoqueReservadoDecrementoSimplesNaoPodeUsaLo () {
+        WhiskyDTO expectedWhiskyDTO = WhiskyDTOBuilder.builder ().quantity (10).build ().toWhiskyDTO ();
+        stockHolds.counter (expectedWhiskyDTO.getId ()).set (4);
+
+        when (whiskyRepository.adjustIfWithinBounds (expectedWhiskyDTO.getId (), -8, 4)).thenReturn (Optional.empty ());
+        when (whiskyRepository.existsById (expectedWhiskyDTO.getId ())).thenReturn (true);
+
+        assertThrows (WhiskyStockExceededException.class, () -> whiskyService.decrement (expectedWhiskyDTO.getId (), 8));
+    }
+
+    @Test
+    void quandoReservaConfirmadaDecrementoPodeUsarApenasOProprioEstoqueReservado () throws WhiskyNotFoundException, WhiskyStockExceededException {
+        WhiskyDTO expectedWhiskyDTO = WhiskyDTOBuilder.builder ().quantity (10).build ().toWhiskyDTO ();
+        Whisky decrementedWhisky = whiskyMapper.toModel (expectedWhiskyDTO);
+        decrementedWhisky.setQuantity (6);
+        stockHolds.counter (expectedWhiskyDTO.getId ()).set (7);
+
+        when (whiskyRepository.adjustIfWithinBounds (expectedWhiskyDTO.getId (), -4, 3)).thenReturn (Optional.of (decrementedWhisky));
+
+        WhiskyDTO decrementedWhiskyDTO = whiskyService.decrementHeld (expectedWhiskyDTO.getId (), 4);
+
+        assertThat (decrementedWhiskyDTO.getQuantity (), is (equalTo (6)));
+    }
+
+    @Test
+    void quandoDecrementoSemEstoqueResultadoIndicaEstoqueExcedidoSemExcecao () {
+        WhiskyDTO expectedWhiskyDTO = WhiskyDTOBuilder.builder ().quantity (5).build ().toWhiskyDTO ();
+
+        when (whiskyRepository.adjustIfWithinBounds (expectedWhiskyDTO.getId (), -10, 0)).thenReturn (Optional.empty ());
+        when (whiskyRepository.existsById (expectedWhiskyDTO.getId ())).thenReturn (true);
+
+        StockAdjustment stockAdjustment = whiskyService.tryDecrement (expectedWhiskyDTO.getId (), 10);
+
+        assertThat (stockAdjustment.getStatus (), is (equalTo (StockAdjustmentStatus.STOCK_EXCEEDED)));
+        assertThat (stockAdjustment.isApplied (), is (false));
+        verifyNoInteractions (eventPublisher);
+    }
+
+    @Test
+    void quandoIncrementoComIDInvalidoResultadoIndicaNaoEncontrado () {
+        when (whiskyRepository.findById (INVALID_WHISKY_ID)).thenReturn (Optional.empty ());
+
+        StockAdjustment stockAdjustment = whiskyService.tryIncrement (INVALID_WHISKY_ID, 10);
+
+        assertThat (stockAdjustment.getStatus (), is (equalTo (StockAdjustmentStatus.NOT_FOUND)));
+        assertThat (stockAdjustment.getWhisky (), is (nullValue ()));
+    }
+
+    @Test
+    void quandoAjusteEmLoteSolicitadoCadaItemTemSeuResultado () {
+        WhiskyDTO expectedWhiskyDTO = WhiskyDTOBuilder.builder ().build ().toWhiskyDTO ();
+        Whisky expectedWhisky = whiskyMapper.toModel (expectedWhiskyDTO);
+
+        List<WhiskyStockAdjustmentDTO> adjustments = Arrays.asList (
+                new WhiskyStockAdjustmentDTO (expectedWhiskyDTO.getId (), 15),
+                new WhiskyStockAdjustmentDTO (INVALID_WHISKY_ID + 1, 5),
+                new WhiskyStockAdjustmentDTO (expectedWhiskyDTO.getId (), -30),
+                new WhiskyStockAdjustmentDTO (expectedWhiskyDTO.getId (), -5));
+
+        when (whiskyRepository.findAllById (Arrays.asList (expectedWhiskyDTO.getId (), INVALID_WHISKY_ID + 1)))
+                .thenReturn (Collections.singletonList (expectedWhisky));
+
+        List<WhiskyStockAdjustmentResultDTO> results = whiskyService.adjustAll (adjustments);
+
+        assertThat (results.get (0).getStatus (), is (equalTo (StockAdjustmentStatus.APPLIED)));
+        assertThat (results.get (0).getQuantity (), is (equalTo (25)));
+        assertThat (results.get (1).getStatus (), is (equalTo (StockAdjustmentStatus.NOT_FOUND)));
+        assertThat (results.get (2).getStatus (), is (equalTo (StockAdjustmentStatus.STOCK_EXCEEDED)));
+        assertThat (results.get (3).getQuantity (), is (equalTo (20)));
+        assertThat (expectedWhisky.getQuantity (), is (equalTo (20)));
+        verify (whiskyRepository, times (1)).saveAll (Collections.singletonList (expectedWhisky));
+    }
+
+    @Test
+    void quandoFlushDoAjusteEmLoteConflitaUmaExcecaoDeConflitoERetornada () {
+        WhiskyDTO expectedWhiskyDTO = WhiskyDTOBuilder.builder ().build ().toWhiskyDTO ();
+        Whisky expectedWhisky = whiskyMapper.toModel (expectedWhiskyDTO);
+        List<WhiskyStockAdjustmentDTO> adjustments = Collections.singletonList (new WhiskyStockAdjustmentDTO (expectedWhiskyDTO.getId (), 5));
+
+        when (whiskyRepository.findAllById (Collections.singletonList (expectedWhiskyDTO.getId ())))
+                .thenReturn (Collections.singletonList (expectedWhisky));
+        doThrow (new ObjectOptimisticLockingFailureException (Whisky.class, expectedWhiskyDTO.getId ()))
+                .when (whiskyRepository).flush ();
+
+        assertThrows (WhiskyStockConflictException.class, () -> whiskyService.adjustAll (adjustments));
+        verifyNoInteractions (eventPublisher);
+    }
+
+    @Test
+    void quandoModoAtomicoAjusteEmLoteUsaUpdateCondicionalPorItem () {
+        WhiskyDTO expectedWhiskyDTO = WhiskyDTOBuilder.builder ().build ().toWhiskyDTO ();
+        Whisky adjustedWhisky = whiskyMapper.toModel (expectedWhiskyDTO);
+        adjustedWhisky.setQuantity (15);
+        stockProperties.setMode (StockMode.ATOMIC);
+        stockHolds.counter (expectedWhiskyDTO.getId ()).set (4);
+        List<WhiskyStockAdjustmentDTO> adjustments = Arrays.asList (
+                new WhiskyStockAdjustmentDTO (expectedWhiskyDTO.getId (), 5),
+                new WhiskyStockAdjustmentDTO (expectedWhiskyDTO.getId (), -12));
+
+        when (whiskyRepository.adjustIfWithinBounds (expectedWhiskyDTO.getId (), 5, 0)).thenReturn (Optional.of (adjustedWhisky));
+        when (whiskyRepository.adjustIfWithinBounds (expectedWhiskyDTO.getId (), -12, 4)).thenReturn (Optional.empty ());
+        when (whiskyRepository.existsById (expectedWhiskyDTO.getId ())).thenReturn (true);
+
+        List<WhiskyStockAdjustmentResultDTO> results = whiskyService.adjustAll (adjustments);
+
+        assertThat (results.get (0).getStatus (), is (equalTo (StockAdjustmentStatus.APPLIED)));
+        assertThat (results.get (0).getQuantity (), is (equalTo (15)));
+        assertThat (results.get (1).getStatus (), is (equalTo (StockAdjustmentStatus.STOCK_EXCEEDED)));
+        verify (whiskyRepository, times (0)).findAllById (any ());
+        verify (eventPublisher, times (1)).publishEvent (any (WhiskyChangedEvent.class));
+    }
 }